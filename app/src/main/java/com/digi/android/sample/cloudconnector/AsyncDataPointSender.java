@@ -0,0 +1,861 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data point sender that performs the uploads from a dedicated thread and
+ * returns a {@link SendFuture} for each of them.
+ *
+ * <p>Submitted uploads wait in the bounded queue of their
+ * {@link SendLane}. When it is full, the {@link BackpressurePolicy} of the
+ * lane decides whether the producer blocks, the oldest queued upload is
+ * dropped or the new one is rejected. The number of uploads waiting for
+ * their result is also limited, so a slow link fills the queues instead of
+ * the heap.</p>
+ *
+ * <p>The first lane has strict priority: its uploads are always sent before
+ * the ones of the other lanes, and a few in flight slots are reserved for
+ * it, so it does not wait behind a saturated lane. The rest of the lanes
+ * share the link by deficit round robin, weighted by the number of data
+ * points of each upload. Uploads are routed to a lane by the path of their
+ * data stream, see {@link #setLane(String, int)}.</p>
+ *
+ * <p>A {@link BandwidthGovernor} can limit the rate and the budget of the
+ * lanes. A throttled lane is skipped until it has tokens again, so the
+ * producers only wait when the queue of their lane is full.</p>
+ *
+ * <p>The Cloud Connector service does not say which upload a
+ * {@code sendDataPointsSuccess()}/{@code sendDataPointsError()} event
+ * belongs to, so they are matched with the uploads in the order they were
+ * made. The owner must report them with {@link #onSendSuccess()} and
+ * {@link #onSendError(String)}. Uploads that do not get a result in time
+ * fail with a timeout; as they are older than the ones still in flight, the
+ * next results are taken as their late results and dropped, so they do not
+ * complete the wrong uploads. A result that does not arrive within another
+ * timeout is considered lost.</p>
+ *
+ * <p>The latency and result of every upload are recorded in the given
+ * {@link SendStatistics}.</p>
+ */
+class AsyncDataPointSender implements IDataPointSender {
+
+	/**
+	 * Policy applied when the queue of pending uploads is full.
+	 */
+	enum BackpressurePolicy {
+		/** The producer waits until there is room in the queue. */
+		BLOCK,
+		/** The oldest queued upload is dropped. */
+		DROP_OLDEST,
+		/** The new upload is rejected. */
+		REJECT
+	}
+
+	// Constants.
+	private final static int MAX_IN_FLIGHT = 16;
+	// In flight slots that only the first lane can use.
+	private final static int PRIORITY_IN_FLIGHT = 2;
+
+	// Deficit added to a lane for each unit of weight.
+	private final static int QUANTUM = CloudConnectorManager.MAXIMUM_DATA_POINTS;
+
+	private final static String DEFAULT_LANE_NAME = "default";
+
+	final static long DEFAULT_RESULT_TIMEOUT = 60000;
+
+	private final static long EXPIRATION_CHECK_INTERVAL = 1000;
+
+	private final static String ERROR_DROPPED = "Upload dropped, too many pending uploads";
+	final static String ERROR_REJECTED = "Upload rejected, too many pending uploads";
+	private final static String ERROR_TIMEOUT = "Upload result not received in time";
+	private final static String ERROR_CLOSED = "Sender closed";
+	private final static String ERROR_CANCELLED = "Upload cancelled";
+	final static String ERROR_DEFERRED = "Binary upload deferred, bandwidth budget running low";
+
+	// Variables.
+	private final IDataPointSender sender;
+
+	private final Lane[] lanes;
+
+	private final ArrayDeque<Upload> inFlight = new ArrayDeque<>();
+
+	// Expiration times of the uploads whose result is still expected.
+	private final ArrayDeque<Long> expired = new ArrayDeque<>();
+
+	private volatile long resultTimeout = DEFAULT_RESULT_TIMEOUT;
+
+	private volatile Route[] routes = new Route[0];
+
+	private volatile int defaultLane;
+
+	private BandwidthGovernor governor;
+
+	// Time until a throttled lane can send, 0 if none is throttled.
+	private long throttleDelay;
+
+	private int queued;
+
+	private int nextWeightedLane = 1;
+
+	private final SendStatistics statistics;
+
+	private final Thread senderThread;
+
+	private boolean closed;
+
+	/**
+	 * Class constructor. Instantiates a new {@code AsyncDataPointSender} with
+	 * a single lane using the given parameters.
+	 *
+	 * @param sender The sender to perform the uploads with.
+	 * @param capacity The maximum number of queued uploads.
+	 * @param policy The policy to apply when the queue is full.
+	 * @param statistics The statistics to record the uploads in.
+	 *
+	 * @throws IllegalArgumentException If the capacity is not positive.
+	 */
+	AsyncDataPointSender(IDataPointSender sender, int capacity, BackpressurePolicy policy, SendStatistics statistics) {
+		this(sender, new SendLane[] {new SendLane(DEFAULT_LANE_NAME, 1, capacity, policy)}, statistics);
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code AsyncDataPointSender} using
+	 * the given parameters. Uploads go to the first lane until
+	 * {@link #setDefaultLane(int)} or {@link #setLane(String, int)} say
+	 * otherwise.
+	 *
+	 * @param sender The sender to perform the uploads with.
+	 * @param lanes The lanes, the first one with strict priority.
+	 * @param statistics The statistics to record all the uploads in.
+	 *
+	 * @throws IllegalArgumentException If there are no lanes.
+	 */
+	AsyncDataPointSender(IDataPointSender sender, SendLane[] lanes, SendStatistics statistics) {
+		if (lanes.length == 0)
+			throw new IllegalArgumentException("At least one lane is required.");
+
+		this.sender = sender;
+		this.statistics = statistics;
+		this.lanes = new Lane[lanes.length];
+		for (int i = 0; i < lanes.length; i++)
+			this.lanes[i] = new Lane(i, lanes[i]);
+
+		senderThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				processUploads();
+			}
+		}, "DataPointSender");
+		senderThread.setDaemon(true);
+		senderThread.start();
+	}
+
+	@Override
+	public boolean isConnected() {
+		return sender.isConnected();
+	}
+
+	@Override
+	public void sendDataPoints(List<DataPoint> dataPoints) {
+		submit(dataPoints);
+	}
+
+	@Override
+	public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+		submitBinary(dataPoint);
+	}
+
+	/**
+	 * Submits the given list of data points to be uploaded in the default
+	 * lane.
+	 *
+	 * @param dataPoints The data points to upload.
+	 *
+	 * @return The future result of the upload.
+	 */
+	SendFuture submit(List<DataPoint> dataPoints) {
+		return enqueue(new Upload(lanes[defaultLane], dataPoints, null, dataPoints.size(),
+				BandwidthGovernor.estimateSize(dataPoints.size())));
+	}
+
+	/**
+	 * Submits the given list of data points to be uploaded in the lane of
+	 * the given data stream.
+	 *
+	 * @param dataPoints The data points to upload.
+	 * @param streamPath The path of the data stream of the data points.
+	 *
+	 * @return The future result of the upload.
+	 */
+	SendFuture submit(List<DataPoint> dataPoints, String streamPath) {
+		return enqueue(new Upload(lanes[getLane(streamPath)], dataPoints, null, dataPoints.size(),
+				BandwidthGovernor.estimateSize(dataPoints.size())));
+	}
+
+	/**
+	 * Submits the given list of data points to be uploaded in the given
+	 * lane.
+	 *
+	 * @param dataPoints The data points to upload.
+	 * @param lane The index of the lane.
+	 *
+	 * @return The future result of the upload.
+	 *
+	 * @throws IndexOutOfBoundsException If the lane does not exist.
+	 */
+	SendFuture submitToLane(List<DataPoint> dataPoints, int lane) {
+		checkLane(lane);
+		return enqueue(new Upload(lanes[lane], dataPoints, null, dataPoints.size(),
+				BandwidthGovernor.estimateSize(dataPoints.size())));
+	}
+
+	/**
+	 * Submits the given binary data point to be uploaded in the default
+	 * lane.
+	 *
+	 * @param dataPoint The binary data point to upload.
+	 *
+	 * @return The future result of the upload.
+	 */
+	SendFuture submitBinary(BinaryDataPoint dataPoint) {
+		return enqueue(new Upload(lanes[defaultLane], null, dataPoint, 1,
+				BandwidthGovernor.MESSAGE_OVERHEAD + BandwidthGovernor.BINARY_SIZE));
+	}
+
+	/**
+	 * Submits the given binary data point to be uploaded in the lane of the
+	 * given data stream.
+	 *
+	 * @param dataPoint The binary data point to upload.
+	 * @param streamPath The path of the data stream of the data point.
+	 * @param size The size of the payload of the data point, in bytes.
+	 *
+	 * @return The future result of the upload.
+	 */
+	SendFuture submitBinary(BinaryDataPoint dataPoint, String streamPath, int size) {
+		return enqueue(new Upload(lanes[getLane(streamPath)], null, dataPoint, 1,
+				BandwidthGovernor.MESSAGE_OVERHEAD + size));
+	}
+
+	/**
+	 * Routes the uploads of the data streams whose path starts with the given
+	 * prefix to the given lane. The longest matching prefix wins.
+	 *
+	 * @param pathPrefix The prefix of the data stream paths.
+	 * @param lane The index of the lane.
+	 *
+	 * @throws IndexOutOfBoundsException If the lane does not exist.
+	 */
+	synchronized void setLane(String pathPrefix, int lane) {
+		checkLane(lane);
+		ArrayList<Route> newRoutes = new ArrayList<>(Arrays.asList(routes));
+		for (int i = 0; i < newRoutes.size(); i++) {
+			if (newRoutes.get(i).prefix.equals(pathPrefix))
+				newRoutes.remove(i--);
+		}
+		newRoutes.add(new Route(pathPrefix, lane));
+		Route[] sorted = newRoutes.toArray(new Route[0]);
+		Arrays.sort(sorted, new Comparator<Route>() {
+			@Override
+			public int compare(Route route1, Route route2) {
+				return route2.prefix.length() - route1.prefix.length();
+			}
+		});
+		routes = sorted;
+	}
+
+	/**
+	 * Sets the lane of the uploads that do not match any route.
+	 *
+	 * @param lane The index of the lane.
+	 *
+	 * @throws IndexOutOfBoundsException If the lane does not exist.
+	 */
+	void setDefaultLane(int lane) {
+		checkLane(lane);
+		defaultLane = lane;
+	}
+
+	/**
+	 * Returns the lane of the uploads that do not match any route.
+	 *
+	 * @return The index of the lane.
+	 */
+	int getDefaultLane() {
+		return defaultLane;
+	}
+
+	/**
+	 * Returns the lane of the given data stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 *
+	 * @return The index of the lane.
+	 */
+	int getLane(String streamPath) {
+		for (Route route : routes) {
+			if (streamPath.startsWith(route.prefix))
+				return route.lane;
+		}
+		return defaultLane;
+	}
+
+	/**
+	 * Sets the governor that limits the bandwidth of the lanes.
+	 *
+	 * @param governor The bandwidth governor, {@code null} for no limits.
+	 */
+	synchronized void setGovernor(BandwidthGovernor governor) {
+		this.governor = governor;
+		notifyAll();
+	}
+
+	/**
+	 * Returns the governor that limits the bandwidth of the lanes.
+	 *
+	 * @return The bandwidth governor, {@code null} if there is none.
+	 */
+	synchronized BandwidthGovernor getGovernor() {
+		return governor;
+	}
+
+	/**
+	 * Returns the configuration and statistics of the lanes.
+	 *
+	 * @return The lanes, the first one with strict priority.
+	 */
+	SendLane[] getLanes() {
+		SendLane[] result = new SendLane[lanes.length];
+		for (int i = 0; i < lanes.length; i++)
+			result[i] = lanes[i].config;
+		return result;
+	}
+
+	/**
+	 * Returns the number of uploads waiting in the queues.
+	 *
+	 * @return The queue depth.
+	 */
+	synchronized int getQueueSize() {
+		return queued;
+	}
+
+	/**
+	 * Returns the number of uploads waiting for their result.
+	 *
+	 * @return The number of uploads in flight.
+	 */
+	synchronized int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	/**
+	 * Returns the statistics the uploads are recorded in.
+	 *
+	 * @return The upload statistics.
+	 */
+	SendStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Cancels an upload that has not been sent yet, failing it.
+	 *
+	 * @param future The future of the upload to cancel.
+	 *
+	 * @return {@code true} if the upload was cancelled, {@code false} if it
+	 *         was already sent or completed.
+	 */
+	boolean cancel(SendFuture future) {
+		Upload upload = null;
+		synchronized (this) {
+			for (int i = 0; i < lanes.length && upload == null; i++) {
+				Iterator<Upload> iterator = lanes[i].queue.iterator();
+				while (iterator.hasNext()) {
+					Upload queuedUpload = iterator.next();
+					if (queuedUpload.future == future) {
+						iterator.remove();
+						queued--;
+						upload = queuedUpload;
+						break;
+					}
+				}
+			}
+			if (upload == null)
+				return false;
+			updateDepth();
+			// Wake up the producers waiting for room.
+			notifyAll();
+		}
+		fail(upload, ERROR_CANCELLED, true);
+		return true;
+	}
+
+	/**
+	 * Sets the time to wait for the result of an upload before failing it.
+	 *
+	 * @param resultTimeout The timeout in milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the timeout is not positive.
+	 */
+	void setResultTimeout(long resultTimeout) {
+		if (resultTimeout <= 0)
+			throw new IllegalArgumentException("Invalid result timeout.");
+		this.resultTimeout = resultTimeout;
+	}
+
+	/**
+	 * Returns the time to wait for the result of an upload before failing
+	 * it.
+	 *
+	 * @return The timeout in milliseconds.
+	 */
+	long getResultTimeout() {
+		return resultTimeout;
+	}
+
+	/**
+	 * Notifies that the oldest upload in flight succeeded.
+	 */
+	void onSendSuccess() {
+		Upload upload;
+		synchronized (this) {
+			upload = pollResult();
+			updateDepth();
+			notifyAll();
+		}
+		if (upload != null) {
+			statistics.recordSuccess(upload.points, upload.future.getCreationTime(), upload.future.getSentTime());
+			upload.lane.config.getStatistics().recordSuccess(upload.points, upload.future.getCreationTime(),
+					upload.future.getSentTime());
+			upload.future.complete();
+		}
+	}
+
+	/**
+	 * Notifies that the oldest upload in flight failed.
+	 *
+	 * @param errorMessage The error message.
+	 */
+	void onSendError(String errorMessage) {
+		Upload upload;
+		synchronized (this) {
+			upload = pollResult();
+			updateDepth();
+			notifyAll();
+		}
+		if (upload != null)
+			fail(upload, errorMessage, false);
+	}
+
+	/**
+	 * Fails all the uploads in flight, as their result will not be received
+	 * after the connection is lost.
+	 *
+	 * @param errorMessage The error message.
+	 */
+	void onConnectionLost(String errorMessage) {
+		Upload[] uploads;
+		synchronized (this) {
+			uploads = inFlight.toArray(new Upload[0]);
+			inFlight.clear();
+			expired.clear();
+			for (Lane lane : lanes)
+				lane.inFlight = 0;
+			updateDepth();
+			notifyAll();
+		}
+		for (Upload upload : uploads)
+			fail(upload, errorMessage, false);
+	}
+
+	/**
+	 * Stops the sender, failing the pending uploads.
+	 */
+	void close() {
+		ArrayList<Upload> uploads = new ArrayList<>();
+		synchronized (this) {
+			closed = true;
+			for (Lane lane : lanes) {
+				uploads.addAll(lane.queue);
+				lane.queue.clear();
+			}
+			queued = 0;
+			updateDepth();
+			notifyAll();
+		}
+		for (Upload upload : uploads)
+			fail(upload, ERROR_CLOSED, true);
+		onConnectionLost(ERROR_CLOSED);
+	}
+
+	/**
+	 * Adds an upload to the queue of its lane applying the backpressure
+	 * policy of the lane.
+	 *
+	 * @param upload The upload to add.
+	 *
+	 * @return The future result of the upload.
+	 */
+	private SendFuture enqueue(Upload upload) {
+		Upload dropped = null;
+		Lane lane = upload.lane;
+		statistics.recordSubmitted(upload.points);
+		lane.config.getStatistics().recordSubmitted(upload.points);
+		synchronized (this) {
+			if (closed) {
+				fail(upload, ERROR_CLOSED, true);
+				return upload.future;
+			}
+			if (lane.queue.size() >= lane.config.capacity) {
+				switch (lane.config.policy) {
+					case BLOCK:
+						try {
+							while (lane.queue.size() >= lane.config.capacity && !closed)
+								wait();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							fail(upload, ERROR_REJECTED, true);
+							return upload.future;
+						}
+						if (closed) {
+							fail(upload, ERROR_CLOSED, true);
+							return upload.future;
+						}
+						break;
+					case DROP_OLDEST:
+						dropped = lane.queue.pollFirst();
+						queued--;
+						break;
+					case REJECT:
+					default:
+						fail(upload, ERROR_REJECTED, true);
+						return upload.future;
+				}
+			}
+			lane.queue.addLast(upload);
+			queued++;
+			updateDepth();
+			notifyAll();
+		}
+		if (dropped != null)
+			fail(dropped, ERROR_DROPPED, true);
+		return upload.future;
+	}
+
+	/**
+	 * Takes the queued uploads and performs them, waiting when there are too
+	 * many uploads in flight or the lanes are throttled.
+	 */
+	private void processUploads() {
+		while (true) {
+			Upload upload;
+			ArrayList<Upload> expiredUploads;
+			BandwidthGovernor currentGovernor = null;
+			boolean deferred = false;
+			synchronized (this) {
+				if (closed)
+					return;
+				expiredUploads = expireInFlight();
+				if (expiredUploads != null) {
+					upload = null;
+				} else {
+					Lane lane = nextLane();
+					if (lane == null) {
+						long timeout = inFlight.isEmpty() ? 0 : EXPIRATION_CHECK_INTERVAL;
+						if (throttleDelay > 0)
+							timeout = timeout == 0 ? throttleDelay : Math.min(timeout, throttleDelay);
+						try {
+							wait(timeout);
+						} catch (InterruptedException e) {
+							return;
+						}
+						continue;
+					}
+					upload = lane.queue.pollFirst();
+					queued--;
+					currentGovernor = governor;
+					if (upload.binaryDataPoint != null && currentGovernor != null
+							&& currentGovernor.deferBinary(lane.index)) {
+						deferred = true;
+					} else {
+						upload.future.markSent();
+						inFlight.addLast(upload);
+						lane.inFlight++;
+					}
+					updateDepth();
+					// Wake up the producers waiting for room.
+					notifyAll();
+				}
+			}
+			if (expiredUploads != null) {
+				for (Upload expiredUpload : expiredUploads)
+					fail(expiredUpload, ERROR_TIMEOUT, false);
+				continue;
+			}
+			if (deferred) {
+				fail(upload, ERROR_DEFERRED, true);
+				continue;
+			}
+			// Charged out of the lock, as it may notify the listener and
+			// save the budget.
+			if (currentGovernor != null)
+				currentGovernor.charge(upload.lane.index, upload.bytes);
+			statistics.recordSent(upload.future.getCreationTime(), upload.future.getSentTime());
+			upload.lane.config.getStatistics().recordSent(upload.future.getCreationTime(), upload.future.getSentTime());
+			try {
+				if (upload.dataPoints != null)
+					sender.sendDataPoints(upload.dataPoints);
+				else
+					sender.sendBinaryDataPoint(upload.binaryDataPoint);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				synchronized (this) {
+					if (inFlight.remove(upload))
+						upload.lane.inFlight--;
+					updateDepth();
+				}
+				fail(upload, e.getMessage(), false);
+			}
+		}
+	}
+
+	/**
+	 * Selects the lane to send the next upload from. Must be called with the
+	 * lock held.
+	 *
+	 * <p>The first lane is served whenever it has queued uploads, a free in
+	 * flight slot and is not throttled. The rest of the lanes are served by
+	 * deficit round robin, leaving some in flight slots for the first lane.
+	 * Throttled lanes are skipped, keeping their deficit.</p>
+	 *
+	 * @return The lane to send from, or {@code null} if there is nothing to
+	 *         send, no free in flight slot or all the lanes with uploads are
+	 *         throttled.
+	 */
+	private Lane nextLane() {
+		throttleDelay = 0;
+		if (queued == 0 || inFlight.size() >= MAX_IN_FLIGHT)
+			return null;
+		if (isReady(lanes[0]))
+			return lanes[0];
+		if (inFlight.size() >= MAX_IN_FLIGHT - PRIORITY_IN_FLIGHT)
+			return null;
+		boolean ready = false;
+		for (int i = 1; i < lanes.length; i++) {
+			lanes[i].ready = isReady(lanes[i]);
+			ready |= lanes[i].ready;
+		}
+		if (!ready)
+			return null;
+		// Every pass adds deficit to the ready lanes, so one of them is
+		// eventually served.
+		while (true) {
+			Lane lane = lanes[nextWeightedLane];
+			if (lane.queue.isEmpty()) {
+				lane.deficit = 0;
+			} else if (lane.ready) {
+				int cost = lane.queue.peekFirst().getCost();
+				if (lane.deficit >= cost) {
+					lane.deficit -= cost;
+					return lane;
+				}
+				lane.deficit += lane.config.weight * QUANTUM;
+			}
+			nextWeightedLane = nextWeightedLane + 1 < lanes.length ? nextWeightedLane + 1 : 1;
+		}
+	}
+
+	/**
+	 * Returns whether the given lane has an upload that can be sent now. If
+	 * the lane is throttled, updates the time to wait for it. Must be called
+	 * with the lock held.
+	 *
+	 * @param lane The lane to check.
+	 *
+	 * @return {@code true} if the lane can send, {@code false} otherwise.
+	 */
+	private boolean isReady(Lane lane) {
+		if (lane.queue.isEmpty())
+			return false;
+		if (governor == null)
+			return true;
+		long delay = governor.getDelay(lane.index, lane.queue.peekFirst().bytes);
+		if (delay == 0)
+			return true;
+		throttleDelay = throttleDelay == 0 ? delay : Math.min(throttleDelay, delay);
+		return false;
+	}
+
+	/**
+	 * Removes the oldest upload in flight. Must be called with the lock held.
+	 *
+	 * @return The oldest upload in flight, or {@code null} if there is none.
+	 */
+	private Upload pollInFlight() {
+		Upload upload = inFlight.pollFirst();
+		if (upload != null)
+			upload.lane.inFlight--;
+		return upload;
+	}
+
+	/**
+	 * Takes the upload the next result belongs to. Must be called with the
+	 * lock held.
+	 *
+	 * @return The oldest upload in flight, or {@code null} if the result
+	 *         belongs to an expired upload or there is no upload in flight.
+	 */
+	private Upload pollResult() {
+		long now = System.nanoTime();
+		long lateTimeout = TimeUnit.MILLISECONDS.toNanos(resultTimeout);
+		while (!expired.isEmpty() && now - expired.peekFirst() > lateTimeout)
+			expired.pollFirst();
+		if (expired.pollFirst() != null)
+			return null;
+		return pollInFlight();
+	}
+
+	/**
+	 * Throws an exception if the given lane does not exist.
+	 *
+	 * @param lane The index of the lane.
+	 *
+	 * @throws IndexOutOfBoundsException If the lane does not exist.
+	 */
+	private void checkLane(int lane) {
+		if (lane < 0 || lane >= lanes.length)
+			throw new IndexOutOfBoundsException("Lane " + lane + " does not exist.");
+	}
+
+	/**
+	 * Removes the uploads in flight that did not get a result in time. Must
+	 * be called with the lock held.
+	 *
+	 * @return The expired uploads, or {@code null} if there is none.
+	 */
+	private ArrayList<Upload> expireInFlight() {
+		ArrayList<Upload> uploads = null;
+		long now = System.nanoTime();
+		long timeout = TimeUnit.MILLISECONDS.toNanos(resultTimeout);
+		while (!inFlight.isEmpty() && now - inFlight.peekFirst().future.getSentTime() > timeout) {
+			if (uploads == null)
+				uploads = new ArrayList<>();
+			uploads.add(pollInFlight());
+			// Its result may still arrive.
+			expired.addLast(now);
+		}
+		if (uploads != null)
+			updateDepth();
+		return uploads;
+	}
+
+	/**
+	 * Publishes the current queue depth in the statistics. Must be called
+	 * with the lock held.
+	 */
+	private void updateDepth() {
+		statistics.setQueueDepth(queued, inFlight.size());
+		for (Lane lane : lanes)
+			lane.config.getStatistics().setQueueDepth(lane.queue.size(), lane.inFlight);
+	}
+
+	/**
+	 * Fails the given upload and records the error.
+	 *
+	 * @param upload The upload that failed.
+	 * @param errorMessage The error message.
+	 * @param dropped {@code true} if the upload was not sent.
+	 */
+	private void fail(Upload upload, String errorMessage, boolean dropped) {
+		statistics.recordError(dropped);
+		upload.lane.config.getStatistics().recordError(dropped);
+		upload.future.fail(errorMessage);
+	}
+
+	/**
+	 * Class that holds a queued upload.
+	 */
+	private static class Upload {
+		final Lane lane;
+		final List<DataPoint> dataPoints;
+		final BinaryDataPoint binaryDataPoint;
+		final int points;
+		final long bytes;
+		final SendFuture future = new SendFuture();
+
+		Upload(Lane lane, List<DataPoint> dataPoints, BinaryDataPoint binaryDataPoint, int points, long bytes) {
+			this.lane = lane;
+			this.dataPoints = dataPoints;
+			this.binaryDataPoint = binaryDataPoint;
+			this.points = points;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Returns the share of the link used by the upload. Binary data points
+		 * count as a full list of data points.
+		 *
+		 * @return The cost of the upload.
+		 */
+		int getCost() {
+			return binaryDataPoint != null ? QUANTUM : Math.max(1, points);
+		}
+	}
+
+	/**
+	 * Class that holds the queue and the scheduling state of a lane.
+	 */
+	private static class Lane {
+		final int index;
+		final SendLane config;
+		final ArrayDeque<Upload> queue = new ArrayDeque<>();
+		int inFlight;
+		int deficit;
+		boolean ready;
+
+		Lane(int index, SendLane config) {
+			this.index = index;
+			this.config = config;
+		}
+	}
+
+	/**
+	 * Class that holds the lane of a data stream path prefix.
+	 */
+	private static class Route {
+		final String prefix;
+		final int lane;
+
+		Route(String prefix, int lane) {
+			this.prefix = prefix;
+			this.lane = lane;
+		}
+	}
+}
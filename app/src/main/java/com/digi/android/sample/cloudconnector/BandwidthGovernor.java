@@ -0,0 +1,486 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that limits the bandwidth used by the uploads of the
+ * {@link AsyncDataPointSender} on metered links.
+ *
+ * <p>Each lane can have a token bucket of bytes and another of messages.
+ * An upload is sent when both buckets have tokens, even if it takes more
+ * than the available ones: the lane then waits until the debt is paid.
+ * The sender asks for the delay of a lane instead of waiting for it, so
+ * the limits never block the producers.</p>
+ *
+ * <p>The bytes sent are also counted against a daily or monthly budget,
+ * which is saved to a file so it survives restarts. When the budget runs
+ * low, the binary uploads of the deferrable lanes are deferred and the
+ * listener is notified so the producers can aggregate more. When it runs out, only the first lane,
+ * the one with the alarms, keeps sending until the next period.</p>
+ *
+ * <p>The size of the uploads is an estimate: the SDK does not expose the
+ * encoded size of the data points, so each upload is charged a fixed
+ * overhead plus a fixed size per data point, or its payload size for
+ * binary data points.</p>
+ */
+class BandwidthGovernor {
+
+	/**
+	 * Period of the bandwidth budget.
+	 */
+	enum Period {
+		/** The budget is reset every day at midnight. */
+		DAILY,
+		/** The budget is reset on the first day of every month. */
+		MONTHLY
+	}
+
+	/**
+	 * Level of the bandwidth budget.
+	 */
+	enum Level {
+		/** There is enough budget left. */
+		NORMAL,
+		/** The budget is running low: binary uploads are deferred. */
+		LOW,
+		/** The budget ran out: only the first lane sends. */
+		EXHAUSTED
+	}
+
+	// Constants.
+	// Estimated protocol overhead of every upload.
+	final static int MESSAGE_OVERHEAD = 512;
+	// Estimated size of an encoded data point.
+	final static int DATA_POINT_SIZE = 64;
+	// Estimated size of a binary data point of unknown size.
+	final static int BINARY_SIZE = 4096;
+
+	// Fraction of the budget left below which the budget is low.
+	private final static double LOW_BUDGET_FRACTION = 0.2;
+
+	// Seconds of traffic the buckets can accumulate.
+	private final static int BURST_SECONDS = 2;
+
+	// Bytes to use between saves of the budget.
+	private final static long SAVE_THRESHOLD = 64 * 1024;
+
+	// Variables.
+	private final TokenBucket[] byteBuckets;
+	private final TokenBucket[] messageBuckets;
+
+	private final boolean[] waiting;
+	private final boolean[] deferrable;
+
+	private final Period period;
+
+	private final long budget;
+
+	private final File stateFile;
+
+	private final IBudgetListener listener;
+
+	private long periodStart;
+	private long periodEnd;
+
+	private long usedBytes;
+	private long savedBytes;
+
+	private long deferred;
+	private long throttled;
+
+	private Level level;
+	private Level notifiedLevel;
+
+	/**
+	 * Class constructor. Instantiates a new {@code BandwidthGovernor} using
+	 * the given parameters, restoring the budget used in the current period
+	 * from the given file.
+	 *
+	 * @param lanes The number of lanes of the sender.
+	 * @param period The period of the budget.
+	 * @param budget The bytes allowed per period, {@code 0} for no budget.
+	 * @param stateFile The file to save the used budget to.
+	 * @param listener The listener to notify the level changes to, or
+	 *                 {@code null}.
+	 *
+	 * @throws IllegalArgumentException If the budget is negative.
+	 */
+	BandwidthGovernor(int lanes, Period period, long budget, File stateFile, IBudgetListener listener) {
+		if (budget < 0)
+			throw new IllegalArgumentException("Budget cannot be negative.");
+
+		this.byteBuckets = new TokenBucket[lanes];
+		this.messageBuckets = new TokenBucket[lanes];
+		this.waiting = new boolean[lanes];
+		this.deferrable = new boolean[lanes];
+		this.period = period;
+		this.budget = budget;
+		this.stateFile = stateFile;
+		this.listener = listener;
+
+		startPeriod(System.currentTimeMillis());
+		load();
+		level = notifiedLevel = computeLevel();
+	}
+
+	/**
+	 * Limits the rate of the uploads of the given lane.
+	 *
+	 * @param lane The index of the lane.
+	 * @param bytesPerSecond The bytes per second, {@code 0} for no limit.
+	 * @param messagesPerSecond The uploads per second, {@code 0} for no
+	 *                          limit.
+	 */
+	synchronized void setLaneLimit(int lane, long bytesPerSecond, double messagesPerSecond) {
+		byteBuckets[lane] = bytesPerSecond > 0 ? new TokenBucket(bytesPerSecond) : null;
+		messageBuckets[lane] = messagesPerSecond > 0 ? new TokenBucket(messagesPerSecond) : null;
+	}
+
+	/**
+	 * Sets whether the binary uploads of the given lane are deferred when
+	 * the budget runs low. No lane is deferrable by default.
+	 *
+	 * @param lane The index of the lane.
+	 * @param deferrable {@code true} to defer its binary uploads,
+	 *                   {@code false} to always send them.
+	 */
+	synchronized void setDeferrable(int lane, boolean deferrable) {
+		this.deferrable[lane] = deferrable;
+	}
+
+	/**
+	 * Returns the data points per second the given lane can send before its
+	 * limits throttle it, assuming full batches.
+	 *
+	 * @param lane The index of the lane.
+	 *
+	 * @return The data points per second, {@code 0} if the lane has no
+	 *         limit.
+	 */
+	synchronized double getDataPointLimit(int lane) {
+		double limit = 0;
+		if (byteBuckets[lane] != null)
+			limit = byteBuckets[lane].rate
+					/ (DATA_POINT_SIZE + (double) MESSAGE_OVERHEAD / CloudConnectorManager.MAXIMUM_DATA_POINTS);
+		if (messageBuckets[lane] != null) {
+			double messageLimit = messageBuckets[lane].rate * CloudConnectorManager.MAXIMUM_DATA_POINTS;
+			limit = limit == 0 ? messageLimit : Math.min(limit, messageLimit);
+		}
+		return limit;
+	}
+
+	/**
+	 * Returns the time the given lane has to wait before sending an upload
+	 * of the given size.
+	 *
+	 * @param lane The index of the lane.
+	 * @param bytes The estimated size of the upload.
+	 *
+	 * @return The time to wait in milliseconds, {@code 0} if the upload can
+	 *         be sent now.
+	 */
+	synchronized long getDelay(int lane, long bytes) {
+		checkPeriod();
+		if (level == Level.EXHAUSTED && lane != 0)
+			return Math.max(1, periodEnd - System.currentTimeMillis());
+		long now = System.nanoTime();
+		long delay = 0;
+		if (byteBuckets[lane] != null)
+			delay = byteBuckets[lane].getDelay(bytes, now);
+		if (messageBuckets[lane] != null)
+			delay = Math.max(delay, messageBuckets[lane].getDelay(1, now));
+		if (delay > 0)
+			waiting[lane] = true;
+		return delay;
+	}
+
+	/**
+	 * Returns whether the binary uploads of the given lane must be deferred
+	 * to save the budget, and counts them if so. Only the binary uploads of
+	 * the deferrable lanes are deferred.
+	 *
+	 * @param lane The index of the lane.
+	 *
+	 * @return {@code true} if the binary upload must not be sent.
+	 */
+	synchronized boolean deferBinary(int lane) {
+		checkPeriod();
+		if (!deferrable[lane] || level == Level.NORMAL)
+			return false;
+		deferred++;
+		return true;
+	}
+
+	/**
+	 * Charges an upload that is being sent to the buckets of its lane and
+	 * to the budget.
+	 *
+	 * @param lane The index of the lane.
+	 * @param bytes The estimated size of the upload.
+	 */
+	void charge(int lane, long bytes) {
+		Level newLevel = null;
+		long used;
+		synchronized (this) {
+			long now = System.nanoTime();
+			if (byteBuckets[lane] != null)
+				byteBuckets[lane].take(bytes, now);
+			if (messageBuckets[lane] != null)
+				messageBuckets[lane].take(1, now);
+			if (waiting[lane]) {
+				waiting[lane] = false;
+				throttled++;
+			}
+			checkPeriod();
+			usedBytes += bytes;
+			used = usedBytes;
+			level = computeLevel();
+			if (level != notifiedLevel)
+				newLevel = notifiedLevel = level;
+		}
+		if (newLevel != null && listener != null)
+			listener.budgetLevelChanged(newLevel, used, budget);
+		if (used - savedBytes >= SAVE_THRESHOLD || newLevel != null)
+			save();
+	}
+
+	/**
+	 * Returns the current level of the budget.
+	 *
+	 * @return The budget level.
+	 */
+	synchronized Level getLevel() {
+		checkPeriod();
+		return level;
+	}
+
+	/**
+	 * Returns the estimated bytes used in the current period.
+	 *
+	 * @return The used bytes.
+	 */
+	synchronized long getUsedBytes() {
+		checkPeriod();
+		return usedBytes;
+	}
+
+	/**
+	 * Returns the bytes allowed per period.
+	 *
+	 * @return The budget, {@code 0} if there is none.
+	 */
+	long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Returns the end of the current period.
+	 *
+	 * @return The time the budget is reset, in milliseconds since the epoch.
+	 */
+	synchronized long getPeriodEnd() {
+		checkPeriod();
+		return periodEnd;
+	}
+
+	/**
+	 * Returns the number of binary uploads deferred to save the budget.
+	 *
+	 * @return The number of deferred uploads.
+	 */
+	synchronized long getDeferredCount() {
+		return deferred;
+	}
+
+	/**
+	 * Returns the number of uploads that had to wait for the tokens or the
+	 * budget of their lane.
+	 *
+	 * @return The number of throttled uploads.
+	 */
+	synchronized long getThrottledCount() {
+		return throttled;
+	}
+
+	/**
+	 * Estimates the size of an upload of the given number of data points.
+	 *
+	 * @param points The number of data points.
+	 *
+	 * @return The estimated size in bytes.
+	 */
+	static long estimateSize(int points) {
+		return MESSAGE_OVERHEAD + (long) points * DATA_POINT_SIZE;
+	}
+
+	/**
+	 * Saves the budget used in the current period.
+	 */
+	void save() {
+		long start;
+		long used;
+		synchronized (this) {
+			start = periodStart;
+			used = usedBytes;
+			savedBytes = used;
+		}
+		try {
+			File directory = stateFile.getParentFile();
+			if (directory != null && !directory.isDirectory() && !directory.mkdirs())
+				throw new IOException("Could not create directory " + directory);
+			DataOutputStream output = new DataOutputStream(new FileOutputStream(stateFile));
+			try {
+				output.writeUTF(period.name());
+				output.writeLong(start);
+				output.writeLong(used);
+			} finally {
+				output.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Restores the budget used in the current period, if it was saved.
+	 */
+	private void load() {
+		if (!stateFile.exists())
+			return;
+		try {
+			DataInputStream input = new DataInputStream(new FileInputStream(stateFile));
+			try {
+				// Only restore the budget of the current period.
+				if (!period.name().equals(input.readUTF()) || input.readLong() != periodStart)
+					return;
+				usedBytes = savedBytes = input.readLong();
+			} finally {
+				input.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Starts a new period if the current one is over. Must be called with the
+	 * lock held.
+	 */
+	private void checkPeriod() {
+		long now = System.currentTimeMillis();
+		if (now < periodEnd)
+			return;
+		startPeriod(now);
+		usedBytes = 0;
+		savedBytes = 0;
+		// The next charge notifies the new level.
+		level = computeLevel();
+	}
+
+	/**
+	 * Computes the bounds of the period that contains the given time.
+	 *
+	 * @param now The time in milliseconds since the epoch.
+	 */
+	private void startPeriod(long now) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(now);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		if (period == Period.MONTHLY)
+			calendar.set(Calendar.DAY_OF_MONTH, 1);
+		periodStart = calendar.getTimeInMillis();
+		calendar.add(period == Period.MONTHLY ? Calendar.MONTH : Calendar.DAY_OF_MONTH, 1);
+		periodEnd = calendar.getTimeInMillis();
+	}
+
+	/**
+	 * Computes the level of the budget. Must be called with the lock held.
+	 *
+	 * @return The budget level.
+	 */
+	private Level computeLevel() {
+		if (budget == 0)
+			return Level.NORMAL;
+		if (usedBytes >= budget)
+			return Level.EXHAUSTED;
+		if (budget - usedBytes < budget * LOW_BUDGET_FRACTION)
+			return Level.LOW;
+		return Level.NORMAL;
+	}
+
+	/**
+	 * Class that holds the tokens of a lane.
+	 */
+	private static class TokenBucket {
+		final double rate;
+		final double burst;
+		double tokens;
+		long lastRefill = System.nanoTime();
+
+		TokenBucket(double rate) {
+			this.rate = rate;
+			this.burst = rate * BURST_SECONDS;
+			this.tokens = burst;
+		}
+
+		/**
+		 * Returns the time to wait until the bucket has the given tokens, or
+		 * a full bucket if it holds less than that.
+		 *
+		 * @param cost The tokens needed.
+		 * @param now The current time, as given by {@link System#nanoTime()}.
+		 *
+		 * @return The time to wait in milliseconds.
+		 */
+		long getDelay(long cost, long now) {
+			refill(now);
+			double missing = Math.min(cost, burst) - tokens;
+			return missing <= 0 ? 0 : Math.max(1, (long) Math.ceil(missing * 1000 / rate));
+		}
+
+		/**
+		 * Takes the given tokens, leaving the bucket in debt if there are not
+		 * enough.
+		 *
+		 * @param cost The tokens to take.
+		 * @param now The current time, as given by {@link System#nanoTime()}.
+		 */
+		void take(long cost, long now) {
+			refill(now);
+			tokens -= cost;
+		}
+
+		private void refill(long now) {
+			tokens = Math.min(burst, tokens + rate * (now - lastRefill) / TimeUnit.SECONDS.toNanos(1));
+			lastRefill = now;
+		}
+	}
+}
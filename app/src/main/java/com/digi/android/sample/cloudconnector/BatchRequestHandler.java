@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Device request handler that runs many commands sent in a single
+ * request, so a remote operation costs one round trip instead of one per
+ * command.
+ *
+ * <p>The payload of a batch has one command per line:</p>
+ *
+ * <pre>
+ * &lt;id&gt; &lt;target&gt; &lt;dependencies&gt; &lt;payload&gt;
+ * </pre>
+ *
+ * <p>The dependencies field is mandatory: either {@value #NO_DEPENDENCIES}
+ * or {@code after=<id>[,<id>...]}, so a payload is never mistaken for it.
+ * Each command is sent as a string request to the handler registered
+ * in the dispatcher for its target. Commands run in parallel in a pool of
+ * workers, except the ones with an {@code after} list, which wait for the
+ * listed commands to finish. Only earlier commands can be listed, so there
+ * are no cycles. If a listed command fails (its response starts with
+ * {@value #ERROR_PREFIX}), the commands waiting for it are skipped. Empty
+ * lines and lines starting with {@code #} are ignored.</p>
+ *
+ * <p>The response has a first line {@code OK <succeeded> <total>}
+ * followed by one line per command, in the order of the request:
+ * {@code <id> <response>}, with backslashes and line breaks of the
+ * response escaped. Commands that did not finish before the timeout of the
+ * batch are answered with an error, so the results already obtained are
+ * not lost.</p>
+ */
+class BatchRequestHandler implements IDeviceRequestListener {
+
+	// Constants.
+	final static String ERROR_PREFIX = "Error";
+	final static String ERROR_EMPTY = "Error: empty batch";
+	final static String ERROR_TOO_MANY_COMMANDS = "Error: too many commands";
+	final static String ERROR_SKIPPED = "Error: skipped, failed dependency";
+	final static String ERROR_BATCH_TIMEOUT = "Error: batch timed out";
+
+	final static String NO_DEPENDENCIES = "-";
+
+	private final static String AFTER_PREFIX = "after=";
+
+	private final static int MAX_COMMANDS = 64;
+
+	private final static Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,32}");
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	// Variables.
+	private final DeviceRequestDispatcher dispatcher;
+
+	private final ThreadPoolExecutor workers;
+
+	private final long timeout;
+
+	/**
+	 * Class constructor. Instantiates a new {@code BatchRequestHandler}
+	 * using the given parameters.
+	 *
+	 * @param dispatcher The dispatcher to send the commands to.
+	 * @param parallelism The maximum number of commands running at the same
+	 *                    time.
+	 * @param timeout The maximum time to run a batch, in milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the parallelism or the timeout are
+	 *                                  not positive.
+	 */
+	BatchRequestHandler(DeviceRequestDispatcher dispatcher, int parallelism, long timeout) {
+		if (parallelism < 1 || timeout < 1)
+			throw new IllegalArgumentException("Parallelism and timeout must be positive.");
+
+		this.dispatcher = dispatcher;
+		this.timeout = timeout;
+		workers = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		workers.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	public String handleDeviceRequest(String target, byte[] data) {
+		return handleDeviceRequest(target, new String(data, UTF_8));
+	}
+
+	@Override
+	public String handleDeviceRequest(String target, String data) {
+		List<Command> commands = new ArrayList<>();
+		String error = parse(target, data, commands);
+		if (error != null)
+			return error;
+		String[] responses = run(commands);
+
+		int succeeded = 0;
+		StringBuilder response = new StringBuilder();
+		for (int i = 0; i < responses.length; i++) {
+			if (!responses[i].startsWith(ERROR_PREFIX))
+				succeeded++;
+			response.append('\n').append(commands.get(i).id).append(' ');
+			escape(responses[i], response);
+		}
+		return "OK " + succeeded + " " + responses.length + response;
+	}
+
+	/**
+	 * Stops the workers, interrupting the running commands.
+	 */
+	void close() {
+		workers.shutdownNow();
+	}
+
+	/**
+	 * Runs the given commands, each one as soon as the commands it waits
+	 * for have finished.
+	 *
+	 * @param commands The commands to run.
+	 *
+	 * @return The responses of the commands, in the same order.
+	 */
+	private String[] run(List<Command> commands) {
+		int count = commands.size();
+		String[] responses = new String[count];
+		int[] pending = new int[count];
+		List<List<Integer>> dependents = new ArrayList<>(count);
+		ArrayDeque<Integer> ready = new ArrayDeque<>();
+		for (int i = 0; i < count; i++) {
+			dependents.add(new ArrayList<Integer>());
+			pending[i] = commands.get(i).after.length;
+			for (int dependency : commands.get(i).after)
+				dependents.get(dependency).add(i);
+			if (pending[i] == 0)
+				ready.add(i);
+		}
+
+		// Workers only return their response through the future, so the ones
+		// cancelled after the timeout never write to the responses.
+		CompletionService<String> completion = new ExecutorCompletionService<>(workers);
+		Map<Future<String>, Integer> running = new HashMap<>();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		try {
+			int finished = 0;
+			while (finished < count) {
+				// Start the commands that are ready.
+				while (!ready.isEmpty()) {
+					int index = ready.poll();
+					final Command command = commands.get(index);
+					running.put(completion.submit(new Callable<String>() {
+						@Override
+						public String call() {
+							String response = dispatcher.call(command.target, command.payload);
+							return response != null ? response : "";
+						}
+					}), index);
+				}
+				Future<String> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				if (done == null)
+					break;
+				int doneIndex = running.remove(done);
+				try {
+					responses[doneIndex] = done.get();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					responses[doneIndex] = "Error: " + e.getCause().getMessage();
+				}
+
+				// Release the commands waiting for it, skipping them if it
+				// failed, along with the ones waiting for them.
+				ArrayDeque<Integer> released = new ArrayDeque<>();
+				released.add(doneIndex);
+				while (!released.isEmpty()) {
+					int index = released.poll();
+					finished++;
+					boolean failed = responses[index].startsWith(ERROR_PREFIX);
+					for (int dependent : dependents.get(index)) {
+						if (responses[dependent] != null)
+							continue;
+						if (failed) {
+							responses[dependent] = ERROR_SKIPPED;
+							released.add(dependent);
+						} else if (--pending[dependent] == 0) {
+							ready.add(dependent);
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (Future<String> future : running.keySet())
+				future.cancel(true);
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (responses[i] == null)
+				responses[i] = ERROR_BATCH_TIMEOUT;
+		}
+		return responses;
+	}
+
+	/**
+	 * Parses the commands of a batch.
+	 *
+	 * @param batchTarget The target of the batch, which commands cannot use.
+	 * @param data The payload of the batch.
+	 * @param commands The list to add the commands to.
+	 *
+	 * @return An error message, or {@code null} if the batch is valid.
+	 */
+	private static String parse(String batchTarget, String data, List<Command> commands) {
+		Map<String, Integer> indexes = new HashMap<>();
+		int lineNumber = 0;
+		for (String line : data.split("\n")) {
+			lineNumber++;
+			if (line.endsWith("\r"))
+				line = line.substring(0, line.length() - 1);
+			if (line.trim().isEmpty() || line.startsWith("#"))
+				continue;
+			if (commands.size() == MAX_COMMANDS)
+				return ERROR_TOO_MANY_COMMANDS;
+
+			String[] tokens = line.split(" ", 4);
+			if (tokens.length < 3 || !ID_PATTERN.matcher(tokens[0]).matches() || tokens[1].isEmpty())
+				return "Error: invalid command in line " + lineNumber;
+			if (indexes.containsKey(tokens[0]))
+				return "Error: duplicated command " + tokens[0];
+			if (tokens[1].equals(batchTarget))
+				return "Error: nested batch in line " + lineNumber;
+
+			int[] after = new int[0];
+			if (tokens[2].startsWith(AFTER_PREFIX)) {
+				String[] ids = tokens[2].substring(AFTER_PREFIX.length()).split(",", -1);
+				after = new int[ids.length];
+				for (int i = 0; i < ids.length; i++) {
+					Integer index = indexes.get(ids[i]);
+					if (index == null)
+						return "Error: unknown dependency " + ids[i] + " in line " + lineNumber;
+					after[i] = index;
+				}
+			} else if (!tokens[2].equals(NO_DEPENDENCIES)) {
+				return "Error: invalid dependencies in line " + lineNumber;
+			}
+			String payload = tokens.length > 3 ? tokens[3] : "";
+			indexes.put(tokens[0], commands.size());
+			commands.add(new Command(tokens[0], tokens[1], after, payload));
+		}
+		return commands.isEmpty() ? ERROR_EMPTY : null;
+	}
+
+	/**
+	 * Appends the given response escaping backslashes and line breaks, so it
+	 * fits in one line.
+	 *
+	 * @param response The response to escape.
+	 * @param builder The builder to append it to.
+	 */
+	private static void escape(String response, StringBuilder builder) {
+		for (int i = 0; i < response.length(); i++) {
+			char c = response.charAt(i);
+			if (c == '\\')
+				builder.append("\\\\");
+			else if (c == '\n')
+				builder.append("\\n");
+			else if (c == '\r')
+				builder.append("\\r");
+			else
+				builder.append(c);
+		}
+	}
+
+	/**
+	 * Class that holds a command of a batch.
+	 */
+	private static class Command {
+		final String id;
+		final String target;
+		final int[] after;
+		final String payload;
+
+		Command(String id, String target, int[] after, String payload) {
+			this.id = id;
+			this.target = target;
+			this.after = after;
+			this.payload = payload;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+
+import java.io.IOException;
+
+/**
+ * Telemetry source that reads the level, temperature and voltage of the
+ * battery from the sticky battery broadcast.
+ */
+class BatterySource implements ITelemetrySource {
+
+	// Constants.
+	final static String STREAM_LEVEL = "battery/level";
+	final static String STREAM_TEMPERATURE = "battery/temperature";
+	final static String STREAM_VOLTAGE = "battery/voltage";
+
+	// Variables.
+	private final Context context;
+
+	private final IntentFilter filter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+
+	/**
+	 * Class constructor. Instantiates a new {@code BatterySource} using the
+	 * given parameters.
+	 *
+	 * @param context The Android application context.
+	 */
+	BatterySource(Context context) {
+		this.context = context.getApplicationContext();
+	}
+
+	@Override
+	public void sample(SamplePipeline pipeline) throws IOException {
+		Intent status = context.registerReceiver(null, filter);
+		if (status == null)
+			throw new IOException("Battery status not available");
+		int level = status.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+		int scale = status.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+		if (level >= 0 && scale > 0)
+			pipeline.addFloat(STREAM_LEVEL, level * 100f / scale);
+		// Reported in tenths of degree Celsius.
+		int temperature = status.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, Integer.MIN_VALUE);
+		if (temperature != Integer.MIN_VALUE)
+			pipeline.addFloat(STREAM_TEMPERATURE, temperature / 10f);
+		// Reported in millivolts.
+		int voltage = status.getIntExtra(BatteryManager.EXTRA_VOLTAGE, -1);
+		if (voltage >= 0)
+			pipeline.addInt(STREAM_VOLTAGE, voltage);
+	}
+
+	@Override
+	public void close() {
+		// Nothing to release.
+	}
+}
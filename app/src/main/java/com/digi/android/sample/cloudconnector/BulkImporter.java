@@ -0,0 +1,1150 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Imports CSV and NDJSON files into data streams.
+ *
+ * <p>The file is read with positional reads into a fixed size buffer and
+ * parsed line by line, so the memory used does not depend on the size of
+ * the file. Every column (CSV) or key (NDJSON) is mapped to the data stream
+ * {@code <prefix>/<name>}: if that stream was declared in the
+ * {@link StreamRegistry} its schema is used to validate the values,
+ * otherwise it is declared as a double stream. A column named
+ * {@code time} or {@code timestamp} gives the time of the values of its
+ * row, in milliseconds since the epoch or in ISO-8601 format (UTC if it
+ * has no offset); rows whose time cannot be parsed are rejected. Values of
+ * files without a time column take the time they are uploaded.</p>
+ *
+ * <p>The values are sent in batches of up to
+ * {@link CloudConnectorManager#MAXIMUM_DATA_POINTS} data points that always
+ * end at a row boundary, with a few batches in flight. The offset after the
+ * last acknowledged batch is saved periodically in a progress file, so an
+ * interrupted import of the same (unmodified) file is resumed from that
+ * point. Rows after it may be sent twice.</p>
+ *
+ * <p>CSV files must have a header line, and quoted fields cannot contain
+ * line breaks. NDJSON lines must be objects; nested values are
+ * skipped.</p>
+ */
+class BulkImporter {
+
+	/**
+	 * Supported file formats.
+	 */
+	enum Format {
+		CSV,
+		NDJSON
+	}
+
+	// Constants.
+	final static int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final static int MAX_PENDING_BATCHES = 4;
+	private final static int MAX_COLUMNS = 1024;
+
+	// Time to wait for an acknowledgement on top of the result timeout of
+	// the sender, for the time the batch is queued.
+	private final static long ACK_MARGIN = 30000;
+	private final static long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+	private final static String PROGRESS_EXTENSION = ".import";
+
+	private final static String[] TIME_COLUMNS = {"time", "timestamp"};
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+	private final static Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+	// Variables.
+	private final AsyncDataPointSender sender;
+
+	private final StreamRegistry registry;
+
+	private final File progressDirectory;
+
+	private final IImportListener listener;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	// Only accessed from the executor thread.
+	private final byte[] data;
+
+	private final ByteBuffer window;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Class constructor. Instantiates a new {@code BulkImporter} using the
+	 * given parameters.
+	 *
+	 * @param sender The sender to upload the data points with.
+	 * @param registry The registry of the data streams.
+	 * @param progressDirectory The directory to store the progress files in.
+	 * @param bufferSize The size of the read buffer, which limits the length
+	 *                   of the lines.
+	 * @param listener The listener to notify the progress of the imports to.
+	 *
+	 * @throws IllegalArgumentException If the buffer size is not positive.
+	 */
+	BulkImporter(AsyncDataPointSender sender, StreamRegistry registry, File progressDirectory, int bufferSize,
+			IImportListener listener) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be positive.");
+
+		this.sender = sender;
+		this.registry = registry;
+		this.progressDirectory = progressDirectory;
+		this.listener = listener;
+		data = new byte[bufferSize];
+		window = ByteBuffer.wrap(data);
+	}
+
+	/**
+	 * Returns the format of the given file from its extension.
+	 *
+	 * @param file The file to import.
+	 *
+	 * @return The format of the file, {@code null} if it is not supported.
+	 */
+	static Format getFormat(File file) {
+		String name = file.getName().toLowerCase(Locale.US);
+		if (name.endsWith(".csv"))
+			return Format.CSV;
+		if (name.endsWith(".ndjson") || name.endsWith(".jsonl"))
+			return Format.NDJSON;
+		return null;
+	}
+
+	/**
+	 * Imports the given file in the background, resuming a previous import
+	 * of the same file if there is any.
+	 *
+	 * @param file The file to import.
+	 * @param streamPrefix The prefix of the data stream paths.
+	 */
+	void importFile(final File file, final String streamPrefix) {
+		cancelled = false;
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Format format = getFormat(file);
+					if (format == null)
+						throw new IOException("Unsupported file format.");
+					new Import(file, format, streamPrefix).run();
+				} catch (IOException e) {
+					e.printStackTrace();
+					listener.importError(file.getName(), e.getMessage());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Cancels the import in progress. It can be resumed later.
+	 */
+	void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Cancels the import in progress and stops the importer.
+	 */
+	void close() {
+		cancel();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Column of the imported file.
+	 */
+	private static class Column {
+
+		// Variables.
+		private final byte[] name;
+
+		private final StreamSchema stream;
+
+		private final boolean time;
+
+		/**
+		 * Class constructor. Instantiates a new {@code Column} using the
+		 * given parameters.
+		 *
+		 * @param name The name of the column, encoded in UTF-8.
+		 * @param stream The schema of the data stream, {@code null} if the
+		 *               column is not imported.
+		 * @param time {@code true} if the column holds the time of the rows.
+		 */
+		Column(byte[] name, StreamSchema stream, boolean time) {
+			this.name = name;
+			this.stream = stream;
+			this.time = time;
+		}
+	}
+
+	/**
+	 * Batch of data points waiting for its acknowledgement.
+	 */
+	private static class Batch {
+
+		// Variables.
+		private final SendFuture future;
+
+		private final long endOffset;
+
+		private final long rows;
+
+		/**
+		 * Class constructor. Instantiates a new {@code Batch} using the given
+		 * parameters.
+		 *
+		 * @param future The result of the upload.
+		 * @param endOffset The offset of the file after the last row of the
+		 *                  batch.
+		 * @param rows The number of rows imported up to the end of the batch.
+		 */
+		Batch(SendFuture future, long endOffset, long rows) {
+			this.future = future;
+			this.endOffset = endOffset;
+			this.rows = rows;
+		}
+	}
+
+	/**
+	 * State of the import of a single file.
+	 */
+	private class Import {
+
+		// Variables.
+		private final File file;
+
+		private final Format format;
+
+		private final String streamPrefix;
+
+		private final File progressFile;
+
+		private final ArrayList<Column> columns = new ArrayList<>();
+
+		private Column[] csvColumns;
+
+		private int[] fieldStarts = new int[16];
+		private int[] fieldEnds = new int[16];
+		private boolean[] quotedFields = new boolean[16];
+
+		private ArrayList<DataPoint> points = new ArrayList<>(CloudConnectorManager.MAXIMUM_DATA_POINTS);
+
+		private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+
+		private FileChannel channel;
+
+		private long size;
+
+		private long rows;
+		private long startRows;
+		private long rejected;
+
+		private long lastRowEnd;
+
+		private int rowStart;
+		private long rowTime;
+		private boolean rowTimed;
+
+		private long checkpointOffset;
+		private long checkpointRows;
+
+		private long startTime;
+		private long lastProgressTime;
+
+		/**
+		 * Class constructor. Instantiates a new {@code Import} using the given
+		 * parameters.
+		 *
+		 * @param file The file to import.
+		 * @param format The format of the file.
+		 * @param streamPrefix The prefix of the data stream paths.
+		 */
+		Import(File file, Format format, String streamPrefix) {
+			this.file = file;
+			this.format = format;
+			this.streamPrefix = streamPrefix;
+			progressFile = new File(progressDirectory,
+					Integer.toHexString(file.getAbsolutePath().hashCode()) + PROGRESS_EXTENSION);
+		}
+
+		/**
+		 * Imports the file.
+		 *
+		 * @throws IOException If the file cannot be read or the data points
+		 *                     cannot be uploaded.
+		 */
+		void run() throws IOException {
+			readProgress();
+			rows = startRows = checkpointRows;
+			startTime = lastProgressTime = System.nanoTime();
+
+			RandomAccessFile input = new RandomAccessFile(file, "r");
+			try {
+				channel = input.getChannel();
+				size = channel.size();
+				long offset = checkpointOffset;
+				if (format == Format.CSV)
+					offset = Math.max(offset, readLines(0, true));
+				lastRowEnd = offset;
+				readLines(offset, false);
+				if (!points.isEmpty())
+					submit(lastRowEnd, rows);
+				while (!pending.isEmpty())
+					acknowledgeOldest();
+			} catch (IOException e) {
+				saveProgress();
+				throw e;
+			} finally {
+				input.close();
+			}
+			if (!progressFile.delete())
+				progressFile.deleteOnExit();
+			listener.importFinished(file.getName(), rows, rejected, getRate());
+		}
+
+		/**
+		 * Reads the lines of the file from the given offset.
+		 *
+		 * @param from The offset to start reading from.
+		 * @param firstLineOnly {@code true} to stop after the first line,
+		 *                      {@code false} to read until the end.
+		 *
+		 * @return The offset after the last line read.
+		 *
+		 * @throws IOException If the file cannot be read or a line does not
+		 *                     fit in the buffer.
+		 */
+		private long readLines(long from, boolean firstLineOnly) throws IOException {
+			long base = from;
+			int filled = 0;
+			int start = 0;
+			int scan = 0;
+			boolean eof = false;
+			while (true) {
+				int newline = -1;
+				for (int i = scan; i < filled; i++) {
+					if (data[i] == '\n') {
+						newline = i;
+						break;
+					}
+				}
+				if (newline >= 0) {
+					long lineEnd = base + newline + 1;
+					processLine(start, newline, lineEnd);
+					start = scan = newline + 1;
+					if (firstLineOnly)
+						return lineEnd;
+					continue;
+				}
+				if (eof) {
+					if (start < filled)
+						processLine(start, filled, base + filled);
+					return base + filled;
+				}
+				if (cancelled)
+					throw new IOException("Import cancelled.");
+
+				// Move the partial line to the beginning and read more.
+				if (start > 0) {
+					System.arraycopy(data, start, data, 0, filled - start);
+					base += start;
+					filled -= start;
+					start = 0;
+				}
+				scan = filled;
+				if (filled == data.length)
+					throw new IOException("Line at offset " + base + " is longer than " + data.length + " bytes.");
+				window.limit(data.length).position(filled);
+				int read = channel.read(window, base + filled);
+				if (read < 0)
+					eof = true;
+				else
+					filled += read;
+			}
+		}
+
+		/**
+		 * Parses a line and submits a batch when it is full.
+		 *
+		 * @param start The position of the line in the buffer.
+		 * @param end The position of the line break in the buffer.
+		 * @param endOffset The offset of the file after the line.
+		 *
+		 * @throws IOException If a batch cannot be uploaded.
+		 */
+		private void processLine(int start, int end, long endOffset) throws IOException {
+			if (end > start && data[end - 1] == '\r')
+				end--;
+			if (format == Format.CSV && csvColumns == null) {
+				parseHeader(start, end);
+				return;
+			}
+			if (skipSpaces(start, end) == end) {
+				lastRowEnd = endOffset;
+				return;
+			}
+
+			rowStart = points.size();
+			rowTimed = false;
+			boolean valid = format == Format.CSV ? parseCsvRow(start, end) : parseJsonRow(start, end);
+			if (valid) {
+				rows++;
+			} else {
+				points.subList(rowStart, points.size()).clear();
+				rejected++;
+			}
+
+			if (points.size() > CloudConnectorManager.MAXIMUM_DATA_POINTS) {
+				if (rowStart == 0)
+					throw new IOException("Row at offset " + lastRowEnd + " has more than "
+							+ CloudConnectorManager.MAXIMUM_DATA_POINTS + " values.");
+				// Send the previous rows and keep this one for the next batch.
+				ArrayList<DataPoint> row = new ArrayList<>(points.subList(rowStart, points.size()));
+				points.subList(rowStart, points.size()).clear();
+				submit(lastRowEnd, rows - 1);
+				points.addAll(row);
+			}
+			if (points.size() == CloudConnectorManager.MAXIMUM_DATA_POINTS)
+				submit(endOffset, rows);
+			lastRowEnd = endOffset;
+		}
+
+		/**
+		 * Parses the header of a CSV file and maps its columns.
+		 *
+		 * @param start The position of the line in the buffer.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @throws IOException If the header has too many columns.
+		 */
+		private void parseHeader(int start, int end) throws IOException {
+			int count = splitCsv(start, end);
+			if (count > MAX_COLUMNS)
+				throw new IOException("File has more than " + MAX_COLUMNS + " columns.");
+			csvColumns = new Column[count];
+			for (int i = 0; i < count; i++) {
+				String name = getCsvField(i).trim();
+				csvColumns[i] = new Column(name.getBytes(UTF_8), resolveStream(name), isTimeColumn(name));
+			}
+		}
+
+		/**
+		 * Parses a CSV row and adds its values to the current batch.
+		 *
+		 * @param start The position of the line in the buffer.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @return {@code true} if the row is valid, {@code false} if its time
+		 *         cannot be parsed. Invalid values are rejected one by one.
+		 */
+		private boolean parseCsvRow(int start, int end) {
+			int count = Math.min(splitCsv(start, end), csvColumns.length);
+			for (int i = 0; i < count; i++) {
+				if (csvColumns[i].time && !setRowTime(getCsvField(i)))
+					return false;
+				StreamSchema stream = csvColumns[i].stream;
+				if (stream == null || fieldStarts[i] == fieldEnds[i])
+					continue;
+				addValue(stream, stream.type == DataPointJournal.TYPE_STRING ? getCsvField(i)
+						: new String(data, fieldStarts[i], fieldEnds[i] - fieldStarts[i], ISO_8859_1));
+			}
+			return true;
+		}
+
+		/**
+		 * Splits a CSV line into fields, whose bounds are stored in
+		 * {@code fieldStarts} and {@code fieldEnds}.
+		 *
+		 * @param start The position of the line in the buffer.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @return The number of fields.
+		 */
+		private int splitCsv(int start, int end) {
+			int count = 0;
+			int i = start;
+			while (true) {
+				if (count == fieldStarts.length) {
+					fieldStarts = Arrays.copyOf(fieldStarts, count * 2);
+					fieldEnds = Arrays.copyOf(fieldEnds, count * 2);
+					quotedFields = Arrays.copyOf(quotedFields, count * 2);
+				}
+				if (i < end && data[i] == '"') {
+					int j = i + 1;
+					while (j < end && (data[j] != '"' || (j + 1 < end && data[j + 1] == '"')))
+						j += data[j] == '"' ? 2 : 1;
+					fieldStarts[count] = i + 1;
+					fieldEnds[count] = Math.min(j, end);
+					quotedFields[count] = true;
+					i = j;
+					while (i < end && data[i] != ',')
+						i++;
+				} else {
+					int j = i;
+					while (j < end && data[j] != ',')
+						j++;
+					fieldStarts[count] = i;
+					fieldEnds[count] = j;
+					quotedFields[count] = false;
+					i = j;
+				}
+				count++;
+				if (i >= end)
+					return count;
+				// Skip the comma.
+				i++;
+			}
+		}
+
+		/**
+		 * Returns the text of the given CSV field.
+		 *
+		 * @param index The index of the field.
+		 *
+		 * @return The text of the field.
+		 */
+		private String getCsvField(int index) {
+			String text = new String(data, fieldStarts[index], fieldEnds[index] - fieldStarts[index], UTF_8);
+			return quotedFields[index] ? text.replace("\"\"", "\"") : text;
+		}
+
+		/**
+		 * Parses an NDJSON row and adds its values to the current batch.
+		 *
+		 * @param start The position of the line in the buffer.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @return {@code true} if the row is a valid object and its time can
+		 *         be parsed, {@code false} otherwise.
+		 *
+		 * @throws IOException If the file has too many keys.
+		 */
+		private boolean parseJsonRow(int start, int end) throws IOException {
+			int i = skipSpaces(start, end);
+			if (i == end || data[i] != '{')
+				return false;
+			i = skipSpaces(i + 1, end);
+			if (i < end && data[i] == '}')
+				return true;
+			while (i < end) {
+				if (data[i] != '"')
+					return false;
+				int keyEnd = findStringEnd(i + 1, end);
+				if (keyEnd < 0)
+					return false;
+				Column column = getJsonColumn(i + 1, keyEnd);
+				StreamSchema stream = column.stream;
+				boolean read = stream != null || column.time;
+				i = skipSpaces(keyEnd + 1, end);
+				if (i == end || data[i] != ':')
+					return false;
+				i = skipSpaces(i + 1, end);
+				if (i == end)
+					return false;
+
+				String value = null;
+				if (data[i] == '"') {
+					int valueEnd = findStringEnd(i + 1, end);
+					if (valueEnd < 0)
+						return false;
+					if (read)
+						value = decodeJsonString(i + 1, valueEnd);
+					i = valueEnd + 1;
+				} else if (data[i] == '{' || data[i] == '[') {
+					// Nested values are not imported.
+					i = skipNested(i, end);
+					if (i < 0)
+						return false;
+				} else {
+					int valueStart = i;
+					while (i < end && data[i] != ',' && data[i] != '}' && !isSpace(data[i]))
+						i++;
+					if (read)
+						value = new String(data, valueStart, i - valueStart, ISO_8859_1);
+					if ("null".equals(value))
+						value = null;
+				}
+				if (column.time) {
+					if (value == null || !setRowTime(value))
+						return false;
+				} else if (value != null) {
+					addValue(stream, value);
+				}
+
+				i = skipSpaces(i, end);
+				if (i < end && data[i] == '}')
+					return skipSpaces(i + 1, end) == end;
+				if (i == end || data[i] != ',')
+					return false;
+				i = skipSpaces(i + 1, end);
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the column of the given NDJSON key, mapping it the first
+		 * time it is found.
+		 *
+		 * @param start The position of the key in the buffer.
+		 * @param end The end of the key in the buffer.
+		 *
+		 * @return The column of the key.
+		 *
+		 * @throws IOException If the file has too many keys.
+		 */
+		private Column getJsonColumn(int start, int end) throws IOException {
+			int length = end - start;
+			for (int c = 0; c < columns.size(); c++) {
+				byte[] name = columns.get(c).name;
+				if (name.length != length)
+					continue;
+				int i = 0;
+				while (i < length && name[i] == data[start + i])
+					i++;
+				if (i == length)
+					return columns.get(c);
+			}
+			if (columns.size() == MAX_COLUMNS)
+				throw new IOException("File has more than " + MAX_COLUMNS + " keys.");
+			String name = decodeJsonString(start, end);
+			Column column = new Column(Arrays.copyOfRange(data, start, end), resolveStream(name), isTimeColumn(name));
+			columns.add(column);
+			return column;
+		}
+
+		/**
+		 * Returns the data stream the given column is imported to.
+		 *
+		 * @param name The name of the column.
+		 *
+		 * @return The schema of the data stream, {@code null} if the column
+		 *         is not imported.
+		 */
+		private StreamSchema resolveStream(String name) {
+			if (name.isEmpty() || isTimeColumn(name))
+				return null;
+			String path = streamPrefix + "/" + name;
+			StreamSchema stream = registry.get(path);
+			if (stream == null)
+				stream = registry.register(path, DataPointJournal.TYPE_DOUBLE);
+			return stream;
+		}
+
+		/**
+		 * Sets the time of the current row, also to the values of the row
+		 * already added to the batch.
+		 *
+		 * @param text The text of the time.
+		 *
+		 * @return {@code true} if the time is valid, {@code false} otherwise.
+		 */
+		private boolean setRowTime(String text) {
+			try {
+				rowTime = parseTimestamp(text);
+			} catch (IllegalArgumentException e) {
+				return false;
+			}
+			rowTimed = true;
+			for (int i = rowStart; i < points.size(); i++)
+				points.get(i).setTimestamp(rowTime);
+			return true;
+		}
+
+		/**
+		 * Validates the given value against the schema of its data stream and
+		 * adds it to the current batch with the time of the row, or rejects
+		 * it.
+		 *
+		 * @param stream The schema of the data stream.
+		 * @param value The text of the value.
+		 */
+		private void addValue(StreamSchema stream, String value) {
+			DataPoint dataPoint;
+			if (stream.type == DataPointJournal.TYPE_STRING) {
+				dataPoint = new DataPoint(value, stream.getDataStream());
+			} else {
+				Number number;
+				try {
+					number = stream.parse(value);
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					rejected++;
+					return;
+				}
+				switch (stream.type) {
+					case DataPointJournal.TYPE_INTEGER:
+						dataPoint = new DataPoint(number.intValue(), stream.getDataStream());
+						break;
+					case DataPointJournal.TYPE_LONG:
+						dataPoint = new DataPoint(number.longValue(), stream.getDataStream());
+						break;
+					case DataPointJournal.TYPE_FLOAT:
+						dataPoint = new DataPoint(number.floatValue(), stream.getDataStream());
+						break;
+					case DataPointJournal.TYPE_DOUBLE:
+					default:
+						dataPoint = new DataPoint(number.doubleValue(), stream.getDataStream());
+				}
+			}
+			if (rowTimed)
+				dataPoint.setTimestamp(rowTime);
+			points.add(dataPoint);
+		}
+
+		/**
+		 * Submits the current batch, waiting for the oldest one if there are
+		 * too many in flight.
+		 *
+		 * @param endOffset The offset of the file after the last row of the
+		 *                  batch.
+		 * @param batchRows The number of rows imported up to the end of the
+		 *                  batch.
+		 *
+		 * @throws IOException If the import is cancelled or a batch was not
+		 *                     acknowledged.
+		 */
+		private void submit(long endOffset, long batchRows) throws IOException {
+			if (cancelled)
+				throw new IOException("Import cancelled.");
+			if (!sender.isConnected())
+				throw new IOException("Not connected.");
+			while (pending.size() >= MAX_PENDING_BATCHES)
+				acknowledgeOldest();
+			pending.addLast(new Batch(sender.submit(points, streamPrefix + "/"), endOffset, batchRows));
+			points = new ArrayList<>(CloudConnectorManager.MAXIMUM_DATA_POINTS);
+		}
+
+		/**
+		 * Waits for the acknowledgement of the oldest batch in flight and
+		 * advances the checkpoint.
+		 *
+		 * @throws IOException If the batch was not acknowledged.
+		 */
+		private void acknowledgeOldest() throws IOException {
+			Batch batch = pending.peekFirst();
+			try {
+				batch.future.get(sender.getResultTimeout() + ACK_MARGIN, TimeUnit.MILLISECONDS);
+			} catch (ExecutionException e) {
+				throw new IOException("Batch was not acknowledged: "
+						+ (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+			} catch (TimeoutException e) {
+				throw new IOException("Batch was not acknowledged in time.");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancelled = true;
+				throw new IOException("Import cancelled.");
+			}
+			pending.pollFirst();
+			sender.getStatistics().recordBytes(batch.endOffset - checkpointOffset);
+			checkpointOffset = batch.endOffset;
+			checkpointRows = batch.rows;
+
+			long now = System.nanoTime();
+			if (now - lastProgressTime >= PROGRESS_INTERVAL) {
+				lastProgressTime = now;
+				saveProgress();
+				listener.importProgress(file.getName(), checkpointRows, checkpointOffset, size, getRate());
+			}
+		}
+
+		/**
+		 * Returns the number of rows acknowledged per second since the import
+		 * started.
+		 *
+		 * @return The import rate, in rows per second.
+		 */
+		private double getRate() {
+			double seconds = (System.nanoTime() - startTime) / 1e9;
+			return seconds > 0 ? (checkpointRows - startRows) / seconds : 0;
+		}
+
+		/**
+		 * Reads the checkpoint of a previous import of the file.
+		 */
+		private void readProgress() {
+			if (!progressFile.exists())
+				return;
+			try {
+				DataInputStream input = new DataInputStream(new FileInputStream(progressFile));
+				try {
+					// Only resume if the file was not modified.
+					if (!file.getAbsolutePath().equals(input.readUTF())
+							|| file.length() != input.readLong()
+							|| file.lastModified() != input.readLong())
+						return;
+					checkpointOffset = input.readLong();
+					checkpointRows = input.readLong();
+				} finally {
+					input.close();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+				checkpointOffset = 0;
+				checkpointRows = 0;
+			}
+		}
+
+		/**
+		 * Saves the checkpoint of the import, if any row was acknowledged.
+		 */
+		private void saveProgress() {
+			if (checkpointOffset == 0)
+				return;
+			try {
+				if (!progressDirectory.isDirectory() && !progressDirectory.mkdirs())
+					throw new IOException("Could not create progress directory " + progressDirectory);
+				DataOutputStream output = new DataOutputStream(new FileOutputStream(progressFile));
+				try {
+					output.writeUTF(file.getAbsolutePath());
+					output.writeLong(file.length());
+					output.writeLong(file.lastModified());
+					output.writeLong(checkpointOffset);
+					output.writeLong(checkpointRows);
+				} finally {
+					output.close();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		/**
+		 * Returns the position of the closing quote of a JSON string.
+		 *
+		 * @param i The position after the opening quote.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @return The position of the closing quote, {@code -1} if the
+		 *         string is not closed.
+		 */
+		private int findStringEnd(int i, int end) {
+			while (i < end) {
+				if (data[i] == '\\')
+					i += 2;
+				else if (data[i] == '"')
+					return i;
+				else
+					i++;
+			}
+			return -1;
+		}
+
+		/**
+		 * Returns the position after a nested JSON object or array.
+		 *
+		 * @param i The position of the opening bracket.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @return The position after the closing bracket, {@code -1} if it is
+		 *         not closed.
+		 */
+		private int skipNested(int i, int end) {
+			int depth = 0;
+			while (i < end) {
+				byte b = data[i];
+				if (b == '"') {
+					i = findStringEnd(i + 1, end);
+					if (i < 0)
+						return -1;
+				} else if (b == '{' || b == '[') {
+					depth++;
+				} else if ((b == '}' || b == ']') && --depth == 0) {
+					return i + 1;
+				}
+				i++;
+			}
+			return -1;
+		}
+
+		/**
+		 * Decodes the content of a JSON string.
+		 *
+		 * @param start The position after the opening quote.
+		 * @param end The position of the closing quote.
+		 *
+		 * @return The decoded string.
+		 */
+		private String decodeJsonString(int start, int end) {
+			String text = new String(data, start, end - start, UTF_8);
+			if (text.indexOf('\\') < 0)
+				return text;
+			StringBuilder builder = new StringBuilder(text.length());
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c != '\\' || i + 1 == text.length()) {
+					builder.append(c);
+					continue;
+				}
+				c = text.charAt(++i);
+				switch (c) {
+					case 'b':
+						builder.append('\b');
+						break;
+					case 'f':
+						builder.append('\f');
+						break;
+					case 'n':
+						builder.append('\n');
+						break;
+					case 'r':
+						builder.append('\r');
+						break;
+					case 't':
+						builder.append('\t');
+						break;
+					case 'u':
+						if (i + 4 < text.length()) {
+							try {
+								builder.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+								i += 4;
+								break;
+							} catch (NumberFormatException e) {
+								// Keep the sequence as is.
+							}
+						}
+						builder.append(c);
+						break;
+					default:
+						builder.append(c);
+				}
+			}
+			return builder.toString();
+		}
+
+		/**
+		 * Returns the first position from the given one that is not a space.
+		 *
+		 * @param i The position to start from.
+		 * @param end The end of the line in the buffer.
+		 *
+		 * @return The first position that is not a space.
+		 */
+		private int skipSpaces(int i, int end) {
+			while (i < end && isSpace(data[i]))
+				i++;
+			return i;
+		}
+	}
+
+	/**
+	 * Returns whether the column with the given name holds the time of the
+	 * rows.
+	 *
+	 * @param name The name of the column.
+	 *
+	 * @return {@code true} if it is a time column, {@code false} otherwise.
+	 */
+	private static boolean isTimeColumn(String name) {
+		for (String timeColumn : TIME_COLUMNS) {
+			if (timeColumn.equalsIgnoreCase(name))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Parses a timestamp given in milliseconds since the epoch or in
+	 * ISO-8601 format, such as {@code 2024-01-31T12:00:00.250+01:00}. The
+	 * time and the offset are optional; times without offset are in UTC.
+	 *
+	 * @param text The text of the timestamp.
+	 *
+	 * @return The timestamp, in milliseconds since the epoch.
+	 *
+	 * @throws IllegalArgumentException If the text is not a valid timestamp.
+	 */
+	static long parseTimestamp(String text) {
+		String value = text.trim();
+		int length = value.length();
+		int i = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+		while (i < length && isDigit(value.charAt(i)))
+			i++;
+		if (i == length && length > 0) {
+			try {
+				return Long.parseLong(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid timestamp: " + text);
+			}
+		}
+
+		if (length < 10 || value.charAt(4) != '-' || value.charAt(7) != '-')
+			throw new IllegalArgumentException("Invalid timestamp: " + text);
+		int year = parseDigits(value, 0, 4);
+		int month = parseDigits(value, 5, 2);
+		int day = parseDigits(value, 8, 2);
+		if (month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month))
+			throw new IllegalArgumentException("Invalid timestamp: " + text);
+		long millis = 0;
+		i = 10;
+		if (i < length && (value.charAt(i) == 'T' || value.charAt(i) == ' ')) {
+			if (length < i + 6 || value.charAt(i + 3) != ':')
+				throw new IllegalArgumentException("Invalid timestamp: " + text);
+			int hour = parseDigits(value, i + 1, 2);
+			int minute = parseDigits(value, i + 4, 2);
+			int second = 0;
+			i += 6;
+			if (i < length && value.charAt(i) == ':') {
+				second = parseDigits(value, i + 1, 2);
+				i += 3;
+				if (i < length && (value.charAt(i) == '.' || value.charAt(i) == ',')) {
+					int fractionStart = ++i;
+					// Only the milliseconds are kept.
+					for (int scale = 100; i < length && isDigit(value.charAt(i)); i++, scale /= 10)
+						millis += (value.charAt(i) - '0') * scale;
+					if (i == fractionStart)
+						throw new IllegalArgumentException("Invalid timestamp: " + text);
+				}
+			}
+			if (hour > 23 || minute > 59 || second > 59)
+				throw new IllegalArgumentException("Invalid timestamp: " + text);
+			millis += ((hour * 60L + minute) * 60 + second) * 1000;
+		}
+		if (i < length) {
+			char sign = value.charAt(i);
+			if (sign == 'Z' && i + 1 == length) {
+				i++;
+			} else if (sign == '+' || sign == '-') {
+				int offsetHours = parseDigits(value, i + 1, 2);
+				int offsetMinutes = 0;
+				i += 3;
+				if (i < length && value.charAt(i) == ':')
+					i++;
+				if (i < length) {
+					offsetMinutes = parseDigits(value, i, 2);
+					i += 2;
+				}
+				if (offsetHours > 23 || offsetMinutes > 59)
+					throw new IllegalArgumentException("Invalid timestamp: " + text);
+				long offset = (offsetHours * 60L + offsetMinutes) * 60000;
+				millis -= sign == '+' ? offset : -offset;
+			}
+			if (i != length)
+				throw new IllegalArgumentException("Invalid timestamp: " + text);
+		}
+		return getEpochDay(year, month, day) * 86400000L + millis;
+	}
+
+	/**
+	 * Parses the given number of decimal digits of a text.
+	 *
+	 * @param text The text.
+	 * @param start The position of the first digit.
+	 * @param count The number of digits.
+	 *
+	 * @return The value of the digits.
+	 *
+	 * @throws IllegalArgumentException If the text does not have that many
+	 *                                  digits at the given position.
+	 */
+	private static int parseDigits(String text, int start, int count) {
+		if (start + count > text.length())
+			throw new IllegalArgumentException("Invalid timestamp: " + text);
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			char c = text.charAt(i);
+			if (!isDigit(c))
+				throw new IllegalArgumentException("Invalid timestamp: " + text);
+			value = value * 10 + c - '0';
+		}
+		return value;
+	}
+
+	/**
+	 * Returns whether the given character is a decimal digit.
+	 *
+	 * @param c The character to check.
+	 *
+	 * @return {@code true} if it is a digit, {@code false} otherwise.
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Returns the number of days of the given month.
+	 *
+	 * @param year The year.
+	 * @param month The month, from 1 to 12.
+	 *
+	 * @return The number of days of the month.
+	 */
+	private static int getDaysInMonth(int year, int month) {
+		if (month == 2)
+			return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+		return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+	}
+
+	/**
+	 * Returns the number of days from 1970-01-01 to the given date of the
+	 * proleptic Gregorian calendar.
+	 *
+	 * @param year The year, from 0 to 9999.
+	 * @param month The month, from 1 to 12.
+	 * @param day The day of the month.
+	 *
+	 * @return The number of days since the epoch.
+	 */
+	private static long getEpochDay(int year, int month, int day) {
+		// Count the years from March, so the leap day is the last one.
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
+	/**
+	 * Returns whether the given byte is a whitespace character.
+	 *
+	 * @param b The byte to check.
+	 *
+	 * @return {@code true} if the byte is a whitespace, {@code false}
+	 *         otherwise.
+	 */
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+}
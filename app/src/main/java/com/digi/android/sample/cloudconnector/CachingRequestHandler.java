@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Device request handler that caches the responses of another handler.
+ *
+ * <p>Two mechanisms are provided:</p>
+ * <ul>
+ *     <li>Response cache: if enabled (time to live greater than 0), the
+ *     response of a request is reused for any other request of the same
+ *     target with the same payload until it expires. This is meant for
+ *     read-only targets only. String and binary requests are cached
+ *     separately.</li>
+ *     <li>Idempotency: requests whose payload starts with an
+ *     {@value #IDEMPOTENCY_PREFIX}{@code <token>} line are executed only
+ *     once per token; retries with the same token get the response of the
+ *     first execution. The rest of the payload is passed to the
+ *     handler.</li>
+ * </ul>
+ *
+ * <p>Identical requests that arrive while the first one is still running
+ * wait for its response instead of running again. Both caches are bounded
+ * and evict the least recently used entries. Requests are keyed by the
+ * SHA-256 digest of their payload or token, so the cache does not keep a
+ * copy of the payloads.</p>
+ */
+class CachingRequestHandler implements IDeviceRequestListener {
+
+	// Constants.
+	static final String IDEMPOTENCY_PREFIX = "Idempotency-Key: ";
+
+	private final static long IDEMPOTENCY_RETENTION = 10 * 60 * 1000;
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final static String DIGEST_ALGORITHM = "SHA-256";
+
+	// Kinds of key, so equal strings, bytes and tokens do not collide.
+	private final static byte KEY_STRING = 0;
+	private final static byte KEY_BINARY = 1;
+	private final static byte KEY_TOKEN = 2;
+
+	// Variables.
+	private final IDeviceRequestListener handler;
+
+	private final long ttl;
+
+	private final BoundedMap responses;
+	private final BoundedMap idempotentResponses;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong replays = new AtomicLong();
+
+	/**
+	 * Class constructor. Instantiates a new {@code CachingRequestHandler}
+	 * using the given parameters.
+	 *
+	 * @param handler The handler to cache the responses of.
+	 * @param ttl The time to keep the responses in the cache, in
+	 *            milliseconds, or {@code 0} to only honor the idempotency
+	 *            tokens.
+	 * @param maxEntries The maximum number of responses kept in each cache.
+	 *
+	 * @throws IllegalArgumentException If the time to live is negative or
+	 *                                  the number of entries not positive.
+	 */
+	CachingRequestHandler(IDeviceRequestListener handler, long ttl, int maxEntries) {
+		if (ttl < 0 || maxEntries < 1)
+			throw new IllegalArgumentException("Invalid cache configuration.");
+
+		this.handler = handler;
+		this.ttl = ttl;
+		this.responses = new BoundedMap(maxEntries);
+		this.idempotentResponses = new BoundedMap(maxEntries);
+	}
+
+	@Override
+	public String handleDeviceRequest(final String target, byte[] data) {
+		String token = null;
+		int start = 0;
+		if (startsWithPrefix(data)) {
+			int end = indexOf(data, (byte) '\n', IDEMPOTENCY_PREFIX.length());
+			if (end > 0) {
+				token = new String(data, IDEMPOTENCY_PREFIX.length(), end - IDEMPOTENCY_PREFIX.length(), UTF_8).trim();
+				start = end + 1;
+			}
+		}
+		final byte[] payload = start == 0 ? data : Arrays.copyOfRange(data, start, data.length);
+		Callable<String> request = new Callable<String>() {
+			@Override
+			public String call() {
+				return handler.handleDeviceRequest(target, payload);
+			}
+		};
+		if (token != null)
+			return execute(idempotentResponses, new CacheKey(target, KEY_TOKEN, token.getBytes(UTF_8)),
+					IDEMPOTENCY_RETENTION, request, replays);
+		if (ttl > 0)
+			return execute(responses, new CacheKey(target, KEY_BINARY, payload), ttl, request, hits);
+		return handler.handleDeviceRequest(target, payload);
+	}
+
+	@Override
+	public String handleDeviceRequest(final String target, String data) {
+		String token = null;
+		String payload = data;
+		if (data.startsWith(IDEMPOTENCY_PREFIX)) {
+			int end = data.indexOf('\n');
+			if (end > 0) {
+				token = data.substring(IDEMPOTENCY_PREFIX.length(), end).trim();
+				payload = data.substring(end + 1);
+			}
+		}
+		final String request = payload;
+		Callable<String> task = new Callable<String>() {
+			@Override
+			public String call() {
+				return handler.handleDeviceRequest(target, request);
+			}
+		};
+		if (token != null)
+			return execute(idempotentResponses, new CacheKey(target, KEY_TOKEN, token.getBytes(UTF_8)),
+					IDEMPOTENCY_RETENTION, task, replays);
+		if (ttl > 0)
+			return execute(responses, new CacheKey(target, KEY_STRING, payload.getBytes(UTF_8)), ttl, task, hits);
+		return handler.handleDeviceRequest(target, payload);
+	}
+
+	/**
+	 * Returns the number of requests answered from the response cache.
+	 *
+	 * @return The number of cache hits.
+	 */
+	long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of requests that had to be executed, either because
+	 * they were not cached or because it was the first time their
+	 * idempotency token was seen.
+	 *
+	 * @return The number of cache misses.
+	 */
+	long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of retried requests answered with the response of
+	 * their idempotency token.
+	 *
+	 * @return The number of replayed responses.
+	 */
+	long getReplayCount() {
+		return replays.get();
+	}
+
+	/**
+	 * Returns the cached response for the given key, running the request if
+	 * there is none.
+	 *
+	 * @param cache The cache to use.
+	 * @param key The key of the request.
+	 * @param retention The time to keep the response, in milliseconds.
+	 * @param request The request to run.
+	 * @param hitCounter The counter to increment if the response is reused.
+	 *
+	 * @return The response of the request.
+	 */
+	private String execute(BoundedMap cache, CacheKey key, long retention, Callable<String> request, AtomicLong hitCounter) {
+		long now = System.currentTimeMillis();
+		CacheEntry entry;
+		boolean owner = false;
+		synchronized (cache) {
+			entry = cache.get(key);
+			if (entry != null && entry.expiration <= now && entry.task.isDone()) {
+				cache.remove(key);
+				entry = null;
+			}
+			if (entry == null) {
+				entry = new CacheEntry(new FutureTask<>(request), now + retention);
+				cache.put(key, entry);
+				owner = true;
+			}
+		}
+		if (owner) {
+			misses.incrementAndGet();
+			entry.task.run();
+		} else {
+			hitCounter.incrementAndGet();
+		}
+
+		try {
+			return entry.task.get();
+		} catch (ExecutionException e) {
+			// Do not keep failed executions, so they can be retried.
+			synchronized (cache) {
+				if (cache.get(key) == entry)
+					cache.remove(key);
+			}
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Returns whether the given payload starts with the idempotency prefix.
+	 *
+	 * @param data The payload.
+	 *
+	 * @return {@code true} if it starts with the prefix, {@code false}
+	 *         otherwise.
+	 */
+	private static boolean startsWithPrefix(byte[] data) {
+		if (data.length < IDEMPOTENCY_PREFIX.length())
+			return false;
+		for (int i = 0; i < IDEMPOTENCY_PREFIX.length(); i++) {
+			if (data[i] != IDEMPOTENCY_PREFIX.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index of the given byte in the payload.
+	 *
+	 * @param data The payload.
+	 * @param value The byte to look for.
+	 * @param from The index to start looking from.
+	 *
+	 * @return The index of the byte, or {@code -1} if it is not found.
+	 */
+	private static int indexOf(byte[] data, byte value, int from) {
+		for (int i = from; i < data.length; i++) {
+			if (data[i] == value)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Class used as key of the cached responses: the target and the digest
+	 * of the payload or the token.
+	 */
+	private static class CacheKey {
+		final String target;
+		final byte[] digest;
+		final int hash;
+
+		CacheKey(String target, byte kind, byte[] data) {
+			MessageDigest messageDigest;
+			try {
+				messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				// Every Java platform has SHA-256.
+				throw new IllegalStateException(e);
+			}
+			messageDigest.update(kind);
+			this.target = target;
+			this.digest = messageDigest.digest(data);
+			this.hash = 31 * target.hashCode() + Arrays.hashCode(digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof CacheKey))
+				return false;
+			CacheKey other = (CacheKey) o;
+			return hash == other.hash && target.equals(other.target) && Arrays.equals(digest, other.digest);
+		}
+	}
+
+	/**
+	 * Class that holds a cached response, which may still be running.
+	 */
+	private static class CacheEntry {
+		final FutureTask<String> task;
+		final long expiration;
+
+		CacheEntry(FutureTask<String> task, long expiration) {
+			this.task = task;
+			this.expiration = expiration;
+		}
+	}
+
+	/**
+	 * Map in access order that evicts the least recently used entry when it
+	 * is full.
+	 */
+	private static class BoundedMap {
+		private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		private final int maxEntries;
+
+		BoundedMap(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		CacheEntry get(CacheKey key) {
+			return entries.get(key);
+		}
+
+		void put(CacheKey key, CacheEntry entry) {
+			entries.put(key, entry);
+			if (entries.size() > maxEntries) {
+				Iterator<CacheKey> eldest = entries.keySet().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+		}
+
+		void remove(CacheKey key) {
+			entries.remove(key);
+		}
+	}
+}
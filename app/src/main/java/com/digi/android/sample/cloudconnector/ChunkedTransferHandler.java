@@ -0,0 +1,568 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Device request handler that receives big payloads, such as firmware
+ * images or configuration bundles, as a sequence of chunks written
+ * straight to disk.
+ *
+ * <p>Each binary request carries one message of a transfer:</p>
+ *
+ * <pre>
+ * BEGIN:  | 1 | id length (1) | id | size (8) | chunk size (4) | SHA-256 (32) |
+ * DATA:   | 2 | id length (1) | id | chunk index (4) | CRC32 (4) | data |
+ * COMMIT: | 3 | id length (1) | id |
+ * ABORT:  | 4 | id length (1) | id |
+ * </pre>
+ *
+ * <p>BEGIN preallocates a {@code .part} file of the payload size. Each
+ * chunk is checked against its CRC32 and written at its position with a
+ * positional {@link FileChannel} write, so chunks can arrive in any order,
+ * several at a time, or twice. The chunks received are tracked in a bitmap
+ * kept in a {@code .state} file, updated one byte at a time, so a transfer
+ * interrupted by a restart is resumed by sending BEGIN again: the response
+ * says which chunks are still missing. COMMIT verifies the SHA-256 of the
+ * whole file and moves it to its final name.</p>
+ *
+ * <p>Transfer identifiers are up to 64 letters, digits, dots, dashes and
+ * underscores. They name the files of the transfer, so they cannot start
+ * with a dot or end with the extension of those files.</p>
+ *
+ * <p>Responses are {@code OK <received> <total> <next>}, where
+ * {@code next} is the first missing chunk, or an error message. The
+ * payload is never held in memory: only the request of a chunk, the bitmap
+ * (one bit per chunk) and a fixed buffer to compute the digest.</p>
+ */
+class ChunkedTransferHandler implements IDeviceRequestListener {
+
+	// Constants.
+	final static byte MESSAGE_BEGIN = 1;
+	final static byte MESSAGE_DATA = 2;
+	final static byte MESSAGE_COMMIT = 3;
+	final static byte MESSAGE_ABORT = 4;
+
+	final static String ERROR_INVALID_MESSAGE = "Error: invalid transfer message";
+	final static String ERROR_UNKNOWN_TRANSFER = "Error: unknown transfer";
+	final static String ERROR_TOO_MANY_TRANSFERS = "Error: too many transfers";
+	final static String ERROR_CHUNK_CHECKSUM = "Error: chunk checksum mismatch";
+	final static String ERROR_FILE_CHECKSUM = "Error: payload checksum mismatch, send it again";
+	final static String ERROR_BINARY_EXPECTED = "Error: binary payload expected";
+
+	private final static String RESPONSE_OK = "OK";
+
+	private final static int DIGEST_SIZE = 32;
+	private final static int MIN_CHUNK_SIZE = 1024;
+	private final static int MAX_CHUNKS = 1 << 20;
+
+	private final static int STATE_MAGIC = 0x43435446;
+	private final static int STATE_HEADER_SIZE = 4 + 8 + 4 + DIGEST_SIZE;
+
+	private final static int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+	private final static String PART_EXTENSION = ".part";
+	private final static String STATE_EXTENSION = ".state";
+
+	private final static Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	// Variables.
+	private final File directory;
+
+	private final int maxTransfers;
+
+	private final ITransferListener listener;
+
+	private final ConcurrentHashMap<String, Transfer> transfers = new ConcurrentHashMap<>();
+
+	/**
+	 * Class constructor. Instantiates a new {@code ChunkedTransferHandler}
+	 * using the given parameters.
+	 *
+	 * @param directory The directory to store the payloads in.
+	 * @param maxTransfers The maximum number of transfers open at the same
+	 *                     time.
+	 * @param listener The listener to notify the received payloads to.
+	 *
+	 * @throws IllegalArgumentException If the maximum number of transfers is
+	 *                                  not positive.
+	 */
+	ChunkedTransferHandler(File directory, int maxTransfers, ITransferListener listener) {
+		if (maxTransfers < 1)
+			throw new IllegalArgumentException("Maximum transfers must be positive.");
+
+		this.directory = directory;
+		this.maxTransfers = maxTransfers;
+		this.listener = listener;
+	}
+
+	@Override
+	public String handleDeviceRequest(String target, byte[] data) {
+		try {
+			ByteBuffer message = ByteBuffer.wrap(data);
+			byte type = message.get();
+			byte[] idBytes = new byte[message.get() & 0xFF];
+			message.get(idBytes);
+			String id = new String(idBytes, UTF_8);
+			if (!isValidId(id))
+				return ERROR_INVALID_MESSAGE;
+			switch (type) {
+				case MESSAGE_BEGIN:
+					return begin(id, message);
+				case MESSAGE_DATA:
+					return receive(id, message);
+				case MESSAGE_COMMIT:
+					return commit(id);
+				case MESSAGE_ABORT:
+					return abort(id);
+				default:
+					return ERROR_INVALID_MESSAGE;
+			}
+		} catch (RuntimeException e) {
+			// Truncated message.
+			return ERROR_INVALID_MESSAGE;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return "Error: " + e.getMessage();
+		}
+	}
+
+	@Override
+	public String handleDeviceRequest(String target, String data) {
+		return ERROR_BINARY_EXPECTED;
+	}
+
+	/**
+	 * Closes the files of the open transfers. They can be resumed later.
+	 */
+	void close() {
+		for (Transfer transfer : transfers.values())
+			transfer.close();
+		transfers.clear();
+	}
+
+	/**
+	 * Returns whether the given transfer identifier can be used as a file
+	 * name without clashing with the files of other transfers or with the
+	 * directory itself.
+	 *
+	 * @param id The identifier of the transfer.
+	 *
+	 * @return {@code true} if the identifier is valid, {@code false}
+	 *         otherwise.
+	 */
+	private static boolean isValidId(String id) {
+		if (!ID_PATTERN.matcher(id).matches() || id.startsWith("."))
+			return false;
+		// File systems may ignore the case of the names.
+		String name = id.toLowerCase(Locale.US);
+		return !name.endsWith(PART_EXTENSION) && !name.endsWith(STATE_EXTENSION);
+	}
+
+	/**
+	 * Starts or resumes a transfer.
+	 *
+	 * @param id The identifier of the transfer.
+	 * @param message The rest of the message.
+	 *
+	 * @return The response with the chunks received.
+	 *
+	 * @throws IOException If the files of the transfer cannot be created.
+	 */
+	private String begin(String id, ByteBuffer message) throws IOException {
+		long size = message.getLong();
+		int chunkSize = message.getInt();
+		byte[] digest = new byte[DIGEST_SIZE];
+		message.get(digest);
+		if (size < 0 || chunkSize < MIN_CHUNK_SIZE || (size + chunkSize - 1) / chunkSize > MAX_CHUNKS)
+			return ERROR_INVALID_MESSAGE;
+
+		Transfer transfer = getTransfer(id);
+		if (transfer != null && !transfer.matches(size, chunkSize, digest)) {
+			remove(transfer);
+			transfer.delete();
+			transfer = null;
+		}
+		if (transfer == null) {
+			if (transfers.size() >= maxTransfers)
+				return ERROR_TOO_MANY_TRANSFERS;
+			transfer = Transfer.create(directory, id, size, chunkSize, digest);
+			Transfer previous = transfers.putIfAbsent(id, transfer);
+			if (previous != null) {
+				transfer.close();
+				transfer = previous;
+			}
+		}
+		return transfer.getStatus();
+	}
+
+	/**
+	 * Writes a chunk of a transfer.
+	 *
+	 * @param id The identifier of the transfer.
+	 * @param message The rest of the message.
+	 *
+	 * @return The response with the chunks received.
+	 *
+	 * @throws IOException If the chunk cannot be written.
+	 */
+	private String receive(String id, ByteBuffer message) throws IOException {
+		Transfer transfer = getTransfer(id);
+		if (transfer == null)
+			return ERROR_UNKNOWN_TRANSFER;
+		int index = message.getInt();
+		long checksum = message.getInt() & 0xFFFFFFFFL;
+		if (index < 0 || index >= transfer.chunks || message.remaining() != transfer.getChunkLength(index))
+			return ERROR_INVALID_MESSAGE;
+
+		CRC32 crc = new CRC32();
+		crc.update(message.array(), message.position(), message.remaining());
+		if (crc.getValue() != checksum)
+			return ERROR_CHUNK_CHECKSUM + " in chunk " + index;
+		transfer.write(index, message);
+		return transfer.getStatus();
+	}
+
+	/**
+	 * Verifies a complete transfer and moves the payload to its final name.
+	 *
+	 * @param id The identifier of the transfer.
+	 *
+	 * @return The response.
+	 *
+	 * @throws IOException If the payload cannot be read or moved.
+	 */
+	private String commit(String id) throws IOException {
+		Transfer transfer = getTransfer(id);
+		if (transfer == null)
+			return ERROR_UNKNOWN_TRANSFER;
+		synchronized (transfer) {
+			// A retried commit of a transfer already finished.
+			if (transfers.get(id) != transfer)
+				return RESPONSE_OK;
+			int missing = transfer.chunks - transfer.getReceivedCount();
+			if (missing > 0)
+				return String.format(Locale.US, "Error: %d chunks missing, first %d", missing,
+						transfer.getFirstMissing());
+			if (!transfer.verify()) {
+				remove(transfer);
+				transfer.delete();
+				listener.transferError(id, ERROR_FILE_CHECKSUM);
+				return ERROR_FILE_CHECKSUM;
+			}
+			remove(transfer);
+			File file = transfer.finish();
+			listener.transferFinished(id, file);
+			return RESPONSE_OK;
+		}
+	}
+
+	/**
+	 * Cancels a transfer and deletes its files.
+	 *
+	 * @param id The identifier of the transfer.
+	 *
+	 * @return The response.
+	 */
+	private String abort(String id) {
+		Transfer transfer = getTransfer(id);
+		if (transfer != null) {
+			remove(transfer);
+			transfer.delete();
+		}
+		return RESPONSE_OK;
+	}
+
+	/**
+	 * Returns the open transfer with the given identifier, reopening it from
+	 * its files if it was interrupted by a restart.
+	 *
+	 * @param id The identifier of the transfer.
+	 *
+	 * @return The transfer, or {@code null} if there is none.
+	 */
+	private Transfer getTransfer(String id) {
+		Transfer transfer = transfers.get(id);
+		if (transfer != null || transfers.size() >= maxTransfers)
+			return transfer;
+		transfer = Transfer.open(directory, id);
+		if (transfer == null)
+			return null;
+		Transfer previous = transfers.putIfAbsent(id, transfer);
+		if (previous != null) {
+			transfer.close();
+			return previous;
+		}
+		return transfer;
+	}
+
+	/**
+	 * Removes the given transfer from the open ones.
+	 *
+	 * @param transfer The transfer to remove.
+	 */
+	private void remove(Transfer transfer) {
+		transfers.remove(transfer.id, transfer);
+	}
+
+	/**
+	 * Class that holds the files and the received chunks of a transfer.
+	 */
+	private static class Transfer {
+		final String id;
+		final File partFile;
+		final File stateFile;
+		final long size;
+		final int chunkSize;
+		final int chunks;
+		final byte[] digest;
+		final byte[] bitmap;
+
+		private RandomAccessFile part;
+		private RandomAccessFile state;
+		private int received;
+		private int firstMissing;
+
+		private Transfer(File directory, String id, long size, int chunkSize, byte[] digest, byte[] bitmap) {
+			this.id = id;
+			this.partFile = new File(directory, id + PART_EXTENSION);
+			this.stateFile = new File(directory, id + STATE_EXTENSION);
+			this.size = size;
+			this.chunkSize = chunkSize;
+			this.chunks = (int) ((size + chunkSize - 1) / chunkSize);
+			this.digest = digest;
+			this.bitmap = bitmap;
+			for (int i = 0; i < chunks; i++) {
+				if (isReceived(i))
+					received++;
+			}
+		}
+
+		/**
+		 * Creates the files of a new transfer, preallocating the payload.
+		 */
+		static Transfer create(File directory, String id, long size, int chunkSize, byte[] digest)
+				throws IOException {
+			if (!directory.isDirectory() && !directory.mkdirs())
+				throw new IOException("Could not create directory " + directory);
+			Transfer transfer = new Transfer(directory, id, size, chunkSize, digest,
+					new byte[(int) ((size + chunkSize - 1) / chunkSize + 7) / 8]);
+			transfer.openFiles();
+			transfer.part.setLength(size);
+			ByteBuffer header = ByteBuffer.allocate(STATE_HEADER_SIZE + transfer.bitmap.length);
+			header.putInt(STATE_MAGIC).putLong(size).putInt(chunkSize).put(digest).put(transfer.bitmap);
+			header.flip();
+			FileChannel channel = transfer.state.getChannel();
+			channel.truncate(0);
+			while (header.hasRemaining())
+				channel.write(header, header.position());
+			return transfer;
+		}
+
+		/**
+		 * Opens the files of a transfer interrupted by a restart.
+		 *
+		 * @return The transfer, or {@code null} if there are no valid files.
+		 */
+		static Transfer open(File directory, String id) {
+			File stateFile = new File(directory, id + STATE_EXTENSION);
+			if (!stateFile.exists() || !new File(directory, id + PART_EXTENSION).exists())
+				return null;
+			try {
+				RandomAccessFile input = new RandomAccessFile(stateFile, "r");
+				Transfer transfer;
+				try {
+					if (input.readInt() != STATE_MAGIC)
+						return null;
+					long size = input.readLong();
+					int chunkSize = input.readInt();
+					byte[] digest = new byte[DIGEST_SIZE];
+					input.readFully(digest);
+					if (size < 0 || chunkSize < MIN_CHUNK_SIZE || (size + chunkSize - 1) / chunkSize > MAX_CHUNKS)
+						return null;
+					byte[] bitmap = new byte[(int) ((size + chunkSize - 1) / chunkSize + 7) / 8];
+					input.readFully(bitmap);
+					transfer = new Transfer(directory, id, size, chunkSize, digest, bitmap);
+				} finally {
+					input.close();
+				}
+				transfer.openFiles();
+				return transfer;
+			} catch (IOException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+
+		boolean matches(long size, int chunkSize, byte[] digest) {
+			return this.size == size && this.chunkSize == chunkSize && Arrays.equals(this.digest, digest);
+		}
+
+		int getChunkLength(int index) {
+			return (int) Math.min(chunkSize, size - (long) index * chunkSize);
+		}
+
+		/**
+		 * Writes a chunk at its position and marks it as received.
+		 */
+		void write(int index, ByteBuffer data) throws IOException {
+			long position = (long) index * chunkSize - data.position();
+			FileChannel channel = getPartChannel();
+			while (data.hasRemaining())
+				channel.write(data, position + data.position());
+			synchronized (this) {
+				if (isReceived(index))
+					return;
+				int offset = index >> 3;
+				bitmap[offset] |= 1 << (index & 7);
+				received++;
+				ByteBuffer bitmapByte = ByteBuffer.wrap(bitmap, offset, 1);
+				getStateChannel().write(bitmapByte, STATE_HEADER_SIZE + offset);
+			}
+		}
+
+		synchronized int getReceivedCount() {
+			return received;
+		}
+
+		synchronized int getFirstMissing() {
+			while (firstMissing < chunks && isReceived(firstMissing))
+				firstMissing++;
+			return firstMissing;
+		}
+
+		String getStatus() {
+			return String.format(Locale.US, "%s %d %d %d", RESPONSE_OK, getReceivedCount(), chunks,
+					getFirstMissing());
+		}
+
+		/**
+		 * Computes the SHA-256 of the payload, reading it with a fixed
+		 * buffer, and compares it with the expected one.
+		 */
+		boolean verify() throws IOException {
+			MessageDigest sha;
+			try {
+				sha = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IOException(e.getMessage());
+			}
+			byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+			// Not interruptible, unlike the channels.
+			InputStream input = new FileInputStream(partFile);
+			try {
+				int read;
+				while ((read = input.read(buffer)) > 0)
+					sha.update(buffer, 0, read);
+			} finally {
+				input.close();
+			}
+			return Arrays.equals(sha.digest(), digest);
+		}
+
+		/**
+		 * Closes the files and moves the payload to its final name.
+		 */
+		File finish() throws IOException {
+			close();
+			File file = new File(partFile.getParentFile(), id);
+			if (file.exists() && !file.delete())
+				throw new IOException("Could not replace " + file);
+			if (!partFile.renameTo(file))
+				throw new IOException("Could not rename " + partFile);
+			if (!stateFile.delete())
+				stateFile.deleteOnExit();
+			return file;
+		}
+
+		/**
+		 * Closes and deletes the files of the transfer.
+		 */
+		void delete() {
+			close();
+			if (!partFile.delete())
+				partFile.deleteOnExit();
+			if (!stateFile.delete())
+				stateFile.deleteOnExit();
+		}
+
+		synchronized void close() {
+			closeQuietly(part);
+			closeQuietly(state);
+			part = null;
+			state = null;
+		}
+
+		private boolean isReceived(int index) {
+			return (bitmap[index >> 3] & (1 << (index & 7))) != 0;
+		}
+
+		private synchronized void openFiles() throws IOException {
+			part = new RandomAccessFile(partFile, "rw");
+			state = new RandomAccessFile(stateFile, "rw");
+		}
+
+		/**
+		 * Returns the channel of the payload, reopening it if it was closed
+		 * by the interruption of a request that timed out.
+		 */
+		private synchronized FileChannel getPartChannel() throws IOException {
+			if (part == null || !part.getChannel().isOpen()) {
+				closeQuietly(part);
+				part = new RandomAccessFile(partFile, "rw");
+			}
+			return part.getChannel();
+		}
+
+		private FileChannel getStateChannel() throws IOException {
+			if (state == null || !state.getChannel().isOpen()) {
+				closeQuietly(state);
+				state = new RandomAccessFile(stateFile, "rw");
+			}
+			return state.getChannel();
+		}
+
+		private static void closeQuietly(RandomAccessFile file) {
+			if (file == null)
+				return;
+			try {
+				file.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -28,27 +28,149 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.digi.android.cloudconnector.CloudConnectorManager;
-import com.digi.android.cloudconnector.CloudConnectorPreferencesManager;
 import com.digi.android.cloudconnector.ICloudConnectorEventListener;
 import com.digi.android.cloudconnector.IDeviceRequestListener;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class CloudConnectorSampleActivity extends Activity {
 
 	// Constants.
 	private final static String DEVICE_REQUEST_TAG = "cloud_connector_sample";
+	private final static String METRICS_TARGET = "cloud_connector_metrics";
+	private final static String TRANSFER_TARGET = "cloud_connector_transfer";
+	private final static String BATCH_TARGET = "cloud_connector_batch";
+
+	private final static String JOURNAL_DIRECTORY = "journal";
+	private final static String UPLOADS_DIRECTORY = "uploads";
+	private final static String IMPORTS_DIRECTORY = "imports";
+	private final static String STATISTICS_DIRECTORY = "statistics";
+	private final static String METRICS_FILE = "metrics";
+	private final static String TRANSFERS_DIRECTORY = "transfers";
+
+	private final static int SEND_QUEUE_CAPACITY = 32;
+	private final static int ALARM_QUEUE_CAPACITY = 16;
+	private final static int BULK_QUEUE_CAPACITY = 8;
+
+	private final static int TELEMETRY_WEIGHT = 4;
+	private final static int BULK_WEIGHT = 1;
+
+	private final static int LANE_ALARM = 0;
+	private final static int LANE_TELEMETRY = 1;
+	private final static int LANE_BULK = 2;
+
+	private final static String BANDWIDTH_FILE = "bandwidth";
+	private final static long MONTHLY_BUDGET = 100 * 1024 * 1024;
+	// About 1000 data points per second in full batches.
+	private final static long TELEMETRY_BYTES_PER_SECOND = 64 * 1024;
+	private final static double TELEMETRY_MESSAGES_PER_SECOND = 10;
+	private final static long BULK_BYTES_PER_SECOND = 8 * 1024;
+	private final static double BULK_MESSAGES_PER_SECOND = 4;
+
+	private final static PayloadCompressor.Mode PAYLOAD_COMPRESSION = PayloadCompressor.Mode.ADAPTIVE;
+
+	private final static int DEVICE_REQUEST_WORKERS = 4;
+	private final static int DEVICE_REQUEST_QUEUE_CAPACITY = 16;
+	private final static int DEVICE_REQUEST_CONCURRENCY = 2;
+	private final static long DEVICE_REQUEST_TIMEOUT = 10000;
+	private final static int DEVICE_REQUEST_CACHE_ENTRIES = 64;
+
+	// Chunks are written to disk, so they get more time than other requests.
+	private final static int MAX_TRANSFERS = 4;
+	private final static int TRANSFER_CONCURRENCY = 2;
+	private final static long TRANSFER_TIMEOUT = 30000;
+
+	// A batch answers with partial results at its timeout, so the dispatcher
+	// waits a bit longer for it. One worker is left for the batch itself.
+	private final static int BATCH_PARALLELISM = DEVICE_REQUEST_WORKERS - 1;
+	private final static long BATCH_TIMEOUT = 30000;
+	private final static long BATCH_TIMEOUT_MARGIN = 2000;
+
+	// One day of metrics, one row per minute.
+	private final static long METRICS_INTERVAL = 60000;
+	private final static int METRICS_ROWS = 1440;
 
-	private final static String DATAPOINTS_SEND_SUCCESS = "Datapoints successfully sent";
 	private final static String MESSAGE_SETTINGS_READ = "Settings have been read";
 	private final static String MESSAGE_SETTINGS_SAVED = "Settings saved";
 
 	private final static boolean SHOW_RECONNECT = false;
 
+	private final static boolean COLLECT_TELEMETRY = true;
+
+	private final static long BATTERY_INTERVAL = 60000;
+	private final static long THERMAL_INTERVAL = 10000;
+
+	// Temperature of a thermal zone that raises an alarm, in degrees Celsius.
+	private final static double THERMAL_ALARM = 85;
+	private final static double THERMAL_ALARM_HYSTERESIS = 5;
+	private final static long LOAD_INTERVAL = 5000;
+	private final static long MEMORY_INTERVAL = 30000;
+
+	// The load and the temperatures are uploaded as summaries: the load of
+	// the last 5 minutes every minute, the temperatures every 5 minutes.
+	private final static long LOAD_WINDOW = 5 * 60000;
+	private final static long LOAD_SLIDE = 60000;
+	private final static long THERMAL_WINDOW = 5 * 60000;
+
+	// The rest of the telemetry is only uploaded when it changes enough, or
+	// every 10 minutes at least.
+	private final static double BATTERY_LEVEL_DEADBAND = 1;
+	private final static double BATTERY_TEMPERATURE_DEADBAND = 0.5;
+	private final static double BATTERY_VOLTAGE_DEADBAND = 50;
+	private final static double MEMORY_DEADBAND = 5;
+	private final static long TELEMETRY_HEARTBEAT = 10 * 60000;
+
+	// The string and binary values of the data point dialog are only sent
+	// when they change, or every 10 minutes at least.
+	private final static long VALUE_HEARTBEAT = 10 * 60000;
+
+	private final static String LOAD_STREAM = "system/load";
+	private final static String MEMORY_STREAM = "system/memory_available";
+	private final static String LOAD_FILE = "/proc/loadavg";
+	private final static String MEMORY_FILE = "/proc/meminfo";
+	private final static String MEMORY_KEY = "MemAvailable:";
+
 	// Variables.
 	private CloudConnectorManager connectorManager;
 
-	private CloudConnectorPreferencesManager preferencesManager;
+	private SendStatistics sendStatistics;
+
+	private AsyncDataPointSender asyncSender;
+
+	private DataPointBatcher dataPointBatcher;
+
+	private BandwidthGovernor bandwidthGovernor;
+
+	private DataPointJournal journal;
+
+	private final StreamRegistry streamRegistry = new StreamRegistry();
+
+	private final DeadbandFilter valueFilter = new DeadbandFilter();
+
+	private SamplePipeline samplePipeline;
+
+	private TelemetryCollector telemetryCollector;
+
+	private FileUploader fileUploader;
+
+	private PayloadCompressor payloadCompressor;
+
+	private BulkImporter bulkImporter;
+
+	private ExecutorService journalExecutor;
+
+	private ExecutorService settingsExecutor;
+
+	private SettingsStore settingsStore;
+
+	private boolean refreshRequested;
+
+	private ConnectorStatusPresenter statusPresenter;
 
 	private Switch connectSwitch;
 
@@ -73,7 +195,17 @@ public class CloudConnectorSampleActivity extends Activity {
 
 	private ICloudConnectorEventListener eventListener;
 
-	private IDeviceRequestListener deviceRequestListener;
+	private DeviceRequestDispatcher deviceRequestDispatcher;
+
+	private CachingRequestHandler requestCache;
+
+	private MetricsRecorder metricsRecorder;
+
+	private ChunkedTransferHandler transferHandler;
+
+	private BatchRequestHandler batchHandler;
+
+	private ConnectionStateMachine connectionStateMachine;
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
@@ -81,30 +213,86 @@ public class CloudConnectorSampleActivity extends Activity {
 		setContentView(R.layout.main_layout);
 		// Initialize variables.
 		connectorManager = new CloudConnectorManager(this);
-		preferencesManager = connectorManager.getPreferencesManager();
+		sendStatistics = new SendStatistics();
+		initializeAsyncSender();
+		dataPointBatcher = new DataPointBatcher(asyncSender);
+		initializeBandwidthGovernor();
+		samplePipeline = new SamplePipeline(dataPointBatcher);
+		samplePipeline.start();
+		initializeTelemetryCollector();
+		initializeFileUploader();
+		initializeBulkImporter();
+		initializeValueFilter();
+		journalExecutor = Executors.newSingleThreadExecutor();
+		initializeSettingsStore();
+		initializeConnectionStateMachine();
 		initializeEventListener();
+		// The connection events and the upload results are needed while the
+		// state machine and the sender run, not only while it is visible.
+		connectorManager.registerEventListener(eventListener);
 		initializeDeviceRequestListener();
+		initializeMetricsRecorder();
+		initializeTransferHandler();
+		initializeBatchHandler();
 		// Initialize interface.
 		initializeUIComponents();
+		initializeJournal();
 	}
 
 	@Override
 	protected void onResume() {
 		super.onResume();
 
-		connectorManager.registerEventListener(eventListener);
-		connectorManager.registerDeviceRequestListener(DEVICE_REQUEST_TAG, deviceRequestListener);
+		for (String target : deviceRequestDispatcher.getTargets())
+			connectorManager.registerDeviceRequestListener(target, deviceRequestDispatcher);
 
 		updateInterface();
 		connectSwitch.setOnCheckedChangeListener(connectCheckedListener);
+
+		if (connectorManager.isConnected())
+			drainJournal();
 	}
 
 	@Override
 	protected void onPause() {
 		super.onPause();
 
+		connectorManager.unregisterDeviceRequestListener(deviceRequestDispatcher);
+	}
+
+	@Override
+	protected void onDestroy() {
+		super.onDestroy();
+
+		batchHandler.close();
+		deviceRequestDispatcher.close();
 		connectorManager.unregisterEventListener(eventListener);
-		connectorManager.unregisterDeviceRequestListener(deviceRequestListener);
+		statusPresenter.close();
+		connectionStateMachine.close();
+
+		// The data points of a running drain that are not confirmed yet stay
+		// in the journal for the next start.
+		if (journal != null)
+			journal.stopDrain();
+		journalExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (journal != null)
+					journal.close();
+				telemetryCollector.close();
+				samplePipeline.close();
+				dataPointBatcher.close();
+				fileUploader.close();
+				payloadCompressor.close();
+				bulkImporter.close();
+				asyncSender.close();
+				bandwidthGovernor.save();
+				metricsRecorder.close();
+				transferHandler.close();
+			}
+		});
+		journalExecutor.shutdown();
+		settingsExecutor.shutdown();
 	}
 
 	/**
@@ -154,6 +342,13 @@ public class CloudConnectorSampleActivity extends Activity {
 				handleDataPointsPressed();
 			}
 		});
+		Button statisticsButton = findViewById(R.id.statistics);
+		statisticsButton.setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				handleStatisticsPressed();
+			}
+		});
 		Button refreshButton = findViewById(R.id.refresh);
 		refreshButton.setOnClickListener(new View.OnClickListener() {
 			@Override
@@ -167,44 +362,223 @@ public class CloudConnectorSampleActivity extends Activity {
 			reconnectTimeText.setVisibility(View.GONE);
 			reconnectCheckbox.setVisibility(View.GONE);
 		}
+
+		statusPresenter = new ConnectorStatusPresenter(this, connectSwitch, statusText, connectCheckedListener);
 	}
 
 	/**
-	 * Updates the user interface by reading current connector
-	 * status and preferences.
+	 * Opens the data point journal, recovering the data points that were
+	 * stored while the connection was not available.
 	 */
-	private void updateInterface() {
-		if (connectorManager.isConnected()) {
-			connectSwitch.setEnabled(true);
-			connectSwitch.setChecked(true);
-			statusText.setText(getResources().getString(R.string.status_connected));
-			statusText.setTextColor(getResources().getColor(R.color.green));
-			datapointsButton.setEnabled(true);
-		} else {
-			connectSwitch.setEnabled(true);
-			connectSwitch.setChecked(false);
-			statusText.setText(getResources().getString(R.string.status_disconnected));
-			statusText.setTextColor(getResources().getColor(R.color.red));
+	private void initializeJournal() {
+		try {
+			journal = new DataPointJournal(new File(getFilesDir(), JOURNAL_DIRECTORY));
+		} catch (IOException e) {
+			e.printStackTrace();
 			datapointsButton.setEnabled(false);
+			Toast.makeText(this, "Error opening data point journal: " + e.getMessage(), Toast.LENGTH_LONG).show();
+		}
+	}
+
+	/**
+	 * Initializes the asynchronous sender with a lane for alarms, which are
+	 * always sent first, one for the telemetry and one for the file uploads
+	 * and imports.
+	 *
+	 * <p>Only the alarms lane, which is never throttled, blocks its
+	 * producers when full. The telemetry lane drops its oldest uploads, so
+	 * fresh samples win and the journal sends its records again, and the
+	 * bulk lane rejects the new ones, which the uploader and the importer
+	 * retry.</p>
+	 */
+	private void initializeAsyncSender() {
+		asyncSender = new AsyncDataPointSender(new CloudConnectorSender(connectorManager), new SendLane[] {
+				new SendLane("Alarms", 1, ALARM_QUEUE_CAPACITY, AsyncDataPointSender.BackpressurePolicy.BLOCK),
+				new SendLane("Telemetry", TELEMETRY_WEIGHT, SEND_QUEUE_CAPACITY,
+						AsyncDataPointSender.BackpressurePolicy.DROP_OLDEST),
+				new SendLane("Bulk", BULK_WEIGHT, BULK_QUEUE_CAPACITY, AsyncDataPointSender.BackpressurePolicy.REJECT)
+		}, sendStatistics);
+		asyncSender.setDefaultLane(LANE_TELEMETRY);
+		asyncSender.setLane(SamplePipeline.ALARM_PREFIX, LANE_ALARM);
+		asyncSender.setLane(DataPointDialog.DATA_POINT_FILE, LANE_BULK);
+		asyncSender.setLane(DataPointDialog.DATA_POINT_IMPORT, LANE_BULK);
+	}
+
+	/**
+	 * Initializes the governor that limits the bandwidth of the telemetry
+	 * and bulk lanes and the monthly budget of the uploads. Only the file
+	 * chunks of the bulk lane are deferred when the budget runs low.
+	 */
+	private void initializeBandwidthGovernor() {
+		bandwidthGovernor = new BandwidthGovernor(asyncSender.getLanes().length, BandwidthGovernor.Period.MONTHLY,
+				MONTHLY_BUDGET, new File(getFilesDir(), BANDWIDTH_FILE), new IBudgetListener() {
+			@Override
+			public void budgetLevelChanged(BandwidthGovernor.Level level, long usedBytes, long budget) {
+				dataPointBatcher.setSaving(level != BandwidthGovernor.Level.NORMAL);
+				if (level != BandwidthGovernor.Level.NORMAL)
+					showToast(String.format(Locale.getDefault(), "Bandwidth budget %s: %.1f of %.1f MB used",
+							level == BandwidthGovernor.Level.LOW ? "running low" : "exhausted",
+							usedBytes / (1024.0 * 1024), budget / (1024.0 * 1024)));
+			}
+		});
+		bandwidthGovernor.setLaneLimit(LANE_TELEMETRY, TELEMETRY_BYTES_PER_SECOND, TELEMETRY_MESSAGES_PER_SECOND);
+		bandwidthGovernor.setLaneLimit(LANE_BULK, BULK_BYTES_PER_SECOND, BULK_MESSAGES_PER_SECOND);
+		bandwidthGovernor.setDeferrable(LANE_BULK, true);
+		dataPointBatcher.setSaving(bandwidthGovernor.getLevel() != BandwidthGovernor.Level.NORMAL);
+		asyncSender.setGovernor(bandwidthGovernor);
+	}
+
+	/**
+	 * Initializes the uploader of file data points. The chunks go through
+	 * the bulk lane, so their compression is weighed against its rate.
+	 */
+	private void initializeFileUploader() {
+		payloadCompressor = new PayloadCompressor(PAYLOAD_COMPRESSION, BULK_BYTES_PER_SECOND);
+		fileUploader = new FileUploader(asyncSender, new File(getFilesDir(), UPLOADS_DIRECTORY),
+				FileUploader.DEFAULT_CHUNK_SIZE, new IFileUploadListener() {
+			private volatile double lastThroughput;
+
+			@Override
+			public void uploadProgress(String file, long uploaded, long total, double throughput) {
+				lastThroughput = throughput;
+			}
+
+			@Override
+			public void uploadFinished(String file) {
+				showToast(String.format(Locale.getDefault(), "File %s uploaded (%.1f KB/s)", file, lastThroughput / 1024));
+			}
+
+			@Override
+			public void uploadError(String file, String errorMessage) {
+				showToast("Error uploading file " + file + ": " + errorMessage);
+			}
+		}, payloadCompressor);
+	}
+
+	/**
+	 * Initializes the collector that samples the battery, the thermal zones,
+	 * the system load and the available memory. The thermal zones and the
+	 * load are aggregated in windows, and the battery and the memory are
+	 * filtered by deadbands. Overheated thermal zones raise an alarm, which
+	 * is sent through the alarm lane.
+	 */
+	private void initializeTelemetryCollector() {
+		telemetryCollector = new TelemetryCollector(samplePipeline);
+		if (!COLLECT_TELEMETRY)
+			return;
+		samplePipeline.setDeadband(BatterySource.STREAM_LEVEL, BATTERY_LEVEL_DEADBAND, false, TELEMETRY_HEARTBEAT);
+		samplePipeline.setDeadband(BatterySource.STREAM_TEMPERATURE, BATTERY_TEMPERATURE_DEADBAND, false,
+				TELEMETRY_HEARTBEAT);
+		// Millivolts.
+		samplePipeline.setDeadband(BatterySource.STREAM_VOLTAGE, BATTERY_VOLTAGE_DEADBAND, false, TELEMETRY_HEARTBEAT);
+		telemetryCollector.addSource(new BatterySource(this), BATTERY_INTERVAL);
+		for (FileSource zone : FileSource.findThermalZones()) {
+			samplePipeline.setAlarm(zone.getStreamPath(), THERMAL_ALARM, THERMAL_ALARM_HYSTERESIS);
+			samplePipeline.setAggregation(zone.getStreamPath(), THERMAL_WINDOW, THERMAL_WINDOW);
+			telemetryCollector.addSource(zone, THERMAL_INTERVAL);
 		}
+		samplePipeline.setAggregation(LOAD_STREAM, LOAD_WINDOW, LOAD_SLIDE);
+		telemetryCollector.addSource(new FileSource(LOAD_STREAM, new File(LOAD_FILE), 0, 1), LOAD_INTERVAL);
+		// Reported in kB, filtered by percentage.
+		samplePipeline.setDeadband(MEMORY_STREAM, MEMORY_DEADBAND, true, TELEMETRY_HEARTBEAT);
+		telemetryCollector.addSource(new FileSource(MEMORY_STREAM, new File(MEMORY_FILE), MEMORY_KEY, 0, 1),
+				MEMORY_INTERVAL);
+	}
+
+	/**
+	 * Initializes the filter of the string and binary values sent from the
+	 * data point dialog.
+	 */
+	private void initializeValueFilter() {
+		valueFilter.setChangeOnly(DataPointDialog.DATA_POINT_STRING, VALUE_HEARTBEAT);
+		valueFilter.setChangeOnly(DataPointDialog.DATA_POINT_BYTE_ARRAY, VALUE_HEARTBEAT);
+		valueFilter.setChangeOnly(DataPointDialog.DATA_POINT_BINARY, VALUE_HEARTBEAT);
+	}
+
+	/**
+	 * Initializes the importer of CSV and NDJSON files.
+	 */
+	private void initializeBulkImporter() {
+		bulkImporter = new BulkImporter(asyncSender, streamRegistry, new File(getFilesDir(), IMPORTS_DIRECTORY),
+				BulkImporter.DEFAULT_BUFFER_SIZE, new IImportListener() {
+			@Override
+			public void importProgress(String file, long rows, long position, long size, double rowsPerSecond) {
+				// The final rate is displayed when the import finishes.
+			}
+
+			@Override
+			public void importFinished(String file, long rows, long rejected, double rowsPerSecond) {
+				showToast(String.format(Locale.getDefault(), "File %s imported: %d rows (%.0f rows/s), %d values rejected",
+						file, rows, rowsPerSecond, rejected));
+			}
+
+			@Override
+			public void importError(String file, String errorMessage) {
+				showToast("Error importing file " + file + ": " + errorMessage);
+			}
+		});
+	}
+
+	/**
+	 * Uploads the data points stored in the journal in the background.
+	 */
+	private void drainJournal() {
+		if (journal == null)
+			return;
+		journalExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				journal.drain(asyncSender, sendStatistics);
+			}
+		});
+	}
+
+	/**
+	 * Updates the user interface with the current connector status and the
+	 * cached settings, and reloads the settings in the background.
+	 */
+	private void updateInterface() {
+		updateConnectionStatus();
+		ConnectorSettings settings = settingsStore.getSettings();
+		if (settings != null)
+			updateSettings(settings);
+		settingsStore.load();
+	}
+
+	/**
+	 * Updates the user interface with the current connector status.
+	 */
+	private void updateConnectionStatus() {
+		if (connectorManager.isConnected())
+			statusPresenter.setStatus(ConnectorStatusPresenter.Status.CONNECTED);
+		else
+			statusPresenter.setStatus(ConnectorStatusPresenter.Status.DISCONNECTED);
 		deviceIDText.setText(connectorManager.getDeviceID());
-		deviceNameText.setText(preferencesManager.getDeviceName());
-		deviceDescriptionText.setText(preferencesManager.getDeviceDescription());
-		contactText.setText(preferencesManager.getDeviceContactInformation());
-		vendorIDText.setText(preferencesManager.getVendorID().replace("X", "x"));
-		urlText.setText(preferencesManager.getURL());
-		reconnectTimeText.setText(String.format(Locale.getDefault(), "%d", preferencesManager.getReconnectTime()));
-		autoStartCheckbox.setChecked(preferencesManager.isAutoConnectEnabled());
-		boolean reconnectEnabled = preferencesManager.isReconnectEnabled();
+	}
+
+	/**
+	 * Updates the user interface with the given settings.
+	 *
+	 * @param settings The connector settings.
+	 */
+	private void updateSettings(ConnectorSettings settings) {
+		deviceNameText.setText(settings.deviceName);
+		deviceDescriptionText.setText(settings.deviceDescription);
+		contactText.setText(settings.contactInformation);
+		vendorIDText.setText(settings.vendorID.replace("X", "x"));
+		urlText.setText(settings.url);
+		reconnectTimeText.setText(String.format(Locale.getDefault(), "%d", settings.reconnectTime));
+		autoStartCheckbox.setChecked(settings.autoConnect);
+		boolean reconnectEnabled = settings.reconnect;
 		reconnectCheckbox.setChecked(reconnectEnabled);
 		reconnectTimeText.setEnabled(reconnectEnabled);
 		if (reconnectEnabled)
 			reconnectTimeLabel.setTextColor(getResources().getColor(R.color.black));
 		else
 			reconnectTimeLabel.setTextColor(getResources().getColor(R.color.light_gray));
-		secureConnectionCheckbox.setChecked(preferencesManager.isSecureConnectionEnabled());
-		compressCheckbox.setChecked(preferencesManager.isCompressionEnabled());
-		systemMonitorCheckbox.setChecked(connectorManager.isSystemMonitorEnabled());
+		secureConnectionCheckbox.setChecked(settings.secureConnection);
+		compressCheckbox.setChecked(settings.compression);
+		systemMonitorCheckbox.setChecked(settings.systemMonitor);
 	}
 
 	/**
@@ -213,15 +587,12 @@ public class CloudConnectorSampleActivity extends Activity {
 	 * @param connect {@code true} to connect, {@code false} otherwise.
 	 */
 	private void handleConnectPressed(boolean connect) {
-		connectSwitch.setEnabled(false);
 		if (connect) {
-			statusText.setText(getResources().getString(R.string.status_connecting));
-			statusText.setTextColor(getResources().getColor(R.color.light_gray));
-			connectorManager.connect();
+			statusPresenter.setStatus(ConnectorStatusPresenter.Status.CONNECTING);
+			connectionStateMachine.connect();
 		} else {
-			statusText.setText(getResources().getString(R.string.status_disconnecting));
-			statusText.setTextColor(getResources().getColor(R.color.light_gray));
-			connectorManager.disconnect();
+			statusPresenter.setStatus(ConnectorStatusPresenter.Status.DISCONNECTING);
+			connectionStateMachine.disconnect();
 		}
 	}
 
@@ -229,135 +600,246 @@ public class CloudConnectorSampleActivity extends Activity {
 	 * Handles what happens when the refresh button is pressed.
 	 */
 	private void handleRefreshPressed() {
-		updateInterface();
-		Toast.makeText(this, MESSAGE_SETTINGS_READ, Toast.LENGTH_LONG).show();
+		refreshRequested = true;
+		updateConnectionStatus();
+		settingsStore.load();
 	}
 
 	/**
 	 * Handles what happens when the save button is pressed.
 	 */
 	private void handleSavePressed() {
+		ConnectorSettings current = settingsStore.getSettings();
+		int reconnectTime;
 		try {
-			preferencesManager.setDeviceName(deviceNameText.getText().toString());
-			preferencesManager.setDeviceDescription(deviceDescriptionText.getText().toString());
-			preferencesManager.setDeviceContactInformation(contactText.getText().toString());
-			preferencesManager.setVendorID(vendorIDText.getText().toString().toUpperCase().replace("X", "x"));
-			preferencesManager.setURL(urlText.getText().toString());
-			preferencesManager.setAutoConnectEnabled(autoStartCheckbox.isChecked());
-			preferencesManager.setReconnectEnabled(reconnectCheckbox.isChecked());
-			if (reconnectCheckbox.isChecked())
-				preferencesManager.setReconnectTime(Integer.parseInt(reconnectTimeText.getText().toString()));
-			preferencesManager.setSecureConnectionEnabled(secureConnectionCheckbox.isChecked());
-			preferencesManager.setCompressionEnabled(compressCheckbox.isChecked());
-			preferencesManager.enableSystemMonitor(systemMonitorCheckbox.isChecked());
-			Toast.makeText(this, MESSAGE_SETTINGS_SAVED, Toast.LENGTH_LONG).show();
-		} catch (Exception e) {
+			if (reconnectCheckbox.isChecked() || current == null)
+				reconnectTime = Integer.parseInt(reconnectTimeText.getText().toString());
+			else
+				reconnectTime = current.reconnectTime;
+		} catch (NumberFormatException e) {
 			e.printStackTrace();
 			Toast.makeText(this, "Error writing setting: " + e.getMessage(), Toast.LENGTH_LONG).show();
+			return;
 		}
+		settingsStore.save(new ConnectorSettings(deviceNameText.getText().toString(),
+				deviceDescriptionText.getText().toString(), contactText.getText().toString(),
+				vendorIDText.getText().toString().toUpperCase().replace("X", "x"), urlText.getText().toString(),
+				autoStartCheckbox.isChecked(), reconnectCheckbox.isChecked(), reconnectTime,
+				secureConnectionCheckbox.isChecked(), compressCheckbox.isChecked(),
+				systemMonitorCheckbox.isChecked()));
 	}
 
 	/**
 	 * Handles what happens when the data points button is pressed.
 	 */
 	private void handleDataPointsPressed() {
-		DataPointDialog dataPointDialog = new DataPointDialog(this, connectorManager);
+		DataPointDialog dataPointDialog = new DataPointDialog(this, journal, journalExecutor, new Runnable() {
+			@Override
+			public void run() {
+				if (connectorManager.isConnected())
+					drainJournal();
+			}
+		}, fileUploader, bulkImporter, dataPointBatcher, bandwidthGovernor.getDataPointLimit(LANE_TELEMETRY),
+				sendStatistics, streamRegistry, valueFilter);
 		dataPointDialog.show();
 	}
 
+	/**
+	 * Handles what happens when the statistics button is pressed.
+	 */
+	private void handleStatisticsPressed() {
+		StatisticsDialog statisticsDialog = new StatisticsDialog(this, sendStatistics, asyncSender.getLanes(),
+				bandwidthGovernor, telemetryCollector, new File(getFilesDir(), STATISTICS_DIRECTORY), journalExecutor);
+		statisticsDialog.show();
+	}
+
 	/**
 	 * Initializes the connector event listener.
 	 */
 	private void initializeEventListener() {
+		final String disconnectedText = getResources().getString(R.string.status_disconnected);
 		eventListener = new ICloudConnectorEventListener() {
 			@Override
 			public void connected() {
-				runOnUiThread(new Runnable() {
-					@Override
-					public void run() {
-						connectSwitch.setOnCheckedChangeListener(null);
-						connectSwitch.setEnabled(true);
-						connectSwitch.setChecked(true);
-						connectSwitch.setOnCheckedChangeListener(connectCheckedListener);
-						statusText.setText(getResources().getString(R.string.status_connected));
-						statusText.setTextColor(getResources().getColor(R.color.green));
-						datapointsButton.setEnabled(true);
-					}
-				});
+				connectionStateMachine.onConnected();
+				drainJournal();
+				statusPresenter.setStatus(ConnectorStatusPresenter.Status.CONNECTED);
 			}
 
 			@Override
 			public void disconnected() {
-				runOnUiThread(new Runnable() {
-					@Override
-					public void run() {
-						connectSwitch.setOnCheckedChangeListener(null);
-						connectSwitch.setEnabled(true);
-						connectSwitch.setChecked(false);
-						connectSwitch.setOnCheckedChangeListener(connectCheckedListener);
-						statusText.setText(getResources().getString(R.string.status_disconnected));
-						statusText.setTextColor(getResources().getColor(R.color.red));
-						datapointsButton.setEnabled(false);
-					}
-				});
+				asyncSender.onConnectionLost(disconnectedText);
+				statusPresenter.setStatus(ConnectorStatusPresenter.Status.DISCONNECTED);
+				connectionStateMachine.onDisconnected();
 			}
 
 			@Override
-			public void connectionError(final String s) {
-				runOnUiThread(new Runnable() {
-					@Override
-					public void run() {
-						connectSwitch.setOnCheckedChangeListener(null);
-						connectSwitch.setEnabled(true);
-						connectSwitch.setChecked(false);
-						connectSwitch.setOnCheckedChangeListener(connectCheckedListener);
-						statusText.setText(getResources().getString(R.string.status_disconnected));
-						statusText.setTextColor(getResources().getColor(R.color.red));
-						datapointsButton.setEnabled(false);
-						Toast.makeText(CloudConnectorSampleActivity.this, s, Toast.LENGTH_LONG).show();
-					}
-				});
+			public void connectionError(String s) {
+				asyncSender.onConnectionLost(s);
+				statusPresenter.setStatus(ConnectorStatusPresenter.Status.DISCONNECTED);
+				statusPresenter.error(s);
+				connectionStateMachine.onConnectionError(s);
 			}
 
 			@Override
 			public void sendDataPointsSuccess() {
+				asyncSender.onSendSuccess();
+				statusPresenter.sendSuccess();
+			}
+
+			@Override
+			public void sendDataPointsError(String errorMessage) {
+				asyncSender.onSendError(errorMessage);
+				statusPresenter.error(errorMessage);
+			}
+		};
+	}
+
+	/**
+	 * Initializes the store of the connector settings, which reads and
+	 * writes them in the background.
+	 */
+	private void initializeSettingsStore() {
+		settingsExecutor = Executors.newSingleThreadExecutor();
+		settingsStore = new SettingsStore(connectorManager, settingsExecutor, new ISettingsListener() {
+			@Override
+			public void settingsLoaded(final ConnectorSettings settings) {
 				runOnUiThread(new Runnable() {
 					@Override
 					public void run() {
-						Toast.makeText(CloudConnectorSampleActivity.this, DATAPOINTS_SEND_SUCCESS, Toast.LENGTH_LONG).show();
+						updateSettings(settings);
+						if (refreshRequested) {
+							refreshRequested = false;
+							Toast.makeText(CloudConnectorSampleActivity.this, MESSAGE_SETTINGS_READ, Toast.LENGTH_LONG).show();
+						}
 					}
 				});
 			}
 
 			@Override
-			public void sendDataPointsError(final String errorMessage) {
-				runOnUiThread(new Runnable() {
-					@Override
-					public void run() {
-						Toast.makeText(CloudConnectorSampleActivity.this, errorMessage, Toast.LENGTH_LONG).show();
+			public void settingsSaved(ConnectorSettings settings, Set<ConnectorSettings.Key> changed) {
+				for (ConnectorSettings.Key key : changed) {
+					if (key.isConnectionSetting()) {
+						// Apply the new connection settings.
+						connectionStateMachine.reconnect();
+						break;
 					}
-				});
+				}
+				showToast(MESSAGE_SETTINGS_SAVED);
 			}
-		};
+
+			@Override
+			public void settingsError(String errorMessage) {
+				showToast("Error writing setting: " + errorMessage);
+			}
+		});
+	}
+
+	/**
+	 * Initializes the connection state machine that reconnects when the
+	 * connection is lost.
+	 */
+	private void initializeConnectionStateMachine() {
+		connectionStateMachine = new ConnectionStateMachine(new IConnector() {
+			@Override
+			public void connect() {
+				connectorManager.connect();
+			}
+
+			@Override
+			public void disconnect() {
+				connectorManager.disconnect();
+			}
+		}, new IConnectionStateListener() {
+			@Override
+			public void connectionStateChanged(ConnectionStateMachine.State state, long delay) {
+				if (state != ConnectionStateMachine.State.BACKING_OFF && state != ConnectionStateMachine.State.CIRCUIT_OPEN)
+					return;
+				statusPresenter.setStatus(ConnectorStatusPresenter.Status.RECONNECTING, delay);
+			}
+		});
 	}
 
 	/**
-	 * Initializes the device request listener.
+	 * Initializes the device request dispatcher and registers the handler of
+	 * the sample target.
+	 *
+	 * <p>The sample target is not read-only, so its responses are not cached,
+	 * but requests retried with the same idempotency token are executed only
+	 * once.</p>
 	 */
 	private void initializeDeviceRequestListener() {
-		deviceRequestListener = new IDeviceRequestListener() {
+		deviceRequestDispatcher = new DeviceRequestDispatcher(DEVICE_REQUEST_WORKERS, DEVICE_REQUEST_QUEUE_CAPACITY);
+		requestCache = new CachingRequestHandler(new IDeviceRequestListener() {
 			@Override
 			public String handleDeviceRequest(String s, byte[] bytes) {
-				Toast.makeText(CloudConnectorSampleActivity.this, "Device Request for target " + s + " - Data: " + new String(bytes), Toast.LENGTH_LONG).show();
+				showToast("Device Request for target " + s + " - Data: " + bytes.length + " bytes");
 				return "Success";
 			}
 
 			@Override
 			public String handleDeviceRequest(String s, String s1) {
-				Toast.makeText(CloudConnectorSampleActivity.this, "Device Request for target " + s + " - Data: " + s1, Toast.LENGTH_LONG).show();
+				showToast("Device Request for target " + s + " - Data: " + s1);
 				return "Success";
 			}
-		};
+		}, 0, DEVICE_REQUEST_CACHE_ENTRIES);
+		deviceRequestDispatcher.registerHandler(DEVICE_REQUEST_TAG, requestCache, DEVICE_REQUEST_CONCURRENCY,
+				DEVICE_REQUEST_TIMEOUT);
+	}
+
+	/**
+	 * Initializes the recorder of the metrics, including the hits of the
+	 * request cache, and registers it as the handler of the metrics target.
+	 */
+	private void initializeMetricsRecorder() {
+		metricsRecorder = new MetricsRecorder(sendStatistics, deviceRequestDispatcher, connectionStateMachine,
+				bandwidthGovernor, requestCache, new File(getFilesDir(), METRICS_FILE), METRICS_INTERVAL, METRICS_ROWS);
+		metricsRecorder.start();
+		deviceRequestDispatcher.registerHandler(METRICS_TARGET, metricsRecorder, 1, DEVICE_REQUEST_TIMEOUT);
+	}
+
+	/**
+	 * Initializes the handler of the chunked transfers and registers it as
+	 * the handler of the transfer target.
+	 */
+	private void initializeTransferHandler() {
+		transferHandler = new ChunkedTransferHandler(new File(getFilesDir(), TRANSFERS_DIRECTORY), MAX_TRANSFERS,
+				new ITransferListener() {
+					@Override
+					public void transferFinished(String id, File file) {
+						showToast("Transfer " + id + " received: " + file.length() + " bytes");
+					}
+
+					@Override
+					public void transferError(String id, String errorMessage) {
+						showToast("Transfer " + id + " failed: " + errorMessage);
+					}
+				});
+		deviceRequestDispatcher.registerHandler(TRANSFER_TARGET, transferHandler, TRANSFER_CONCURRENCY,
+				TRANSFER_TIMEOUT);
+	}
+
+	/**
+	 * Initializes the handler of the batches of commands and registers it as
+	 * the handler of the batch target.
+	 */
+	private void initializeBatchHandler() {
+		batchHandler = new BatchRequestHandler(deviceRequestDispatcher, BATCH_PARALLELISM, BATCH_TIMEOUT);
+		deviceRequestDispatcher.registerHandler(BATCH_TARGET, batchHandler, 1, BATCH_TIMEOUT + BATCH_TIMEOUT_MARGIN);
+	}
+
+	/**
+	 * Displays the given message in a toast from any thread.
+	 *
+	 * @param message The message to display.
+	 */
+	private void showToast(final String message) {
+		runOnUiThread(new Runnable() {
+			@Override
+			public void run() {
+				Toast.makeText(CloudConnectorSampleActivity.this, message, Toast.LENGTH_LONG).show();
+			}
+		});
 	}
 
 	private final CompoundButton.OnCheckedChangeListener connectCheckedListener = new CompoundButton.OnCheckedChangeListener() {
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.util.List;
+
+/**
+ * Data point sender that uploads the data points to Remote Manager using the
+ * Cloud Connector manager.
+ */
+class CloudConnectorSender implements IDataPointSender {
+
+	// Variables.
+	private final CloudConnectorManager connectorManager;
+
+	/**
+	 * Class constructor. Instantiates a new {@code CloudConnectorSender} using
+	 * the given parameters.
+	 *
+	 * @param connectorManager The Cloud Connector manager.
+	 */
+	CloudConnectorSender(CloudConnectorManager connectorManager) {
+		this.connectorManager = connectorManager;
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connectorManager.isConnected();
+	}
+
+	@Override
+	public void sendDataPoints(List<DataPoint> dataPoints) {
+		connectorManager.sendDataPoints(dataPoints);
+	}
+
+	@Override
+	public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+		connectorManager.sendBinaryDataPoint(dataPoint);
+	}
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that keeps the connection with Remote Manager open while the user
+ * wants it to be.
+ *
+ * <p>When the connection is lost or an attempt fails, a new attempt is
+ * scheduled after a random delay between 0 and an exponentially growing
+ * limit (full jitter), so devices do not reconnect all at the same time
+ * after a server restart. After a number of consecutive failures the
+ * circuit opens and no attempt is made for a long period; then a single
+ * attempt is made, which closes the circuit if it succeeds.</p>
+ *
+ * <p>The connection events of the connector must be forwarded to
+ * {@link #onConnected()}, {@link #onDisconnected()} and
+ * {@link #onConnectionError(String)} until it is closed: a missed
+ * connection event makes the attempt time out and close a live connection.
+ * Listeners are notified with the lock of this object held, so they must
+ * not block.</p>
+ */
+class ConnectionStateMachine {
+
+	/**
+	 * Connection states.
+	 */
+	enum State {
+		DISCONNECTED, CONNECTING, CONNECTED, BACKING_OFF, CIRCUIT_OPEN, DISCONNECTING
+	}
+
+	// Constants.
+	final static long DEFAULT_BASE_DELAY = 1000;
+	final static long DEFAULT_MAX_DELAY = 5 * 60 * 1000;
+	final static int DEFAULT_FAILURE_THRESHOLD = 8;
+	final static long DEFAULT_OPEN_TIME = 15 * 60 * 1000;
+	final static long DEFAULT_CONNECT_TIMEOUT = 60 * 1000;
+
+	private final static String ERROR_TIMEOUT = "Connection attempt timed out";
+
+	// Variables.
+	private final IConnector connector;
+	private final IClock clock;
+	private final Random random;
+	private final IConnectionStateListener listener;
+
+	private final ScheduledExecutorService scheduler;
+
+	private long baseDelay = DEFAULT_BASE_DELAY;
+	private long maxDelay = DEFAULT_MAX_DELAY;
+	private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+	private long openTime = DEFAULT_OPEN_TIME;
+	private long connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+
+	private State state = State.DISCONNECTED;
+	private boolean wanted;
+	private boolean reconnecting;
+	private int failures;
+	private long generation;
+
+	private long connectStart = -1;
+	private long disconnectedStart = -1;
+
+	private int attempts;
+	private int connections;
+	private long lastTimeToConnect;
+	private long totalTimeToConnect;
+	private long lastTimeDisconnected;
+	private long totalTimeDisconnected;
+
+	/**
+	 * Class constructor. Instantiates a new {@code ConnectionStateMachine}
+	 * using the given parameters.
+	 *
+	 * @param connector The connector to control.
+	 * @param listener The listener to notify the state changes to, or
+	 *                 {@code null}.
+	 */
+	ConnectionStateMachine(IConnector connector, IConnectionStateListener listener) {
+		this.connector = connector;
+		this.listener = listener;
+		this.random = new Random();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor();
+		this.clock = new IClock() {
+			@Override
+			public long currentTimeMillis() {
+				return System.currentTimeMillis();
+			}
+
+			@Override
+			public void schedule(Runnable task, long delay) {
+				scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+			}
+		};
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code ConnectionStateMachine}
+	 * using the given parameters.
+	 *
+	 * @param connector The connector to control.
+	 * @param listener The listener to notify the state changes to, or
+	 *                 {@code null}.
+	 * @param clock The clock used to measure times and schedule attempts.
+	 * @param random The random generator used for the jitter.
+	 */
+	ConnectionStateMachine(IConnector connector, IConnectionStateListener listener, IClock clock, Random random) {
+		this.connector = connector;
+		this.listener = listener;
+		this.clock = clock;
+		this.random = random;
+		this.scheduler = null;
+	}
+
+	/**
+	 * Configures the reconnection delays.
+	 *
+	 * @param baseDelay The limit of the first delay in milliseconds. It is
+	 *                  doubled after every consecutive failure.
+	 * @param maxDelay The maximum delay in milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the base delay is not positive or
+	 *                                  the maximum delay lower than it.
+	 */
+	synchronized void setBackoff(long baseDelay, long maxDelay) {
+		if (baseDelay <= 0 || maxDelay < baseDelay)
+			throw new IllegalArgumentException("Invalid backoff delays.");
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+	}
+
+	/**
+	 * Configures the circuit breaker.
+	 *
+	 * @param failureThreshold The number of consecutive failures that open
+	 *                         the circuit.
+	 * @param openTime The time the circuit stays open in milliseconds.
+	 *
+	 * @throws IllegalArgumentException If any value is not positive.
+	 */
+	synchronized void setCircuitBreaker(int failureThreshold, long openTime) {
+		if (failureThreshold < 1 || openTime <= 0)
+			throw new IllegalArgumentException("Invalid circuit breaker configuration.");
+		this.failureThreshold = failureThreshold;
+		this.openTime = openTime;
+	}
+
+	/**
+	 * Configures the maximum duration of a connection attempt.
+	 *
+	 * @param connectTimeout The timeout in milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the timeout is not positive.
+	 */
+	synchronized void setConnectTimeout(long connectTimeout) {
+		if (connectTimeout <= 0)
+			throw new IllegalArgumentException("Invalid connection timeout.");
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Connects and keeps the connection open until {@link #disconnect()} is
+	 * called. If a reconnection is pending, it is attempted immediately and
+	 * the circuit is closed.
+	 */
+	void connect() {
+		synchronized (this) {
+			wanted = true;
+			if (state == State.CONNECTING || state == State.CONNECTED)
+				return;
+			failures = 0;
+			if (connectStart < 0)
+				connectStart = clock.currentTimeMillis();
+			startAttempt();
+		}
+		connector.connect();
+	}
+
+	/**
+	 * Disconnects and cancels any pending reconnection.
+	 */
+	void disconnect() {
+		boolean disconnect;
+		synchronized (this) {
+			wanted = false;
+			reconnecting = false;
+			generation++;
+			connectStart = -1;
+			disconnectedStart = -1;
+			disconnect = state == State.CONNECTED || state == State.CONNECTING;
+			setState(disconnect ? State.DISCONNECTING : State.DISCONNECTED, 0);
+		}
+		if (disconnect)
+			connector.disconnect();
+	}
+
+	/**
+	 * Closes the connection and opens it again right away, so changes of
+	 * the connection settings take effect. Does nothing if it is not
+	 * connected.
+	 */
+	void reconnect() {
+		synchronized (this) {
+			if (state != State.CONNECTED)
+				return;
+			reconnecting = true;
+			generation++;
+			setState(State.DISCONNECTING, 0);
+		}
+		connector.disconnect();
+	}
+
+	/**
+	 * Notifies that the connection has been established.
+	 */
+	synchronized void onConnected() {
+		generation++;
+		// The connection may also be opened by the connector itself.
+		wanted = true;
+		failures = 0;
+		long now = clock.currentTimeMillis();
+		if (connectStart >= 0) {
+			lastTimeToConnect = now - connectStart;
+			totalTimeToConnect += lastTimeToConnect;
+			connections++;
+			connectStart = -1;
+		}
+		if (disconnectedStart >= 0) {
+			lastTimeDisconnected = now - disconnectedStart;
+			totalTimeDisconnected += lastTimeDisconnected;
+			disconnectedStart = -1;
+		}
+		setState(State.CONNECTED, 0);
+	}
+
+	/**
+	 * Notifies that the connection has been closed.
+	 */
+	void onDisconnected() {
+		synchronized (this) {
+			if (!reconnecting) {
+				handleDisconnected();
+				return;
+			}
+			reconnecting = false;
+			connectStart = clock.currentTimeMillis();
+			startAttempt();
+		}
+		connector.connect();
+	}
+
+	/**
+	 * Notifies that the connection failed.
+	 *
+	 * @param errorMessage The error message.
+	 */
+	synchronized void onConnectionError(String errorMessage) {
+		if (!wanted) {
+			setState(State.DISCONNECTED, 0);
+			return;
+		}
+		long now = clock.currentTimeMillis();
+		if (state == State.CONNECTED) {
+			disconnectedStart = now;
+			connectStart = now;
+		} else {
+			failures++;
+		}
+		if (state == State.CONNECTED || state == State.CONNECTING)
+			scheduleAttempt();
+	}
+
+	/**
+	 * Returns the current connection state.
+	 *
+	 * @return The connection state.
+	 */
+	synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * Returns the number of consecutive failed connection attempts.
+	 *
+	 * @return The number of consecutive failures.
+	 */
+	synchronized int getFailureCount() {
+		return failures;
+	}
+
+	/**
+	 * Returns the number of connection attempts made.
+	 *
+	 * @return The number of connection attempts.
+	 */
+	synchronized int getAttemptCount() {
+		return attempts;
+	}
+
+	/**
+	 * Returns the time it took to connect the last time, from the connection
+	 * request or the connection loss until the connection was established.
+	 *
+	 * @return The last time to connect in milliseconds.
+	 */
+	synchronized long getLastTimeToConnect() {
+		return lastTimeToConnect;
+	}
+
+	/**
+	 * Returns the average time to connect.
+	 *
+	 * @return The average time to connect in milliseconds.
+	 */
+	synchronized long getAverageTimeToConnect() {
+		return connections == 0 ? 0 : totalTimeToConnect / connections;
+	}
+
+	/**
+	 * Returns the duration of the last unexpected disconnection.
+	 *
+	 * @return The last time disconnected in milliseconds.
+	 */
+	synchronized long getLastTimeDisconnected() {
+		return lastTimeDisconnected;
+	}
+
+	/**
+	 * Returns the total time spent disconnected after unexpected connection
+	 * losses, including the current one.
+	 *
+	 * @return The total time disconnected in milliseconds.
+	 */
+	synchronized long getTotalTimeDisconnected() {
+		if (disconnectedStart >= 0)
+			return totalTimeDisconnected + clock.currentTimeMillis() - disconnectedStart;
+		return totalTimeDisconnected;
+	}
+
+	/**
+	 * Cancels any pending reconnection and releases the scheduler. The
+	 * connection is not closed.
+	 */
+	void close() {
+		synchronized (this) {
+			generation++;
+		}
+		if (scheduler != null)
+			scheduler.shutdownNow();
+	}
+
+	/**
+	 * Handles a closed connection. Must be called with the lock held.
+	 */
+	private void handleDisconnected() {
+		if (!wanted || state == State.DISCONNECTING) {
+			setState(State.DISCONNECTED, 0);
+			return;
+		}
+		if (state == State.CONNECTED) {
+			// Unexpected connection loss, reconnect.
+			long now = clock.currentTimeMillis();
+			disconnectedStart = now;
+			connectStart = now;
+			scheduleAttempt();
+		} else if (state == State.CONNECTING) {
+			failures++;
+			scheduleAttempt();
+		}
+	}
+
+	/**
+	 * Moves to the connecting state and schedules the attempt timeout. Must
+	 * be called with the lock held, and followed by a call to
+	 * {@code connector.connect()} without it.
+	 */
+	private void startAttempt() {
+		final long attempt = ++generation;
+		attempts++;
+		setState(State.CONNECTING, 0);
+		clock.schedule(new Runnable() {
+			@Override
+			public void run() {
+				boolean timedOut;
+				synchronized (ConnectionStateMachine.this) {
+					timedOut = attempt == generation && state == State.CONNECTING;
+				}
+				if (timedOut) {
+					onConnectionError(ERROR_TIMEOUT);
+					connector.disconnect();
+				}
+			}
+		}, connectTimeout);
+	}
+
+	/**
+	 * Schedules the next connection attempt, opening the circuit if there
+	 * have been too many consecutive failures. Must be called with the lock
+	 * held.
+	 */
+	private void scheduleAttempt() {
+		final long attempt = ++generation;
+		long delay;
+		if (failures >= failureThreshold) {
+			delay = openTime;
+			setState(State.CIRCUIT_OPEN, delay);
+		} else {
+			long limit = baseDelay << Math.min(failures, 30);
+			if (limit <= 0 || limit > maxDelay)
+				limit = maxDelay;
+			delay = (long) (random.nextDouble() * limit);
+			setState(State.BACKING_OFF, delay);
+		}
+		clock.schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (ConnectionStateMachine.this) {
+					if (attempt != generation)
+						return;
+					startAttempt();
+				}
+				connector.connect();
+			}
+		}, delay);
+	}
+
+	/**
+	 * Changes the state and notifies the listener. Must be called with the
+	 * lock held.
+	 *
+	 * @param newState The new state.
+	 * @param delay The time until the next attempt in milliseconds.
+	 */
+	private void setState(State newState, long delay) {
+		if (state == newState && delay == 0)
+			return;
+		state = newState;
+		if (listener != null)
+			listener.connectionStateChanged(newState, delay);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.CloudConnectorPreferencesManager;
+
+import java.util.EnumSet;
+
+/**
+ * Immutable snapshot of the Cloud Connector settings.
+ */
+class ConnectorSettings {
+
+	/**
+	 * Settings keys.
+	 */
+	enum Key {
+		DEVICE_NAME(false),
+		DEVICE_DESCRIPTION(false),
+		CONTACT_INFORMATION(false),
+		VENDOR_ID(true),
+		URL(true),
+		AUTO_CONNECT(false),
+		RECONNECT(false),
+		RECONNECT_TIME(false),
+		SECURE_CONNECTION(true),
+		COMPRESSION(true),
+		SYSTEM_MONITOR(false);
+
+		private final boolean connectionSetting;
+
+		Key(boolean connectionSetting) {
+			this.connectionSetting = connectionSetting;
+		}
+
+		/**
+		 * Returns whether the connection must be reopened for a change of
+		 * this setting to take effect.
+		 *
+		 * @return {@code true} if it is a connection setting, {@code false}
+		 *         otherwise.
+		 */
+		boolean isConnectionSetting() {
+			return connectionSetting;
+		}
+	}
+
+	// Variables.
+	final String deviceName;
+	final String deviceDescription;
+	final String contactInformation;
+	final String vendorID;
+	final String url;
+	final boolean autoConnect;
+	final boolean reconnect;
+	final int reconnectTime;
+	final boolean secureConnection;
+	final boolean compression;
+	final boolean systemMonitor;
+
+	/**
+	 * Class constructor. Instantiates a new {@code ConnectorSettings} using
+	 * the given parameters.
+	 *
+	 * @param deviceName The device name.
+	 * @param deviceDescription The device description.
+	 * @param contactInformation The contact information.
+	 * @param vendorID The vendor ID.
+	 * @param url The connection URL.
+	 * @param autoConnect Whether auto-connect is enabled.
+	 * @param reconnect Whether reconnect is enabled.
+	 * @param reconnectTime The time before reconnecting.
+	 * @param secureConnection Whether the secure connection is enabled.
+	 * @param compression Whether the messaging compression is enabled.
+	 * @param systemMonitor Whether the system monitor is enabled.
+	 */
+	ConnectorSettings(String deviceName, String deviceDescription, String contactInformation, String vendorID,
+			String url, boolean autoConnect, boolean reconnect, int reconnectTime, boolean secureConnection,
+			boolean compression, boolean systemMonitor) {
+		this.deviceName = deviceName;
+		this.deviceDescription = deviceDescription;
+		this.contactInformation = contactInformation;
+		this.vendorID = vendorID;
+		this.url = url;
+		this.autoConnect = autoConnect;
+		this.reconnect = reconnect;
+		this.reconnectTime = reconnectTime;
+		this.secureConnection = secureConnection;
+		this.compression = compression;
+		this.systemMonitor = systemMonitor;
+	}
+
+	/**
+	 * Reads the current settings of the given connector.
+	 *
+	 * @param connectorManager The Cloud Connector manager.
+	 *
+	 * @return The current settings.
+	 */
+	static ConnectorSettings read(CloudConnectorManager connectorManager) {
+		CloudConnectorPreferencesManager preferencesManager = connectorManager.getPreferencesManager();
+		return new ConnectorSettings(preferencesManager.getDeviceName(), preferencesManager.getDeviceDescription(),
+				preferencesManager.getDeviceContactInformation(), preferencesManager.getVendorID(),
+				preferencesManager.getURL(), preferencesManager.isAutoConnectEnabled(),
+				preferencesManager.isReconnectEnabled(), preferencesManager.getReconnectTime(),
+				preferencesManager.isSecureConnectionEnabled(), preferencesManager.isCompressionEnabled(),
+				connectorManager.isSystemMonitorEnabled());
+	}
+
+	/**
+	 * Returns the keys whose values differ in the given settings.
+	 *
+	 * @param other The settings to compare with.
+	 *
+	 * @return The keys of the changed settings.
+	 */
+	EnumSet<Key> diff(ConnectorSettings other) {
+		EnumSet<Key> changed = EnumSet.noneOf(Key.class);
+		if (!equal(deviceName, other.deviceName))
+			changed.add(Key.DEVICE_NAME);
+		if (!equal(deviceDescription, other.deviceDescription))
+			changed.add(Key.DEVICE_DESCRIPTION);
+		if (!equal(contactInformation, other.contactInformation))
+			changed.add(Key.CONTACT_INFORMATION);
+		if (!equal(vendorID, other.vendorID))
+			changed.add(Key.VENDOR_ID);
+		if (!equal(url, other.url))
+			changed.add(Key.URL);
+		if (autoConnect != other.autoConnect)
+			changed.add(Key.AUTO_CONNECT);
+		if (reconnect != other.reconnect)
+			changed.add(Key.RECONNECT);
+		if (reconnectTime != other.reconnectTime)
+			changed.add(Key.RECONNECT_TIME);
+		if (secureConnection != other.secureConnection)
+			changed.add(Key.SECURE_CONNECTION);
+		if (compression != other.compression)
+			changed.add(Key.COMPRESSION);
+		if (systemMonitor != other.systemMonitor)
+			changed.add(Key.SYSTEM_MONITOR);
+		return changed;
+	}
+
+	/**
+	 * Returns whether the given strings are equal, allowing {@code null}.
+	 *
+	 * @param a The first string.
+	 * @param b The second string.
+	 *
+	 * @return {@code true} if they are equal, {@code false} otherwise.
+	 */
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * Writes the value of the given setting to the connector.
+	 *
+	 * @param connectorManager The Cloud Connector manager.
+	 * @param key The key of the setting to write.
+	 */
+	void write(CloudConnectorManager connectorManager, Key key) {
+		CloudConnectorPreferencesManager preferencesManager = connectorManager.getPreferencesManager();
+		switch (key) {
+			case DEVICE_NAME:
+				preferencesManager.setDeviceName(deviceName);
+				break;
+			case DEVICE_DESCRIPTION:
+				preferencesManager.setDeviceDescription(deviceDescription);
+				break;
+			case CONTACT_INFORMATION:
+				preferencesManager.setDeviceContactInformation(contactInformation);
+				break;
+			case VENDOR_ID:
+				preferencesManager.setVendorID(vendorID);
+				break;
+			case URL:
+				preferencesManager.setURL(url);
+				break;
+			case AUTO_CONNECT:
+				preferencesManager.setAutoConnectEnabled(autoConnect);
+				break;
+			case RECONNECT:
+				preferencesManager.setReconnectEnabled(reconnect);
+				break;
+			case RECONNECT_TIME:
+				preferencesManager.setReconnectTime(reconnectTime);
+				break;
+			case SECURE_CONNECTION:
+				preferencesManager.setSecureConnectionEnabled(secureConnection);
+				break;
+			case COMPRESSION:
+				preferencesManager.setCompressionEnabled(compression);
+				break;
+			case SYSTEM_MONITOR:
+			default:
+				preferencesManager.enableSystemMonitor(systemMonitor);
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.widget.CompoundButton;
+import android.widget.Switch;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.util.Locale;
+
+/**
+ * Renders the connector status in the user interface.
+ *
+ * <p>Connector events may arrive from any thread and at any rate. They only
+ * update the pending state, which is rendered at most once per frame, so a
+ * storm of events costs a single render. Strings and colors are resolved
+ * once when the presenter is created.</p>
+ */
+class ConnectorStatusPresenter implements Choreographer.FrameCallback {
+
+	/**
+	 * Connector status displayed in the user interface.
+	 */
+	enum Status {
+		CONNECTED,
+		DISCONNECTED,
+		CONNECTING,
+		DISCONNECTING,
+		RECONNECTING
+	}
+
+	// Constants.
+	private final static String DATAPOINTS_SEND_SUCCESS = "Datapoints successfully sent";
+
+	private final static String FORMAT_SEND_SUCCESSES = "%s (%d times)";
+	private final static String FORMAT_ERRORS = "%s (%d errors)";
+
+	// Variables.
+	private final Switch connectSwitch;
+
+	private final TextView statusText;
+
+	private final CompoundButton.OnCheckedChangeListener switchListener;
+
+	private final Toast toast;
+
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	private final Choreographer choreographer;
+
+	private final String connectedText;
+	private final String disconnectedText;
+	private final String connectingText;
+	private final String disconnectingText;
+	private final String reconnectingFormat;
+
+	private final int connectedColor;
+	private final int disconnectedColor;
+	private final int pendingColor;
+
+	private final Object lock = new Object();
+
+	private Status status;
+	private long reconnectDelay;
+	private boolean statusChanged;
+
+	private int successes;
+	private int errors;
+	private String lastError;
+
+	private boolean scheduled;
+	private boolean closed;
+
+	private final Runnable scheduleTask = new Runnable() {
+		@Override
+		public void run() {
+			choreographer.postFrameCallback(ConnectorStatusPresenter.this);
+		}
+	};
+
+	/**
+	 * Class constructor. Instantiates a new {@code ConnectorStatusPresenter}
+	 * using the given parameters.
+	 *
+	 * <p>Must be called from the main thread.</p>
+	 *
+	 * @param context The Android application context.
+	 * @param connectSwitch The switch to connect and disconnect.
+	 * @param statusText The text view that displays the status.
+	 * @param switchListener The listener of the switch, detached while the
+	 *                       status changes its checked state.
+	 */
+	ConnectorStatusPresenter(Context context, Switch connectSwitch, TextView statusText,
+			CompoundButton.OnCheckedChangeListener switchListener) {
+		this.connectSwitch = connectSwitch;
+		this.statusText = statusText;
+		this.switchListener = switchListener;
+
+		Resources resources = context.getResources();
+		connectedText = resources.getString(R.string.status_connected);
+		disconnectedText = resources.getString(R.string.status_disconnected);
+		connectingText = resources.getString(R.string.status_connecting);
+		disconnectingText = resources.getString(R.string.status_disconnecting);
+		reconnectingFormat = resources.getString(R.string.status_reconnecting);
+		connectedColor = resources.getColor(R.color.green);
+		disconnectedColor = resources.getColor(R.color.red);
+		pendingColor = resources.getColor(R.color.light_gray);
+
+		toast = Toast.makeText(context, "", Toast.LENGTH_LONG);
+		choreographer = Choreographer.getInstance();
+	}
+
+	/**
+	 * Sets the status to display.
+	 *
+	 * @param status The new status.
+	 */
+	void setStatus(Status status) {
+		setStatus(status, 0);
+	}
+
+	/**
+	 * Sets the status to display.
+	 *
+	 * @param status The new status.
+	 * @param delay The time until the next reconnection attempt in
+	 *              milliseconds, only used for {@link Status#RECONNECTING}.
+	 */
+	void setStatus(Status status, long delay) {
+		synchronized (lock) {
+			this.status = status;
+			reconnectDelay = delay;
+			statusChanged = true;
+			scheduleLocked();
+		}
+	}
+
+	/**
+	 * Notifies that a set of data points was sent successfully.
+	 */
+	void sendSuccess() {
+		synchronized (lock) {
+			successes++;
+			scheduleLocked();
+		}
+	}
+
+	/**
+	 * Notifies that an error occurred.
+	 *
+	 * @param errorMessage The error message.
+	 */
+	void error(String errorMessage) {
+		synchronized (lock) {
+			errors++;
+			lastError = errorMessage;
+			scheduleLocked();
+		}
+	}
+
+	/**
+	 * Stops rendering the status.
+	 */
+	void close() {
+		synchronized (lock) {
+			closed = true;
+		}
+		mainHandler.removeCallbacks(scheduleTask);
+		choreographer.removeFrameCallback(this);
+		toast.cancel();
+	}
+
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		Status newStatus = null;
+		long delay;
+		int newSuccesses;
+		int newErrors;
+		String error;
+		synchronized (lock) {
+			scheduled = false;
+			if (closed)
+				return;
+			if (statusChanged)
+				newStatus = status;
+			delay = reconnectDelay;
+			newSuccesses = successes;
+			newErrors = errors;
+			error = lastError;
+			statusChanged = false;
+			successes = 0;
+			errors = 0;
+			lastError = null;
+		}
+		if (newStatus != null)
+			renderStatus(newStatus, delay);
+		if (newErrors > 0)
+			showMessage(newErrors == 1 ? error : String.format(Locale.getDefault(), FORMAT_ERRORS, error, newErrors));
+		else if (newSuccesses > 0)
+			showMessage(newSuccesses == 1 ? DATAPOINTS_SEND_SUCCESS
+					: String.format(Locale.getDefault(), FORMAT_SEND_SUCCESSES, DATAPOINTS_SEND_SUCCESS, newSuccesses));
+	}
+
+	/**
+	 * Schedules a render in the next frame if none is pending. Must be called
+	 * holding the lock.
+	 */
+	private void scheduleLocked() {
+		if (scheduled || closed)
+			return;
+		scheduled = true;
+		mainHandler.post(scheduleTask);
+	}
+
+	/**
+	 * Displays the given status.
+	 *
+	 * @param status The status to display.
+	 * @param delay The time until the next reconnection attempt in
+	 *              milliseconds.
+	 */
+	private void renderStatus(Status status, long delay) {
+		switch (status) {
+			case CONNECTED:
+				setSwitch(true, true);
+				statusText.setText(connectedText);
+				statusText.setTextColor(connectedColor);
+				break;
+			case DISCONNECTED:
+				setSwitch(true, false);
+				statusText.setText(disconnectedText);
+				statusText.setTextColor(disconnectedColor);
+				break;
+			case CONNECTING:
+				setSwitch(false, true);
+				statusText.setText(connectingText);
+				statusText.setTextColor(pendingColor);
+				break;
+			case DISCONNECTING:
+				setSwitch(false, false);
+				statusText.setText(disconnectingText);
+				statusText.setTextColor(pendingColor);
+				break;
+			case RECONNECTING:
+				// Keep the switch on so the user can cancel the reconnection.
+				setSwitch(true, true);
+				statusText.setText(String.format(Locale.getDefault(), reconnectingFormat, (delay + 999) / 1000));
+				statusText.setTextColor(pendingColor);
+				break;
+		}
+	}
+
+	/**
+	 * Updates the connect switch, detaching its listener only when the
+	 * checked state actually changes.
+	 *
+	 * @param enabled {@code true} to enable the switch, {@code false}
+	 *                otherwise.
+	 * @param checked {@code true} to check the switch, {@code false}
+	 *                otherwise.
+	 */
+	private void setSwitch(boolean enabled, boolean checked) {
+		if (connectSwitch.isEnabled() != enabled)
+			connectSwitch.setEnabled(enabled);
+		if (connectSwitch.isChecked() != checked) {
+			connectSwitch.setOnCheckedChangeListener(null);
+			connectSwitch.setChecked(checked);
+			connectSwitch.setOnCheckedChangeListener(switchListener);
+		}
+	}
+
+	/**
+	 * Displays the given message, replacing the one being displayed.
+	 *
+	 * @param message The message to display.
+	 */
+	private void showMessage(String message) {
+		toast.setText(message);
+		toast.show();
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data point sender that groups the data points coming from several
+ * producers in a single upload.
+ *
+ * <p>Data points are accumulated until {@link CloudConnectorManager#MAXIMUM_DATA_POINTS}
+ * are pending or until the linger time since the first pending data point
+ * expires, whichever comes first. The linger time adapts to the measured
+ * round-trip time of the uploads: the slower the uploads are, the longer
+ * the batcher waits to fill them. To save bandwidth, the batcher can be
+ * told to always wait the maximum linger time.</p>
+ *
+ * <p>Data points are batched separately for each lane of the sender, so
+ * every upload is routed to the lane of its data streams. Producers that
+ * know the path of their data stream pass it with
+ * {@link #sendDataPoints(List, String)}; the rest go to the default lane.
+ * The data points of the first lane, which has strict priority, are
+ * uploaded right away instead of waiting for the batch to fill.</p>
+ *
+ * <p>The round-trip time of each upload is taken from the
+ * {@link SendFuture} returned by the {@link AsyncDataPointSender}.</p>
+ */
+class DataPointBatcher implements IDataPointSender {
+
+	// Constants.
+	private final static long DEFAULT_MIN_LINGER = 20;
+	private final static long DEFAULT_MAX_LINGER = 2000;
+	private final static long INITIAL_LINGER = 100;
+
+	// Fraction of the round-trip time used as linger time.
+	private final static double LINGER_RTT_FACTOR = 0.5;
+	// Weight of the last sample in the round-trip time average.
+	private final static double RTT_ALPHA = 0.2;
+
+	// Variables.
+	private final AsyncDataPointSender sender;
+
+	private final long minLinger;
+	private final long maxLinger;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			synchronized (DataPointBatcher.this) {
+				flushFuture = null;
+			}
+			flush();
+		}
+	};
+
+	// Pending data points of each lane.
+	private final ArrayList<ArrayList<DataPoint>> pending = new ArrayList<>();
+
+	private ScheduledFuture<?> flushFuture;
+
+	private double smoothedRtt = -1;
+
+	private volatile long linger;
+
+	private volatile boolean saving;
+
+	/**
+	 * Class constructor. Instantiates a new {@code DataPointBatcher} with the
+	 * default linger limits.
+	 *
+	 * @param sender The sender to upload the batches with.
+	 */
+	DataPointBatcher(AsyncDataPointSender sender) {
+		this(sender, DEFAULT_MIN_LINGER, DEFAULT_MAX_LINGER);
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code DataPointBatcher} using the
+	 * given parameters.
+	 *
+	 * @param sender The sender to upload the batches with.
+	 * @param minLinger The minimum time to wait for a batch to fill, in
+	 *                  milliseconds.
+	 * @param maxLinger The maximum time to wait for a batch to fill, in
+	 *                  milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the linger limits are not valid.
+	 */
+	DataPointBatcher(AsyncDataPointSender sender, long minLinger, long maxLinger) {
+		if (minLinger < 0 || maxLinger < minLinger)
+			throw new IllegalArgumentException("Invalid linger limits.");
+
+		this.sender = sender;
+		this.minLinger = minLinger;
+		this.maxLinger = maxLinger;
+		this.linger = Math.max(minLinger, Math.min(maxLinger, INITIAL_LINGER));
+		for (int i = 0; i < sender.getLanes().length; i++)
+			pending.add(new ArrayList<DataPoint>(CloudConnectorManager.MAXIMUM_DATA_POINTS));
+	}
+
+	@Override
+	public boolean isConnected() {
+		return sender.isConnected();
+	}
+
+	@Override
+	public void sendDataPoints(List<DataPoint> dataPoints) {
+		add(dataPoints, sender.getDefaultLane());
+	}
+
+	/**
+	 * Adds the given data points to the batch of the lane of the given data
+	 * stream.
+	 *
+	 * @param dataPoints The data points to send, all of them of data streams
+	 *                   of the same lane.
+	 * @param streamPath The path of the data stream of the data points.
+	 */
+	void sendDataPoints(List<DataPoint> dataPoints, String streamPath) {
+		add(dataPoints, sender.getLane(streamPath));
+	}
+
+	@Override
+	public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+		// Keep the order with respect to the pending data points.
+		flush();
+		measureRtt(sender.submitBinary(dataPoint));
+	}
+
+	/**
+	 * Uploads the pending data points right away.
+	 */
+	void flush() {
+		for (int lane = 0; lane < pending.size(); lane++) {
+			List<DataPoint> batch;
+			synchronized (this) {
+				if (pending.get(lane).isEmpty())
+					continue;
+				batch = takeBatch(lane);
+			}
+			upload(batch, lane);
+		}
+	}
+
+	/**
+	 * Returns the current linger time.
+	 *
+	 * @return The time to wait for a batch to fill, in milliseconds.
+	 */
+	long getLinger() {
+		return saving ? maxLinger : linger;
+	}
+
+	/**
+	 * Sets whether to save bandwidth by always waiting the maximum linger
+	 * time, so the uploads carry as many data points as possible.
+	 *
+	 * @param saving {@code true} to save bandwidth, {@code false} to adapt
+	 *               the linger time to the round-trip time.
+	 */
+	void setSaving(boolean saving) {
+		this.saving = saving;
+	}
+
+	/**
+	 * Uploads the pending data points and stops the batcher.
+	 */
+	void close() {
+		flush();
+		scheduler.shutdownNow();
+	}
+
+	/**
+	 * Adds the given data points to the batch of the given lane, uploading
+	 * it when it is full.
+	 *
+	 * @param dataPoints The data points to add.
+	 * @param lane The index of the lane.
+	 */
+	private void add(List<DataPoint> dataPoints, int lane) {
+		for (DataPoint dataPoint : dataPoints) {
+			List<DataPoint> batch = null;
+			synchronized (this) {
+				ArrayList<DataPoint> lanePending = pending.get(lane);
+				lanePending.add(dataPoint);
+				if (lanePending.size() >= CloudConnectorManager.MAXIMUM_DATA_POINTS)
+					batch = takeBatch(lane);
+				else if (flushFuture == null && lane != 0)
+					flushFuture = scheduler.schedule(flushTask, getLinger(), TimeUnit.MILLISECONDS);
+			}
+			if (batch != null)
+				upload(batch, lane);
+		}
+		if (lane == 0) {
+			List<DataPoint> batch;
+			synchronized (this) {
+				if (pending.get(lane).isEmpty())
+					return;
+				batch = takeBatch(lane);
+			}
+			upload(batch, lane);
+		}
+	}
+
+	/**
+	 * Takes the pending data points of the given lane, cancelling the
+	 * scheduled flush if no other lane has pending data points.
+	 *
+	 * @param lane The index of the lane.
+	 *
+	 * @return The data points to upload.
+	 */
+	private List<DataPoint> takeBatch(int lane) {
+		List<DataPoint> batch = pending.get(lane);
+		pending.set(lane, new ArrayList<DataPoint>(CloudConnectorManager.MAXIMUM_DATA_POINTS));
+		if (flushFuture != null) {
+			for (ArrayList<DataPoint> lanePending : pending) {
+				if (!lanePending.isEmpty())
+					return batch;
+			}
+			flushFuture.cancel(false);
+			flushFuture = null;
+		}
+		return batch;
+	}
+
+	/**
+	 * Uploads the given batch in the given lane.
+	 *
+	 * @param batch The data points to upload.
+	 * @param lane The index of the lane.
+	 */
+	private void upload(List<DataPoint> batch, int lane) {
+		measureRtt(sender.submitToLane(batch, lane));
+	}
+
+	/**
+	 * Measures the round-trip time of the given upload when it completes.
+	 *
+	 * @param future The future result of the upload.
+	 */
+	private void measureRtt(final SendFuture future) {
+		future.addListener(new ISendListener() {
+			@Override
+			public void sendSuccess() {
+				updateLinger(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - future.getSentTime()));
+			}
+
+			@Override
+			public void sendError(String errorMessage) {
+				// Failed uploads do not say anything about the link speed.
+			}
+		});
+	}
+
+	/**
+	 * Adapts the linger time to the given round-trip time.
+	 *
+	 * @param rtt The round-trip time of an upload, in milliseconds.
+	 */
+	private synchronized void updateLinger(long rtt) {
+		smoothedRtt = smoothedRtt < 0 ? rtt : smoothedRtt + RTT_ALPHA * (rtt - smoothedRtt);
+		linger = Math.max(minLinger, Math.min(maxLinger, (long) (smoothedRtt * LINGER_RTT_FACTOR)));
+	}
+}
@@ -19,22 +19,30 @@ package com.digi.android.sample.cloudconnector;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.EditText;
 import android.widget.Spinner;
 import android.widget.TextView;
+import android.widget.Toast;
 
-import com.digi.android.cloudconnector.BinaryDataPoint;
 import com.digi.android.cloudconnector.CloudConnectorManager;
-import com.digi.android.cloudconnector.DataPoint;
-import com.digi.android.cloudconnector.DataStream;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Executor;
 
 class DataPointDialog {
 
@@ -44,9 +52,12 @@ class DataPointDialog {
 	private final static String DATA_POINT_LONG = DATA_POINT_PREFIX + "/LONG";
 	private final static String DATA_POINT_FLOAT = DATA_POINT_PREFIX + "/FLOAT";
 	private final static String DATA_POINT_DOUBLE = DATA_POINT_PREFIX + "/DOUBLE";
-	private final static String DATA_POINT_STRING = DATA_POINT_PREFIX + "/STRING";
-	private final static String DATA_POINT_BYTE_ARRAY = DATA_POINT_PREFIX + "/BINARY";
-	private final static String DATA_POINT_BINARY = DATA_POINT_PREFIX + "/BINARY_RAW";
+	final static String DATA_POINT_STRING = DATA_POINT_PREFIX + "/STRING";
+	final static String DATA_POINT_BYTE_ARRAY = DATA_POINT_PREFIX + "/BINARY";
+	final static String DATA_POINT_BINARY = DATA_POINT_PREFIX + "/BINARY_RAW";
+	final static String DATA_POINT_FILE = DATA_POINT_PREFIX + "/BINARY_FILE";
+	private final static String DATA_POINT_LOAD = DATA_POINT_PREFIX + "/LOAD";
+	final static String DATA_POINT_IMPORT = DATA_POINT_PREFIX + "/IMPORT";
 
 	private final static int DATA_POINT_TYPE_INT = 0;
 	private final static int DATA_POINT_TYPE_LONG = 1;
@@ -55,6 +66,12 @@ class DataPointDialog {
 	private final static int DATA_POINT_TYPE_STRING = 4;
 	private final static int DATA_POINT_TYPE_BINARY_64 = 5;
 	private final static int DATA_POINT_TYPE_BINARY_RAW = 6;
+	private final static int DATA_POINT_TYPE_BINARY_FILE = 7;
+	private final static int DATA_POINT_TYPE_IMPORT = 8;
+
+	private final static int MAXIMUM_LOAD_STREAMS = 100;
+
+	private final static long LOAD_REFRESH_INTERVAL = 1000;
 
 	// Variables.
 	private final Context context;
@@ -63,26 +80,98 @@ class DataPointDialog {
 
 	private AlertDialog dataPointDialog;
 
-	private final CloudConnectorManager connectorManager;
+	private final DataPointJournal journal;
+
+	private final Executor executor;
+
+	private final Runnable drainRequest;
+
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	private final FileUploader fileUploader;
+
+	private final BulkImporter bulkImporter;
+
+	private final IDataPointSender loadSender;
+
+	private final double loadRateLimit;
+
+	private final SendStatistics statistics;
+
+	private final DeadbandFilter valueFilter;
+
+	private final StreamSchema[] streams;
+
+	private Number validatedValue;
+
+	private LoadTest loadTest;
 
 	private TextView statusText;
 	private TextView dataPointsNumberLabelText;
+	private TextView typeLabelText;
 
 	private EditText valueText;
+	private EditText loadRateText;
+	private EditText loadDurationText;
+	private EditText loadStreamsText;
 
 	private NumberPicker numberDataPoints;
 
 	private Spinner dataPointTypeSpinner;
+	private Spinner loadGeneratorSpinner;
+
+	private CheckBox loadModeCheckbox;
+
+	private View loadOptionsView;
+
+	private final Runnable loadRefreshTask = new Runnable() {
+		@Override
+		public void run() {
+			refreshLoadTest();
+		}
+	};
 
 	/**
 	 * Class constructor. Instantiates a new {@code DataPointDialog} using the given parameters.
 	 *
 	 * @param context The Android application context.
-	 * @param connectorManager The Cloud Connector manager.
+	 * @param journal The journal to store the data points in.
+	 * @param executor The executor to store the data points from.
+	 * @param drainRequest The task to run to upload the stored data points.
+	 * @param fileUploader The uploader for the file data points.
+	 * @param bulkImporter The importer for the CSV and NDJSON files.
+	 * @param loadSender The sender for the data points of the load test mode.
+	 * @param loadRateLimit The data points per second the bandwidth limits
+	 *                      allow to the load test, {@code 0} for no limit.
+	 * @param statistics The upload statistics to display in load test mode.
+	 * @param registry The registry to declare the data streams in.
+	 * @param valueFilter The filter that drops the string and binary values
+	 *                    that did not change since the last ones sent.
 	 */
-	DataPointDialog(Context context, CloudConnectorManager connectorManager) {
+	DataPointDialog(Context context, DataPointJournal journal, Executor executor, Runnable drainRequest,
+			FileUploader fileUploader, BulkImporter bulkImporter, IDataPointSender loadSender, double loadRateLimit,
+			SendStatistics statistics, StreamRegistry registry, DeadbandFilter valueFilter) {
 		this.context = context;
-		this.connectorManager = connectorManager;
+		this.journal = journal;
+		this.executor = executor;
+		this.drainRequest = drainRequest;
+		this.fileUploader = fileUploader;
+		this.bulkImporter = bulkImporter;
+		this.loadSender = loadSender;
+		this.loadRateLimit = loadRateLimit;
+		this.statistics = statistics;
+		this.valueFilter = valueFilter;
+
+		// Declare the data streams, indexed by the data point type.
+		streams = new StreamSchema[] {
+				registry.register(DATA_POINT_INTEGER, DataPointJournal.TYPE_INTEGER),
+				registry.register(DATA_POINT_LONG, DataPointJournal.TYPE_LONG),
+				registry.register(DATA_POINT_FLOAT, DataPointJournal.TYPE_FLOAT),
+				registry.register(DATA_POINT_DOUBLE, DataPointJournal.TYPE_DOUBLE),
+				registry.register(DATA_POINT_STRING, DataPointJournal.TYPE_STRING),
+				registry.register(DATA_POINT_BYTE_ARRAY, DataPointJournal.TYPE_BINARY_64),
+				registry.register(DATA_POINT_BINARY, DataPointJournal.TYPE_BINARY_RAW)
+		};
 
 		// Setup the layout.
 		setupLayout();
@@ -98,6 +187,21 @@ class DataPointDialog {
 
 		dataPointDialog.getButton(AlertDialog.BUTTON_POSITIVE).setFocusable(true);
 		dataPointDialog.getButton(AlertDialog.BUTTON_POSITIVE).requestFocus();
+		// The dialog stays open while a load test runs.
+		dataPointDialog.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				if (loadModeCheckbox.isChecked()) {
+					handleLoadTestPressed();
+					return;
+				}
+				sendDataPoint();
+				dataPointDialog.dismiss();
+				synchronized (DataPointDialog.this) {
+					DataPointDialog.this.notify();
+				}
+			}
+		});
 	}
 
 	/**
@@ -120,6 +224,7 @@ class DataPointDialog {
 		// Get the status text.
 		statusText = dataPointDialogView.findViewById(R.id.status_text);
 		// Get the data points type spinner.
+		typeLabelText = dataPointDialogView.findViewById(R.id.type_label);
 		dataPointTypeSpinner = dataPointDialogView.findViewById(R.id.data_point_type_spinner);
 		dataPointTypeSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
 			@Override
@@ -151,7 +256,7 @@ class DataPointDialog {
 
 			@Override
 			public void onTextChanged(CharSequence s, int start, int before, int count) {
-				validateDialog();
+
 			}
 
 			@Override
@@ -159,6 +264,37 @@ class DataPointDialog {
 				validateDialog();
 			}
 		});
+
+		// Get the load test controls.
+		loadOptionsView = dataPointDialogView.findViewById(R.id.load_options);
+		loadModeCheckbox = dataPointDialogView.findViewById(R.id.load_mode);
+		loadModeCheckbox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+			@Override
+			public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+				handleDataPointTypeChanged();
+			}
+		});
+		loadGeneratorSpinner = dataPointDialogView.findViewById(R.id.load_generator_spinner);
+		ArrayAdapter<String> generatorsAdapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, context.getResources().getStringArray(R.array.load_generators));
+		generatorsAdapter.setDropDownViewResource(android.R.layout.select_dialog_singlechoice);
+		loadGeneratorSpinner.setAdapter(generatorsAdapter);
+		loadGeneratorSpinner.setSelection(0);
+		loadGeneratorSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+			@Override
+			public void onItemSelected(AdapterView<?> parentView, View selectedItemView, int position, long id) {
+				validateDialog();
+			}
+
+			@Override
+			public void onNothingSelected(AdapterView<?> parentView) {
+			}
+		});
+		loadRateText = dataPointDialogView.findViewById(R.id.load_rate);
+		loadRateText.addTextChangedListener(textWatcher);
+		loadDurationText = dataPointDialogView.findViewById(R.id.load_duration);
+		loadDurationText.addTextChangedListener(textWatcher);
+		loadStreamsText = dataPointDialogView.findViewById(R.id.load_streams);
+		loadStreamsText.addTextChangedListener(textWatcher);
 	}
 
 	/**
@@ -170,15 +306,7 @@ class DataPointDialog {
 		alertDialogBuilder.setView(dataPointDialogView);
 		alertDialogBuilder.setTitle(R.string.title_data_point);
 		alertDialogBuilder.setCancelable(false);
-		alertDialogBuilder.setPositiveButton(R.string.button_send, new DialogInterface.OnClickListener() {
-			@Override
-			public void onClick(DialogInterface dialog, int id) {
-				sendDataPoint();
-				synchronized (DataPointDialog.this) {
-					DataPointDialog.this.notify();
-				}
-			}
-		});
+		alertDialogBuilder.setPositiveButton(R.string.button_send, null);
 		alertDialogBuilder.setNegativeButton(R.string.button_close, new DialogInterface.OnClickListener() {
 			@Override
 			public void onClick(DialogInterface dialog, int id) {
@@ -190,55 +318,80 @@ class DataPointDialog {
 		});
 		// Create the dialog.
 		dataPointDialog = alertDialogBuilder.create();
+		dataPointDialog.setOnDismissListener(new DialogInterface.OnDismissListener() {
+			@Override
+			public void onDismiss(DialogInterface dialog) {
+				stopLoadTest();
+			}
+		});
 	}
 
 	/**
 	 * Handles what happens when the data point type spinner selection changes.
 	 */
 	private void handleDataPointTypeChanged() {
-		dataPointsNumberLabelText.setVisibility(View.VISIBLE);
-		numberDataPoints.setVisibility(View.VISIBLE);
+		boolean loadMode = loadModeCheckbox.isChecked();
+		typeLabelText.setVisibility(loadMode ? View.GONE : View.VISIBLE);
+		dataPointTypeSpinner.setVisibility(loadMode ? View.GONE : View.VISIBLE);
+		loadOptionsView.setVisibility(loadMode ? View.VISIBLE : View.GONE);
+		dataPointsNumberLabelText.setVisibility(loadMode ? View.GONE : View.VISIBLE);
+		numberDataPoints.setVisibility(loadMode ? View.GONE : View.VISIBLE);
 		validateDialog();
 	}
 
 	/**
 	 * Validates the dialog setting the corresponding configuration error.
+	 * Numeric values are parsed against the schema of their stream and kept
+	 * for sending.
 	 */
 	private void validateDialog() {
 		String errorMessage = null;
+		validatedValue = null;
 
 		String value = valueText.getText().toString();
 		if (value.trim().length() == 0) {
 			errorMessage = "Value cannot be empty.";
+		} else if (loadModeCheckbox.isChecked()) {
+			errorMessage = validateLoadTest(value);
 		} else {
 			try {
 				switch (dataPointTypeSpinner.getSelectedItemPosition()) {
 					case DATA_POINT_TYPE_INT:
-						Integer.valueOf(valueText.getText().toString());
-						break;
 					case DATA_POINT_TYPE_LONG:
-						Long.valueOf(valueText.getText().toString());
-						break;
 					case DATA_POINT_TYPE_FLOAT:
-						Float.valueOf(valueText.getText().toString());
-						break;
 					case DATA_POINT_TYPE_DOUBLE:
-						Double.valueOf(valueText.getText().toString());
+						validatedValue = streams[dataPointTypeSpinner.getSelectedItemPosition()].parse(value);
 						break;
 					case DATA_POINT_TYPE_STRING:
 					case DATA_POINT_TYPE_BINARY_64:
 						break;
+					case DATA_POINT_TYPE_BINARY_FILE:
+						dataPointsNumberLabelText.setVisibility(View.GONE);
+						numberDataPoints.setVisibility(View.GONE);
+						File file = new File(value);
+						if (!file.isFile() || !file.canRead())
+							errorMessage = "File does not exist or cannot be read.";
+						break;
+					case DATA_POINT_TYPE_IMPORT:
+						dataPointsNumberLabelText.setVisibility(View.GONE);
+						numberDataPoints.setVisibility(View.GONE);
+						File importFile = new File(value);
+						if (!importFile.isFile() || !importFile.canRead())
+							errorMessage = "File does not exist or cannot be read.";
+						else if (BulkImporter.getFormat(importFile) == null)
+							errorMessage = "File must be a .csv, .ndjson or .jsonl file.";
+						break;
 					case DATA_POINT_TYPE_BINARY_RAW:
 					default:
 						dataPointsNumberLabelText.setVisibility(View.GONE);
 						numberDataPoints.setVisibility(View.GONE);
 				}
-			} catch (Exception e) {
-				errorMessage = "Value is not valid for the specified type.";
+			} catch (IllegalArgumentException e) {
+				errorMessage = e.getMessage();
 			}
 		}
 
-		if (errorMessage == null) {
+		if (errorMessage == null && !loadModeCheckbox.isChecked()) {
 			if (numberDataPoints.getValue() < 1)
 				errorMessage = "At least one data point must be sent to Remote Manager.";
 			else if (numberDataPoints.getValue() > CloudConnectorManager.MAXIMUM_DATA_POINTS)
@@ -259,50 +412,331 @@ class DataPointDialog {
 	}
 
 	/**
-	 * Sends the selected data point to Remote Manager.
+	 * Stores the selected data points in the journal in the background and
+	 * requests them to be uploaded to Remote Manager. Files are uploaded
+	 * directly in chunks.
 	 */
 	private void sendDataPoint() {
-		DataStream dataStream;
-		DataPoint dataPoint = null;
-		BinaryDataPoint binaryDataPoint = null;
-		switch (dataPointTypeSpinner.getSelectedItemPosition()) {
-			case DATA_POINT_TYPE_INT:
-				dataStream = new DataStream(DATA_POINT_INTEGER);
-				dataPoint = new DataPoint(Integer.parseInt(valueText.getText().toString()), dataStream);
-				break;
-			case DATA_POINT_TYPE_LONG:
-				dataStream = new DataStream(DATA_POINT_LONG);
-				dataPoint = new DataPoint(Long.parseLong(valueText.getText().toString()), dataStream);
-				break;
-			case DATA_POINT_TYPE_FLOAT:
-				dataStream = new DataStream(DATA_POINT_FLOAT);
-				dataPoint = new DataPoint(Float.parseFloat(valueText.getText().toString()), dataStream);
-				break;
-			case DATA_POINT_TYPE_DOUBLE:
-				dataStream = new DataStream(DATA_POINT_DOUBLE);
-				dataPoint = new DataPoint(Double.parseDouble(valueText.getText().toString()), dataStream);
-				break;
-			case DATA_POINT_TYPE_STRING:
-				dataStream = new DataStream(DATA_POINT_STRING);
-				dataPoint = new DataPoint(valueText.getText().toString(), dataStream);
-				break;
-			case DATA_POINT_TYPE_BINARY_64:
-				dataStream = new DataStream(DATA_POINT_BYTE_ARRAY);
-				dataPoint = new DataPoint(valueText.getText().toString().getBytes(), dataStream);
-				break;
-			case DATA_POINT_TYPE_BINARY_RAW:
+		int type = dataPointTypeSpinner.getSelectedItemPosition();
+		final String value = valueText.getText().toString();
+		final Number number = validatedValue;
+		final int numberOfDataPoints = numberDataPoints.getValue();
+		if (type == DATA_POINT_TYPE_BINARY_FILE) {
+			fileUploader.upload(new File(value), DATA_POINT_FILE);
+			return;
+		}
+		if (type == DATA_POINT_TYPE_IMPORT) {
+			bulkImporter.importFile(new File(value), DATA_POINT_IMPORT);
+			return;
+		}
+		final StreamSchema stream = streams[type];
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				storeDataPoints(stream, number, value, numberOfDataPoints);
+			}
+		});
+	}
+
+	/**
+	 * Validates the load test configuration.
+	 *
+	 * @param value The value of the data points.
+	 *
+	 * @return The configuration error, or {@code null} if it is valid.
+	 */
+	private String validateLoadTest(String value) {
+		try {
+			if (Double.parseDouble(loadRateText.getText().toString()) <= 0)
+				return "Rate must be positive.";
+			if (Long.parseLong(loadDurationText.getText().toString()) < 1)
+				return "Duration must be at least one second.";
+			int streams = Integer.parseInt(loadStreamsText.getText().toString());
+			if (streams < 1 || streams > MAXIMUM_LOAD_STREAMS)
+				return "Number of streams must be between 1 and " + MAXIMUM_LOAD_STREAMS + ".";
+		} catch (NumberFormatException e) {
+			return "Load test configuration is not valid.";
+		}
+		if (getLoadGenerator() == LoadTest.Generator.REPLAY) {
+			File file = new File(value);
+			// The file is read when the load test starts.
+			if (file.isFile())
+				return file.canRead() ? null : "File cannot be read.";
+		}
+		try {
+			readLoadValues(getLoadGenerator(), value);
+		} catch (IOException | NumberFormatException e) {
+			return getLoadGenerator() == LoadTest.Generator.REPLAY
+					? "Value must be a file or a list of numbers separated by commas."
+					: "Value must be a number.";
+		}
+		return null;
+	}
+
+	/**
+	 * Handles what happens when the send button is pressed in load test
+	 * mode, starting or stopping the load test.
+	 */
+	private void handleLoadTestPressed() {
+		if (loadTest != null) {
+			stopLoadTest();
+			return;
+		}
+		final LoadTest.Generator generator = getLoadGenerator();
+		final String value = valueText.getText().toString();
+		final double rate = Double.parseDouble(loadRateText.getText().toString());
+		final long duration = Long.parseLong(loadDurationText.getText().toString());
+		final int streams = Integer.parseInt(loadStreamsText.getText().toString());
+		dataPointDialog.getButton(AlertDialog.BUTTON_POSITIVE).setText(R.string.button_stop);
+		setLoadControlsEnabled(false);
+		// Replay files are read in the background.
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final double[] values;
+				try {
+					values = readLoadValues(generator, value);
+				} catch (final IOException | NumberFormatException e) {
+					e.printStackTrace();
+					mainHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							Toast.makeText(context, "Error reading replay values: " + e.getMessage(), Toast.LENGTH_LONG).show();
+							stopLoadTest();
+						}
+					});
+					return;
+				}
+				mainHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (!loadModeCheckbox.isEnabled() && loadTest == null) {
+							loadTest = new LoadTest(loadSender, DATA_POINT_LOAD, streams, rate, duration, generator, values);
+							loadTest.start();
+							refreshLoadTest();
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Stops the running load test, if any, and restores the controls.
+	 */
+	private void stopLoadTest() {
+		mainHandler.removeCallbacks(loadRefreshTask);
+		if (loadTest != null) {
+			loadTest.stop();
+			showLoadTestStatus();
+			loadTest = null;
+		}
+		setLoadControlsEnabled(true);
+		dataPointDialog.getButton(AlertDialog.BUTTON_POSITIVE).setText(R.string.button_send);
+	}
+
+	/**
+	 * Displays the progress of the load test, refreshing it every second
+	 * until it finishes.
+	 */
+	private void refreshLoadTest() {
+		if (loadTest == null)
+			return;
+		showLoadTestStatus();
+		if (loadTest.isRunning())
+			mainHandler.postDelayed(loadRefreshTask, LOAD_REFRESH_INTERVAL);
+		else
+			stopLoadTest();
+	}
+
+	/**
+	 * Displays the achieved and target rates, the drops and the latency of
+	 * the load test, and the bandwidth limit if the target rate exceeds it.
+	 */
+	private void showLoadTestStatus() {
+		SendStatistics.Snapshot snapshot = statistics.snapshot();
+		statusText.setError(null);
+		statusText.setTextColor(context.getResources().getColor(R.color.black));
+		String limit = "";
+		if (loadRateLimit > 0 && loadTest.getTargetRate() > loadRateLimit)
+			limit = String.format(Locale.getDefault(), " (bandwidth limit %.0f points/s)", loadRateLimit);
+		statusText.setText(String.format(Locale.getDefault(),
+				"%d s: %.0f of %.0f points/s%s, %d dropped, %d uploads dropped, p99 latency %.1f ms",
+				loadTest.getElapsedTime(), loadTest.getAchievedRate(), loadTest.getTargetRate(), limit,
+				loadTest.getDroppedCount(), snapshot.dropped,
+				snapshot.totalLatency.getValueAtPercentile(99) / 1000.0));
+	}
+
+	/**
+	 * Enables or disables the controls that configure the load test.
+	 *
+	 * @param enabled {@code true} to enable them, {@code false} otherwise.
+	 */
+	private void setLoadControlsEnabled(boolean enabled) {
+		loadModeCheckbox.setEnabled(enabled);
+		loadGeneratorSpinner.setEnabled(enabled);
+		loadRateText.setEnabled(enabled);
+		loadDurationText.setEnabled(enabled);
+		loadStreamsText.setEnabled(enabled);
+		valueText.setEnabled(enabled);
+	}
+
+	/**
+	 * Returns the selected value generator.
+	 *
+	 * @return The value generator.
+	 */
+	private LoadTest.Generator getLoadGenerator() {
+		return LoadTest.Generator.values()[Math.max(0, loadGeneratorSpinner.getSelectedItemPosition())];
+	}
+
+	/**
+	 * Returns the values for the given generator. Replay values are read
+	 * from the given file, one per line, if it exists, or parsed from a list
+	 * separated by commas. The other generators take a single value.
+	 *
+	 * @param generator The value generator.
+	 * @param value The value typed in the dialog.
+	 *
+	 * @return The values of the generator.
+	 *
+	 * @throws IOException If the replay file cannot be read.
+	 * @throws NumberFormatException If any value is not a number.
+	 */
+	private static double[] readLoadValues(LoadTest.Generator generator, String value) throws IOException {
+		if (generator != LoadTest.Generator.REPLAY)
+			return new double[] {Double.parseDouble(value.trim())};
+		File file = new File(value);
+		if (!file.isFile())
+			return parseLoadValues(value);
+
+		ArrayList<String> lines = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().length() > 0)
+					lines.add(line.trim());
+			}
+		} finally {
+			reader.close();
+		}
+		if (lines.isEmpty())
+			throw new IOException("File is empty.");
+		double[] values = new double[lines.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = Double.parseDouble(lines.get(i));
+		return values;
+	}
+
+	/**
+	 * Parses a list of numbers separated by commas.
+	 *
+	 * @param value The list of numbers.
+	 *
+	 * @return The parsed numbers.
+	 *
+	 * @throws NumberFormatException If any value is not a number.
+	 */
+	private static double[] parseLoadValues(String value) {
+		String[] items = value.split(",");
+		double[] values = new double[items.length];
+		for (int i = 0; i < items.length; i++)
+			values[i] = Double.parseDouble(items[i].trim());
+		return values;
+	}
+
+	/**
+	 * Stores the given data points in the journal and requests them to be
+	 * uploaded to Remote Manager.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param number The validated value of numeric data points.
+	 * @param value The value of the data points.
+	 * @param numberOfDataPoints The number of data points to store.
+	 */
+	private void storeDataPoints(final StreamSchema stream, Number number, String value, int numberOfDataPoints) {
+		if (!acceptValue(stream, value)) {
+			mainHandler.post(new Runnable() {
+				@Override
+				public void run() {
+					Toast.makeText(context, "Value unchanged, not sent (" + valueFilter.getSuppressedCount(stream.path)
+							+ " suppressed)", Toast.LENGTH_SHORT).show();
+				}
+			});
+			return;
+		}
+		try {
+			switch (stream.type) {
+				case DataPointJournal.TYPE_INTEGER:
+					int intValue = number.intValue();
+					for (int i = 0; i < numberOfDataPoints; i++)
+						journal.appendInteger(stream, intValue);
+					break;
+				case DataPointJournal.TYPE_LONG:
+					long longValue = number.longValue();
+					for (int i = 0; i < numberOfDataPoints; i++)
+						journal.appendLong(stream, longValue);
+					break;
+				case DataPointJournal.TYPE_FLOAT:
+					float floatValue = number.floatValue();
+					for (int i = 0; i < numberOfDataPoints; i++)
+						journal.appendFloat(stream, floatValue);
+					break;
+				case DataPointJournal.TYPE_DOUBLE:
+					double doubleValue = number.doubleValue();
+					for (int i = 0; i < numberOfDataPoints; i++)
+						journal.appendDouble(stream, doubleValue);
+					break;
+				case DataPointJournal.TYPE_STRING:
+					for (int i = 0; i < numberOfDataPoints; i++)
+						journal.appendString(stream, value);
+					break;
+				case DataPointJournal.TYPE_BINARY_64:
+					byte[] bytesValue = value.getBytes();
+					for (int i = 0; i < numberOfDataPoints; i++)
+						journal.appendBytes(stream, bytesValue);
+					break;
+				case DataPointJournal.TYPE_BINARY_RAW:
+				default:
+					journal.appendBinary(stream, value.getBytes());
+			}
+		} catch (final IOException e) {
+			e.printStackTrace();
+			mainHandler.post(new Runnable() {
+				@Override
+				public void run() {
+					Toast.makeText(context, "Error storing data points: " + e.getMessage(), Toast.LENGTH_LONG).show();
+				}
+			});
+		} finally {
+			journal.sync();
+		}
+		drainRequest.run();
+	}
+
+	/**
+	 * Checks whether the given value has to be sent, that is, whether it is
+	 * not a string or binary value equal to the last one sent to the stream.
+	 * The data points of a single send count as one value.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data points.
+	 *
+	 * @return {@code true} if the value has to be sent, {@code false} if it
+	 *         has been suppressed.
+	 */
+	private boolean acceptValue(StreamSchema stream, String value) {
+		long now = System.currentTimeMillis();
+		switch (stream.type) {
+			case DataPointJournal.TYPE_STRING:
+				return valueFilter.accept(stream.path, value, now);
+			case DataPointJournal.TYPE_BINARY_64:
+			case DataPointJournal.TYPE_BINARY_RAW:
+				return valueFilter.accept(stream.path, value.getBytes(), now);
 			default:
-				dataStream = new DataStream(DATA_POINT_BINARY);
-				binaryDataPoint = new BinaryDataPoint(valueText.getText().toString().getBytes(), dataStream);
+				return true;
 		}
-		if (dataPoint != null) {
-			int numberOfDataPoints = numberDataPoints.getValue();
-			ArrayList<DataPoint> dataPoints = new ArrayList<>();
-			for (int i = 0; i < numberOfDataPoints; i++)
-				dataPoints.add(dataPoint);
-			connectorManager.sendDataPoints(dataPoints);
-		} else
-			connectorManager.sendBinaryDataPoint(binaryDataPoint);
 	}
 
 	private final TextWatcher textWatcher = new TextWatcher() {
@@ -0,0 +1,917 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal that stores the outgoing data points in the local
+ * flash so they are not lost while the connection with Remote Manager is
+ * not available.
+ *
+ * <p>The journal is made of fixed size segment files that are memory-mapped.
+ * Each segment starts with a small header that keeps the position of the
+ * first record that has not been uploaded yet, followed by the records:</p>
+ *
+ * <pre>
+ * | length (4) | CRC32 (4) | time (8) | type (1) | path length (2) | path | value |
+ * </pre>
+ *
+ * <p>The time is the moment the data point was appended, in milliseconds
+ * since the epoch, so the data points stored during an outage keep it when
+ * they are finally uploaded. The length and the checksum cover the rest of
+ * the record. A zero length marks the end of the written records. When the journal
+ * is opened, every segment is scanned and the first record that is
+ * truncated or does not match its checksum (for example, because the
+ * process died in the middle of a write) marks the end of the segment.
+ * Segments that have been completely drained are deleted. Segments
+ * written before the time was stored are still drained, and their data
+ * points take the time they are uploaded.</p>
+ *
+ * <p>The read position only moves past a group of records once their
+ * upload has been confirmed by Remote Manager, so records whose upload
+ * fails, times out or is dropped, or that were in flight when the process
+ * died, are uploaded again. Delivery is at least once: a record can be
+ * uploaded twice if the confirmation is lost.</p>
+ */
+class DataPointJournal {
+
+	// Constants.
+	static final int TYPE_INTEGER = 0;
+	static final int TYPE_LONG = 1;
+	static final int TYPE_FLOAT = 2;
+	static final int TYPE_DOUBLE = 3;
+	static final int TYPE_STRING = 4;
+	static final int TYPE_BINARY_64 = 5;
+	static final int TYPE_BINARY_RAW = 6;
+
+	private final static int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+	private final static int DEFAULT_MAX_SEGMENTS = 16;
+
+	private final static String SEGMENT_PREFIX = "segment-";
+	private final static String SEGMENT_EXTENSION = ".jnl";
+
+	private final static int SEGMENT_MAGIC = 0x44504A32;
+	// Segments of the previous version, whose records have no time.
+	private final static int UNTIMED_SEGMENT_MAGIC = 0x44504A31;
+	private final static int HEADER_SIZE = 8;
+	private final static int HEADER_READ_POSITION = 4;
+	private final static int RECORD_HEADER_SIZE = 8;
+	private final static int END_MARK_SIZE = 4;
+
+	// Uploads of a drain waiting for their result at the same time.
+	private final static int DRAIN_WINDOW = 4;
+	// Interval to check whether the journal is closing while waiting.
+	private final static long DRAIN_WAIT_INTERVAL = 500;
+
+	private final static int MAX_DATA_STREAMS = 256;
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	// Variables.
+	private final File directory;
+
+	private final int segmentSize;
+	private final int maxSegments;
+
+	private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+	private final HashMap<String, DataStream> dataStreams = new HashMap<>();
+
+	private final CRC32 crc = new CRC32();
+
+	private final Object drainLock = new Object();
+
+	private ByteBuffer recordBuffer = ByteBuffer.allocate(256);
+
+	private byte[] readBuffer = new byte[256];
+
+	private long nextSequence;
+
+	private volatile boolean closing;
+
+	/**
+	 * Class constructor. Instantiates a new {@code DataPointJournal} in the
+	 * given directory using the default segment size and number of segments.
+	 *
+	 * @param directory The directory where the segment files are stored.
+	 *
+	 * @throws IOException If the journal cannot be opened.
+	 */
+	DataPointJournal(File directory) throws IOException {
+		this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code DataPointJournal} using the
+	 * given parameters and recovers any data point stored by a previous
+	 * instance.
+	 *
+	 * @param directory The directory where the segment files are stored.
+	 * @param segmentSize The size in bytes of each segment file.
+	 * @param maxSegments The maximum number of segment files.
+	 *
+	 * @throws IllegalArgumentException If {@code segmentSize} or
+	 *                                  {@code maxSegments} are not valid.
+	 * @throws IOException If the journal cannot be opened.
+	 */
+	DataPointJournal(File directory, int segmentSize, int maxSegments) throws IOException {
+		if (segmentSize <= HEADER_SIZE + RECORD_HEADER_SIZE + END_MARK_SIZE)
+			throw new IllegalArgumentException("Segment size is too small.");
+		if (maxSegments < 1)
+			throw new IllegalArgumentException("At least one segment is required.");
+
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.maxSegments = maxSegments;
+
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Could not create journal directory " + directory);
+
+		recover();
+	}
+
+	/**
+	 * Appends an integer data point to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendInteger(String streamPath, int value) throws IOException {
+		startRecord(TYPE_INTEGER, streamPath.getBytes(UTF_8), 4).putInt(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends an integer data point to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of integer type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendInteger(StreamSchema stream, int value) throws IOException {
+		startRecord(TYPE_INTEGER, stream, 4).putInt(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a long data point to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendLong(String streamPath, long value) throws IOException {
+		startRecord(TYPE_LONG, streamPath.getBytes(UTF_8), 8).putLong(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a long data point to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of long type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendLong(StreamSchema stream, long value) throws IOException {
+		startRecord(TYPE_LONG, stream, 8).putLong(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a float data point to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendFloat(String streamPath, float value) throws IOException {
+		startRecord(TYPE_FLOAT, streamPath.getBytes(UTF_8), 4).putFloat(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a float data point to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of float type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendFloat(StreamSchema stream, float value) throws IOException {
+		startRecord(TYPE_FLOAT, stream, 4).putFloat(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a double data point to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendDouble(String streamPath, double value) throws IOException {
+		startRecord(TYPE_DOUBLE, streamPath.getBytes(UTF_8), 8).putDouble(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a double data point to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of double type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendDouble(StreamSchema stream, double value) throws IOException {
+		startRecord(TYPE_DOUBLE, stream, 8).putDouble(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a string data point to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendString(String streamPath, String value) throws IOException {
+		appendBytes(TYPE_STRING, streamPath.getBytes(UTF_8), value.getBytes(UTF_8));
+	}
+
+	/**
+	 * Appends a string data point to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of string type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendString(StreamSchema stream, String value) throws IOException {
+		appendBytes(TYPE_STRING, stream, value.getBytes(UTF_8));
+	}
+
+	/**
+	 * Appends a binary data point that is uploaded as part of a data points
+	 * list (Base64 encoded) to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendBytes(String streamPath, byte[] value) throws IOException {
+		appendBytes(TYPE_BINARY_64, streamPath.getBytes(UTF_8), value);
+	}
+
+	/**
+	 * Appends a binary data point that is uploaded as part of a data points
+	 * list (Base64 encoded) to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of binary type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendBytes(StreamSchema stream, byte[] value) throws IOException {
+		appendBytes(TYPE_BINARY_64, stream, value);
+	}
+
+	/**
+	 * Appends a raw binary data point to the journal.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendBinary(String streamPath, byte[] value) throws IOException {
+		appendBytes(TYPE_BINARY_RAW, streamPath.getBytes(UTF_8), value);
+	}
+
+	/**
+	 * Appends a raw binary data point to the given stream.
+	 *
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of raw binary
+	 *                                  type.
+	 * @throws IOException If the journal is full.
+	 */
+	synchronized void appendBinary(StreamSchema stream, byte[] value) throws IOException {
+		appendBytes(TYPE_BINARY_RAW, stream, value);
+	}
+
+	/**
+	 * Flushes the appended records to the storage.
+	 */
+	synchronized void sync() {
+		Segment active = segments.peekLast();
+		if (active != null)
+			active.buffer.force();
+	}
+
+	/**
+	 * Returns the number of data points waiting in the journal.
+	 *
+	 * @return The number of pending data points.
+	 */
+	synchronized int getPendingCount() {
+		int pending = 0;
+		for (Segment segment : segments)
+			pending += segment.pendingRecords;
+		return pending;
+	}
+
+	/**
+	 * Uploads the stored data points in the same order they were appended.
+	 *
+	 * <p>Consecutive data points of the same lane are grouped in lists of up
+	 * to {@link CloudConnectorManager#MAXIMUM_DATA_POINTS} elements, while
+	 * raw binary data points are sent one by one. Up to
+	 * {@value #DRAIN_WINDOW} uploads wait for their result at the same time.
+	 * The read position moves forward, in order, as their results arrive.
+	 * Draining stops when the sender is disconnected or an upload fails,
+	 * leaving the unconfirmed data points in the journal for the next
+	 * drain.</p>
+	 *
+	 * @param sender The sender to upload the data points with.
+	 * @param statistics The statistics to record the uploaded bytes in.
+	 *
+	 * @return The number of data points whose upload was confirmed.
+	 */
+	int drain(AsyncDataPointSender sender, SendStatistics statistics) {
+		int drained = 0;
+		synchronized (drainLock) {
+			ArrayDeque<Range> window = new ArrayDeque<>();
+			boolean failed = false;
+			while (true) {
+				while (!failed && !closing && window.size() < DRAIN_WINDOW && sender.isConnected()) {
+					Range range = readRange(sender);
+					if (range == null)
+						break;
+					// Upload outside the lock so producers are not blocked.
+					statistics.recordBytes(range.bytes);
+					if (range.binaryDataPoint != null)
+						range.future = sender.submitBinary(range.binaryDataPoint, range.streamPath, range.valueSize);
+					else
+						range.future = sender.submit(range.dataPoints, range.streamPath);
+					window.addLast(range);
+				}
+				Range range = window.pollFirst();
+				if (range == null)
+					break;
+				// Once an upload fails, the rest are only waited for, so they
+				// are not sent again while still queued.
+				if (await(range.future) && !failed) {
+					commit(range);
+					drained += range.count;
+				} else {
+					failed = true;
+				}
+			}
+			if (failed)
+				rewind();
+		}
+		return drained;
+	}
+
+	/**
+	 * Makes a running drain stop waiting for its uploads. The data points
+	 * not confirmed yet stay in the journal. Call it before {@link #close()}
+	 * when the uploads are not going to complete.
+	 */
+	void stopDrain() {
+		closing = true;
+	}
+
+	/**
+	 * Flushes and closes all the segment files of the journal.
+	 */
+	synchronized void close() {
+		closing = true;
+		for (Segment segment : segments) {
+			segment.buffer.force();
+			try {
+				segment.file.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		segments.clear();
+	}
+
+	/**
+	 * Opens all the existing segment files, validating their records.
+	 *
+	 * @throws IOException If any segment file cannot be opened.
+	 */
+	private void recover() throws IOException {
+		String[] names = directory.list(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_EXTENSION);
+			}
+		});
+		long[] sequences = new long[names == null ? 0 : names.length];
+		for (int i = 0; i < sequences.length; i++)
+			sequences[i] = Long.parseLong(names[i].substring(SEGMENT_PREFIX.length(), names[i].length() - SEGMENT_EXTENSION.length()));
+		Arrays.sort(sequences);
+
+		for (long sequence : sequences) {
+			segments.addLast(openSegment(sequence));
+			nextSequence = sequence + 1;
+		}
+		compact();
+		// New records are never appended to segments of the previous version.
+		if (segments.isEmpty() || !segments.peekLast().timed)
+			segments.addLast(openSegment(nextSequence++));
+	}
+
+	/**
+	 * Opens (creating it if needed) the segment file with the given sequence
+	 * number and scans its records.
+	 *
+	 * @param sequence The sequence number of the segment.
+	 *
+	 * @return The opened segment.
+	 *
+	 * @throws IOException If the segment cannot be opened.
+	 */
+	private Segment openSegment(long sequence) throws IOException {
+		File file = new File(directory, SEGMENT_PREFIX + sequence + SEGMENT_EXTENSION);
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			int magic = buffer.getInt(0);
+			if (magic == 0) {
+				// New segment (or one whose creation was interrupted).
+				buffer.putInt(HEADER_READ_POSITION, HEADER_SIZE);
+				buffer.putInt(HEADER_SIZE, 0);
+				buffer.putInt(0, SEGMENT_MAGIC);
+			} else if (magic != SEGMENT_MAGIC && magic != UNTIMED_SEGMENT_MAGIC) {
+				throw new IOException("Invalid journal segment " + file);
+			}
+			Segment segment = new Segment(file, randomAccessFile, buffer, magic != UNTIMED_SEGMENT_MAGIC);
+			scanSegment(segment);
+			return segment;
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Scans the records of the given segment to find its write position,
+	 * discarding any truncated or corrupted record at the end.
+	 *
+	 * @param segment The segment to scan.
+	 */
+	private void scanSegment(Segment segment) {
+		int readPosition = segment.buffer.getInt(HEADER_READ_POSITION);
+		if (readPosition < HEADER_SIZE || readPosition > segmentSize - END_MARK_SIZE)
+			readPosition = HEADER_SIZE;
+
+		int position = readPosition;
+		int records = 0;
+		while (position + RECORD_HEADER_SIZE <= segmentSize - END_MARK_SIZE) {
+			int length = segment.buffer.getInt(position);
+			if (length <= 0 || position + RECORD_HEADER_SIZE + length > segmentSize - END_MARK_SIZE)
+				break;
+			readRecord(segment, position + RECORD_HEADER_SIZE, length);
+			crc.reset();
+			crc.update(readBuffer, 0, length);
+			if ((int) crc.getValue() != segment.buffer.getInt(position + 4))
+				break;
+			position += RECORD_HEADER_SIZE + length;
+			records++;
+		}
+		// Cut any partial record.
+		segment.buffer.putInt(position, 0);
+		segment.readPosition = readPosition;
+		segment.sendPosition = readPosition;
+		segment.writePosition = position;
+		segment.pendingRecords = records;
+	}
+
+	/**
+	 * Reads the next group of records that has not been sent yet.
+	 *
+	 * @param sender The sender, to know the lane of each data stream.
+	 *
+	 * @return The records to upload, or {@code null} if all of them have
+	 *         been sent.
+	 */
+	private synchronized Range readRange(AsyncDataPointSender sender) {
+		for (Segment segment : segments) {
+			if (segment.sendPosition >= segment.writePosition)
+				continue;
+			Range range = new Range(segment, segment.sendPosition);
+			int position = segment.sendPosition;
+			int lane = -1;
+			while (position < segment.writePosition && range.count < CloudConnectorManager.MAXIMUM_DATA_POINTS) {
+				int length = segment.buffer.getInt(position);
+				ByteBuffer record = readRecord(segment, position + RECORD_HEADER_SIZE, length);
+				long time = segment.timed ? record.getLong() : 0;
+				int type = record.get();
+				String streamPath = readPath(record);
+				int recordLane = sender.getLane(streamPath);
+				if (type == TYPE_BINARY_RAW) {
+					if (range.count == 0) {
+						byte[] value = readBytes(record);
+						range.binaryDataPoint = new BinaryDataPoint(value, getDataStream(streamPath));
+						if (segment.timed)
+							range.binaryDataPoint.setTimestamp(time);
+						range.streamPath = streamPath;
+						range.valueSize = value.length;
+						range.count = 1;
+						position += RECORD_HEADER_SIZE + length;
+					}
+					break;
+				}
+				if (lane != -1 && recordLane != lane)
+					break;
+				if (range.dataPoints == null) {
+					range.dataPoints = new ArrayList<>(CloudConnectorManager.MAXIMUM_DATA_POINTS);
+					range.streamPath = streamPath;
+					lane = recordLane;
+				}
+				DataPoint dataPoint = createDataPoint(type, record, getDataStream(streamPath));
+				if (segment.timed)
+					dataPoint.setTimestamp(time);
+				range.dataPoints.add(dataPoint);
+				range.count++;
+				position += RECORD_HEADER_SIZE + length;
+			}
+			range.end = position;
+			range.bytes = position - range.start;
+			segment.sendPosition = position;
+			return range;
+		}
+		return null;
+	}
+
+	/**
+	 * Moves the read position past the given records, whose upload has been
+	 * confirmed, and deletes the segment if it is completely drained.
+	 *
+	 * @param range The uploaded records.
+	 */
+	private synchronized void commit(Range range) {
+		Segment segment = range.segment;
+		segment.readPosition = range.end;
+		segment.pendingRecords -= range.count;
+		segment.buffer.putInt(HEADER_READ_POSITION, range.end);
+		segment.buffer.force();
+		compact();
+	}
+
+	/**
+	 * Makes the records that were sent but not confirmed be sent again in
+	 * the next drain.
+	 */
+	private synchronized void rewind() {
+		for (Segment segment : segments)
+			segment.sendPosition = segment.readPosition;
+	}
+
+	/**
+	 * Waits for the result of the given upload.
+	 *
+	 * @param future The future result of the upload.
+	 *
+	 * @return {@code true} if the upload succeeded, {@code false} if it failed
+	 *         or the journal is closing.
+	 */
+	private boolean await(SendFuture future) {
+		while (!closing) {
+			try {
+				future.get(DRAIN_WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+				return true;
+			} catch (TimeoutException e) {
+				// Check whether the journal is closing.
+			} catch (ExecutionException e) {
+				return false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Deletes the segments whose data points have been already uploaded,
+	 * always keeping the active one.
+	 */
+	private void compact() {
+		while (segments.size() > 1 && segments.peekFirst().readPosition >= segments.peekFirst().writePosition)
+			deleteSegment(segments.pollFirst());
+	}
+
+	/**
+	 * Appends a record with a variable length value to the journal.
+	 *
+	 * @param type The type of the data point.
+	 * @param path The path of the data stream, encoded in UTF-8.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IOException If the journal is full.
+	 */
+	private void appendBytes(int type, byte[] path, byte[] value) throws IOException {
+		startRecord(type, path, 4 + value.length).putInt(value.length).put(value);
+		writeRecord();
+	}
+
+	/**
+	 * Appends a record with a variable length value to the given stream.
+	 *
+	 * @param type The type of the data point.
+	 * @param stream The schema of the data stream.
+	 * @param value The value of the data point.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of the given
+	 *                                  type.
+	 * @throws IOException If the journal is full.
+	 */
+	private void appendBytes(int type, StreamSchema stream, byte[] value) throws IOException {
+		startRecord(type, stream, 4 + value.length).putInt(value.length).put(value);
+		writeRecord();
+	}
+
+	/**
+	 * Starts encoding a new record for the given stream in the record
+	 * buffer.
+	 *
+	 * @param type The type of the data point.
+	 * @param stream The schema of the data stream.
+	 * @param valueSize The number of bytes of the value.
+	 *
+	 * @return The record buffer, positioned to write the value.
+	 *
+	 * @throws IllegalArgumentException If the stream is not of the given
+	 *                                  type.
+	 */
+	private ByteBuffer startRecord(int type, StreamSchema stream, int valueSize) {
+		if (stream.type != type)
+			throw new IllegalArgumentException("Stream " + stream.path + " is not of type " + type + ".");
+		return startRecord(type, stream.getEncodedPath(), valueSize);
+	}
+
+	/**
+	 * Starts encoding a new record in the record buffer.
+	 *
+	 * @param type The type of the data point.
+	 * @param path The path of the data stream, encoded in UTF-8.
+	 * @param valueSize The number of bytes of the value.
+	 *
+	 * @return The record buffer, positioned to write the value.
+	 */
+	private ByteBuffer startRecord(int type, byte[] path, int valueSize) {
+		int size = 11 + path.length + valueSize;
+		if (recordBuffer.capacity() < size)
+			recordBuffer = ByteBuffer.allocate(Math.max(size, recordBuffer.capacity() * 2));
+		recordBuffer.clear();
+		recordBuffer.putLong(System.currentTimeMillis()).put((byte) type).putShort((short) path.length).put(path);
+		return recordBuffer;
+	}
+
+	/**
+	 * Writes the record encoded in the record buffer at the end of the active
+	 * segment, opening a new segment if it does not fit.
+	 *
+	 * @throws IOException If the record cannot be stored.
+	 */
+	private void writeRecord() throws IOException {
+		recordBuffer.flip();
+		int length = recordBuffer.remaining();
+		if (HEADER_SIZE + RECORD_HEADER_SIZE + length + END_MARK_SIZE > segmentSize)
+			throw new IOException("Data point is too big for the journal.");
+
+		Segment segment = segments.peekLast();
+		if (segment.writePosition + RECORD_HEADER_SIZE + length + END_MARK_SIZE > segmentSize) {
+			compact();
+			if (segments.size() >= maxSegments)
+				throw new IOException("Journal is full.");
+			segment.buffer.force();
+			segment = openSegment(nextSequence++);
+			segments.addLast(segment);
+		}
+
+		crc.reset();
+		crc.update(recordBuffer.array(), 0, length);
+
+		// Write the end mark first and the length last, so a partially
+		// written record is never taken as valid.
+		int position = segment.writePosition;
+		segment.buffer.putInt(position + RECORD_HEADER_SIZE + length, 0);
+		ByteBuffer target = segment.buffer.duplicate();
+		target.position(position + RECORD_HEADER_SIZE);
+		target.put(recordBuffer);
+		segment.buffer.putInt(position + 4, (int) crc.getValue());
+		segment.buffer.putInt(position, length);
+
+		segment.writePosition = position + RECORD_HEADER_SIZE + length;
+		segment.pendingRecords++;
+	}
+
+	/**
+	 * Copies the record stored in the given segment position to the read
+	 * buffer.
+	 *
+	 * @param segment The segment to read from.
+	 * @param position The position of the record data.
+	 * @param length The length of the record data.
+	 *
+	 * @return A buffer wrapping the record data.
+	 */
+	private ByteBuffer readRecord(Segment segment, int position, int length) {
+		if (readBuffer.length < length)
+			readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+		ByteBuffer source = segment.buffer.duplicate();
+		source.position(position);
+		source.get(readBuffer, 0, length);
+		return ByteBuffer.wrap(readBuffer, 0, length);
+	}
+
+	/**
+	 * Reads the stream path of a record.
+	 *
+	 * @param record The record, positioned at the path length.
+	 *
+	 * @return The path of the data stream.
+	 */
+	private static String readPath(ByteBuffer record) {
+		int pathLength = record.getShort() & 0xFFFF;
+		String path = new String(record.array(), record.position(), pathLength, UTF_8);
+		record.position(record.position() + pathLength);
+		return path;
+	}
+
+	/**
+	 * Returns the data stream of the given path, reusing the instances of
+	 * the streams seen recently.
+	 *
+	 * @param path The path of the data stream.
+	 *
+	 * @return The data stream for the path.
+	 */
+	private DataStream getDataStream(String path) {
+		DataStream dataStream = dataStreams.get(path);
+		if (dataStream == null) {
+			// Paths can come from imports, so the cache is bounded.
+			if (dataStreams.size() >= MAX_DATA_STREAMS)
+				dataStreams.clear();
+			dataStream = new DataStream(path);
+			dataStreams.put(path, dataStream);
+		}
+		return dataStream;
+	}
+
+	/**
+	 * Creates the data point stored in the given record.
+	 *
+	 * @param type The type of the data point.
+	 * @param record The record, positioned at the value.
+	 * @param dataStream The data stream of the data point.
+	 *
+	 * @return The data point.
+	 */
+	private static DataPoint createDataPoint(int type, ByteBuffer record, DataStream dataStream) {
+		switch (type) {
+			case TYPE_INTEGER:
+				return new DataPoint(record.getInt(), dataStream);
+			case TYPE_LONG:
+				return new DataPoint(record.getLong(), dataStream);
+			case TYPE_FLOAT:
+				return new DataPoint(record.getFloat(), dataStream);
+			case TYPE_DOUBLE:
+				return new DataPoint(record.getDouble(), dataStream);
+			case TYPE_STRING:
+				return new DataPoint(new String(readBytes(record), UTF_8), dataStream);
+			case TYPE_BINARY_64:
+			default:
+				return new DataPoint(readBytes(record), dataStream);
+		}
+	}
+
+	/**
+	 * Reads a variable length value from the given record.
+	 *
+	 * @param record The record, positioned at the value.
+	 *
+	 * @return The value bytes.
+	 */
+	private static byte[] readBytes(ByteBuffer record) {
+		byte[] value = new byte[record.getInt()];
+		record.get(value);
+		return value;
+	}
+
+	/**
+	 * Closes and deletes the given segment.
+	 *
+	 * @param segment The segment to delete.
+	 */
+	private static void deleteSegment(Segment segment) {
+		try {
+			segment.file.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (!segment.path.delete())
+			segment.path.deleteOnExit();
+	}
+
+	/**
+	 * Class that holds the state of a memory-mapped segment file.
+	 */
+	private static class Segment {
+		final File path;
+		final RandomAccessFile file;
+		final MappedByteBuffer buffer;
+		final boolean timed;
+
+		int readPosition;
+		int sendPosition;
+		int writePosition;
+		int pendingRecords;
+
+		Segment(File path, RandomAccessFile file, MappedByteBuffer buffer, boolean timed) {
+			this.path = path;
+			this.file = file;
+			this.buffer = buffer;
+			this.timed = timed;
+		}
+	}
+
+	/**
+	 * Class that holds a group of records uploaded together.
+	 */
+	private static class Range {
+		final Segment segment;
+		final int start;
+		int end;
+		int count;
+		int bytes;
+		String streamPath;
+		ArrayList<DataPoint> dataPoints;
+		BinaryDataPoint binaryDataPoint;
+		int valueSize;
+		SendFuture future;
+
+		Range(Segment segment, int start) {
+			this.segment = segment;
+			this.start = start;
+		}
+	}
+}
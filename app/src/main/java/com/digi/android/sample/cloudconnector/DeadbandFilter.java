@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filter that drops the values of a data stream that did not change enough
+ * since the last value that was let through.
+ *
+ * <p>Numeric streams use an absolute or a percentage deadband around the
+ * last value sent. String and binary streams only let a value through when
+ * it is different from the last one. In both cases a heartbeat period can
+ * be configured to force a value through even if it did not change.
+ * Streams without a configuration are never filtered.</p>
+ *
+ * <p>Checking a value does not allocate any object, unless a binary value
+ * bigger than the previous one has to be remembered.</p>
+ */
+class DeadbandFilter {
+
+	// Variables.
+	private final ConcurrentHashMap<String, StreamState> streams = new ConcurrentHashMap<>();
+
+	private final AtomicLong suppressed = new AtomicLong();
+
+	/**
+	 * Configures a numeric deadband for the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param deadband The minimum change to let a value through.
+	 * @param percentage {@code true} if the deadband is a percentage of the
+	 *                   last value sent, {@code false} if it is absolute.
+	 * @param heartbeat The maximum time between two values let through, in
+	 *                  milliseconds, or {@code 0} to disable it.
+	 *
+	 * @throws IllegalArgumentException If the deadband or the heartbeat are
+	 *                                  negative.
+	 */
+	void setDeadband(String streamPath, double deadband, boolean percentage, long heartbeat) {
+		if (deadband < 0 || heartbeat < 0)
+			throw new IllegalArgumentException("Deadband and heartbeat cannot be negative.");
+		streams.put(streamPath, new StreamState(deadband, percentage, heartbeat));
+	}
+
+	/**
+	 * Configures the given string or binary stream to only let a value
+	 * through when it changes.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param heartbeat The maximum time between two values let through, in
+	 *                  milliseconds, or {@code 0} to disable it.
+	 *
+	 * @throws IllegalArgumentException If the heartbeat is negative.
+	 */
+	void setChangeOnly(String streamPath, long heartbeat) {
+		setDeadband(streamPath, 0, false, heartbeat);
+	}
+
+	/**
+	 * Removes the filter of the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 */
+	void remove(String streamPath) {
+		streams.remove(streamPath);
+	}
+
+	/**
+	 * Checks whether the given numeric value has to be sent.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The new value.
+	 * @param timestamp The current time, in milliseconds.
+	 *
+	 * @return {@code true} if the value has to be sent, {@code false} if it
+	 *         has been suppressed.
+	 */
+	boolean accept(String streamPath, double value, long timestamp) {
+		StreamState state = streams.get(streamPath);
+		if (state == null)
+			return true;
+		synchronized (state) {
+			if (!state.initialized || state.heartbeatExpired(timestamp)
+					|| Math.abs(value - state.lastValue) > state.threshold(state.lastValue)) {
+				state.lastValue = value;
+				state.sent(timestamp);
+				return true;
+			}
+		}
+		return suppress(state);
+	}
+
+	/**
+	 * Checks whether the given string value has to be sent.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The new value.
+	 * @param timestamp The current time, in milliseconds.
+	 *
+	 * @return {@code true} if the value has to be sent, {@code false} if it
+	 *         has been suppressed.
+	 */
+	boolean accept(String streamPath, String value, long timestamp) {
+		StreamState state = streams.get(streamPath);
+		if (state == null)
+			return true;
+		synchronized (state) {
+			if (!state.initialized || state.heartbeatExpired(timestamp) || !value.equals(state.lastString)) {
+				state.lastString = value;
+				state.sent(timestamp);
+				return true;
+			}
+		}
+		return suppress(state);
+	}
+
+	/**
+	 * Checks whether the given binary value has to be sent.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The new value.
+	 * @param timestamp The current time, in milliseconds.
+	 *
+	 * @return {@code true} if the value has to be sent, {@code false} if it
+	 *         has been suppressed.
+	 */
+	boolean accept(String streamPath, byte[] value, long timestamp) {
+		StreamState state = streams.get(streamPath);
+		if (state == null)
+			return true;
+		synchronized (state) {
+			if (!state.initialized || state.heartbeatExpired(timestamp) || !state.sameBytes(value)) {
+				state.setBytes(value);
+				state.sent(timestamp);
+				return true;
+			}
+		}
+		return suppress(state);
+	}
+
+	/**
+	 * Returns the number of values suppressed in all the streams.
+	 *
+	 * @return The number of suppressed values.
+	 */
+	long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	/**
+	 * Returns the number of values suppressed in the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 *
+	 * @return The number of suppressed values.
+	 */
+	long getSuppressedCount(String streamPath) {
+		StreamState state = streams.get(streamPath);
+		return state == null ? 0 : state.suppressed.get();
+	}
+
+	/**
+	 * Counts a suppressed value.
+	 *
+	 * @param state The state of the stream.
+	 *
+	 * @return Always {@code false}.
+	 */
+	private boolean suppress(StreamState state) {
+		state.suppressed.incrementAndGet();
+		suppressed.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Class that holds the configuration and the last value sent of a
+	 * stream.
+	 */
+	private static class StreamState {
+		final double deadband;
+		final boolean percentage;
+		final long heartbeat;
+		final AtomicLong suppressed = new AtomicLong();
+
+		boolean initialized;
+		long lastSent;
+		double lastValue;
+		String lastString;
+		byte[] lastBytes = new byte[0];
+		int lastBytesLength;
+
+		StreamState(double deadband, boolean percentage, long heartbeat) {
+			this.deadband = deadband;
+			this.percentage = percentage;
+			this.heartbeat = heartbeat;
+		}
+
+		double threshold(double reference) {
+			return percentage ? Math.abs(reference) * deadband / 100 : deadband;
+		}
+
+		boolean heartbeatExpired(long timestamp) {
+			return heartbeat > 0 && timestamp - lastSent >= heartbeat;
+		}
+
+		void sent(long timestamp) {
+			initialized = true;
+			lastSent = timestamp;
+		}
+
+		boolean sameBytes(byte[] value) {
+			if (value.length != lastBytesLength)
+				return false;
+			for (int i = 0; i < value.length; i++) {
+				if (value[i] != lastBytes[i])
+					return false;
+			}
+			return true;
+		}
+
+		void setBytes(byte[] value) {
+			if (lastBytes.length < value.length)
+				lastBytes = Arrays.copyOf(value, value.length);
+			else
+				System.arraycopy(value, 0, lastBytes, 0, value.length);
+			lastBytesLength = value.length;
+		}
+	}
+}
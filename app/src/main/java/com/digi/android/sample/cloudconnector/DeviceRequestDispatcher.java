@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Device request listener that routes each request to the handler
+ * registered for its target and runs it in a bounded pool of workers.
+ *
+ * <p>Each target has its own limit of requests running at the same time
+ * and its own timeout. Requests that exceed the limit of their target, or
+ * that do not fit in the queue of the pool, are rejected right away with
+ * an error response (load shedding) instead of piling up behind a slow
+ * handler. Handlers that do not answer in time are interrupted and an
+ * error response is returned. The time to answer each handled request is
+ * recorded in a latency histogram.</p>
+ *
+ * <p>Requests that are part of a batch are run with {@link #call}, which
+ * waits for a free slot of their target instead of rejecting them.</p>
+ */
+class DeviceRequestDispatcher implements IDeviceRequestListener {
+
+	// Constants.
+	final static String ERROR_UNKNOWN_TARGET = "Error: unknown target";
+	final static String ERROR_BUSY = "Error: target busy";
+	final static String ERROR_OVERLOADED = "Error: too many requests";
+	final static String ERROR_TIMEOUT = "Error: request timed out";
+	final static String ERROR_FAILED = "Error: request failed";
+
+	// Variables.
+	private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+	private final ThreadPoolExecutor workers;
+
+	private final AtomicLong handled = new AtomicLong();
+	private final AtomicLong shed = new AtomicLong();
+	private final AtomicLong timedOut = new AtomicLong();
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	/**
+	 * Class constructor. Instantiates a new {@code DeviceRequestDispatcher}
+	 * using the given parameters.
+	 *
+	 * @param workerCount The number of worker threads.
+	 * @param queueCapacity The maximum number of requests waiting for a
+	 *                      worker.
+	 */
+	DeviceRequestDispatcher(int workerCount, int queueCapacity) {
+		workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity));
+		workers.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Registers the handler of the given target.
+	 *
+	 * @param target The target name.
+	 * @param handler The handler of the requests.
+	 * @param maxConcurrency The maximum number of requests of the target
+	 *                       running at the same time.
+	 * @param timeout The maximum time to wait for the response, in
+	 *                milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the concurrency or the timeout are
+	 *                                  not positive.
+	 */
+	void registerHandler(String target, IDeviceRequestListener handler, int maxConcurrency, long timeout) {
+		if (maxConcurrency < 1 || timeout < 1)
+			throw new IllegalArgumentException("Concurrency and timeout must be positive.");
+		routes.put(target, new Route(handler, maxConcurrency, timeout));
+	}
+
+	/**
+	 * Unregisters the handler of the given target.
+	 *
+	 * @param target The target name.
+	 */
+	void unregisterHandler(String target) {
+		routes.remove(target);
+	}
+
+	/**
+	 * Returns the targets with a registered handler.
+	 *
+	 * @return The target names.
+	 */
+	Set<String> getTargets() {
+		return routes.keySet();
+	}
+
+	@Override
+	public String handleDeviceRequest(final String target, final byte[] data) {
+		final Route route = routes.get(target);
+		if (route == null)
+			return ERROR_UNKNOWN_TARGET;
+		return dispatch(route, new Callable<String>() {
+			@Override
+			public String call() {
+				return route.handler.handleDeviceRequest(target, data);
+			}
+		}, false);
+	}
+
+	@Override
+	public String handleDeviceRequest(final String target, final String data) {
+		final Route route = routes.get(target);
+		if (route == null)
+			return ERROR_UNKNOWN_TARGET;
+		return dispatch(route, new Callable<String>() {
+			@Override
+			public String call() {
+				return route.handler.handleDeviceRequest(target, data);
+			}
+		}, false);
+	}
+
+	/**
+	 * Runs a request of a batch and waits for its response.
+	 *
+	 * <p>Unlike {@link #handleDeviceRequest(String, String)}, if the target
+	 * is running as many requests as it allows, this waits up to the timeout
+	 * of the target for one of them to finish.</p>
+	 *
+	 * @param target The target name.
+	 * @param data The request payload.
+	 *
+	 * @return The response of the request.
+	 */
+	String call(final String target, final String data) {
+		final Route route = routes.get(target);
+		if (route == null)
+			return ERROR_UNKNOWN_TARGET;
+		return dispatch(route, new Callable<String>() {
+			@Override
+			public String call() {
+				return route.handler.handleDeviceRequest(target, data);
+			}
+		}, true);
+	}
+
+	/**
+	 * Returns the number of requests answered by their handler.
+	 *
+	 * @return The number of handled requests.
+	 */
+	long getHandledCount() {
+		return handled.get();
+	}
+
+	/**
+	 * Returns the number of requests rejected because their target or the
+	 * pool were full.
+	 *
+	 * @return The number of shed requests.
+	 */
+	long getShedCount() {
+		return shed.get();
+	}
+
+	/**
+	 * Returns the number of requests whose handler did not answer in time.
+	 *
+	 * @return The number of timed out requests.
+	 */
+	long getTimeoutCount() {
+		return timedOut.get();
+	}
+
+	/**
+	 * Returns a snapshot of the time to answer the handled requests, in
+	 * microseconds.
+	 *
+	 * @return The latency of the handled requests.
+	 */
+	LatencyHistogram.Snapshot getLatency() {
+		return latency.snapshot();
+	}
+
+	/**
+	 * Stops the workers, interrupting the running handlers.
+	 */
+	void close() {
+		workers.shutdownNow();
+	}
+
+	/**
+	 * Runs the given request in the pool and waits for its response.
+	 *
+	 * @param route The route of the request target.
+	 * @param request The request to run.
+	 * @param wait Whether to wait for a free slot of the target.
+	 *
+	 * @return The response of the request.
+	 */
+	private String dispatch(final Route route, final Callable<String> request, boolean wait) {
+		try {
+			if (wait ? !route.permits.tryAcquire(route.timeout, TimeUnit.MILLISECONDS) : !route.permits.tryAcquire()) {
+				shed.incrementAndGet();
+				return ERROR_BUSY;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return ERROR_FAILED;
+		}
+		// The slot is released when the handler returns, not when the request
+		// is cancelled, as an interrupted handler may keep running. If the
+		// request is cancelled before it runs, it is released right away.
+		final AtomicBoolean claimed = new AtomicBoolean();
+		FutureTask<String> future = new FutureTask<String>(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				if (!claimed.compareAndSet(false, true))
+					return null;
+				try {
+					return request.call();
+				} finally {
+					route.permits.release();
+				}
+			}
+		}) {
+			@Override
+			protected void done() {
+				if (claimed.compareAndSet(false, true))
+					route.permits.release();
+			}
+		};
+		long start = System.nanoTime();
+		try {
+			workers.execute(future);
+		} catch (RejectedExecutionException e) {
+			route.permits.release();
+			shed.incrementAndGet();
+			return ERROR_OVERLOADED;
+		}
+
+		try {
+			String response = future.get(route.timeout, TimeUnit.MILLISECONDS);
+			handled.incrementAndGet();
+			latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+			return response;
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			timedOut.incrementAndGet();
+			return ERROR_TIMEOUT;
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+			return ERROR_FAILED + ": " + e.getCause().getMessage();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			return ERROR_FAILED;
+		}
+	}
+
+	/**
+	 * Class that holds the handler of a target and its limits.
+	 */
+	private static class Route {
+		final IDeviceRequestListener handler;
+		final Semaphore permits;
+		final long timeout;
+
+		Route(IDeviceRequestListener handler, int maxConcurrency, long timeout) {
+			this.handler = handler;
+			this.permits = new Semaphore(maxConcurrency);
+			this.timeout = timeout;
+		}
+	}
+}
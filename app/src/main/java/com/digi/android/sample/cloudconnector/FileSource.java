@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Telemetry source that reads a numeric value from a text file, such as the
+ * files of {@code /proc} and {@code /sys}.
+ *
+ * <p>The file is kept open and read again from the beginning into the same
+ * buffer every time, and the value is parsed from the bytes, so sampling
+ * does not allocate.</p>
+ */
+class FileSource implements ITelemetrySource {
+
+	// Constants.
+	private final static int BUFFER_SIZE = 4096;
+
+	private final static String THERMAL_DIRECTORY = "/sys/class/thermal";
+	private final static String THERMAL_ZONE_PREFIX = "thermal_zone";
+	private final static String THERMAL_TEMPERATURE_FILE = "temp";
+	private final static String THERMAL_STREAM_PREFIX = "thermal/";
+	private final static double THERMAL_SCALE = 0.001;
+
+	// Variables.
+	private final String streamPath;
+
+	private final File file;
+
+	private final byte[] key;
+
+	private final int field;
+
+	private final double scale;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private RandomAccessFile input;
+
+	/**
+	 * Class constructor. Instantiates a new {@code FileSource} that reads
+	 * the given field of the file.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param file The file to read.
+	 * @param field The index of the whitespace separated field to read.
+	 * @param scale The factor to multiply the value by.
+	 */
+	FileSource(String streamPath, File file, int field, double scale) {
+		this(streamPath, file, null, field, scale);
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code FileSource} that reads
+	 * the given field of the line that starts with the given key.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param file The file to read.
+	 * @param key The beginning of the line to read, {@code null} to read
+	 *            from the beginning of the file.
+	 * @param field The index of the whitespace separated field to read after
+	 *              the key.
+	 * @param scale The factor to multiply the value by.
+	 */
+	FileSource(String streamPath, File file, String key, int field, double scale) {
+		this.streamPath = streamPath;
+		this.file = file;
+		this.key = key == null ? null : key.getBytes();
+		this.field = field;
+		this.scale = scale;
+	}
+
+	/**
+	 * Returns a source for the temperature of each thermal zone of the
+	 * device, in degrees Celsius.
+	 *
+	 * @return The thermal zone sources, empty if there are none.
+	 */
+	static List<FileSource> findThermalZones() {
+		List<FileSource> sources = new ArrayList<>();
+		File[] zones = new File(THERMAL_DIRECTORY).listFiles();
+		if (zones == null)
+			return sources;
+		for (File zone : zones) {
+			File temperature = new File(zone, THERMAL_TEMPERATURE_FILE);
+			if (zone.getName().startsWith(THERMAL_ZONE_PREFIX) && temperature.canRead())
+				sources.add(new FileSource(THERMAL_STREAM_PREFIX + zone.getName(), temperature, 0, THERMAL_SCALE));
+		}
+		return sources;
+	}
+
+	/**
+	 * Returns the path of the data stream of the source.
+	 *
+	 * @return The data stream path.
+	 */
+	String getStreamPath() {
+		return streamPath;
+	}
+
+	@Override
+	public void sample(SamplePipeline pipeline) throws IOException {
+		int length = read();
+		int start = 0;
+		if (key != null) {
+			start = findKey(length);
+			if (start < 0)
+				throw new IOException("Key " + new String(key) + " not found in " + file);
+		}
+		pipeline.addDouble(streamPath, parseField(start, length) * scale);
+	}
+
+	@Override
+	public void close() {
+		if (input == null)
+			return;
+		try {
+			input.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		input = null;
+	}
+
+	/**
+	 * Reads the file from the beginning into the buffer.
+	 *
+	 * @return The number of bytes read.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	private int read() throws IOException {
+		try {
+			if (input == null)
+				input = new RandomAccessFile(file, "r");
+			input.seek(0);
+			int length = 0;
+			int read;
+			while (length < buffer.length && (read = input.read(buffer, length, buffer.length - length)) > 0)
+				length += read;
+			return length;
+		} catch (IOException e) {
+			// Reopen the file in the next sample.
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the position after the key at the beginning of a line.
+	 *
+	 * @param length The number of bytes in the buffer.
+	 *
+	 * @return The position after the key, {@code -1} if it was not found.
+	 */
+	private int findKey(int length) {
+		for (int i = 0; i <= length - key.length; i++) {
+			if (i > 0 && buffer[i - 1] != '\n')
+				continue;
+			int j = 0;
+			while (j < key.length && buffer[i + j] == key[j])
+				j++;
+			if (j == key.length)
+				return i + j;
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses the configured field starting at the given position.
+	 *
+	 * @param start The position to start from.
+	 * @param length The number of bytes in the buffer.
+	 *
+	 * @return The value of the field.
+	 *
+	 * @throws IOException If the field is not a number.
+	 */
+	private double parseField(int start, int length) throws IOException {
+		int i = skipSpaces(start, length);
+		for (int f = 0; f < field; f++) {
+			while (i < length && !isSpace(buffer[i]))
+				i++;
+			i = skipSpaces(i, length);
+		}
+		boolean negative = i < length && buffer[i] == '-';
+		if (negative)
+			i++;
+		double value = 0;
+		int digits = 0;
+		while (i < length && isDigit(buffer[i])) {
+			value = value * 10 + (buffer[i++] - '0');
+			digits++;
+		}
+		if (i < length && buffer[i] == '.') {
+			i++;
+			double factor = 0.1;
+			while (i < length && isDigit(buffer[i])) {
+				value += (buffer[i++] - '0') * factor;
+				factor /= 10;
+				digits++;
+			}
+		}
+		if (digits == 0)
+			throw new IOException("No numeric value in field " + field + " of " + file);
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Returns the first position from the given one that is not a space.
+	 *
+	 * @param i The position to start from.
+	 * @param length The number of bytes in the buffer.
+	 *
+	 * @return The first position that is not a space.
+	 */
+	private int skipSpaces(int i, int length) {
+		while (i < length && isSpace(buffer[i]))
+			i++;
+		return i;
+	}
+
+	/**
+	 * Returns whether the given byte is a whitespace character.
+	 *
+	 * @param b The byte to check.
+	 *
+	 * @return {@code true} if the byte is a whitespace, {@code false}
+	 *         otherwise.
+	 */
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Returns whether the given byte is a decimal digit.
+	 *
+	 * @param b The byte to check.
+	 *
+	 * @return {@code true} if the byte is a digit, {@code false} otherwise.
+	 */
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Uploads big files as a sequence of raw binary data points.
+ *
+ * <p>The file is read chunk by chunk with positional reads straight into
+ * the array of the binary data point, and the next chunk is not read until
+ * the previous one has been acknowledged, so the memory used does not
+ * depend on the size of the file. Each chunk starts with a header so the
+ * receiver can place it even if a chunk is sent twice:</p>
+ *
+ * <pre>
+ * | offset (8) | file size (8) | encoding (1) | data |
+ * </pre>
+ *
+ * <p>The encoding is {@link #ENCODING_RAW}, or {@link #ENCODING_DEFLATE}
+ * if the {@link PayloadCompressor} decided to compress the data of the
+ * chunk. The offset always refers to the uncompressed file.</p>
+ *
+ * <p>A chunk that is not acknowledged is sent again a few times before the
+ * upload fails. A chunk deferred by the bandwidth budget or rejected by a
+ * full lane was never sent, so it is sent again after a while without
+ * counting as a failed attempt.</p>
+ *
+ * <p>The offset of the last acknowledged chunk is saved in a progress file,
+ * so an interrupted upload of the same (unmodified) file is resumed from
+ * that point.</p>
+ */
+class FileUploader {
+
+	// Constants.
+	final static int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	final static byte ENCODING_RAW = 0;
+	final static byte ENCODING_DEFLATE = 1;
+
+	private final static int CHUNK_HEADER_SIZE = 17;
+
+	// Time to wait for an acknowledgement on top of the result timeout of
+	// the sender, for the time the chunk is queued.
+	private final static long ACK_MARGIN = 30000;
+	private final static int MAX_RETRIES = 3;
+	// Time to wait before sending again a deferred or rejected chunk.
+	private final static long POSTPONE_WAIT = 5000;
+
+	private final static int CHUNK_ACKNOWLEDGED = 0;
+	private final static int CHUNK_FAILED = 1;
+	private final static int CHUNK_POSTPONED = 2;
+
+	private final static String PROGRESS_EXTENSION = ".progress";
+
+	// Variables.
+	private final AsyncDataPointSender sender;
+
+	private final File progressDirectory;
+
+	private final int chunkSize;
+
+	private final IFileUploadListener listener;
+
+	private final PayloadCompressor compressor;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Class constructor. Instantiates a new {@code FileUploader} using the
+	 * given parameters.
+	 *
+	 * @param sender The sender to upload the chunks with.
+	 * @param progressDirectory The directory to store the progress files in.
+	 * @param chunkSize The maximum number of file bytes per chunk.
+	 * @param listener The listener to notify the progress of the uploads to.
+	 * @param compressor The compressor of the chunks.
+	 *
+	 * @throws IllegalArgumentException If the chunk size is not positive.
+	 */
+	FileUploader(AsyncDataPointSender sender, File progressDirectory, int chunkSize, IFileUploadListener listener,
+			PayloadCompressor compressor) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Chunk size must be positive.");
+
+		this.sender = sender;
+		this.progressDirectory = progressDirectory;
+		this.chunkSize = chunkSize;
+		this.listener = listener;
+		this.compressor = compressor;
+	}
+
+	/**
+	 * Uploads the given file to the given data stream in the background,
+	 * resuming a previous upload of the same file if there is any.
+	 *
+	 * @param file The file to upload.
+	 * @param streamPath The path of the data stream.
+	 */
+	void upload(final File file, final String streamPath) {
+		cancelled = false;
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					uploadFile(file, streamPath);
+				} catch (IOException e) {
+					e.printStackTrace();
+					listener.uploadError(file.getName(), e.getMessage());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Cancels the upload in progress. It can be resumed later.
+	 */
+	void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Cancels the upload in progress and stops the uploader.
+	 */
+	void close() {
+		cancel();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Uploads the given file chunk by chunk.
+	 *
+	 * @param file The file to upload.
+	 * @param streamPath The path of the data stream.
+	 *
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void uploadFile(File file, String streamPath) throws IOException {
+		DataStream dataStream = new DataStream(streamPath);
+		String type = getType(file);
+		File progressFile = getProgressFile(file);
+		long offset = readProgress(file, progressFile);
+
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			long size = channel.size();
+			long startOffset = offset;
+			long startTime = System.nanoTime();
+			int retries = 0;
+			while (offset < size) {
+				if (cancelled)
+					throw new IOException("Upload cancelled.");
+				if (!sender.isConnected())
+					throw new IOException("Not connected.");
+
+				int length = (int) Math.min(chunkSize, size - offset);
+				byte[] chunk = new byte[CHUNK_HEADER_SIZE + length];
+				ByteBuffer buffer = ByteBuffer.wrap(chunk);
+				buffer.putLong(offset).putLong(size).put(ENCODING_RAW);
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, offset + buffer.position() - CHUNK_HEADER_SIZE) < 0)
+						throw new IOException("File was truncated during the upload.");
+				}
+				byte[] compressed = compressor.compress(type, chunk, CHUNK_HEADER_SIZE, length, CHUNK_HEADER_SIZE);
+				if (compressed != null) {
+					System.arraycopy(chunk, 0, compressed, 0, CHUNK_HEADER_SIZE - 1);
+					compressed[CHUNK_HEADER_SIZE - 1] = ENCODING_DEFLATE;
+					chunk = compressed;
+				}
+
+				int result = sendChunk(new BinaryDataPoint(chunk, dataStream), streamPath, chunk.length);
+				if (result == CHUNK_POSTPONED) {
+					// The budget or the queue of the lane did not let it go,
+					// it is not a failed attempt.
+					postpone();
+					continue;
+				}
+				if (result == CHUNK_FAILED) {
+					if (++retries > MAX_RETRIES)
+						throw new IOException("Chunk at offset " + offset + " was not acknowledged.");
+					continue;
+				}
+				retries = 0;
+				offset += length;
+				sender.getStatistics().recordBytes(chunk.length);
+				writeProgress(file, progressFile, offset);
+
+				double seconds = (System.nanoTime() - startTime) / 1e9;
+				listener.uploadProgress(file.getName(), offset, size, seconds > 0 ? (offset - startOffset) / seconds : 0);
+			}
+		} finally {
+			input.close();
+		}
+		if (!progressFile.delete())
+			progressFile.deleteOnExit();
+		listener.uploadFinished(file.getName());
+	}
+
+	/**
+	 * Returns the type of the given file for the compressor, its extension.
+	 *
+	 * @param file The file to upload.
+	 *
+	 * @return The lowercase extension of the file, empty if it has none.
+	 */
+	private static String getType(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.US);
+	}
+
+	/**
+	 * Sends a chunk and waits for its acknowledgement. The chunk is cancelled
+	 * if it is still queued when the wait ends, so it is not sent twice.
+	 *
+	 * @param chunk The chunk to send.
+	 * @param streamPath The path of the data stream, to select the lane.
+	 * @param size The size of the chunk in bytes.
+	 *
+	 * @return {@link #CHUNK_ACKNOWLEDGED} if the chunk was acknowledged,
+	 *         {@link #CHUNK_POSTPONED} if the sender deferred or rejected it
+	 *         without sending it, or {@link #CHUNK_FAILED} if it failed or
+	 *         timed out.
+	 */
+	private int sendChunk(BinaryDataPoint chunk, String streamPath, int size) {
+		SendFuture future = sender.submitBinary(chunk, streamPath, size);
+		try {
+			future.get(sender.getResultTimeout() + ACK_MARGIN, TimeUnit.MILLISECONDS);
+			return CHUNK_ACKNOWLEDGED;
+		} catch (ExecutionException e) {
+			String error = e.getCause() != null ? e.getCause().getMessage() : null;
+			if (AsyncDataPointSender.ERROR_DEFERRED.equals(error) || AsyncDataPointSender.ERROR_REJECTED.equals(error))
+				return CHUNK_POSTPONED;
+			return CHUNK_FAILED;
+		} catch (TimeoutException e) {
+			sender.cancel(future);
+			return CHUNK_FAILED;
+		} catch (InterruptedException e) {
+			sender.cancel(future);
+			Thread.currentThread().interrupt();
+			cancelled = true;
+			return CHUNK_FAILED;
+		}
+	}
+
+	/**
+	 * Waits before sending again a postponed chunk.
+	 */
+	private void postpone() {
+		try {
+			Thread.sleep(POSTPONE_WAIT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancelled = true;
+		}
+	}
+
+	/**
+	 * Returns the progress file of the given file.
+	 *
+	 * @param file The file being uploaded.
+	 *
+	 * @return The progress file.
+	 */
+	private File getProgressFile(File file) {
+		return new File(progressDirectory, Integer.toHexString(file.getAbsolutePath().hashCode()) + PROGRESS_EXTENSION);
+	}
+
+	/**
+	 * Reads the offset to resume the upload of the given file from.
+	 *
+	 * @param file The file being uploaded.
+	 * @param progressFile The progress file.
+	 *
+	 * @return The offset of the first byte to upload.
+	 */
+	private static long readProgress(File file, File progressFile) {
+		if (!progressFile.exists())
+			return 0;
+		try {
+			DataInputStream input = new DataInputStream(new FileInputStream(progressFile));
+			try {
+				// Only resume if the file was not modified.
+				if (!file.getAbsolutePath().equals(input.readUTF())
+						|| file.length() != input.readLong()
+						|| file.lastModified() != input.readLong())
+					return 0;
+				return input.readLong();
+			} finally {
+				input.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return 0;
+		}
+	}
+
+	/**
+	 * Saves the offset of the next byte to upload of the given file.
+	 *
+	 * @param file The file being uploaded.
+	 * @param progressFile The progress file.
+	 * @param offset The offset of the next byte to upload.
+	 *
+	 * @throws IOException If the progress cannot be saved.
+	 */
+	private void writeProgress(File file, File progressFile, long offset) throws IOException {
+		if (!progressDirectory.isDirectory() && !progressDirectory.mkdirs())
+			throw new IOException("Could not create progress directory " + progressDirectory);
+		DataOutputStream output = new DataOutputStream(new FileOutputStream(progressFile));
+		try {
+			output.writeUTF(file.getAbsolutePath());
+			output.writeLong(file.length());
+			output.writeLong(file.lastModified());
+			output.writeLong(offset);
+		} finally {
+			output.close();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+/**
+ * Interface used to be notified when the bandwidth budget of the uploads
+ * changes level.
+ */
+interface IBudgetListener {
+
+	/**
+	 * Notifies that the budget has changed level. It is called from the
+	 * sender thread, so it must not block.
+	 *
+	 * @param level The new level of the budget.
+	 * @param usedBytes The estimated bytes used in the current period.
+	 * @param budget The bytes allowed per period.
+	 */
+	void budgetLevelChanged(BandwidthGovernor.Level level, long usedBytes, long budget);
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.util.List;
+
+/**
+ * Interface used to hand data points over to the next stage of the upload
+ * path.
+ *
+ * <p>The final stage is always {@link CloudConnectorSender}, which forwards
+ * the data points to the Cloud Connector service. Having this abstraction
+ * allows the rest of the sample to work against a local stand-in of the
+ * service.</p>
+ */
+interface IDataPointSender {
+
+	/**
+	 * Returns whether the data points can be uploaded right now or not.
+	 *
+	 * @return {@code true} if the sender is connected, {@code false}
+	 *         otherwise.
+	 */
+	boolean isConnected();
+
+	/**
+	 * Sends the given list of data points.
+	 *
+	 * @param dataPoints The data points to send.
+	 */
+	void sendDataPoints(List<DataPoint> dataPoints);
+
+	/**
+	 * Sends the given binary data point.
+	 *
+	 * @param dataPoint The binary data point to send.
+	 */
+	void sendBinaryDataPoint(BinaryDataPoint dataPoint);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+/**
+ * Interface used to be notified about the progress of a file upload.
+ */
+interface IFileUploadListener {
+
+	/**
+	 * Notifies that a new chunk of the file has been acknowledged.
+	 *
+	 * @param file The name of the file.
+	 * @param uploaded The number of bytes uploaded so far.
+	 * @param total The size of the file in bytes.
+	 * @param throughput The upload throughput, in bytes per second.
+	 */
+	void uploadProgress(String file, long uploaded, long total, double throughput);
+
+	/**
+	 * Notifies that the file has been completely uploaded.
+	 *
+	 * @param file The name of the file.
+	 */
+	void uploadFinished(String file);
+
+	/**
+	 * Notifies that the upload of the file failed. The upload can be resumed
+	 * later from the last acknowledged chunk.
+	 *
+	 * @param file The name of the file.
+	 * @param errorMessage The error message.
+	 */
+	void uploadError(String file, String errorMessage);
+}
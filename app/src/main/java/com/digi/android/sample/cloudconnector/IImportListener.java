@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+/**
+ * Interface used to be notified about the progress of a bulk import.
+ */
+interface IImportListener {
+
+	/**
+	 * Notifies the progress of the import.
+	 *
+	 * @param file The name of the file.
+	 * @param rows The number of rows imported so far.
+	 * @param position The number of bytes of the file read so far.
+	 * @param size The size of the file in bytes.
+	 * @param rowsPerSecond The import rate, in rows per second.
+	 */
+	void importProgress(String file, long rows, long position, long size, double rowsPerSecond);
+
+	/**
+	 * Notifies that the file has been completely imported.
+	 *
+	 * @param file The name of the file.
+	 * @param rows The number of rows imported.
+	 * @param rejected The number of values (or NDJSON lines) that were not
+	 *                 valid and were not imported in this run.
+	 * @param rowsPerSecond The import rate, in rows per second.
+	 */
+	void importFinished(String file, long rows, long rejected, double rowsPerSecond);
+
+	/**
+	 * Notifies that the import of the file failed. It can be resumed later
+	 * from the last acknowledged batch.
+	 *
+	 * @param file The name of the file.
+	 * @param errorMessage The error message.
+	 */
+	void importError(String file, String errorMessage);
+}
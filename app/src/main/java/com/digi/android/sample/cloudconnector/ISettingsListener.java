@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.Set;
+
+/**
+ * Interface used to be notified about the changes of the connector
+ * settings.
+ */
+interface ISettingsListener {
+
+	/**
+	 * Notifies that the settings have been read from the connector.
+	 *
+	 * @param settings The current settings.
+	 */
+	void settingsLoaded(ConnectorSettings settings);
+
+	/**
+	 * Notifies that the settings have been saved.
+	 *
+	 * @param settings The current settings.
+	 * @param changed The keys of the settings that changed.
+	 */
+	void settingsSaved(ConnectorSettings settings, Set<ConnectorSettings.Key> changed);
+
+	/**
+	 * Notifies that the settings could not be saved. The settings that were
+	 * already written are restored.
+	 *
+	 * @param errorMessage The error message.
+	 */
+	void settingsError(String errorMessage);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.io.IOException;
+
+/**
+ * Interface implemented by the sources sampled by the
+ * {@link TelemetryCollector}.
+ *
+ * <p>All the methods are called from the thread of the collector, so
+ * sources do not need to be thread safe.</p>
+ */
+interface ITelemetrySource {
+
+	/**
+	 * Reads the current value of the source and adds it to the pipeline.
+	 *
+	 * @param pipeline The pipeline to add the samples to.
+	 *
+	 * @throws IOException If the source cannot be read.
+	 */
+	void sample(SamplePipeline pipeline) throws IOException;
+
+	/**
+	 * Releases the resources of the source.
+	 */
+	void close();
+}
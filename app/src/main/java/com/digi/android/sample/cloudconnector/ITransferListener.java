@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.io.File;
+
+/**
+ * Interface used to be notified about the payloads received in chunks
+ * through device requests.
+ */
+interface ITransferListener {
+
+	/**
+	 * Notifies that a payload has been completely received and verified.
+	 *
+	 * @param id The identifier of the transfer.
+	 * @param file The file holding the payload.
+	 */
+	void transferFinished(String id, File file);
+
+	/**
+	 * Notifies that a payload failed the checksum verification and has to be
+	 * sent again.
+	 *
+	 * @param id The identifier of the transfer.
+	 * @param errorMessage The error message.
+	 */
+	void transferError(String id, String errorMessage);
+}
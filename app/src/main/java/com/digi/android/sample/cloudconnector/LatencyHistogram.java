@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies with a bounded relative error, in the style of HDR
+ * histograms.
+ *
+ * <p>Values below {@value #SUB_BUCKET_COUNT} are counted exactly. Larger
+ * values are counted in buckets whose width doubles with every power of
+ * two, keeping {@value #HALF_SUB_BUCKET_COUNT} buckets per power of two, so
+ * the error is below 3%. Recording uses atomic operations only and does not
+ * allocate, so it can run on every upload.</p>
+ */
+class LatencyHistogram {
+
+	// Constants.
+	private final static int SUB_BUCKET_BITS = 6;
+	final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	final static int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+	private final static int MAX_SHIFT = 31;
+	private final static int BUCKET_COUNT = SUB_BUCKET_COUNT + MAX_SHIFT * HALF_SUB_BUCKET_COUNT;
+
+	// Variables.
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records the given value.
+	 *
+	 * @param value The value to record. Negative values are recorded as
+	 *              {@code 0}.
+	 */
+	void record(long value) {
+		if (value < 0)
+			value = 0;
+		counts.incrementAndGet(getIndex(value));
+		totalCount.incrementAndGet();
+		sum.addAndGet(value);
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value))
+			current = max.get();
+	}
+
+	/**
+	 * Returns a copy of the current contents of the histogram.
+	 *
+	 * @return The snapshot of the histogram.
+	 */
+	Snapshot snapshot() {
+		long[] copy = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			copy[i] = counts.get(i);
+			count += copy[i];
+		}
+		return new Snapshot(copy, count, sum.get(), max.get());
+	}
+
+	/**
+	 * Returns the bucket index of the given value.
+	 *
+	 * @param value The value.
+	 *
+	 * @return The bucket index.
+	 */
+	static int getIndex(long value) {
+		if (value < SUB_BUCKET_COUNT)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		if (shift > MAX_SHIFT)
+			return BUCKET_COUNT - 1;
+		return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT
+				+ (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+	}
+
+	/**
+	 * Returns the highest value counted in the given bucket.
+	 *
+	 * @param index The bucket index.
+	 *
+	 * @return The highest value of the bucket.
+	 */
+	static long getHighestValue(int index) {
+		if (index < SUB_BUCKET_COUNT)
+			return index;
+		int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+		long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Immutable copy of the contents of a histogram.
+	 */
+	static class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * Returns the number of recorded values.
+		 *
+		 * @return The number of values.
+		 */
+		long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the largest recorded value.
+		 *
+		 * @return The maximum value.
+		 */
+		long getMax() {
+			return max;
+		}
+
+		/**
+		 * Returns the mean of the recorded values.
+		 *
+		 * @return The mean value, or {@code 0} if there is none.
+		 */
+		double getMean() {
+			return count == 0 ? 0 : (double) sum / count;
+		}
+
+		/**
+		 * Returns the values recorded since the given snapshot of the same
+		 * histogram. The maximum is the highest value of the last bucket
+		 * with values.
+		 *
+		 * @param previous The previous snapshot.
+		 *
+		 * @return The snapshot of the values recorded in between.
+		 */
+		Snapshot since(Snapshot previous) {
+			long[] difference = new long[counts.length];
+			long intervalMax = 0;
+			for (int i = 0; i < counts.length; i++) {
+				difference[i] = counts[i] - previous.counts[i];
+				if (difference[i] > 0)
+					intervalMax = Math.min(getHighestValue(i), max);
+			}
+			return new Snapshot(difference, count - previous.count, sum - previous.sum, intervalMax);
+		}
+
+		/**
+		 * Returns the value below which the given percentage of the recorded
+		 * values fall.
+		 *
+		 * @param percentile The percentile, between 0 and 100.
+		 *
+		 * @return The value at the percentile, or {@code 0} if there is no
+		 *         value.
+		 */
+		long getValueAtPercentile(double percentile) {
+			if (count == 0)
+				return 0;
+			long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+			long accumulated = 0;
+			for (int i = 0; i < counts.length; i++) {
+				accumulated += counts[i];
+				if (accumulated >= target)
+					return Math.min(getHighestValue(i), max);
+			}
+			return max;
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class that sends generated data points at a sustained rate, to measure
+ * the behavior of the upload pipeline on real hardware.
+ *
+ * <p>Every {@value #TICK_INTERVAL} ms the data points that are due are
+ * generated, spread over the configured streams, and handed to the sender.
+ * If the sender blocks for so long that more than one second of data
+ * points is due, the excess is dropped instead of being sent in a
+ * burst.</p>
+ */
+class LoadTest {
+
+	/**
+	 * Generators of the values of the data points.
+	 */
+	enum Generator {
+		/** The first value, always. */
+		CONSTANT,
+		/** A random walk starting at the first value. */
+		RANDOM_WALK,
+		/** A sine wave with the first value as amplitude. */
+		SINE,
+		/** The given values, cyclically. */
+		REPLAY
+	}
+
+	// Constants.
+	private final static long TICK_INTERVAL = 10;
+	private final static long MAX_BACKLOG = 1000;
+	private final static long SINE_PERIOD = 60000;
+
+	private final static String STREAM_PREFIX = "/LOAD_";
+
+	// Variables.
+	private final IDataPointSender sender;
+
+	private final DataStream[] dataStreams;
+
+	private final double rate;
+
+	private final long duration;
+
+	private final Generator generator;
+
+	private final double[] values;
+
+	private final Random random = new Random();
+
+	private ScheduledExecutorService scheduler;
+
+	private long startTime;
+	private long endTime;
+
+	private double lastValue;
+	private int nextStream;
+	private int nextReplay;
+
+	private volatile long produced;
+	private volatile long dropped;
+	private volatile boolean running;
+
+	/**
+	 * Class constructor. Instantiates a new {@code LoadTest} using the given
+	 * parameters.
+	 *
+	 * @param sender The sender to hand the data points to.
+	 * @param streamPath The path prefix of the data streams.
+	 * @param streams The number of data streams.
+	 * @param rate The number of data points per second.
+	 * @param duration The duration of the test in seconds.
+	 * @param generator The generator of the values.
+	 * @param values The values used by the generator, at least one.
+	 *
+	 * @throws IllegalArgumentException If any parameter is not valid.
+	 */
+	LoadTest(IDataPointSender sender, String streamPath, int streams, double rate, long duration,
+			Generator generator, double[] values) {
+		if (streams < 1 || rate <= 0 || duration < 1 || values.length == 0)
+			throw new IllegalArgumentException("Invalid load test configuration.");
+
+		this.sender = sender;
+		this.rate = rate;
+		this.duration = TimeUnit.SECONDS.toNanos(duration);
+		this.generator = generator;
+		this.values = values;
+		dataStreams = new DataStream[streams];
+		for (int i = 0; i < streams; i++)
+			dataStreams[i] = new DataStream(streamPath + STREAM_PREFIX + i);
+	}
+
+	/**
+	 * Starts sending data points in the background.
+	 */
+	synchronized void start() {
+		if (running)
+			return;
+		running = true;
+		produced = 0;
+		dropped = 0;
+		lastValue = values[0];
+		nextReplay = 0;
+		startTime = System.nanoTime();
+		endTime = startTime + duration;
+		scheduler = Executors.newSingleThreadScheduledExecutor();
+		scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				tick();
+			}
+		}, 0, TICK_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops sending data points.
+	 */
+	synchronized void stop() {
+		running = false;
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Returns whether the test is running.
+	 *
+	 * @return {@code true} if it is running, {@code false} otherwise.
+	 */
+	boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Returns the target rate.
+	 *
+	 * @return The target number of data points per second.
+	 */
+	double getTargetRate() {
+		return rate;
+	}
+
+	/**
+	 * Returns the number of data points handed to the sender.
+	 *
+	 * @return The number of data points sent.
+	 */
+	long getProducedCount() {
+		return produced;
+	}
+
+	/**
+	 * Returns the number of data points dropped because the sender could
+	 * not keep up.
+	 *
+	 * @return The number of dropped data points.
+	 */
+	long getDroppedCount() {
+		return dropped;
+	}
+
+	/**
+	 * Returns the rate achieved since the start of the test.
+	 *
+	 * @return The number of data points sent per second.
+	 */
+	double getAchievedRate() {
+		long elapsed = Math.min(System.nanoTime(), endTime) - startTime;
+		return elapsed <= 0 ? 0 : produced * 1e9 / elapsed;
+	}
+
+	/**
+	 * Returns the time since the start of the test.
+	 *
+	 * @return The elapsed time in seconds.
+	 */
+	long getElapsedTime() {
+		return TimeUnit.NANOSECONDS.toSeconds(Math.min(System.nanoTime(), endTime) - startTime);
+	}
+
+	/**
+	 * Generates and sends the data points that are due.
+	 */
+	private void tick() {
+		long now = System.nanoTime();
+		if (now >= endTime) {
+			stop();
+			return;
+		}
+		long due = (long) ((now - startTime) * rate / 1e9) - produced - dropped;
+		long maxDue = (long) (rate * MAX_BACKLOG / 1000);
+		if (due > maxDue) {
+			dropped += due - maxDue;
+			due = maxDue;
+		}
+		if (due <= 0)
+			return;
+		ArrayList<DataPoint> dataPoints = new ArrayList<>((int) due);
+		for (long i = 0; i < due; i++) {
+			dataPoints.add(new DataPoint(nextValue(now), dataStreams[nextStream]));
+			nextStream = (nextStream + 1) % dataStreams.length;
+		}
+		sender.sendDataPoints(dataPoints);
+		produced += due;
+	}
+
+	/**
+	 * Returns the next generated value.
+	 *
+	 * @param now The current time, as given by {@link System#nanoTime()}.
+	 *
+	 * @return The generated value.
+	 */
+	private double nextValue(long now) {
+		switch (generator) {
+			case RANDOM_WALK:
+				lastValue += random.nextGaussian();
+				return lastValue;
+			case SINE:
+				double phase = TimeUnit.NANOSECONDS.toMillis(now - startTime) % SINE_PERIOD / (double) SINE_PERIOD;
+				return values[0] * Math.sin(2 * Math.PI * phase);
+			case REPLAY:
+				double value = values[nextReplay];
+				nextReplay = (nextReplay + 1) % values.length;
+				return value;
+			case CONSTANT:
+			default:
+				return values[0];
+		}
+	}
+}
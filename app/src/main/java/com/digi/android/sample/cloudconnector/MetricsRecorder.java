@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a rolling history of the metrics of the application and serves it
+ * as a device request target, so a backend can scrape it on demand.
+ *
+ * <p>Every interval, the counters of the uploads, the connection and the
+ * device requests are sampled into a row of a fixed-size ring: counters as
+ * the increment since the previous row, gauges as their current value and
+ * latencies as the percentiles of the interval, in microseconds. Rows are
+ * plain {@code long}s in a single preallocated array, so sampling does not
+ * allocate beyond the snapshots of the sources.</p>
+ *
+ * <p>The ring is saved to a file every few rows and restored on start, so
+ * the history survives restarts. Each value is stored as the zigzag
+ * variable-length difference with the same field of the previous row,
+ * which takes one or two bytes for most of them.</p>
+ *
+ * <p>A request returns the rows as JSON, with the field names once and
+ * the rows as arrays. The request data can be empty, to get all the rows,
+ * or {@code since=<time>}, to get only the rows after the given time in
+ * milliseconds since the epoch, so a scraper only downloads what it has
+ * not seen yet.</p>
+ */
+class MetricsRecorder implements IDeviceRequestListener {
+
+	// Constants.
+	final static String ERROR_INVALID_REQUEST = "Error: invalid request";
+
+	private final static String[] FIELDS = {"time", "points", "bytes", "uploads", "errors", "dropped",
+			"queueDepth", "inFlight", "uploadP50", "uploadP99", "connectAttempts", "connected",
+			"requests", "requestsShed", "requestsTimedOut", "requestP50", "requestP99", "budgetUsed",
+			"cacheHits", "cacheMisses", "cacheReplays"};
+
+	private final static int TIME = 0;
+	private final static int POINTS = 1;
+	private final static int BYTES = 2;
+	private final static int UPLOADS = 3;
+	private final static int ERRORS = 4;
+	private final static int DROPPED = 5;
+	private final static int QUEUE_DEPTH = 6;
+	private final static int IN_FLIGHT = 7;
+	private final static int UPLOAD_P50 = 8;
+	private final static int UPLOAD_P99 = 9;
+	private final static int CONNECT_ATTEMPTS = 10;
+	private final static int CONNECTED = 11;
+	private final static int REQUESTS = 12;
+	private final static int REQUESTS_SHED = 13;
+	private final static int REQUESTS_TIMED_OUT = 14;
+	private final static int REQUEST_P50 = 15;
+	private final static int REQUEST_P99 = 16;
+	private final static int BUDGET_USED = 17;
+	private final static int CACHE_HITS = 18;
+	private final static int CACHE_MISSES = 19;
+	private final static int CACHE_REPLAYS = 20;
+
+	private final static String SINCE_PREFIX = "since=";
+
+	private final static int FILE_MAGIC = 0x43434D52;
+	private final static int FILE_VERSION = 1;
+
+	// Rows sampled between saves of the ring.
+	private final static int SAVE_EVERY = 6;
+
+	private final static long CLOSE_TIMEOUT = 1000;
+
+	// Variables.
+	private final SendStatistics statistics;
+
+	private final DeviceRequestDispatcher dispatcher;
+
+	private final ConnectionStateMachine connectionStateMachine;
+
+	private final BandwidthGovernor governor;
+
+	private final CachingRequestHandler cache;
+
+	private final File file;
+
+	private final long interval;
+
+	private final int capacity;
+
+	private final long[] rows;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	private int head;
+	private int size;
+
+	// Only accessed from the scheduler thread.
+	private SendStatistics.Snapshot previousSend;
+	private LatencyHistogram.Snapshot previousRequestLatency;
+	private long previousRequests;
+	private long previousShed;
+	private long previousTimedOut;
+	private long previousAttempts;
+	private long previousHits;
+	private long previousMisses;
+	private long previousReplays;
+	private int unsavedRows;
+
+	/**
+	 * Class constructor. Instantiates a new {@code MetricsRecorder} using the
+	 * given parameters and restores the rows saved in the given file.
+	 *
+	 * @param statistics The statistics of the uploads.
+	 * @param dispatcher The dispatcher of the device requests.
+	 * @param connectionStateMachine The state machine of the connection.
+	 * @param governor The bandwidth governor, or {@code null}.
+	 * @param cache The response cache of the device requests, or
+	 *              {@code null}.
+	 * @param file The file to save the rows to.
+	 * @param interval The time between rows, in milliseconds.
+	 * @param capacity The maximum number of rows kept.
+	 *
+	 * @throws IllegalArgumentException If the interval or the capacity are
+	 *                                  not positive.
+	 */
+	MetricsRecorder(SendStatistics statistics, DeviceRequestDispatcher dispatcher,
+			ConnectionStateMachine connectionStateMachine, BandwidthGovernor governor, CachingRequestHandler cache,
+			File file, long interval, int capacity) {
+		if (interval < 1 || capacity < 1)
+			throw new IllegalArgumentException("Interval and capacity must be positive.");
+
+		this.statistics = statistics;
+		this.dispatcher = dispatcher;
+		this.connectionStateMachine = connectionStateMachine;
+		this.governor = governor;
+		this.cache = cache;
+		this.file = file;
+		this.interval = interval;
+		this.capacity = capacity;
+		this.rows = new long[capacity * FIELDS.length];
+
+		load();
+	}
+
+	/**
+	 * Starts sampling the metrics. The first row covers the time since this
+	 * call.
+	 */
+	void start() {
+		scheduler.execute(new Runnable() {
+			@Override
+			public void run() {
+				previousSend = statistics.snapshot();
+				previousRequestLatency = dispatcher.getLatency();
+				previousRequests = dispatcher.getHandledCount();
+				previousShed = dispatcher.getShedCount();
+				previousTimedOut = dispatcher.getTimeoutCount();
+				previousAttempts = connectionStateMachine.getAttemptCount();
+				if (cache != null) {
+					previousHits = cache.getHitCount();
+					previousMisses = cache.getMissCount();
+					previousReplays = cache.getReplayCount();
+				}
+			}
+		});
+		scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				sample();
+				if (++unsavedRows >= SAVE_EVERY) {
+					unsavedRows = 0;
+					save();
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops sampling and saves the rows.
+	 */
+	void close() {
+		scheduler.shutdownNow();
+		try {
+			scheduler.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		save();
+	}
+
+	/**
+	 * Returns the number of rows kept.
+	 *
+	 * @return The number of rows.
+	 */
+	synchronized int getRowCount() {
+		return size;
+	}
+
+	@Override
+	public String handleDeviceRequest(String target, byte[] data) {
+		try {
+			return handleDeviceRequest(target, new String(data, "UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			return ERROR_INVALID_REQUEST;
+		}
+	}
+
+	@Override
+	public String handleDeviceRequest(String target, String data) {
+		String request = data == null ? "" : data.trim();
+		long since = Long.MIN_VALUE;
+		if (request.startsWith(SINCE_PREFIX)) {
+			try {
+				since = Long.parseLong(request.substring(SINCE_PREFIX.length()).trim());
+			} catch (NumberFormatException e) {
+				return ERROR_INVALID_REQUEST;
+			}
+		} else if (!request.isEmpty()) {
+			return ERROR_INVALID_REQUEST;
+		}
+		return toJson(since);
+	}
+
+	/**
+	 * Returns the rows after the given time as JSON.
+	 *
+	 * @param since The time in milliseconds since the epoch.
+	 *
+	 * @return The JSON document with the interval, the fields and the rows.
+	 */
+	synchronized String toJson(long since) {
+		StringBuilder json = new StringBuilder(64 + size * FIELDS.length * 4);
+		json.append("{\"interval\":").append(interval).append(",\"fields\":[");
+		for (int i = 0; i < FIELDS.length; i++) {
+			if (i > 0)
+				json.append(',');
+			json.append('"').append(FIELDS[i]).append('"');
+		}
+		json.append("],\"rows\":[");
+		boolean first = true;
+		for (int i = 0; i < size; i++) {
+			int base = getRowBase(i);
+			if (rows[base + TIME] <= since)
+				continue;
+			if (!first)
+				json.append(',');
+			first = false;
+			json.append('[');
+			for (int field = 0; field < FIELDS.length; field++) {
+				if (field > 0)
+					json.append(',');
+				json.append(rows[base + field]);
+			}
+			json.append(']');
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * Samples the metrics into a new row, overwriting the oldest one if the
+	 * ring is full.
+	 */
+	private void sample() {
+		SendStatistics.Snapshot send = statistics.snapshot();
+		LatencyHistogram.Snapshot uploadLatency = send.totalLatency.since(previousSend.totalLatency);
+		LatencyHistogram.Snapshot requestLatency = dispatcher.getLatency();
+		LatencyHistogram.Snapshot intervalRequestLatency = requestLatency.since(previousRequestLatency);
+		long requests = dispatcher.getHandledCount();
+		long shed = dispatcher.getShedCount();
+		long timedOut = dispatcher.getTimeoutCount();
+		long attempts = connectionStateMachine.getAttemptCount();
+		long hits = cache == null ? 0 : cache.getHitCount();
+		long misses = cache == null ? 0 : cache.getMissCount();
+		long replays = cache == null ? 0 : cache.getReplayCount();
+
+		synchronized (this) {
+			int base = head * FIELDS.length;
+			rows[base + TIME] = System.currentTimeMillis();
+			rows[base + POINTS] = send.acknowledgedPoints - previousSend.acknowledgedPoints;
+			rows[base + BYTES] = send.bytes - previousSend.bytes;
+			rows[base + UPLOADS] = send.successes - previousSend.successes;
+			rows[base + ERRORS] = send.errors - previousSend.errors;
+			rows[base + DROPPED] = send.dropped - previousSend.dropped;
+			rows[base + QUEUE_DEPTH] = send.queueDepth;
+			rows[base + IN_FLIGHT] = send.inFlight;
+			rows[base + UPLOAD_P50] = uploadLatency.getValueAtPercentile(50);
+			rows[base + UPLOAD_P99] = uploadLatency.getValueAtPercentile(99);
+			rows[base + CONNECT_ATTEMPTS] = attempts - previousAttempts;
+			rows[base + CONNECTED] = connectionStateMachine.getState() == ConnectionStateMachine.State.CONNECTED ? 1 : 0;
+			rows[base + REQUESTS] = requests - previousRequests;
+			rows[base + REQUESTS_SHED] = shed - previousShed;
+			rows[base + REQUESTS_TIMED_OUT] = timedOut - previousTimedOut;
+			rows[base + REQUEST_P50] = intervalRequestLatency.getValueAtPercentile(50);
+			rows[base + REQUEST_P99] = intervalRequestLatency.getValueAtPercentile(99);
+			rows[base + BUDGET_USED] = governor == null ? 0 : governor.getUsedBytes();
+			rows[base + CACHE_HITS] = hits - previousHits;
+			rows[base + CACHE_MISSES] = misses - previousMisses;
+			rows[base + CACHE_REPLAYS] = replays - previousReplays;
+			head = (head + 1) % capacity;
+			if (size < capacity)
+				size++;
+		}
+
+		previousSend = send;
+		previousRequestLatency = requestLatency;
+		previousRequests = requests;
+		previousShed = shed;
+		previousTimedOut = timedOut;
+		previousAttempts = attempts;
+		previousHits = hits;
+		previousMisses = misses;
+		previousReplays = replays;
+	}
+
+	/**
+	 * Returns the position in the ring of the given row.
+	 *
+	 * @param row The index of the row, {@code 0} for the oldest.
+	 *
+	 * @return The position of the first field of the row.
+	 */
+	private int getRowBase(int row) {
+		return ((head - size + row + capacity) % capacity) * FIELDS.length;
+	}
+
+	/**
+	 * Saves the rows to the file, replacing it atomically.
+	 */
+	private void save() {
+		long[] copy;
+		int count;
+		synchronized (this) {
+			count = size;
+			copy = new long[count * FIELDS.length];
+			for (int i = 0; i < count; i++)
+				System.arraycopy(rows, getRowBase(i), copy, i * FIELDS.length, FIELDS.length);
+		}
+		File temporary = new File(file.getPath() + ".tmp");
+		try {
+			File directory = file.getParentFile();
+			if (directory != null && !directory.isDirectory() && !directory.mkdirs())
+				throw new IOException("Could not create directory " + directory);
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+			try {
+				output.writeInt(FILE_MAGIC);
+				output.writeByte(FILE_VERSION);
+				writeVarLong(output, FIELDS.length);
+				writeVarLong(output, count);
+				for (int i = 0; i < copy.length; i++) {
+					long previous = i < FIELDS.length ? 0 : copy[i - FIELDS.length];
+					long delta = copy[i] - previous;
+					writeVarLong(output, (delta << 1) ^ (delta >> 63));
+				}
+			} finally {
+				output.close();
+			}
+			if (!temporary.renameTo(file))
+				throw new IOException("Could not replace " + file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Restores the rows saved in the file, if it exists and has the same
+	 * fields.
+	 */
+	private void load() {
+		if (!file.exists())
+			return;
+		try {
+			DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (input.readInt() != FILE_MAGIC || input.readByte() != FILE_VERSION
+						|| readVarLong(input) != FIELDS.length)
+					return;
+				int count = (int) readVarLong(input);
+				long[] previous = new long[FIELDS.length];
+				for (int i = 0; i < count; i++) {
+					int base = head * FIELDS.length;
+					for (int field = 0; field < FIELDS.length; field++) {
+						long zigzag = readVarLong(input);
+						previous[field] += (zigzag >>> 1) ^ -(zigzag & 1);
+						rows[base + field] = previous[field];
+					}
+					head = (head + 1) % capacity;
+					if (size < capacity)
+						size++;
+				}
+			} finally {
+				input.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			head = 0;
+			size = 0;
+		}
+	}
+
+	/**
+	 * Writes the given value with 7 bits per byte, least significant first.
+	 *
+	 * @param output The stream to write to.
+	 * @param value The value, treated as unsigned.
+	 *
+	 * @throws IOException If the value cannot be written.
+	 */
+	private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+
+	/**
+	 * Reads a value written by {@link #writeVarLong(DataOutputStream, long)}.
+	 *
+	 * @param input The stream to read from.
+	 *
+	 * @return The value.
+	 *
+	 * @throws IOException If the value cannot be read.
+	 */
+	private static long readVarLong(DataInputStream input) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Malformed variable-length value.");
+	}
+}
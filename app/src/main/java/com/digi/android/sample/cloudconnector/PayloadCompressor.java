@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.HashMap;
+import java.util.zip.Deflater;
+
+/**
+ * Class that decides whether to compress each binary payload and
+ * compresses it.
+ *
+ * <p>In {@link Mode#ADAPTIVE} mode a payload is compressed only if it is
+ * expected to pay off. The entropy of a sample of the payload discards the
+ * data that is already compressed or encrypted. For the rest, the
+ * compression ratio and the CPU time per byte are tracked for each type of
+ * payload, and the payload is compressed if the time saved on the link is
+ * longer than the time spent compressing. Types that do not pay off are
+ * probed again every few payloads, in case their content changes.</p>
+ *
+ * <p>Payloads are compressed with {@link Deflater} at its fastest level.
+ * Compressed payloads bigger than the original are never used.</p>
+ */
+class PayloadCompressor {
+
+	/**
+	 * Compression modes.
+	 */
+	enum Mode {
+		/** Payloads are never compressed. */
+		OFF,
+		/** Payloads are always compressed, unless they grow. */
+		ON,
+		/** Payloads are compressed when it pays off. */
+		ADAPTIVE
+	}
+
+	// Constants.
+	final static long DEFAULT_LINK_RATE = 32 * 1024;
+
+	// Bytes of the payload used to estimate its entropy.
+	private final static int ENTROPY_SAMPLE_SIZE = 1024;
+	// Entropy, in bits per byte, above which data is considered compressed.
+	private final static double MAX_ENTROPY = 7.5;
+
+	// Minimum fraction of the payload that compression has to save.
+	private final static double MIN_SAVING = 0.05;
+
+	// Payloads of a type that does not pay off between probes.
+	private final static int PROBE_INTERVAL = 16;
+
+	// Weight of the last payload in the averages.
+	private final static double ALPHA = 0.2;
+
+	// Variables.
+	private final Mode mode;
+
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+	private final HashMap<String, TypeStatistics> types = new HashMap<>();
+
+	private final int[] histogram = new int[256];
+
+	private volatile long linkRate;
+
+	private long compressed;
+	private long skipped;
+	private long inputBytes;
+	private long outputBytes;
+	private long cpuTime;
+
+	private boolean closed;
+
+	/**
+	 * Class constructor. Instantiates a new {@code PayloadCompressor} using
+	 * the given parameters.
+	 *
+	 * @param mode The compression mode.
+	 * @param linkRate The expected upload rate of the link, in bytes per
+	 *                 second.
+	 *
+	 * @throws IllegalArgumentException If the link rate is not positive.
+	 */
+	PayloadCompressor(Mode mode, long linkRate) {
+		this.mode = mode;
+		setLinkRate(linkRate);
+	}
+
+	/**
+	 * Sets the expected upload rate of the link, used to weigh the bytes
+	 * saved against the CPU time spent.
+	 *
+	 * @param linkRate The upload rate in bytes per second.
+	 *
+	 * @throws IllegalArgumentException If the link rate is not positive.
+	 */
+	void setLinkRate(long linkRate) {
+		if (linkRate < 1)
+			throw new IllegalArgumentException("Link rate must be positive.");
+		this.linkRate = linkRate;
+	}
+
+	/**
+	 * Returns the compression mode.
+	 *
+	 * @return The compression mode.
+	 */
+	Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Compresses the given payload if it pays off.
+	 *
+	 * @param type The type of the payload, used to track the payoff.
+	 * @param data The array holding the payload.
+	 * @param offset The offset of the payload in the array.
+	 * @param length The length of the payload.
+	 * @param headerSize The bytes to reserve at the start of the result.
+	 *
+	 * @return An array with {@code headerSize} free bytes followed by the
+	 *         compressed payload, or {@code null} if the payload must be
+	 *         sent as is.
+	 */
+	synchronized byte[] compress(String type, byte[] data, int offset, int length, int headerSize) {
+		if (mode == Mode.OFF || length == 0 || closed) {
+			skipped++;
+			return null;
+		}
+		TypeStatistics statistics = null;
+		if (mode == Mode.ADAPTIVE) {
+			statistics = types.get(type);
+			if (statistics == null) {
+				statistics = new TypeStatistics();
+				types.put(type, statistics);
+			}
+			if (!shouldCompress(statistics, data, offset, length)) {
+				skipped++;
+				return null;
+			}
+		}
+
+		long start = System.nanoTime();
+		byte[] output = new byte[headerSize + length];
+		deflater.reset();
+		deflater.setInput(data, offset, length);
+		deflater.finish();
+		int size = deflater.deflate(output, headerSize, length);
+		boolean fits = deflater.finished() && size < length;
+		long time = System.nanoTime() - start;
+
+		cpuTime += time;
+		if (statistics != null)
+			statistics.update(fits ? (double) size / length : 1, (double) time / length);
+		if (!fits) {
+			skipped++;
+			return null;
+		}
+		compressed++;
+		inputBytes += length;
+		outputBytes += size;
+		if (size + headerSize == output.length)
+			return output;
+		byte[] result = new byte[headerSize + size];
+		System.arraycopy(output, 0, result, 0, result.length);
+		return result;
+	}
+
+	/**
+	 * Returns the number of payloads compressed.
+	 *
+	 * @return The number of compressed payloads.
+	 */
+	synchronized long getCompressedCount() {
+		return compressed;
+	}
+
+	/**
+	 * Returns the number of payloads sent as is.
+	 *
+	 * @return The number of payloads not compressed.
+	 */
+	synchronized long getSkippedCount() {
+		return skipped;
+	}
+
+	/**
+	 * Returns the bytes saved by the compressed payloads.
+	 *
+	 * @return The saved bytes.
+	 */
+	synchronized long getSavedBytes() {
+		return inputBytes - outputBytes;
+	}
+
+	/**
+	 * Returns the CPU time spent compressing, including the payloads that
+	 * did not pay off.
+	 *
+	 * @return The compression time in nanoseconds.
+	 */
+	synchronized long getCpuTime() {
+		return cpuTime;
+	}
+
+	/**
+	 * Releases the resources of the compressor. Payloads are not compressed
+	 * afterwards.
+	 */
+	synchronized void close() {
+		closed = true;
+		deflater.end();
+	}
+
+	/**
+	 * Returns whether the given payload is expected to pay off. Must be
+	 * called with the lock held.
+	 *
+	 * @param statistics The statistics of the type of the payload.
+	 * @param data The array holding the payload.
+	 * @param offset The offset of the payload in the array.
+	 * @param length The length of the payload.
+	 *
+	 * @return {@code true} to compress the payload, {@code false} otherwise.
+	 */
+	private boolean shouldCompress(TypeStatistics statistics, byte[] data, int offset, int length) {
+		if (getEntropy(data, offset, length) > MAX_ENTROPY)
+			return false;
+		if (statistics.samples == 0)
+			return true;
+		// Time saved on the link against time spent compressing.
+		double savedNanosPerByte = (1 - statistics.ratio) * 1e9 / linkRate;
+		if (statistics.ratio <= 1 - MIN_SAVING && savedNanosPerByte > statistics.nanosPerByte)
+			return true;
+		return ++statistics.skipped % PROBE_INTERVAL == 0;
+	}
+
+	/**
+	 * Estimates the entropy of the given payload from a sample of it. Must
+	 * be called with the lock held.
+	 *
+	 * @param data The array holding the payload.
+	 * @param offset The offset of the payload in the array.
+	 * @param length The length of the payload.
+	 *
+	 * @return The entropy in bits per byte.
+	 */
+	private double getEntropy(byte[] data, int offset, int length) {
+		int samples = Math.min(length, ENTROPY_SAMPLE_SIZE);
+		// Sample the whole payload, not just its beginning.
+		int stride = length / samples;
+		for (int i = 0; i < histogram.length; i++)
+			histogram[i] = 0;
+		for (int i = 0; i < samples; i++)
+			histogram[data[offset + i * stride] & 0xFF]++;
+		double entropy = 0;
+		for (int count : histogram) {
+			if (count > 0) {
+				double p = (double) count / samples;
+				entropy -= p * Math.log(p);
+			}
+		}
+		return entropy / Math.log(2);
+	}
+
+	/**
+	 * Class that holds the compression payoff of a type of payload.
+	 */
+	private static class TypeStatistics {
+		double ratio;
+		double nanosPerByte;
+		int samples;
+		int skipped;
+
+		void update(double ratio, double nanosPerByte) {
+			if (samples++ == 0) {
+				this.ratio = ratio;
+				this.nanosPerByte = nanosPerByte;
+			} else {
+				this.ratio += ALPHA * (ratio - this.ratio);
+				this.nanosPerByte += ALPHA * (nanosPerByte - this.nanosPerByte);
+			}
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import java.util.List;
+
+/**
+ * Ring buffer that keeps the numeric samples of a single data stream in
+ * primitive columns.
+ *
+ * <p>Only the column of the stream type is allocated, along with a column
+ * of timestamps. Adding a sample does not allocate any object; the
+ * {@link DataPoint} objects are created only when the buffer is drained.
+ * If the buffer is full, the oldest sample is overwritten.</p>
+ */
+class SampleBuffer {
+
+	// Variables.
+	private final String streamPath;
+
+	private final DataStream dataStream;
+
+	private final int type;
+
+	private final int capacity;
+
+	private final int[] intValues;
+	private final long[] longValues;
+	private final float[] floatValues;
+	private final double[] doubleValues;
+
+	private final long[] timestamps;
+
+	private int head;
+	private int size;
+
+	private long overwritten;
+
+	/**
+	 * Class constructor. Instantiates a new {@code SampleBuffer} using the
+	 * given parameters.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param type The type of the samples, one of
+	 *             {@link DataPointJournal#TYPE_INTEGER},
+	 *             {@link DataPointJournal#TYPE_LONG},
+	 *             {@link DataPointJournal#TYPE_FLOAT} or
+	 *             {@link DataPointJournal#TYPE_DOUBLE}.
+	 * @param capacity The maximum number of samples to keep.
+	 *
+	 * @throws IllegalArgumentException If the type is not numeric or the
+	 *                                  capacity is not positive.
+	 */
+	SampleBuffer(String streamPath, int type, int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive.");
+		if (type < DataPointJournal.TYPE_INTEGER || type > DataPointJournal.TYPE_DOUBLE)
+			throw new IllegalArgumentException("Only numeric samples can be buffered.");
+
+		this.streamPath = streamPath;
+		this.dataStream = new DataStream(streamPath);
+		this.type = type;
+		this.capacity = capacity;
+		this.intValues = type == DataPointJournal.TYPE_INTEGER ? new int[capacity] : null;
+		this.longValues = type == DataPointJournal.TYPE_LONG ? new long[capacity] : null;
+		this.floatValues = type == DataPointJournal.TYPE_FLOAT ? new float[capacity] : null;
+		this.doubleValues = type == DataPointJournal.TYPE_DOUBLE ? new double[capacity] : null;
+		this.timestamps = new long[capacity];
+	}
+
+	/**
+	 * Adds an integer sample.
+	 *
+	 * @param value The value of the sample.
+	 * @param timestamp The time of the sample, in milliseconds.
+	 *
+	 * @throws IllegalStateException If the buffer is not of integer type.
+	 */
+	synchronized void addInt(int value, long timestamp) {
+		checkType(DataPointJournal.TYPE_INTEGER);
+		intValues[nextIndex(timestamp)] = value;
+	}
+
+	/**
+	 * Adds a long sample.
+	 *
+	 * @param value The value of the sample.
+	 * @param timestamp The time of the sample, in milliseconds.
+	 *
+	 * @throws IllegalStateException If the buffer is not of long type.
+	 */
+	synchronized void addLong(long value, long timestamp) {
+		checkType(DataPointJournal.TYPE_LONG);
+		longValues[nextIndex(timestamp)] = value;
+	}
+
+	/**
+	 * Adds a float sample.
+	 *
+	 * @param value The value of the sample.
+	 * @param timestamp The time of the sample, in milliseconds.
+	 *
+	 * @throws IllegalStateException If the buffer is not of float type.
+	 */
+	synchronized void addFloat(float value, long timestamp) {
+		checkType(DataPointJournal.TYPE_FLOAT);
+		floatValues[nextIndex(timestamp)] = value;
+	}
+
+	/**
+	 * Adds a double sample.
+	 *
+	 * @param value The value of the sample.
+	 * @param timestamp The time of the sample, in milliseconds.
+	 *
+	 * @throws IllegalStateException If the buffer is not of double type.
+	 */
+	synchronized void addDouble(double value, long timestamp) {
+		checkType(DataPointJournal.TYPE_DOUBLE);
+		doubleValues[nextIndex(timestamp)] = value;
+	}
+
+	/**
+	 * Moves up to the given number of samples, oldest first, to the given
+	 * list as data points with the time of the sample.
+	 *
+	 * @param dataPoints The list to add the data points to.
+	 * @param maximum The maximum number of data points to add.
+	 *
+	 * @return The number of data points added.
+	 */
+	synchronized int drainTo(List<DataPoint> dataPoints, int maximum) {
+		int count = Math.min(size, maximum);
+		for (int i = 0; i < count; i++) {
+			int index = (head + i) % capacity;
+			DataPoint dataPoint;
+			switch (type) {
+				case DataPointJournal.TYPE_INTEGER:
+					dataPoint = new DataPoint(intValues[index], dataStream);
+					break;
+				case DataPointJournal.TYPE_LONG:
+					dataPoint = new DataPoint(longValues[index], dataStream);
+					break;
+				case DataPointJournal.TYPE_FLOAT:
+					dataPoint = new DataPoint(floatValues[index], dataStream);
+					break;
+				case DataPointJournal.TYPE_DOUBLE:
+				default:
+					dataPoint = new DataPoint(doubleValues[index], dataStream);
+			}
+			// Keep the sampling time, not the upload time.
+			dataPoint.setTimestamp(timestamps[index]);
+			dataPoints.add(dataPoint);
+		}
+		head = (head + count) % capacity;
+		size -= count;
+		return count;
+	}
+
+	/**
+	 * Returns the path of the data stream.
+	 *
+	 * @return The data stream path.
+	 */
+	String getStreamPath() {
+		return streamPath;
+	}
+
+	/**
+	 * Returns the type of the samples.
+	 *
+	 * @return The sample type.
+	 */
+	int getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the number of buffered samples.
+	 *
+	 * @return The number of samples.
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the timestamp of the oldest buffered sample.
+	 *
+	 * @return The timestamp in milliseconds, or {@code Long.MAX_VALUE} if
+	 *         the buffer is empty.
+	 */
+	synchronized long getOldestTimestamp() {
+		return size == 0 ? Long.MAX_VALUE : timestamps[head];
+	}
+
+	/**
+	 * Returns the number of samples that were overwritten before being
+	 * drained because the buffer was full.
+	 *
+	 * @return The number of lost samples.
+	 */
+	synchronized long getOverwrittenCount() {
+		return overwritten;
+	}
+
+	/**
+	 * Reserves the slot for a new sample, overwriting the oldest one if the
+	 * buffer is full.
+	 *
+	 * @param timestamp The time of the sample.
+	 *
+	 * @return The index of the slot.
+	 */
+	private int nextIndex(long timestamp) {
+		int index;
+		if (size == capacity) {
+			index = head;
+			head = (head + 1) % capacity;
+			overwritten++;
+		} else {
+			index = (head + size) % capacity;
+			size++;
+		}
+		timestamps[index] = timestamp;
+		return index;
+	}
+
+	/**
+	 * Checks that the buffer is of the given type.
+	 *
+	 * @param expected The expected type.
+	 *
+	 * @throws IllegalStateException If the type does not match.
+	 */
+	private void checkType(int expected) {
+		if (type != expected)
+			throw new IllegalStateException("Stream " + streamPath + " does not hold samples of type " + expected + ".");
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link SampleBuffer} of every data stream.
+ *
+ * <p>Producers get the buffer of a stream once and keep adding primitive
+ * samples to it. The buffers are periodically flushed to a data point
+ * sender, which is the only moment the data point objects are created.</p>
+ */
+class SampleBuffers {
+
+	// Constants.
+	private final static int DEFAULT_CAPACITY = 4096;
+
+	// Variables.
+	private final ConcurrentHashMap<String, SampleBuffer> buffers = new ConcurrentHashMap<>();
+
+	private final int capacity;
+
+	/**
+	 * Class constructor. Instantiates a new {@code SampleBuffers} with the
+	 * default capacity per stream.
+	 */
+	SampleBuffers() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code SampleBuffers} using the
+	 * given parameters.
+	 *
+	 * @param capacity The number of samples to keep per stream.
+	 */
+	SampleBuffers(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the buffer of the given stream, creating it if needed.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param type The type of the samples.
+	 *
+	 * @return The buffer of the stream.
+	 *
+	 * @throws IllegalStateException If the stream already exists with a
+	 *                               different type.
+	 */
+	SampleBuffer getBuffer(String streamPath, int type) {
+		SampleBuffer buffer = buffers.get(streamPath);
+		if (buffer == null) {
+			SampleBuffer newBuffer = new SampleBuffer(streamPath, type, capacity);
+			buffer = buffers.putIfAbsent(streamPath, newBuffer);
+			if (buffer == null)
+				buffer = newBuffer;
+		}
+		if (buffer.getType() != type)
+			throw new IllegalStateException("Stream " + streamPath + " already exists with another type.");
+		return buffer;
+	}
+
+	/**
+	 * Flushes the samples of all the streams to the given batcher, in lists
+	 * of up to {@link CloudConnectorManager#MAXIMUM_DATA_POINTS} data points
+	 * of the same stream, so each one goes to the lane of its stream.
+	 *
+	 * @param batcher The batcher to upload the data points with.
+	 *
+	 * @return The number of data points flushed.
+	 */
+	int flush(DataPointBatcher batcher) {
+		return flushOlderThan(batcher, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Flushes the samples of the streams whose oldest sample was taken before
+	 * the given time.
+	 *
+	 * @param batcher The batcher to upload the data points with.
+	 * @param timestamp The time limit, in milliseconds.
+	 *
+	 * @return The number of data points flushed.
+	 */
+	int flushOlderThan(DataPointBatcher batcher, long timestamp) {
+		int flushed = 0;
+		for (SampleBuffer buffer : buffers.values()) {
+			if (timestamp != Long.MAX_VALUE && buffer.getOldestTimestamp() >= timestamp)
+				continue;
+			// The batcher merges the lists of the streams of the same lane.
+			while (buffer.size() > 0) {
+				ArrayList<DataPoint> dataPoints = new ArrayList<>(Math.min(buffer.size(),
+						CloudConnectorManager.MAXIMUM_DATA_POINTS));
+				flushed += buffer.drainTo(dataPoints, CloudConnectorManager.MAXIMUM_DATA_POINTS);
+				batcher.sendDataPoints(dataPoints, buffer.getStreamPath());
+			}
+		}
+		return flushed;
+	}
+}
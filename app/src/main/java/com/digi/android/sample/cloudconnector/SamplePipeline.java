@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for the components that produce numeric samples.
+ *
+ * <p>Samples of the streams with an aggregation configured are summarized
+ * by their {@link WindowAggregator}; the rest go through the
+ * {@link DeadbandFilter} and, if they changed enough, are kept in the
+ * {@link SampleBuffers}. Aggregated streams are not filtered, so their
+ * summaries are computed from all the samples. Both are periodically
+ * flushed to the data point batcher, which sends each stream through its
+ * lane.</p>
+ *
+ * <p>Streams can also have an alarm: when a sample rises above the alarm
+ * threshold, a {@code 1} is sent right away to the
+ * {@value #ALARM_PREFIX}{@code <stream>} stream, and a {@code 0} when it
+ * falls back below the threshold minus the hysteresis. Alarms are checked
+ * on every sample, before the aggregation and the filter.</p>
+ */
+class SamplePipeline {
+
+	// Constants.
+	private final static long DEFAULT_FLUSH_INTERVAL = 1000;
+
+	final static String ALARM_PREFIX = "alarms/";
+
+	// Variables.
+	private final DataPointBatcher batcher;
+
+	private final SampleBuffers sampleBuffers = new SampleBuffers();
+
+	private final ConcurrentHashMap<String, WindowAggregator> aggregators = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<String, Alarm> alarms = new ConcurrentHashMap<>();
+
+	private final DeadbandFilter filter = new DeadbandFilter();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	private final long flushInterval;
+
+	/**
+	 * Class constructor. Instantiates a new {@code SamplePipeline} with the
+	 * default flush interval.
+	 *
+	 * @param batcher The batcher to upload the data points with.
+	 */
+	SamplePipeline(DataPointBatcher batcher) {
+		this(batcher, DEFAULT_FLUSH_INTERVAL);
+	}
+
+	/**
+	 * Class constructor. Instantiates a new {@code SamplePipeline} using the
+	 * given parameters.
+	 *
+	 * @param batcher The batcher to upload the data points with.
+	 * @param flushInterval The time between flushes, in milliseconds.
+	 */
+	SamplePipeline(DataPointBatcher batcher, long flushInterval) {
+		this.batcher = batcher;
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Starts flushing the samples periodically.
+	 */
+	void start() {
+		scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					flush();
+				} catch (Exception e) {
+					// Do not let the periodic task die.
+					e.printStackTrace();
+				}
+			}
+		}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Flushes the remaining samples and stops the pipeline.
+	 */
+	void close() {
+		scheduler.shutdownNow();
+		flush();
+	}
+
+	/**
+	 * Configures the given stream to be aggregated in time windows.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param windowLength The length of the windows, in milliseconds.
+	 * @param slide The time between the start of two consecutive windows, in
+	 *              milliseconds. Use the window length for tumbling windows.
+	 */
+	void setAggregation(String streamPath, long windowLength, long slide) {
+		aggregators.put(streamPath, new WindowAggregator(streamPath, windowLength, slide));
+	}
+
+	/**
+	 * Stops aggregating the given stream, so its raw samples are uploaded.
+	 *
+	 * @param streamPath The path of the data stream.
+	 */
+	void removeAggregation(String streamPath) {
+		aggregators.remove(streamPath);
+	}
+
+	/**
+	 * Configures an alarm on the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param threshold The value above which the alarm is raised.
+	 * @param hysteresis The margin below the threshold the value must fall
+	 *                   to clear the alarm.
+	 *
+	 * @throws IllegalArgumentException If the hysteresis is negative.
+	 */
+	void setAlarm(String streamPath, double threshold, double hysteresis) {
+		if (hysteresis < 0)
+			throw new IllegalArgumentException("Hysteresis cannot be negative.");
+		alarms.put(streamPath, new Alarm(ALARM_PREFIX + streamPath, threshold, hysteresis));
+	}
+
+	/**
+	 * Removes the alarm of the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 */
+	void removeAlarm(String streamPath) {
+		alarms.remove(streamPath);
+	}
+
+	/**
+	 * Configures a deadband for the given stream, so its samples are only
+	 * kept when they changed enough. It does not apply if the stream is
+	 * aggregated.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param deadband The minimum change to keep a sample.
+	 * @param percentage {@code true} if the deadband is a percentage of the
+	 *                   last value kept, {@code false} if it is absolute.
+	 * @param heartbeat The maximum time between two samples kept, in
+	 *                  milliseconds, or {@code 0} to disable it.
+	 *
+	 * @throws IllegalArgumentException If the deadband or the heartbeat are
+	 *                                  negative.
+	 */
+	void setDeadband(String streamPath, double deadband, boolean percentage, long heartbeat) {
+		filter.setDeadband(streamPath, deadband, percentage, heartbeat);
+	}
+
+	/**
+	 * Removes the deadband of the given stream, so all its samples are kept.
+	 *
+	 * @param streamPath The path of the data stream.
+	 */
+	void removeDeadband(String streamPath) {
+		filter.remove(streamPath);
+	}
+
+	/**
+	 * Returns the number of samples dropped by the deadbands.
+	 *
+	 * @return The number of suppressed samples.
+	 */
+	long getSuppressedCount() {
+		return filter.getSuppressedCount();
+	}
+
+	/**
+	 * Adds an integer sample to the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the sample.
+	 */
+	void addInt(String streamPath, int value) {
+		long now = System.currentTimeMillis();
+		checkAlarm(streamPath, value);
+		WindowAggregator aggregator = aggregators.get(streamPath);
+		if (aggregator != null)
+			aggregator.add(value, now);
+		else if (filter.accept(streamPath, value, now))
+			sampleBuffers.getBuffer(streamPath, DataPointJournal.TYPE_INTEGER).addInt(value, now);
+	}
+
+	/**
+	 * Adds a long sample to the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the sample.
+	 */
+	void addLong(String streamPath, long value) {
+		long now = System.currentTimeMillis();
+		checkAlarm(streamPath, value);
+		WindowAggregator aggregator = aggregators.get(streamPath);
+		if (aggregator != null)
+			aggregator.add(value, now);
+		else if (filter.accept(streamPath, value, now))
+			sampleBuffers.getBuffer(streamPath, DataPointJournal.TYPE_LONG).addLong(value, now);
+	}
+
+	/**
+	 * Adds a float sample to the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the sample.
+	 */
+	void addFloat(String streamPath, float value) {
+		long now = System.currentTimeMillis();
+		checkAlarm(streamPath, value);
+		WindowAggregator aggregator = aggregators.get(streamPath);
+		if (aggregator != null)
+			aggregator.add(value, now);
+		else if (filter.accept(streamPath, value, now))
+			sampleBuffers.getBuffer(streamPath, DataPointJournal.TYPE_FLOAT).addFloat(value, now);
+	}
+
+	/**
+	 * Adds a double sample to the given stream.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the sample.
+	 */
+	void addDouble(String streamPath, double value) {
+		long now = System.currentTimeMillis();
+		checkAlarm(streamPath, value);
+		WindowAggregator aggregator = aggregators.get(streamPath);
+		if (aggregator != null)
+			aggregator.add(value, now);
+		else if (filter.accept(streamPath, value, now))
+			sampleBuffers.getBuffer(streamPath, DataPointJournal.TYPE_DOUBLE).addDouble(value, now);
+	}
+
+	/**
+	 * Uploads the summaries of the closed windows and the buffered samples.
+	 */
+	void flush() {
+		long now = System.currentTimeMillis();
+		for (WindowAggregator aggregator : aggregators.values()) {
+			ArrayList<DataPoint> summaries = new ArrayList<>();
+			aggregator.advance(now);
+			aggregator.drainSummaries(summaries);
+			for (int i = 0; i < summaries.size(); i += CloudConnectorManager.MAXIMUM_DATA_POINTS)
+				batcher.sendDataPoints(new ArrayList<>(summaries.subList(i, Math.min(summaries.size(),
+						i + CloudConnectorManager.MAXIMUM_DATA_POINTS))), aggregator.getStreamPath());
+		}
+		sampleBuffers.flush(batcher);
+	}
+
+	/**
+	 * Checks the alarm of the given stream with a new sample, sending the
+	 * alarm data point if its state changes.
+	 *
+	 * @param streamPath The path of the data stream.
+	 * @param value The value of the sample.
+	 */
+	private void checkAlarm(String streamPath, double value) {
+		Alarm alarm = alarms.get(streamPath);
+		if (alarm == null)
+			return;
+		int state = alarm.update(value);
+		if (state >= 0)
+			batcher.sendDataPoints(Collections.singletonList(new DataPoint(state, alarm.dataStream)), alarm.streamPath);
+	}
+
+	/**
+	 * Class that holds the configuration and the state of an alarm.
+	 */
+	private static class Alarm {
+		final String streamPath;
+		final DataStream dataStream;
+		final double threshold;
+		final double hysteresis;
+
+		private boolean raised;
+
+		Alarm(String streamPath, double threshold, double hysteresis) {
+			this.streamPath = streamPath;
+			this.dataStream = new DataStream(streamPath);
+			this.threshold = threshold;
+			this.hysteresis = hysteresis;
+		}
+
+		/**
+		 * Updates the state of the alarm with a new sample.
+		 *
+		 * @return {@code 1} if the alarm is raised, {@code 0} if it is
+		 *         cleared, or {@code -1} if its state did not change.
+		 */
+		synchronized int update(double value) {
+			if (!raised && value > threshold) {
+				raised = true;
+				return 1;
+			}
+			if (raised && value < threshold - hysteresis) {
+				raised = false;
+				return 0;
+			}
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of an upload submitted to the {@link AsyncDataPointSender}.
+ *
+ * <p>Callers can either block on {@link #get()} or register an
+ * {@link ISendListener} that is notified when the upload completes. A
+ * failed upload completes {@link #get()} with an {@link ExecutionException}
+ * whose cause is an {@link IOException} with the error message.</p>
+ */
+class SendFuture implements Future<Void> {
+
+	// Variables.
+	private final ArrayList<ISendListener> listeners = new ArrayList<>(1);
+
+	private final long creationTime = System.nanoTime();
+
+	private volatile long sentTime;
+
+	private boolean done;
+
+	private String errorMessage;
+
+	/**
+	 * Registers a listener to be notified when the upload completes. If it is
+	 * already complete, the listener is notified immediately.
+	 *
+	 * @param listener The listener to register.
+	 *
+	 * @return This future.
+	 */
+	SendFuture addListener(ISendListener listener) {
+		synchronized (this) {
+			if (!done) {
+				listeners.add(listener);
+				return this;
+			}
+		}
+		notifyListener(listener);
+		return this;
+	}
+
+	/**
+	 * Returns the time the upload was submitted.
+	 *
+	 * @return The submission time, as given by {@link System#nanoTime()}.
+	 */
+	long getCreationTime() {
+		return creationTime;
+	}
+
+	/**
+	 * Returns the time the upload was handed to the Cloud Connector service.
+	 *
+	 * @return The time the upload was sent, as given by
+	 *         {@link System#nanoTime()}, or {@code 0} if it is still queued.
+	 */
+	long getSentTime() {
+		return sentTime;
+	}
+
+	/**
+	 * Records that the upload has just been handed to the Cloud Connector
+	 * service.
+	 */
+	void markSent() {
+		sentTime = System.nanoTime();
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		// Uploads cannot be cancelled once submitted.
+		return false;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return false;
+	}
+
+	@Override
+	public synchronized boolean isDone() {
+		return done;
+	}
+
+	@Override
+	public synchronized Void get() throws InterruptedException, ExecutionException {
+		while (!done)
+			wait();
+		return result();
+	}
+
+	@Override
+	public synchronized Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (!done) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				throw new TimeoutException();
+			TimeUnit.NANOSECONDS.timedWait(this, remaining);
+		}
+		return result();
+	}
+
+	/**
+	 * Completes the upload successfully.
+	 */
+	void complete() {
+		finish(null);
+	}
+
+	/**
+	 * Completes the upload with an error.
+	 *
+	 * @param errorMessage The error message.
+	 */
+	void fail(String errorMessage) {
+		finish(errorMessage == null ? "Unknown error" : errorMessage);
+	}
+
+	/**
+	 * Completes the upload and notifies the listeners.
+	 *
+	 * @param error The error message, {@code null} if it succeeded.
+	 */
+	private void finish(String error) {
+		ArrayList<ISendListener> toNotify;
+		synchronized (this) {
+			if (done)
+				return;
+			done = true;
+			errorMessage = error;
+			notifyAll();
+			toNotify = new ArrayList<>(listeners);
+			listeners.clear();
+		}
+		for (ISendListener listener : toNotify)
+			notifyListener(listener);
+	}
+
+	/**
+	 * Notifies the result of the upload to the given listener.
+	 *
+	 * @param listener The listener to notify.
+	 */
+	private void notifyListener(ISendListener listener) {
+		if (errorMessage == null)
+			listener.sendSuccess();
+		else
+			listener.sendError(errorMessage);
+	}
+
+	/**
+	 * Returns the result of a completed upload.
+	 *
+	 * @return Always {@code null}.
+	 *
+	 * @throws ExecutionException If the upload failed.
+	 */
+	private Void result() throws ExecutionException {
+		if (errorMessage != null)
+			throw new ExecutionException(new IOException(errorMessage));
+		return null;
+	}
+}
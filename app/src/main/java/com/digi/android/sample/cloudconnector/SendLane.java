@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+/**
+ * Priority lane of the {@link AsyncDataPointSender}.
+ *
+ * <p>Each lane has its own bounded queue, backpressure policy and
+ * statistics. The weight sets the share of the uploads the lane gets when
+ * other lanes are also waiting; the weight of the first lane of a sender is
+ * ignored, as it always goes first.</p>
+ */
+class SendLane {
+
+	// Variables.
+	final String name;
+
+	final int weight;
+
+	final int capacity;
+
+	final AsyncDataPointSender.BackpressurePolicy policy;
+
+	private final SendStatistics statistics = new SendStatistics();
+
+	/**
+	 * Class constructor. Instantiates a new {@code SendLane} using the given
+	 * parameters.
+	 *
+	 * @param name The name of the lane.
+	 * @param weight The relative share of the uploads of the lane.
+	 * @param capacity The maximum number of queued uploads.
+	 * @param policy The policy to apply when the queue is full.
+	 *
+	 * @throws IllegalArgumentException If the weight or the capacity are not
+	 *                                  positive.
+	 */
+	SendLane(String name, int weight, int capacity, AsyncDataPointSender.BackpressurePolicy policy) {
+		if (weight < 1)
+			throw new IllegalArgumentException("Weight must be positive.");
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be positive.");
+
+		this.name = name;
+		this.weight = weight;
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Returns the statistics of the uploads of this lane.
+	 *
+	 * @return The lane statistics.
+	 */
+	SendStatistics getStatistics() {
+		return statistics;
+	}
+}
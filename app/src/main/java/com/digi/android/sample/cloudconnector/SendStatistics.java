@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that collects the statistics of the data point uploads: latency
+ * histograms, counters of points, bytes and results, and the depth of the
+ * upload queue.
+ *
+ * <p>Latencies are recorded in microseconds for three stages: the time an
+ * upload waits in the queue, the time until its result is received, and
+ * the total time from submission to result. Recording is lock-free and
+ * does not allocate. Rates are obtained by comparing two
+ * {@link Snapshot}s.</p>
+ */
+class SendStatistics {
+
+	// Variables.
+	private final LatencyHistogram queueLatency = new LatencyHistogram();
+	private final LatencyHistogram resultLatency = new LatencyHistogram();
+	private final LatencyHistogram totalLatency = new LatencyHistogram();
+
+	private final AtomicLong submittedPoints = new AtomicLong();
+	private final AtomicLong acknowledgedPoints = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicLong successes = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	private volatile int queueDepth;
+	private volatile int inFlight;
+
+	private final long startTime = System.nanoTime();
+
+	/**
+	 * Records that an upload has been submitted.
+	 *
+	 * @param points The number of data points of the upload.
+	 */
+	void recordSubmitted(int points) {
+		submittedPoints.addAndGet(points);
+	}
+
+	/**
+	 * Records that an upload has left the queue.
+	 *
+	 * @param creationTime The submission time, as given by
+	 *                     {@link System#nanoTime()}.
+	 * @param sentTime The time the upload left the queue.
+	 */
+	void recordSent(long creationTime, long sentTime) {
+		queueLatency.record(TimeUnit.NANOSECONDS.toMicros(sentTime - creationTime));
+	}
+
+	/**
+	 * Records that an upload succeeded.
+	 *
+	 * @param points The number of data points of the upload.
+	 * @param creationTime The submission time, as given by
+	 *                     {@link System#nanoTime()}.
+	 * @param sentTime The time the upload left the queue.
+	 */
+	void recordSuccess(int points, long creationTime, long sentTime) {
+		long now = System.nanoTime();
+		acknowledgedPoints.addAndGet(points);
+		successes.incrementAndGet();
+		resultLatency.record(TimeUnit.NANOSECONDS.toMicros(now - sentTime));
+		totalLatency.record(TimeUnit.NANOSECONDS.toMicros(now - creationTime));
+	}
+
+	/**
+	 * Records that an upload failed.
+	 *
+	 * @param dropped {@code true} if the upload was dropped or rejected
+	 *                before being sent, {@code false} otherwise.
+	 */
+	void recordError(boolean dropped) {
+		errors.incrementAndGet();
+		if (dropped)
+			this.dropped.incrementAndGet();
+	}
+
+	/**
+	 * Records that the given number of payload bytes have been handed to
+	 * the uploads.
+	 *
+	 * @param count The number of bytes.
+	 */
+	void recordBytes(long count) {
+		bytes.addAndGet(count);
+	}
+
+	/**
+	 * Updates the number of uploads waiting in the queue and for their
+	 * result.
+	 *
+	 * @param queueDepth The number of queued uploads.
+	 * @param inFlight The number of uploads waiting for their result.
+	 */
+	void setQueueDepth(int queueDepth, int inFlight) {
+		this.queueDepth = queueDepth;
+		this.inFlight = inFlight;
+	}
+
+	/**
+	 * Returns a copy of the current statistics.
+	 *
+	 * @return The snapshot of the statistics.
+	 */
+	Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Immutable copy of the statistics at a given time.
+	 */
+	static class Snapshot {
+		final long time;
+		final long uptime;
+		final LatencyHistogram.Snapshot queueLatency;
+		final LatencyHistogram.Snapshot resultLatency;
+		final LatencyHistogram.Snapshot totalLatency;
+		final long submittedPoints;
+		final long acknowledgedPoints;
+		final long bytes;
+		final long successes;
+		final long errors;
+		final long dropped;
+		final int queueDepth;
+		final int inFlight;
+
+		private Snapshot(SendStatistics statistics) {
+			long now = System.nanoTime();
+			time = System.currentTimeMillis();
+			uptime = TimeUnit.NANOSECONDS.toMillis(now - statistics.startTime);
+			queueLatency = statistics.queueLatency.snapshot();
+			resultLatency = statistics.resultLatency.snapshot();
+			totalLatency = statistics.totalLatency.snapshot();
+			submittedPoints = statistics.submittedPoints.get();
+			acknowledgedPoints = statistics.acknowledgedPoints.get();
+			bytes = statistics.bytes.get();
+			successes = statistics.successes.get();
+			errors = statistics.errors.get();
+			dropped = statistics.dropped.get();
+			queueDepth = statistics.queueDepth;
+			inFlight = statistics.inFlight;
+		}
+
+		/**
+		 * Returns the data points acknowledged per second since the given
+		 * snapshot.
+		 *
+		 * @param previous The previous snapshot.
+		 *
+		 * @return The points per second.
+		 */
+		double getPointsPerSecond(Snapshot previous) {
+			return rate(acknowledgedPoints - previous.acknowledgedPoints, uptime - previous.uptime);
+		}
+
+		/**
+		 * Returns the payload bytes uploaded per second since the given
+		 * snapshot.
+		 *
+		 * @param previous The previous snapshot.
+		 *
+		 * @return The bytes per second.
+		 */
+		double getBytesPerSecond(Snapshot previous) {
+			return rate(bytes - previous.bytes, uptime - previous.uptime);
+		}
+
+		/**
+		 * Returns the fraction of uploads that failed since the given
+		 * snapshot.
+		 *
+		 * @param previous The previous snapshot.
+		 *
+		 * @return The error rate, between 0 and 1.
+		 */
+		double getErrorRate(Snapshot previous) {
+			long failed = errors - previous.errors;
+			long total = failed + successes - previous.successes;
+			return total == 0 ? 0 : (double) failed / total;
+		}
+
+		/**
+		 * Returns the snapshot as a JSON document.
+		 *
+		 * @return The JSON representation of the snapshot.
+		 */
+		String toJson() {
+			return String.format(Locale.US, "{\"time\":%d,\"uptime\":%d,"
+							+ "\"submittedPoints\":%d,\"acknowledgedPoints\":%d,\"bytes\":%d,"
+							+ "\"successes\":%d,\"errors\":%d,\"dropped\":%d,"
+							+ "\"queueDepth\":%d,\"inFlight\":%d,"
+							+ "\"queueLatency\":%s,\"resultLatency\":%s,\"totalLatency\":%s}",
+					time, uptime, submittedPoints, acknowledgedPoints, bytes,
+					successes, errors, dropped, queueDepth, inFlight,
+					toJson(queueLatency), toJson(resultLatency), toJson(totalLatency));
+		}
+
+		private static String toJson(LatencyHistogram.Snapshot histogram) {
+			return String.format(Locale.US, "{\"count\":%d,\"mean\":%.1f,\"p50\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+					histogram.getCount(), histogram.getMean(), histogram.getValueAtPercentile(50),
+					histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+					histogram.getMax());
+		}
+
+		private static double rate(long count, long millis) {
+			return millis <= 0 ? 0 : count * 1000.0 / millis;
+		}
+	}
+}
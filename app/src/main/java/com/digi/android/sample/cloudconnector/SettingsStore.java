@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.concurrent.Executor;
+
+/**
+ * Class that keeps a cached snapshot of the connector settings and saves
+ * them as a whole.
+ *
+ * <p>Settings are read and written from the given executor, never from the
+ * caller thread. Saving writes only the settings that changed with respect
+ * to the snapshot; if any write fails, the settings already written are
+ * restored so the connector is not left with half of the changes.</p>
+ */
+class SettingsStore {
+
+	// Variables.
+	private final CloudConnectorManager connectorManager;
+
+	private final Executor executor;
+
+	private final ISettingsListener listener;
+
+	private volatile ConnectorSettings settings;
+
+	/**
+	 * Class constructor. Instantiates a new {@code SettingsStore} using the
+	 * given parameters.
+	 *
+	 * @param connectorManager The Cloud Connector manager.
+	 * @param executor The executor to read and write the settings from.
+	 * @param listener The listener to notify the changes to.
+	 */
+	SettingsStore(CloudConnectorManager connectorManager, Executor executor, ISettingsListener listener) {
+		this.connectorManager = connectorManager;
+		this.executor = executor;
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the cached settings.
+	 *
+	 * @return The settings snapshot, or {@code null} if they have not been
+	 *         loaded yet.
+	 */
+	ConnectorSettings getSettings() {
+		return settings;
+	}
+
+	/**
+	 * Reads the settings from the connector in the background.
+	 */
+	void load() {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				settings = ConnectorSettings.read(connectorManager);
+				listener.settingsLoaded(settings);
+			}
+		});
+	}
+
+	/**
+	 * Saves the given settings in the background, writing only the ones
+	 * that changed.
+	 *
+	 * @param newSettings The settings to save.
+	 */
+	void save(final ConnectorSettings newSettings) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				ConnectorSettings oldSettings = settings;
+				if (oldSettings == null)
+					oldSettings = ConnectorSettings.read(connectorManager);
+				EnumSet<ConnectorSettings.Key> changed = oldSettings.diff(newSettings);
+				ArrayList<ConnectorSettings.Key> written = new ArrayList<>(changed.size());
+				try {
+					for (ConnectorSettings.Key key : changed) {
+						newSettings.write(connectorManager, key);
+						written.add(key);
+					}
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+					rollback(oldSettings, written);
+					listener.settingsError(e.getMessage());
+					return;
+				}
+				settings = newSettings;
+				listener.settingsSaved(newSettings, changed);
+			}
+		});
+	}
+
+	/**
+	 * Restores the given settings.
+	 *
+	 * @param oldSettings The settings to restore.
+	 * @param written The keys of the settings to restore.
+	 */
+	private void rollback(ConnectorSettings oldSettings, ArrayList<ConnectorSettings.Key> written) {
+		for (ConnectorSettings.Key key : written) {
+			try {
+				oldSettings.write(connectorManager, key);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+class StatisticsDialog {
+
+	// Constants.
+	private final static long REFRESH_INTERVAL = 1000;
+
+	private final static String EXPORT_PREFIX = "statistics-";
+	private final static String EXPORT_EXTENSION = ".json";
+
+	// Variables.
+	private final Context context;
+
+	private final SendStatistics statistics;
+
+	private final SendLane[] lanes;
+
+	private final BandwidthGovernor governor;
+
+	private final TelemetryCollector collector;
+
+	private final File exportDirectory;
+
+	private final Executor executor;
+
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	private View statisticsDialogView;
+
+	private AlertDialog statisticsDialog;
+
+	private TextView statisticsText;
+
+	private SendStatistics.Snapshot previousSnapshot;
+
+	private final Runnable refreshTask = new Runnable() {
+		@Override
+		public void run() {
+			refresh();
+			mainHandler.postDelayed(this, REFRESH_INTERVAL);
+		}
+	};
+
+	/**
+	 * Class constructor. Instantiates a new {@code StatisticsDialog} using the given parameters.
+	 *
+	 * @param context The Android application context.
+	 * @param statistics The upload statistics to display.
+	 * @param lanes The lanes of the uploads to display.
+	 * @param governor The bandwidth governor to display the budget of, or
+	 *                 {@code null}.
+	 * @param collector The telemetry collector to display the sampling
+	 *                  jitter of.
+	 * @param exportDirectory The directory to export the snapshots to.
+	 * @param executor The executor to export the snapshots from.
+	 */
+	StatisticsDialog(Context context, SendStatistics statistics, SendLane[] lanes, BandwidthGovernor governor,
+			TelemetryCollector collector, File exportDirectory, Executor executor) {
+		this.context = context;
+		this.statistics = statistics;
+		this.lanes = lanes;
+		this.governor = governor;
+		this.collector = collector;
+		this.exportDirectory = exportDirectory;
+		this.executor = executor;
+
+		// Setup the layout.
+		LayoutInflater layoutInflater = LayoutInflater.from(context);
+		statisticsDialogView = layoutInflater.inflate(R.layout.statistics_dialog, null);
+		statisticsText = statisticsDialogView.findViewById(R.id.statistics_text);
+	}
+
+	/**
+	 * Displays the statistics dialog, refreshing it every second until it is
+	 * closed.
+	 */
+	void show() {
+		createDialog();
+
+		startRefreshing();
+		statisticsDialog.show();
+
+		// Export without closing the dialog.
+		statisticsDialog.getButton(AlertDialog.BUTTON_NEUTRAL).setOnClickListener(new View.OnClickListener() {
+			@Override
+			public void onClick(View v) {
+				export();
+			}
+		});
+	}
+
+	/**
+	 * Creates the alert dialog that will be displayed.
+	 */
+	private void createDialog() {
+		AlertDialog.Builder alertDialogBuilder = new AlertDialog.Builder(context);
+		alertDialogBuilder.setView(statisticsDialogView);
+		alertDialogBuilder.setTitle(R.string.title_statistics);
+		alertDialogBuilder.setNeutralButton(R.string.button_export, null);
+		alertDialogBuilder.setNegativeButton(R.string.button_close, new DialogInterface.OnClickListener() {
+			@Override
+			public void onClick(DialogInterface dialog, int id) {
+				dialog.cancel();
+			}
+		});
+		statisticsDialog = alertDialogBuilder.create();
+		statisticsDialog.setOnDismissListener(new DialogInterface.OnDismissListener() {
+			@Override
+			public void onDismiss(DialogInterface dialog) {
+				mainHandler.removeCallbacks(refreshTask);
+			}
+		});
+	}
+
+	/**
+	 * Starts refreshing the statistics periodically.
+	 */
+	private void startRefreshing() {
+		previousSnapshot = statistics.snapshot();
+		mainHandler.removeCallbacks(refreshTask);
+		refreshTask.run();
+	}
+
+	/**
+	 * Displays the current statistics and the rates since the last refresh.
+	 */
+	private void refresh() {
+		SendStatistics.Snapshot snapshot = statistics.snapshot();
+		statisticsText.setText(String.format(Locale.getDefault(),
+				"Points/s: %.1f\nKB/s: %.2f\nError rate: %.1f%%\n"
+						+ "Queue depth: %d\nIn flight: %d\n\n"
+						+ "Points: %d submitted, %d acknowledged\n"
+						+ "Uploads: %d succeeded, %d failed, %d dropped\n\n"
+						+ "%s\n%s\n%s\n\n%s%s"
+						+ "Telemetry: %d samples, %d failed, %d skipped, %d suppressed\n%s",
+				snapshot.getPointsPerSecond(previousSnapshot),
+				snapshot.getBytesPerSecond(previousSnapshot) / 1024,
+				snapshot.getErrorRate(previousSnapshot) * 100,
+				snapshot.queueDepth, snapshot.inFlight,
+				snapshot.submittedPoints, snapshot.acknowledgedPoints,
+				snapshot.successes, snapshot.errors, snapshot.dropped,
+				formatLatency("Queue", snapshot.queueLatency),
+				formatLatency("Result", snapshot.resultLatency),
+				formatLatency("Total", snapshot.totalLatency),
+				formatLanes(),
+				formatBudget(),
+				collector.getSampleCount(), collector.getErrorCount(), collector.getSkippedCount(),
+				collector.getSuppressedCount(),
+				formatLatency("Sampling", collector.getJitter())));
+		previousSnapshot = snapshot;
+	}
+
+	/**
+	 * Exports a snapshot of the statistics as a JSON file.
+	 */
+	private void export() {
+		final SendStatistics.Snapshot snapshot = statistics.snapshot();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				File file = new File(exportDirectory, EXPORT_PREFIX + snapshot.time + EXPORT_EXTENSION);
+				String message;
+				OutputStream out = null;
+				try {
+					if (!exportDirectory.isDirectory() && !exportDirectory.mkdirs())
+						throw new IOException("Cannot create directory " + exportDirectory);
+					out = new FileOutputStream(file);
+					out.write(snapshot.toJson().getBytes("UTF-8"));
+					message = "Statistics exported to " + file.getAbsolutePath();
+				} catch (IOException e) {
+					e.printStackTrace();
+					message = "Error exporting statistics: " + e.getMessage();
+				} finally {
+					if (out != null) {
+						try {
+							out.close();
+						} catch (IOException e) {
+							e.printStackTrace();
+						}
+					}
+				}
+				final String toast = message;
+				mainHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						Toast.makeText(context, toast, Toast.LENGTH_LONG).show();
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Formats the queue depth, drops, total latency and bandwidth limit of
+	 * each lane.
+	 *
+	 * @return The formatted lanes, or an empty string if there is only one.
+	 */
+	private String formatLanes() {
+		if (lanes.length < 2)
+			return "";
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < lanes.length; i++) {
+			SendStatistics.Snapshot snapshot = lanes[i].getStatistics().snapshot();
+			text.append(String.format(Locale.getDefault(),
+					"%s: %d queued, %d in flight, %d dropped, p99 %.1f ms",
+					lanes[i].name, snapshot.queueDepth, snapshot.inFlight, snapshot.dropped,
+					snapshot.totalLatency.getValueAtPercentile(99) / 1000.0));
+			double limit = governor != null ? governor.getDataPointLimit(i) : 0;
+			if (limit > 0)
+				text.append(String.format(Locale.getDefault(), ", limit %.0f points/s", limit));
+			text.append('\n');
+		}
+		return text.append('\n').toString();
+	}
+
+	/**
+	 * Formats the bandwidth budget used in the current period.
+	 *
+	 * @return The formatted budget, or an empty string if there is none.
+	 */
+	private String formatBudget() {
+		if (governor == null || governor.getBudget() == 0)
+			return "";
+		return String.format(Locale.getDefault(),
+				"Budget: %.1f of %.1f MB (%s)\nBinaries deferred: %d, uploads throttled: %d\n\n",
+				governor.getUsedBytes() / (1024.0 * 1024), governor.getBudget() / (1024.0 * 1024),
+				governor.getLevel().name().toLowerCase(Locale.US), governor.getDeferredCount(),
+				governor.getThrottledCount());
+	}
+
+	/**
+	 * Formats the percentiles of a latency histogram in milliseconds.
+	 *
+	 * @param name The name of the latency.
+	 * @param histogram The latency histogram.
+	 *
+	 * @return The formatted latency.
+	 */
+	private static String formatLatency(String name, LatencyHistogram.Snapshot histogram) {
+		return String.format(Locale.getDefault(), "%s latency (ms): p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+				name, histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0);
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link StreamSchema} of every data stream.
+ *
+ * <p>Each stream is declared once with its type, units and bounds, and the
+ * returned schema is kept by the producer as the handle to send data points
+ * to the stream.</p>
+ */
+class StreamRegistry {
+
+	// Variables.
+	private final ConcurrentHashMap<String, StreamSchema> schemas = new ConcurrentHashMap<>();
+
+	/**
+	 * Declares a stream without bounds.
+	 *
+	 * @param path The path of the data stream.
+	 * @param type The type of the data points, one of the
+	 *             {@code DataPointJournal.TYPE_} constants.
+	 *
+	 * @return The schema of the stream.
+	 *
+	 * @throws IllegalStateException If the stream already exists with a
+	 *                               different type.
+	 */
+	StreamSchema register(String path, int type) {
+		return register(path, type, null, getMinimum(type), getMaximum(type));
+	}
+
+	/**
+	 * Declares a stream, returning the existing schema if it was already
+	 * declared with the same type.
+	 *
+	 * @param path The path of the data stream.
+	 * @param type The type of the data points, one of the
+	 *             {@code DataPointJournal.TYPE_} constants.
+	 * @param units The units of the values, {@code null} if they have none.
+	 * @param minimum The minimum valid value, for numeric types.
+	 * @param maximum The maximum valid value, for numeric types.
+	 *
+	 * @return The schema of the stream.
+	 *
+	 * @throws IllegalArgumentException If the bounds are not valid.
+	 * @throws IllegalStateException If the stream already exists with a
+	 *                               different type.
+	 */
+	StreamSchema register(String path, int type, String units, double minimum, double maximum) {
+		if (minimum > maximum)
+			throw new IllegalArgumentException("Minimum cannot be greater than maximum.");
+		StreamSchema schema = schemas.get(path);
+		if (schema == null) {
+			StreamSchema newSchema = new StreamSchema(path, type, units, minimum, maximum);
+			schema = schemas.putIfAbsent(path, newSchema);
+			if (schema == null)
+				schema = newSchema;
+		}
+		if (schema.type != type)
+			throw new IllegalStateException("Stream " + path + " already exists with another type.");
+		return schema;
+	}
+
+	/**
+	 * Returns the schema of the given stream.
+	 *
+	 * @param path The path of the data stream.
+	 *
+	 * @return The schema of the stream, {@code null} if it was not declared.
+	 */
+	StreamSchema get(String path) {
+		return schemas.get(path);
+	}
+
+	/**
+	 * Returns the minimum value that can be represented by the given type.
+	 *
+	 * @param type The type of the data points.
+	 *
+	 * @return The minimum value.
+	 */
+	private static double getMinimum(int type) {
+		switch (type) {
+			case DataPointJournal.TYPE_INTEGER:
+				return Integer.MIN_VALUE;
+			case DataPointJournal.TYPE_LONG:
+				return Long.MIN_VALUE;
+			case DataPointJournal.TYPE_FLOAT:
+				return -Float.MAX_VALUE;
+			default:
+				return -Double.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Returns the maximum value that can be represented by the given type.
+	 *
+	 * @param type The type of the data points.
+	 *
+	 * @return The maximum value.
+	 */
+	private static double getMaximum(int type) {
+		switch (type) {
+			case DataPointJournal.TYPE_INTEGER:
+				return Integer.MAX_VALUE;
+			case DataPointJournal.TYPE_LONG:
+				return Long.MAX_VALUE;
+			case DataPointJournal.TYPE_FLOAT:
+				return Float.MAX_VALUE;
+			default:
+				return Double.MAX_VALUE;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.DataStream;
+
+import java.nio.charset.Charset;
+
+/**
+ * Declared schema of a data stream: its type, units and bounds.
+ *
+ * <p>Schemas are created by the {@link StreamRegistry} once per stream and
+ * used as handles to send data points to it: the data stream object and the
+ * encoded path are built once, so sends do not look up nor create anything
+ * per sample.</p>
+ */
+class StreamSchema {
+
+	// Constants.
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	// Variables.
+	final String path;
+
+	final int type;
+
+	final String units;
+
+	final double minimum;
+	final double maximum;
+
+	private final DataStream dataStream;
+
+	private final byte[] encodedPath;
+
+	/**
+	 * Class constructor. Instantiates a new {@code StreamSchema} using the
+	 * given parameters.
+	 *
+	 * @param path The path of the data stream.
+	 * @param type The type of the data points, one of the
+	 *             {@code DataPointJournal.TYPE_} constants.
+	 * @param units The units of the values, {@code null} if they have none.
+	 * @param minimum The minimum valid value, for numeric types.
+	 * @param maximum The maximum valid value, for numeric types.
+	 */
+	StreamSchema(String path, int type, String units, double minimum, double maximum) {
+		this.path = path;
+		this.type = type;
+		this.units = units;
+		this.minimum = minimum;
+		this.maximum = maximum;
+		dataStream = new DataStream(path);
+		encodedPath = path.getBytes(UTF_8);
+	}
+
+	/**
+	 * Returns the data stream of the schema.
+	 *
+	 * @return The data stream.
+	 */
+	DataStream getDataStream() {
+		return dataStream;
+	}
+
+	/**
+	 * Returns the path of the data stream encoded in UTF-8.
+	 *
+	 * @return The encoded path. Must not be modified.
+	 */
+	byte[] getEncodedPath() {
+		return encodedPath;
+	}
+
+	/**
+	 * Returns whether the values of the stream are numeric.
+	 *
+	 * @return {@code true} if the values are numeric, {@code false}
+	 *         otherwise.
+	 */
+	boolean isNumeric() {
+		return type == DataPointJournal.TYPE_INTEGER || type == DataPointJournal.TYPE_LONG
+				|| type == DataPointJournal.TYPE_FLOAT || type == DataPointJournal.TYPE_DOUBLE;
+	}
+
+	/**
+	 * Parses the given text as a value of the stream and checks that it is
+	 * within its bounds.
+	 *
+	 * @param value The text to parse.
+	 *
+	 * @return The value, an {@code Integer}, {@code Long}, {@code Float} or
+	 *         {@code Double} depending on the type of the stream.
+	 *
+	 * @throws IllegalArgumentException If the text is not a valid value.
+	 * @throws IllegalStateException If the stream is not numeric.
+	 */
+	Number parse(String value) {
+		Number number;
+		String text = value.trim();
+		try {
+			switch (type) {
+				case DataPointJournal.TYPE_INTEGER:
+				case DataPointJournal.TYPE_LONG:
+					number = Long.parseLong(text);
+					break;
+				case DataPointJournal.TYPE_FLOAT:
+				case DataPointJournal.TYPE_DOUBLE:
+					number = Double.parseDouble(text);
+					break;
+				default:
+					throw new IllegalStateException("Stream " + path + " is not numeric.");
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Value is not valid for the specified type.");
+		}
+		// Also rejects NaN.
+		if (!(number.doubleValue() >= minimum && number.doubleValue() <= maximum))
+			throw new IllegalArgumentException("Value must be between " + formatBound(minimum)
+					+ " and " + formatBound(maximum) + (units == null ? "" : " " + units) + ".");
+		switch (type) {
+			case DataPointJournal.TYPE_INTEGER:
+				return number.intValue();
+			case DataPointJournal.TYPE_FLOAT:
+				return number.floatValue();
+			default:
+				return number;
+		}
+	}
+
+	/**
+	 * Formats the given bound, without decimals if it is integral.
+	 *
+	 * @param bound The bound to format.
+	 *
+	 * @return The formatted bound.
+	 */
+	private String formatBound(double bound) {
+		if (type == DataPointJournal.TYPE_INTEGER || type == DataPointJournal.TYPE_LONG)
+			return Long.toString((long) bound);
+		return Double.toString(bound);
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples a set of {@link ITelemetrySource}s, each one at its own rate, and
+ * adds their values to a {@link SamplePipeline}.
+ *
+ * <p>All the sources share a single scheduler thread. Each sample is
+ * scheduled at the nominal time of its source, computed from the start time
+ * and the interval instead of from the previous sample, so delays do not
+ * accumulate; if a source falls more than one interval behind, the missed
+ * samples are skipped instead of run back to back. The delay between the
+ * nominal and the actual time of every sample is recorded as the
+ * scheduling jitter.</p>
+ */
+class TelemetryCollector {
+
+	// Constants.
+	private final static long CLOSE_TIMEOUT = 1000;
+
+	// Variables.
+	private final SamplePipeline pipeline;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	// Only accessed from the scheduler thread.
+	private final ArrayList<Task> tasks = new ArrayList<>();
+
+	private final LatencyHistogram jitter = new LatencyHistogram();
+
+	private final AtomicLong sampleCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicLong skippedCount = new AtomicLong();
+
+	/**
+	 * Class constructor. Instantiates a new {@code TelemetryCollector} using
+	 * the given parameters.
+	 *
+	 * @param pipeline The pipeline to add the samples to.
+	 */
+	TelemetryCollector(SamplePipeline pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	/**
+	 * Starts sampling the given source. The first sample is taken
+	 * immediately.
+	 *
+	 * @param source The source to sample.
+	 * @param interval The time between samples, in milliseconds.
+	 *
+	 * @throws IllegalArgumentException If the interval is not positive.
+	 */
+	void addSource(final ITelemetrySource source, long interval) {
+		if (interval <= 0)
+			throw new IllegalArgumentException("Interval must be positive");
+		final Task task = new Task(source, TimeUnit.MILLISECONDS.toNanos(interval));
+		execute(new Runnable() {
+			@Override
+			public void run() {
+				tasks.add(task);
+				task.nextTime = System.nanoTime();
+				task.schedule();
+			}
+		});
+	}
+
+	/**
+	 * Stops sampling the given source and closes it.
+	 *
+	 * @param source The source to remove.
+	 */
+	void removeSource(final ITelemetrySource source) {
+		execute(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < tasks.size(); i++) {
+					Task task = tasks.get(i);
+					if (task.source == source) {
+						tasks.remove(i);
+						task.cancel();
+						return;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stops sampling and closes all the sources.
+	 */
+	void close() {
+		scheduler.shutdownNow();
+		try {
+			if (!scheduler.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS))
+				return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		// The scheduler thread is gone, so the tasks can be accessed here.
+		for (Task task : tasks)
+			task.source.close();
+		tasks.clear();
+	}
+
+	/**
+	 * Returns a snapshot of the scheduling jitter, the delay between the
+	 * nominal and the actual time of the samples, in microseconds.
+	 *
+	 * @return The scheduling jitter.
+	 */
+	LatencyHistogram.Snapshot getJitter() {
+		return jitter.snapshot();
+	}
+
+	/**
+	 * Returns the number of samples taken successfully.
+	 *
+	 * @return The number of samples.
+	 */
+	long getSampleCount() {
+		return sampleCount.get();
+	}
+
+	/**
+	 * Returns the number of samples that failed.
+	 *
+	 * @return The number of failed samples.
+	 */
+	long getErrorCount() {
+		return errorCount.get();
+	}
+
+	/**
+	 * Returns the number of samples skipped because their source fell more
+	 * than one interval behind.
+	 *
+	 * @return The number of skipped samples.
+	 */
+	long getSkippedCount() {
+		return skippedCount.get();
+	}
+
+	/**
+	 * Returns the number of samples the pipeline dropped because they did
+	 * not change enough.
+	 *
+	 * @return The number of suppressed samples.
+	 */
+	long getSuppressedCount() {
+		return pipeline.getSuppressedCount();
+	}
+
+	/**
+	 * Runs the given runnable in the scheduler thread, ignoring it if the
+	 * collector is closed.
+	 *
+	 * @param runnable The runnable to execute.
+	 */
+	private void execute(Runnable runnable) {
+		try {
+			scheduler.execute(runnable);
+		} catch (RejectedExecutionException e) {
+			// Closed.
+		}
+	}
+
+	/**
+	 * Periodic sampling of a single source.
+	 */
+	private class Task implements Runnable {
+
+		// Variables.
+		private final ITelemetrySource source;
+
+		private final long interval;
+
+		private long nextTime;
+
+		private ScheduledFuture<?> future;
+
+		private boolean failing;
+
+		private boolean cancelled;
+
+		/**
+		 * Class constructor. Instantiates a new {@code Task} using the given
+		 * parameters.
+		 *
+		 * @param source The source to sample.
+		 * @param interval The time between samples, in nanoseconds.
+		 */
+		Task(ITelemetrySource source, long interval) {
+			this.source = source;
+			this.interval = interval;
+		}
+
+		@Override
+		public void run() {
+			if (cancelled)
+				return;
+			long now = System.nanoTime();
+			jitter.record(TimeUnit.NANOSECONDS.toMicros(Math.max(0, now - nextTime)));
+			try {
+				source.sample(pipeline);
+				sampleCount.incrementAndGet();
+				failing = false;
+			} catch (Exception e) {
+				errorCount.incrementAndGet();
+				// Report only the first of a series of failures.
+				if (!failing)
+					e.printStackTrace();
+				failing = true;
+			}
+
+			nextTime += interval;
+			now = System.nanoTime();
+			if (nextTime <= now) {
+				long missed = (now - nextTime) / interval + 1;
+				skippedCount.addAndGet(missed);
+				nextTime += missed * interval;
+			}
+			schedule();
+		}
+
+		/**
+		 * Schedules the next sample at its nominal time.
+		 */
+		void schedule() {
+			try {
+				future = scheduler.schedule(this, nextTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+			} catch (RejectedExecutionException e) {
+				// Closed.
+			}
+		}
+
+		/**
+		 * Stops sampling the source and closes it.
+		 */
+		void cancel() {
+			cancelled = true;
+			if (future != null)
+				future.cancel(false);
+			source.close();
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates the numeric samples of a data stream in time windows,
+ * producing summary data points (minimum, maximum, mean, count and last
+ * value) instead of the raw values.
+ *
+ * <p>Both tumbling windows (slide equal to the window length) and sliding
+ * windows are supported. The window is split in panes of the slide length
+ * that keep partial aggregates, so adding a sample is O(1) and closing a
+ * window only combines the panes. Summaries are written to the
+ * {@code MIN}, {@code MAX}, {@code MEAN}, {@code COUNT} and {@code LAST}
+ * sub-streams of the stream, stamped with the end of their window.</p>
+ */
+class WindowAggregator {
+
+	// Constants.
+	private final static String STREAM_MIN = "/MIN";
+	private final static String STREAM_MAX = "/MAX";
+	private final static String STREAM_MEAN = "/MEAN";
+	private final static String STREAM_COUNT = "/COUNT";
+	private final static String STREAM_LAST = "/LAST";
+
+	// Variables.
+	private final String streamPath;
+
+	private final long windowLength;
+	private final long slide;
+
+	private final DataStream minStream;
+	private final DataStream maxStream;
+	private final DataStream meanStream;
+	private final DataStream countStream;
+	private final DataStream lastStream;
+
+	private final double[] paneMin;
+	private final double[] paneMax;
+	private final double[] paneSum;
+	private final int[] paneCount;
+
+	private final ArrayList<DataPoint> summaries = new ArrayList<>();
+
+	private int currentPane;
+
+	private long currentPaneStart = -1;
+
+	private double last;
+
+	/**
+	 * Class constructor. Instantiates a new {@code WindowAggregator} using the
+	 * given parameters.
+	 *
+	 * @param streamPath The path of the aggregated data stream.
+	 * @param windowLength The length of the windows, in milliseconds.
+	 * @param slide The time between the start of two consecutive windows, in
+	 *              milliseconds. Use the window length for tumbling windows.
+	 *
+	 * @throws IllegalArgumentException If the window length is not a
+	 *                                  positive multiple of the slide.
+	 */
+	WindowAggregator(String streamPath, long windowLength, long slide) {
+		if (slide <= 0 || windowLength < slide || windowLength % slide != 0)
+			throw new IllegalArgumentException("Window length must be a positive multiple of the slide.");
+
+		this.streamPath = streamPath;
+		this.windowLength = windowLength;
+		this.slide = slide;
+
+		minStream = new DataStream(streamPath + STREAM_MIN);
+		maxStream = new DataStream(streamPath + STREAM_MAX);
+		meanStream = new DataStream(streamPath + STREAM_MEAN);
+		countStream = new DataStream(streamPath + STREAM_COUNT);
+		lastStream = new DataStream(streamPath + STREAM_LAST);
+
+		int panes = (int) (windowLength / slide);
+		paneMin = new double[panes];
+		paneMax = new double[panes];
+		paneSum = new double[panes];
+		paneCount = new int[panes];
+	}
+
+	/**
+	 * Adds a sample to the current window.
+	 *
+	 * @param value The value of the sample.
+	 * @param timestamp The time of the sample, in milliseconds.
+	 */
+	synchronized void add(double value, long timestamp) {
+		advance(timestamp);
+		int pane = currentPane;
+		if (paneCount[pane] == 0) {
+			paneMin[pane] = value;
+			paneMax[pane] = value;
+		} else {
+			if (value < paneMin[pane])
+				paneMin[pane] = value;
+			if (value > paneMax[pane])
+				paneMax[pane] = value;
+		}
+		paneSum[pane] += value;
+		paneCount[pane]++;
+		last = value;
+	}
+
+	/**
+	 * Closes the windows that ended before the given time.
+	 *
+	 * @param timestamp The current time, in milliseconds.
+	 */
+	synchronized void advance(long timestamp) {
+		if (currentPaneStart < 0) {
+			currentPaneStart = timestamp - timestamp % slide;
+			return;
+		}
+		int closed = 0;
+		while (timestamp >= currentPaneStart + slide) {
+			if (closed == paneCount.length) {
+				// All the panes are empty, skip the rest of the gap at once.
+				currentPaneStart = timestamp - timestamp % slide;
+				break;
+			}
+			emit();
+			currentPane = (currentPane + 1) % paneCount.length;
+			clearPane(currentPane);
+			currentPaneStart += slide;
+			closed++;
+		}
+	}
+
+	/**
+	 * Moves the summaries of the closed windows to the given list.
+	 *
+	 * @param dataPoints The list to add the summary data points to.
+	 */
+	synchronized void drainSummaries(List<DataPoint> dataPoints) {
+		dataPoints.addAll(summaries);
+		summaries.clear();
+	}
+
+	/**
+	 * Returns the path of the aggregated data stream.
+	 *
+	 * @return The data stream path.
+	 */
+	String getStreamPath() {
+		return streamPath;
+	}
+
+	/**
+	 * Generates the summary of the panes in the window, if the window has
+	 * any sample.
+	 */
+	private void emit() {
+		int count = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		double sum = 0;
+		for (int i = 0; i < paneCount.length; i++) {
+			if (paneCount[i] == 0)
+				continue;
+			count += paneCount[i];
+			sum += paneSum[i];
+			min = Math.min(min, paneMin[i]);
+			max = Math.max(max, paneMax[i]);
+		}
+		if (count == 0)
+			return;
+		long end = currentPaneStart + slide;
+		addSummary(new DataPoint(min, minStream), end);
+		addSummary(new DataPoint(max, maxStream), end);
+		addSummary(new DataPoint(sum / count, meanStream), end);
+		addSummary(new DataPoint(count, countStream), end);
+		addSummary(new DataPoint(last, lastStream), end);
+	}
+
+	/**
+	 * Adds a summary data point with the end time of its window.
+	 *
+	 * @param dataPoint The summary data point.
+	 * @param timestamp The end of the window, in milliseconds.
+	 */
+	private void addSummary(DataPoint dataPoint, long timestamp) {
+		dataPoint.setTimestamp(timestamp);
+		summaries.add(dataPoint);
+	}
+
+	/**
+	 * Clears the partial aggregates of the given pane.
+	 *
+	 * @param pane The index of the pane.
+	 */
+	private void clearPane(int pane) {
+		paneSum[pane] = 0;
+		paneCount[pane] = 0;
+	}
+}
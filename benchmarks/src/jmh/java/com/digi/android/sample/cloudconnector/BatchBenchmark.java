@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the construction of a full batch of data points from numeric
+ * samples: directly, through the columnar {@link SampleBuffer}, through
+ * a buffer of boxed samples and from the text typed in the data point
+ * dialog.
+ */
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+	// Constants.
+	private final static int BATCH_SIZE = CloudConnectorManager.MAXIMUM_DATA_POINTS;
+
+	private final static String STREAM_PATH = "BENCHMARK/DOUBLE";
+	private final static String TEXT_STREAM_PATH = "BENCHMARK/INTEGER";
+
+	// Variables.
+	private final double[] values = new double[BATCH_SIZE];
+
+	private final String[] texts = new String[BATCH_SIZE];
+
+	private final DataStream dataStream = new DataStream(STREAM_PATH);
+	private final DataStream textDataStream = new DataStream(TEXT_STREAM_PATH);
+
+	private final List<DataPoint> batch = new ArrayList<>(BATCH_SIZE);
+
+	private final ArrayDeque<Double> boxedValues = new ArrayDeque<>(BATCH_SIZE);
+	private final ArrayDeque<Long> boxedTimestamps = new ArrayDeque<>(BATCH_SIZE);
+
+	private SampleBuffer sampleBuffer;
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			values[i] = i * 0.5;
+			texts[i] = String.valueOf(i * 7);
+		}
+		sampleBuffer = new SampleBuffer(STREAM_PATH, DataPointJournal.TYPE_DOUBLE, BATCH_SIZE);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<DataPoint> direct() {
+		batch.clear();
+		for (double value : values)
+			batch.add(new DataPoint(value, dataStream));
+		return batch;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<DataPoint> columnarBuffer() {
+		batch.clear();
+		for (int i = 0; i < BATCH_SIZE; i++)
+			sampleBuffer.addDouble(values[i], i);
+		sampleBuffer.drainTo(batch, BATCH_SIZE);
+		return batch;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<DataPoint> boxedBuffer() {
+		batch.clear();
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			boxedValues.addLast(values[i]);
+			boxedTimestamps.addLast((long) i);
+		}
+		while (!boxedValues.isEmpty()) {
+			boxedTimestamps.pollFirst();
+			batch.add(new DataPoint(boxedValues.pollFirst(), dataStream));
+		}
+		return batch;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<DataPoint> parsedText() {
+		batch.clear();
+		for (String text : texts)
+			batch.add(new DataPoint(Integer.parseInt(text), textDataStream));
+		return batch;
+	}
+}
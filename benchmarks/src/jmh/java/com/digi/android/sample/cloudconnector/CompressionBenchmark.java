@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmarks the compression of file chunks by the {@link PayloadCompressor}
+ * with compression always off, always on and adaptive, on telemetry text,
+ * on already compressed data (random bytes) and on a mix of both.
+ *
+ * <p>The time per chunk is the CPU cost; the {@code inputBytes} and
+ * {@code outputBytes} counters give the bytes that would go through the
+ * link.</p>
+ */
+@State(Scope.Thread)
+public class CompressionBenchmark {
+
+	// Constants.
+	private final static int CHUNK_SIZE = FileUploader.DEFAULT_CHUNK_SIZE;
+	private final static int HEADER_SIZE = 17;
+
+	/**
+	 * Bytes before and after the compression.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Bytes {
+		public long inputBytes;
+		public long outputBytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			inputBytes = 0;
+			outputBytes = 0;
+		}
+	}
+
+	// Variables.
+	@Param({"OFF", "ON", "ADAPTIVE"})
+	public String mode;
+
+	@Param({"telemetry", "compressed", "mixed"})
+	public String payload;
+
+	private PayloadCompressor compressor;
+
+	private byte[] text;
+	private byte[] random;
+
+	private int count;
+
+	@Setup
+	public void setup() {
+		compressor = new PayloadCompressor(PayloadCompressor.Mode.valueOf(mode), PayloadCompressor.DEFAULT_LINK_RATE);
+
+		Random generator = new Random(1);
+		StringBuilder builder = new StringBuilder();
+		long time = 1700000000000L;
+		while (builder.length() < CHUNK_SIZE) {
+			time += 1000 + generator.nextInt(10);
+			builder.append(String.format(Locale.US, "%d,system/load,%.2f\n", time, generator.nextDouble() * 4));
+		}
+		text = new byte[HEADER_SIZE + CHUNK_SIZE];
+		byte[] encoded = builder.toString().getBytes(Charset.forName("US-ASCII"));
+		System.arraycopy(encoded, 0, text, HEADER_SIZE, CHUNK_SIZE);
+
+		random = new byte[HEADER_SIZE + CHUNK_SIZE];
+		generator.nextBytes(random);
+	}
+
+	@TearDown
+	public void tearDown() {
+		compressor.close();
+	}
+
+	@Benchmark
+	public byte[] compressChunk(Bytes bytes) {
+		boolean compressed = payload.equals("compressed") || (payload.equals("mixed") && (count++ & 1) == 1);
+		byte[] chunk = compressed ? random : text;
+		byte[] result = compressor.compress(compressed ? "jpg" : "csv", chunk, HEADER_SIZE, CHUNK_SIZE, HEADER_SIZE);
+		bytes.inputBytes += CHUNK_SIZE;
+		bytes.outputBytes += result == null ? CHUNK_SIZE : result.length - HEADER_SIZE;
+		return result;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks the dispatch of upload results to the {@link SendFuture}
+ * listeners, the dispatch of device requests and the recording of
+ * latencies.
+ */
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+	// Constants.
+	private final static String TARGET = "benchmark";
+	private final static String PAYLOAD = "payload";
+
+	// Variables.
+	@Param({"1", "4"})
+	public int listenerCount;
+
+	private final ISendListener listener = new ISendListener() {
+		@Override
+		public void sendSuccess() {
+		}
+
+		@Override
+		public void sendError(String errorMessage) {
+		}
+	};
+
+	private final IDeviceRequestListener handler = new IDeviceRequestListener() {
+		@Override
+		public String handleDeviceRequest(String target, byte[] data) {
+			return "OK";
+		}
+
+		@Override
+		public String handleDeviceRequest(String target, String data) {
+			return "OK";
+		}
+	};
+
+	private DeviceRequestDispatcher dispatcher;
+
+	private CachingRequestHandler cachingHandler;
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	private long latency;
+
+	@Setup
+	public void setup() {
+		dispatcher = new DeviceRequestDispatcher(2, 16);
+		dispatcher.registerHandler(TARGET, handler, 16, 1000);
+		cachingHandler = new CachingRequestHandler(handler, 60000, 64);
+	}
+
+	@TearDown
+	public void tearDown() {
+		dispatcher.close();
+	}
+
+	@Benchmark
+	public SendFuture completeFuture() {
+		SendFuture future = new SendFuture();
+		for (int i = 0; i < listenerCount; i++)
+			future.addListener(listener);
+		future.complete();
+		return future;
+	}
+
+	@Benchmark
+	public String dispatchDeviceRequest() {
+		return dispatcher.handleDeviceRequest(TARGET, PAYLOAD);
+	}
+
+	@Benchmark
+	public String cachedDeviceRequest() {
+		return cachingHandler.handleDeviceRequest(TARGET, PAYLOAD);
+	}
+
+	@Benchmark
+	public void recordLatency() {
+		latency = (latency + 7919) & 0xFFFFF;
+		histogram.record(latency);
+	}
+}
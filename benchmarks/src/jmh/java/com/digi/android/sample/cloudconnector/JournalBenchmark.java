@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Benchmarks the parsing of the values typed in the data point dialog and
+ * the encoding and decoding of data points in the {@link DataPointJournal}.
+ */
+@State(Scope.Thread)
+public class JournalBenchmark {
+
+	// Constants.
+	private final static int BATCH_SIZE = CloudConnectorManager.MAXIMUM_DATA_POINTS;
+
+	private final static String STREAM_PATH = "BENCHMARK/DOUBLE";
+	private final static String STRING_PATH = "BENCHMARK/STRING";
+
+	private final static String[] INPUTS = {"1234", "-56789", "3.14159", "2.5E10", "0.001"};
+
+	// Variables.
+	private File directory;
+
+	private DataPointJournal journal;
+
+	private final SendStatistics statistics = new SendStatistics();
+
+	private Blackhole blackhole;
+
+	private AsyncDataPointSender sender;
+
+	@Setup
+	public void setup(Blackhole blackhole) throws IOException {
+		this.blackhole = blackhole;
+		// Uploads are confirmed as soon as they are sent.
+		sender = new AsyncDataPointSender(new IDataPointSender() {
+			@Override
+			public boolean isConnected() {
+				return true;
+			}
+
+			@Override
+			public void sendDataPoints(List<DataPoint> dataPoints) {
+				JournalBenchmark.this.blackhole.consume(dataPoints);
+				sender.onSendSuccess();
+			}
+
+			@Override
+			public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+				JournalBenchmark.this.blackhole.consume(dataPoint);
+				sender.onSendSuccess();
+			}
+		}, 16, AsyncDataPointSender.BackpressurePolicy.BLOCK, statistics);
+		directory = File.createTempFile("journal", "");
+		if (!directory.delete() || !directory.mkdirs())
+			throw new IOException("Cannot create journal directory.");
+		journal = new DataPointJournal(directory);
+	}
+
+	@TearDown
+	public void tearDown() {
+		journal.close();
+		sender.close();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(5)
+	public void parseValues(Blackhole blackhole) {
+		for (String input : INPUTS) {
+			try {
+				blackhole.consume(Integer.parseInt(input));
+			} catch (NumberFormatException e) {
+				blackhole.consume(Double.parseDouble(input));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public int appendAndDrainDoubles() throws IOException {
+		for (int i = 0; i < BATCH_SIZE; i++)
+			journal.appendDouble(STREAM_PATH, i * 0.5);
+		return journal.drain(sender, statistics);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public int appendAndDrainStrings() throws IOException {
+		for (int i = 0; i < BATCH_SIZE; i++)
+			journal.appendString(STRING_PATH, INPUTS[i % INPUTS.length]);
+		return journal.drain(sender, statistics);
+	}
+}
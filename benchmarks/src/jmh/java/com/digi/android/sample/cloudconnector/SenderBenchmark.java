@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Benchmarks the hand-off of uploads to the sender thread of the
+ * {@link AsyncDataPointSender}, directly and through the
+ * {@link DataPointBatcher}. The uploads are acknowledged as soon as they are
+ * made.
+ */
+@State(Scope.Thread)
+public class SenderBenchmark {
+
+	// Constants.
+	private final static int QUEUE_CAPACITY = 32;
+
+	// Variables.
+	private AsyncDataPointSender asyncSender;
+
+	private DataPointBatcher batcher;
+
+	private final List<DataPoint> dataPoints = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		final AsyncDataPointSender[] holder = new AsyncDataPointSender[1];
+		asyncSender = new AsyncDataPointSender(new IDataPointSender() {
+			@Override
+			public boolean isConnected() {
+				return true;
+			}
+
+			@Override
+			public void sendDataPoints(List<DataPoint> dataPoints) {
+				holder[0].onSendSuccess();
+			}
+
+			@Override
+			public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+				holder[0].onSendSuccess();
+			}
+		}, QUEUE_CAPACITY, AsyncDataPointSender.BackpressurePolicy.BLOCK, new SendStatistics());
+		holder[0] = asyncSender;
+		batcher = new DataPointBatcher(asyncSender);
+
+		DataStream dataStream = new DataStream("BENCHMARK/INTEGER");
+		for (int i = 0; i < CloudConnectorManager.MAXIMUM_DATA_POINTS; i++)
+			dataPoints.add(new DataPoint(i, dataStream));
+	}
+
+	@TearDown
+	public void tearDown() {
+		batcher.close();
+		asyncSender.close();
+	}
+
+	@Benchmark
+	public void submitAndWait() throws InterruptedException, ExecutionException {
+		asyncSender.submit(dataPoints).get();
+	}
+
+	@Benchmark
+	public void submitPipelined() {
+		asyncSender.submit(dataPoints);
+	}
+
+	@Benchmark
+	public void batchFullList() {
+		batcher.sendDataPoints(dataPoints);
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.cloudconnector;
+
+/**
+ * Stand-in for the Cloud Connector binary data point, so the send pipeline
+ * can be benchmarked on a regular JVM.
+ */
+public class BinaryDataPoint {
+
+	// Variables.
+	private final byte[] data;
+
+	private final DataStream dataStream;
+
+	private long timestamp;
+
+	public BinaryDataPoint(byte[] data, DataStream dataStream) {
+		this.data = data;
+		this.dataStream = dataStream;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	public DataStream getDataStream() {
+		return dataStream;
+	}
+
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+}
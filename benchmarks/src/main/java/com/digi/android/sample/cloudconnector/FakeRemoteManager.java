@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.ICloudConnectorEventListener;
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for Remote Manager and the Cloud Connector service.
+ *
+ * <p>It follows the semantics of the connector: uploads return immediately
+ * and their result is notified later, in order, through
+ * {@code sendDataPointsSuccess()}/{@code sendDataPointsError()}; connection
+ * changes are notified through {@code connected()},
+ * {@code disconnected()} and {@code connectionError()}; and device requests
+ * are delivered to the listener registered for their target.</p>
+ *
+ * <p>The network latency, the rate of failed uploads and connections, and
+ * the rate of uploads that make the connection drop can be configured to
+ * inject faults.</p>
+ */
+class FakeRemoteManager implements IDataPointSender, IConnector {
+
+	// Constants.
+	final static String ERROR_NOT_CONNECTED = "Not connected";
+	final static String ERROR_INJECTED = "Injected upload error";
+	final static String ERROR_CONNECTION = "Injected connection error";
+	final static String ERROR_UNKNOWN_TARGET = "Error: unknown target";
+
+	// Variables.
+	private final ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+
+	private final CopyOnWriteArrayList<ICloudConnectorEventListener> eventListeners = new CopyOnWriteArrayList<>();
+
+	private final ConcurrentHashMap<String, IDeviceRequestListener> deviceRequestListeners = new ConcurrentHashMap<>();
+
+	private final Random random = new Random();
+
+	private final AtomicLong receivedPoints = new AtomicLong();
+	private final AtomicLong receivedBinaryPoints = new AtomicLong();
+
+	private volatile boolean connected;
+
+	private volatile long minLatency = 20;
+	private volatile long maxLatency = 80;
+	private volatile double errorRate;
+	private volatile double disconnectRate;
+	private volatile double connectErrorRate;
+
+	private long connection;
+	private long lastDelivery;
+
+	/**
+	 * Configures the network latency of every message.
+	 *
+	 * @param minLatency The minimum latency in milliseconds.
+	 * @param maxLatency The maximum latency in milliseconds.
+	 */
+	void setLatency(long minLatency, long maxLatency) {
+		if (minLatency < 0 || maxLatency < minLatency)
+			throw new IllegalArgumentException("Invalid latency.");
+		this.minLatency = minLatency;
+		this.maxLatency = maxLatency;
+	}
+
+	/**
+	 * Configures the probability of an upload failing.
+	 *
+	 * @param errorRate The probability, between 0 and 1.
+	 */
+	void setErrorRate(double errorRate) {
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * Configures the probability of the connection dropping on an upload.
+	 *
+	 * @param disconnectRate The probability, between 0 and 1.
+	 */
+	void setDisconnectRate(double disconnectRate) {
+		this.disconnectRate = disconnectRate;
+	}
+
+	/**
+	 * Configures the probability of a connection attempt failing.
+	 *
+	 * @param connectErrorRate The probability, between 0 and 1.
+	 */
+	void setConnectErrorRate(double connectErrorRate) {
+		this.connectErrorRate = connectErrorRate;
+	}
+
+	/**
+	 * Registers the given connector event listener.
+	 *
+	 * @param listener The listener to register.
+	 */
+	void registerEventListener(ICloudConnectorEventListener listener) {
+		eventListeners.add(listener);
+	}
+
+	/**
+	 * Registers the listener of the device requests of the given target.
+	 *
+	 * @param target The target name.
+	 * @param listener The listener of the requests.
+	 */
+	void registerDeviceRequestListener(String target, IDeviceRequestListener listener) {
+		deviceRequestListeners.put(target, listener);
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+	@Override
+	public void connect() {
+		schedule(new Runnable() {
+			@Override
+			public void run() {
+				if (connected)
+					return;
+				if (chance(connectErrorRate)) {
+					for (ICloudConnectorEventListener listener : eventListeners)
+						listener.connectionError(ERROR_CONNECTION);
+					return;
+				}
+				connected = true;
+				for (ICloudConnectorEventListener listener : eventListeners)
+					listener.connected();
+			}
+		}, latency());
+	}
+
+	@Override
+	public void disconnect() {
+		schedule(new Runnable() {
+			@Override
+			public void run() {
+				dropConnection();
+			}
+		}, 0);
+	}
+
+	@Override
+	public void sendDataPoints(List<DataPoint> dataPoints) {
+		upload(dataPoints.size(), false);
+	}
+
+	@Override
+	public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+		upload(1, true);
+	}
+
+	/**
+	 * Sends a device request to the given target and waits for the
+	 * response, including the network latency in both directions.
+	 *
+	 * @param target The target name.
+	 * @param data The request payload.
+	 *
+	 * @return The response of the device.
+	 *
+	 * @throws InterruptedException If the thread is interrupted while
+	 *                              waiting.
+	 */
+	String sendDeviceRequest(String target, String data) throws InterruptedException {
+		Thread.sleep(latency() / 2);
+		if (!connected)
+			return ERROR_NOT_CONNECTED;
+		IDeviceRequestListener listener = deviceRequestListeners.get(target);
+		String response = listener == null ? ERROR_UNKNOWN_TARGET : listener.handleDeviceRequest(target, data);
+		Thread.sleep(latency() / 2);
+		return response;
+	}
+
+	/**
+	 * Returns the number of data points received, including binary ones.
+	 *
+	 * @return The number of received data points.
+	 */
+	long getReceivedPoints() {
+		return receivedPoints.get();
+	}
+
+	/**
+	 * Returns the number of binary data points received.
+	 *
+	 * @return The number of received binary data points.
+	 */
+	long getReceivedBinaryPoints() {
+		return receivedBinaryPoints.get();
+	}
+
+	/**
+	 * Stops the fake server.
+	 */
+	synchronized void close() {
+		network.shutdownNow();
+	}
+
+	/**
+	 * Simulates an upload, notifying its result after the network latency.
+	 *
+	 * @param points The number of data points of the upload.
+	 * @param binary {@code true} for a binary data point.
+	 */
+	private void upload(final int points, final boolean binary) {
+		final long uploadConnection;
+		synchronized (this) {
+			uploadConnection = connection;
+		}
+		if (!connected) {
+			schedule(new Runnable() {
+				@Override
+				public void run() {
+					for (ICloudConnectorEventListener listener : eventListeners)
+						listener.sendDataPointsError(ERROR_NOT_CONNECTED);
+				}
+			}, 0);
+			return;
+		}
+		final boolean disconnect = chance(disconnectRate);
+		final boolean error = chance(errorRate);
+		schedule(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (FakeRemoteManager.this) {
+					// Results of a previous connection are lost.
+					if (uploadConnection != connection)
+						return;
+				}
+				if (disconnect) {
+					dropConnection();
+					return;
+				}
+				for (ICloudConnectorEventListener listener : eventListeners) {
+					if (error) {
+						listener.sendDataPointsError(ERROR_INJECTED);
+					} else {
+						listener.sendDataPointsSuccess();
+					}
+				}
+				if (!error) {
+					receivedPoints.addAndGet(points);
+					if (binary)
+						receivedBinaryPoints.incrementAndGet();
+				}
+			}
+		}, latency());
+	}
+
+	/**
+	 * Closes the connection, discarding the results still in transit.
+	 */
+	private void dropConnection() {
+		synchronized (this) {
+			connection++;
+		}
+		if (!connected)
+			return;
+		connected = false;
+		for (ICloudConnectorEventListener listener : eventListeners)
+			listener.disconnected();
+	}
+
+	/**
+	 * Schedules a network event, keeping the events in the order they were
+	 * scheduled.
+	 *
+	 * @param event The event to run.
+	 * @param delay The delay in milliseconds.
+	 */
+	private synchronized void schedule(Runnable event, long delay) {
+		long now = System.currentTimeMillis();
+		lastDelivery = Math.max(now + delay, lastDelivery);
+		if (!network.isShutdown())
+			network.schedule(event, lastDelivery - now, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns a random network latency.
+	 *
+	 * @return The latency in milliseconds.
+	 */
+	private long latency() {
+		long min = minLatency;
+		long max = maxLatency;
+		synchronized (random) {
+			return min + (max > min ? (long) (random.nextDouble() * (max - min)) : 0);
+		}
+	}
+
+	/**
+	 * Returns whether an event with the given probability happens.
+	 *
+	 * @param probability The probability, between 0 and 1.
+	 *
+	 * @return {@code true} if the event happens, {@code false} otherwise.
+	 */
+	private boolean chance(double probability) {
+		if (probability <= 0)
+			return false;
+		synchronized (random) {
+			return random.nextDouble() < probability;
+		}
+	}
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+import com.digi.android.cloudconnector.ICloudConnectorEventListener;
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator that drives the send pipeline of the application against
+ * a {@link FakeRemoteManager} at a given rate and reports the sustained
+ * throughput and the tail latency.
+ *
+ * <p>Data points go through the {@link DataPointBatcher} and the
+ * {@link AsyncDataPointSender}, the connection is kept by a
+ * {@link ConnectionStateMachine} and device requests are handled by a
+ * {@link DeviceRequestDispatcher}, as in the application.</p>
+ *
+ * <p>Options are given as {@code name=value} arguments:</p>
+ * <ul>
+ *     <li>{@code rate}: data points per second (10000).</li>
+ *     <li>{@code duration}: duration of the test in seconds (30).</li>
+ *     <li>{@code binaryRatio}: fraction of binary data points (0.001).</li>
+ *     <li>{@code binarySize}: size of the binary data points (1024).</li>
+ *     <li>{@code requestRate}: device requests per second (20).</li>
+ *     <li>{@code minLatency}, {@code maxLatency}: network latency in
+ *     milliseconds (20, 80).</li>
+ *     <li>{@code errorRate}: probability of an upload failing (0).</li>
+ *     <li>{@code disconnectRate}: probability of the connection dropping
+ *     on an upload (0).</li>
+ * </ul>
+ */
+class LoadGenerator {
+
+	// Constants.
+	private final static String TARGET = "load_test";
+	private final static String STREAM_PATH = "LOAD_TEST/DOUBLE";
+	private final static String BINARY_STREAM_PATH = "LOAD_TEST/BINARY";
+
+	private final static int QUEUE_CAPACITY = 64;
+	private final static int REQUEST_WORKERS = 4;
+	private final static int REQUEST_QUEUE_CAPACITY = 32;
+	private final static int REQUEST_CONCURRENCY = 4;
+	private final static long REQUEST_TIMEOUT = 5000;
+
+	private final static long TICK = 1;
+	private final static long REPORT_INTERVAL = 1000;
+
+	// Variables.
+	private final long rate;
+	private final long duration;
+	private final double binaryRatio;
+	private final int binarySize;
+	private final double requestRate;
+
+	private final FakeRemoteManager server = new FakeRemoteManager();
+
+	private final SendStatistics statistics = new SendStatistics();
+
+	private final AsyncDataPointSender asyncSender;
+
+	private final DataPointBatcher batcher;
+
+	private final ConnectionStateMachine connectionStateMachine;
+
+	private final DeviceRequestDispatcher dispatcher;
+
+	private final LatencyHistogram requestLatency = new LatencyHistogram();
+
+	private final AtomicLong failedRequests = new AtomicLong();
+
+	/**
+	 * Class constructor. Instantiates a new {@code LoadGenerator} using the
+	 * given options.
+	 *
+	 * @param options The options of the test.
+	 */
+	LoadGenerator(Map<String, String> options) {
+		rate = getLong(options, "rate", 10000);
+		duration = getLong(options, "duration", 30);
+		binaryRatio = getDouble(options, "binaryRatio", 0.001);
+		binarySize = (int) getLong(options, "binarySize", 1024);
+		requestRate = getDouble(options, "requestRate", 20);
+		server.setLatency(getLong(options, "minLatency", 20), getLong(options, "maxLatency", 80));
+		server.setErrorRate(getDouble(options, "errorRate", 0));
+		server.setDisconnectRate(getDouble(options, "disconnectRate", 0));
+
+		asyncSender = new AsyncDataPointSender(server, QUEUE_CAPACITY,
+				AsyncDataPointSender.BackpressurePolicy.BLOCK, statistics);
+		batcher = new DataPointBatcher(asyncSender);
+		connectionStateMachine = new ConnectionStateMachine(server, null);
+		connectionStateMachine.setBackoff(100, 2000);
+
+		dispatcher = new DeviceRequestDispatcher(REQUEST_WORKERS, REQUEST_QUEUE_CAPACITY);
+		dispatcher.registerHandler(TARGET, new IDeviceRequestListener() {
+			@Override
+			public String handleDeviceRequest(String target, byte[] data) {
+				return new String(data);
+			}
+
+			@Override
+			public String handleDeviceRequest(String target, String data) {
+				return data;
+			}
+		}, REQUEST_CONCURRENCY, REQUEST_TIMEOUT);
+		server.registerDeviceRequestListener(TARGET, dispatcher);
+
+		server.registerEventListener(new ICloudConnectorEventListener() {
+			@Override
+			public void connected() {
+				connectionStateMachine.onConnected();
+			}
+
+			@Override
+			public void disconnected() {
+				asyncSender.onConnectionLost(FakeRemoteManager.ERROR_NOT_CONNECTED);
+				connectionStateMachine.onDisconnected();
+			}
+
+			@Override
+			public void connectionError(String errorMessage) {
+				asyncSender.onConnectionLost(errorMessage);
+				connectionStateMachine.onConnectionError(errorMessage);
+			}
+
+			@Override
+			public void sendDataPointsSuccess() {
+				asyncSender.onSendSuccess();
+			}
+
+			@Override
+			public void sendDataPointsError(String errorMessage) {
+				asyncSender.onSendError(errorMessage);
+			}
+		});
+	}
+
+	/**
+	 * Runs the load test and prints the results.
+	 *
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	void run() throws InterruptedException {
+		connectionStateMachine.connect();
+		while (!server.isConnected())
+			Thread.sleep(TICK);
+
+		ScheduledExecutorService requestScheduler = Executors.newSingleThreadScheduledExecutor();
+		final ExecutorService requestThreads = Executors.newCachedThreadPool();
+		if (requestRate > 0) {
+			requestScheduler.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						requestThreads.execute(new Runnable() {
+							@Override
+							public void run() {
+								sendDeviceRequest();
+							}
+						});
+					} catch (RejectedExecutionException e) {
+						failedRequests.incrementAndGet();
+					}
+				}
+			}, 0, (long) (TimeUnit.SECONDS.toMicros(1) / requestRate), TimeUnit.MICROSECONDS);
+		}
+
+		DataStream dataStream = new DataStream(STREAM_PATH);
+		DataStream binaryStream = new DataStream(BINARY_STREAM_PATH);
+		byte[] binaryData = new byte[binarySize];
+		List<DataPoint> dataPoints = new ArrayList<>();
+		SendStatistics.Snapshot start = statistics.snapshot();
+		SendStatistics.Snapshot previous = start;
+		long startTime = System.nanoTime();
+		long endTime = startTime + TimeUnit.SECONDS.toNanos(duration);
+		long nextReport = startTime + TimeUnit.MILLISECONDS.toNanos(REPORT_INTERVAL);
+		long produced = 0;
+		long binaryProduced = 0;
+		long now;
+		while ((now = System.nanoTime()) < endTime) {
+			// Produce the points that are due, catching up if the pipeline
+			// blocked the generator.
+			long due = (now - startTime) * rate / TimeUnit.SECONDS.toNanos(1) - produced;
+			for (long i = 0; i < due; i++) {
+				if ((produced + i) * binaryRatio >= binaryProduced + 1) {
+					batcher.sendBinaryDataPoint(new BinaryDataPoint(binaryData, binaryStream));
+					binaryProduced++;
+				} else {
+					dataPoints.add(new DataPoint((double) (produced + i), dataStream));
+				}
+			}
+			if (!dataPoints.isEmpty()) {
+				batcher.sendDataPoints(dataPoints);
+				dataPoints = new ArrayList<>();
+			}
+			produced += Math.max(0, due);
+			if (now >= nextReport) {
+				SendStatistics.Snapshot snapshot = statistics.snapshot();
+				System.out.println(String.format(Locale.US,
+						"%5.1f s: %8.0f points/s, queue %3d, in flight %2d, errors %5.1f%%, total p99 %6.1f ms, %s",
+						(now - startTime) / 1e9, snapshot.getPointsPerSecond(previous),
+						snapshot.queueDepth, snapshot.inFlight, snapshot.getErrorRate(previous) * 100,
+						snapshot.totalLatency.getValueAtPercentile(99) / 1000.0,
+						connectionStateMachine.getState()));
+				previous = snapshot;
+				nextReport += TimeUnit.MILLISECONDS.toNanos(REPORT_INTERVAL);
+			}
+			Thread.sleep(TICK);
+		}
+		batcher.flush();
+		requestScheduler.shutdownNow();
+		requestThreads.shutdown();
+		requestThreads.awaitTermination(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+		// Let the uploads in flight finish.
+		long drainEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (asyncSender.getQueueSize() + asyncSender.getInFlightCount() > 0 && System.nanoTime() < drainEnd)
+			Thread.sleep(10);
+
+		printSummary(start, statistics.snapshot(), produced);
+
+		connectionStateMachine.close();
+		dispatcher.close();
+		batcher.close();
+		asyncSender.close();
+		server.close();
+	}
+
+	/**
+	 * Sends a device request and records its latency.
+	 */
+	private void sendDeviceRequest() {
+		long start = System.nanoTime();
+		try {
+			String response = server.sendDeviceRequest(TARGET, "ping");
+			if (!"ping".equals(response))
+				failedRequests.incrementAndGet();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		requestLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+	}
+
+	/**
+	 * Prints the results of the test.
+	 *
+	 * @param start The statistics at the start of the test.
+	 * @param end The statistics at the end of the test.
+	 * @param produced The number of data points produced.
+	 */
+	private void printSummary(SendStatistics.Snapshot start, SendStatistics.Snapshot end, long produced) {
+		LatencyHistogram.Snapshot latency = end.totalLatency;
+		LatencyHistogram.Snapshot requests = requestLatency.snapshot();
+		System.out.println();
+		System.out.println(String.format(Locale.US, "Offered rate:        %d points/s (%d points)", rate, produced));
+		System.out.println(String.format(Locale.US, "Sustained rate:      %.0f points/s", end.getPointsPerSecond(start)));
+		System.out.println(String.format(Locale.US, "Received by server:  %d points (%d binary)",
+				server.getReceivedPoints(), server.getReceivedBinaryPoints()));
+		System.out.println(String.format(Locale.US, "Uploads:             %d succeeded, %d failed, %d dropped",
+				end.successes - start.successes, end.errors - start.errors, end.dropped - start.dropped));
+		System.out.println(String.format(Locale.US, "Upload latency (ms): p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+				latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+				latency.getValueAtPercentile(99.9) / 1000.0, latency.getMax() / 1000.0));
+		System.out.println(String.format(Locale.US, "Device requests:     %d, %d failed, %d shed, %d timed out",
+				requests.getCount(), failedRequests.get(), dispatcher.getShedCount(), dispatcher.getTimeoutCount()));
+		System.out.println(String.format(Locale.US, "Request latency (ms): p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+				requests.getValueAtPercentile(50) / 1000.0, requests.getValueAtPercentile(99) / 1000.0,
+				requests.getValueAtPercentile(99.9) / 1000.0, requests.getMax() / 1000.0));
+		System.out.println(String.format(Locale.US, "Reconnections:       %d attempts, %d ms disconnected",
+				connectionStateMachine.getAttemptCount(), connectionStateMachine.getTotalTimeDisconnected()));
+	}
+
+	private static long getLong(Map<String, String> options, String name, long defaultValue) {
+		String value = options.get(name);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+
+	private static double getDouble(Map<String, String> options, String name, double defaultValue) {
+		String value = options.get(name);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 1)
+				throw new IllegalArgumentException("Invalid option " + arg + ", expected name=value.");
+			options.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		new LoadGenerator(options).run();
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+import com.digi.android.cloudconnector.DataStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the scheduling of the lanes of the {@link AsyncDataPointSender}:
+ * strict priority of the first lane, its reserved in flight slots, the
+ * weighted share of the rest and the routing of the data streams.
+ */
+public class AsyncDataPointSenderTest {
+
+	// Constants.
+	private final static int LANE_ALARM = 0;
+	private final static int LANE_TELEMETRY = 1;
+	private final static int LANE_BULK = 2;
+
+	private final static String ALARM_STREAM = SamplePipeline.ALARM_PREFIX + "test";
+	private final static String TELEMETRY_STREAM = "system/test";
+	private final static String BULK_STREAM = "bulk/test";
+
+	private final static int MAX_IN_FLIGHT = 16;
+	private final static int PRIORITY_IN_FLIGHT = 2;
+
+	private final static long TIMEOUT = 5000;
+
+	// Variables.
+	private RecordingSender remote;
+
+	private AsyncDataPointSender sender;
+
+	@Before
+	public void setUp() {
+		remote = new RecordingSender();
+		sender = new AsyncDataPointSender(remote, new SendLane[] {
+				new SendLane("Alarms", 1, 64, AsyncDataPointSender.BackpressurePolicy.REJECT),
+				new SendLane("Telemetry", 4, 64, AsyncDataPointSender.BackpressurePolicy.REJECT),
+				new SendLane("Bulk", 1, 64, AsyncDataPointSender.BackpressurePolicy.REJECT)
+		}, new SendStatistics());
+		sender.setDefaultLane(LANE_TELEMETRY);
+		sender.setLane(SamplePipeline.ALARM_PREFIX, LANE_ALARM);
+		sender.setLane("bulk/", LANE_BULK);
+		remote.attach(sender);
+	}
+
+	@After
+	public void tearDown() {
+		remote.setPaused(false);
+		sender.close();
+	}
+
+	@Test
+	public void routesByLongestPrefix() {
+		sender.setLane(SamplePipeline.ALARM_PREFIX + "minor/", LANE_BULK);
+
+		assertEquals(LANE_ALARM, sender.getLane(ALARM_STREAM));
+		assertEquals(LANE_BULK, sender.getLane(SamplePipeline.ALARM_PREFIX + "minor/fan"));
+		assertEquals(LANE_BULK, sender.getLane(BULK_STREAM));
+		assertEquals(LANE_TELEMETRY, sender.getLane(TELEMETRY_STREAM));
+	}
+
+	@Test
+	public void sendsPriorityLaneFirst() throws InterruptedException {
+		// Hold the first upload so the rest are queued.
+		remote.setPaused(true);
+		sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		assertTrue(remote.awaitUploads(1, TIMEOUT));
+		for (int i = 0; i < 5; i++) {
+			sender.submit(points(BULK_STREAM, 1), BULK_STREAM);
+			sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		}
+		sender.submit(points(ALARM_STREAM, 1), ALARM_STREAM);
+		sender.submit(points(ALARM_STREAM, 1), ALARM_STREAM);
+		remote.setPaused(false);
+
+		assertTrue(remote.awaitUploads(13, TIMEOUT));
+		List<String> order = getStreams();
+		assertEquals(ALARM_STREAM, order.get(1));
+		assertEquals(ALARM_STREAM, order.get(2));
+	}
+
+	@Test
+	public void reservesInFlightSlotsForPriorityLane() throws InterruptedException {
+		remote.setAutoReply(false);
+		for (int i = 0; i < MAX_IN_FLIGHT + 4; i++)
+			sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		// The other lanes cannot use the reserved slots.
+		assertTrue(remote.awaitUploads(MAX_IN_FLIGHT - PRIORITY_IN_FLIGHT, TIMEOUT));
+		Thread.sleep(100);
+		assertEquals(MAX_IN_FLIGHT - PRIORITY_IN_FLIGHT, remote.getUploads().size());
+
+		// Alarms go out without waiting for any result.
+		sender.submit(points(ALARM_STREAM, 1), ALARM_STREAM);
+		sender.submit(points(ALARM_STREAM, 1), ALARM_STREAM);
+		assertTrue(remote.awaitUploads(MAX_IN_FLIGHT, TIMEOUT));
+		List<String> order = getStreams();
+		assertEquals(ALARM_STREAM, order.get(MAX_IN_FLIGHT - 2));
+		assertEquals(ALARM_STREAM, order.get(MAX_IN_FLIGHT - 1));
+	}
+
+	@Test
+	public void sharesLinkByWeight() throws InterruptedException {
+		remote.setPaused(true);
+		sender.submit(points(BULK_STREAM, 1), BULK_STREAM);
+		assertTrue(remote.awaitUploads(1, TIMEOUT));
+		for (int i = 0; i < 40; i++) {
+			sender.submit(points(BULK_STREAM, CloudConnectorManager.MAXIMUM_DATA_POINTS), BULK_STREAM);
+			sender.submit(points(TELEMETRY_STREAM, CloudConnectorManager.MAXIMUM_DATA_POINTS), TELEMETRY_STREAM);
+		}
+		remote.setPaused(false);
+
+		// While both lanes are backlogged, telemetry gets four uploads of
+		// each five.
+		assertTrue(remote.awaitUploads(51, TIMEOUT));
+		int telemetry = 0;
+		for (String stream : getStreams().subList(1, 51)) {
+			if (stream.equals(TELEMETRY_STREAM))
+				telemetry++;
+		}
+		assertTrue("Telemetry uploads: " + telemetry, Math.abs(telemetry - 40) <= 1);
+	}
+
+	@Test
+	public void dropsLateResultOfExpiredUpload() throws InterruptedException, TimeoutException {
+		remote.setAutoReply(false);
+		sender.setResultTimeout(100);
+		SendFuture expired = sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		try {
+			expired.get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("Upload did not time out.");
+		} catch (ExecutionException e) {
+			// Expected.
+		}
+		SendFuture next = sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		assertTrue(remote.awaitUploads(2, TIMEOUT));
+
+		// The late result of the expired upload does not complete the next.
+		remote.reply();
+		assertFalse(next.isDone());
+		remote.reply();
+		try {
+			next.get(TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			fail("Upload failed: " + e.getMessage());
+		}
+	}
+
+	@Test
+	public void forgetsLostResultOfExpiredUpload() throws InterruptedException, ExecutionException, TimeoutException {
+		remote.setAutoReply(false);
+		sender.setResultTimeout(100);
+		SendFuture expired = sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		try {
+			expired.get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("Upload did not time out.");
+		} catch (ExecutionException e) {
+			// Expected.
+		}
+		// After another timeout, the next result is not taken as late.
+		Thread.sleep(150);
+		SendFuture next = sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		assertTrue(remote.awaitUploads(2, TIMEOUT));
+		remote.reply();
+		next.get(TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void cancelsOnlyQueuedUploads() throws InterruptedException, TimeoutException {
+		remote.setPaused(true);
+		SendFuture sent = sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+		assertTrue(remote.awaitUploads(1, TIMEOUT));
+		SendFuture queued = sender.submit(points(TELEMETRY_STREAM, 1), TELEMETRY_STREAM);
+
+		assertFalse(sender.cancel(sent));
+		assertTrue(sender.cancel(queued));
+		assertTrue(queued.isDone());
+		assertEquals(0, sender.getQueueSize());
+		remote.setPaused(false);
+		try {
+			sent.get(TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			fail("Upload failed: " + e.getMessage());
+		}
+		assertEquals(1, remote.getUploads().size());
+	}
+
+	@Test
+	public void batcherSendsAlarmsThroughPriorityLane() throws InterruptedException {
+		DataPointBatcher batcher = new DataPointBatcher(sender, 1000, 1000);
+		try {
+			batcher.sendDataPoints(points(TELEMETRY_STREAM, 3), TELEMETRY_STREAM);
+			batcher.sendDataPoints(points(ALARM_STREAM, 1), ALARM_STREAM);
+
+			// The alarm does not wait for the linger time of the batch.
+			assertTrue(remote.awaitUploads(1, 500));
+			assertEquals(ALARM_STREAM, getStreams().get(0));
+			assertEquals(1, sender.getLanes()[LANE_ALARM].getStatistics().snapshot().submittedPoints);
+
+			batcher.flush();
+			assertTrue(remote.awaitUploads(2, TIMEOUT));
+			assertEquals(3, sender.getLanes()[LANE_TELEMETRY].getStatistics().snapshot().submittedPoints);
+		} finally {
+			batcher.close();
+		}
+	}
+
+	private static List<DataPoint> points(String streamPath, int count) {
+		DataStream dataStream = new DataStream(streamPath);
+		ArrayList<DataPoint> dataPoints = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			dataPoints.add(new DataPoint(i, dataStream));
+		return dataPoints;
+	}
+
+	private List<String> getStreams() {
+		ArrayList<String> streams = new ArrayList<>();
+		for (Object upload : remote.getUploads())
+			streams.add(((DataPoint) ((List<?>) upload).get(0)).getDataStream().getName());
+		return streams;
+	}
+}
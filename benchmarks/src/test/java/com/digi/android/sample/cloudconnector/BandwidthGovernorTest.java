@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the lane limits and the binary deferral of the
+ * {@link BandwidthGovernor}.
+ */
+public class BandwidthGovernorTest {
+
+	// Constants.
+	private final static int LANE_ALARM = 0;
+	private final static int LANE_TELEMETRY = 1;
+	private final static int LANE_BULK = 2;
+
+	private final static long BUDGET = 10000;
+
+	// Variables.
+	private File stateFile;
+
+	private BandwidthGovernor governor;
+
+	@Before
+	public void setUp() throws IOException {
+		stateFile = File.createTempFile("bandwidth", null);
+		if (!stateFile.delete())
+			throw new IOException("Cannot delete " + stateFile);
+		governor = new BandwidthGovernor(3, BandwidthGovernor.Period.MONTHLY, BUDGET, stateFile, null);
+	}
+
+	@After
+	public void tearDown() {
+		stateFile.delete();
+	}
+
+	@Test
+	public void defersOnlyDeferrableLanes() {
+		governor.setDeferrable(LANE_BULK, true);
+		assertFalse(governor.deferBinary(LANE_BULK));
+
+		governor.charge(LANE_TELEMETRY, BUDGET * 9 / 10);
+		assertEquals(BandwidthGovernor.Level.LOW, governor.getLevel());
+		assertFalse(governor.deferBinary(LANE_ALARM));
+		assertFalse(governor.deferBinary(LANE_TELEMETRY));
+		assertTrue(governor.deferBinary(LANE_BULK));
+		assertEquals(1, governor.getDeferredCount());
+	}
+
+	@Test
+	public void computesDataPointLimit() {
+		assertEquals(0, governor.getDataPointLimit(LANE_ALARM), 0);
+
+		governor.setLaneLimit(LANE_TELEMETRY, 64 * 1024, 0);
+		double limit = governor.getDataPointLimit(LANE_TELEMETRY);
+		assertTrue("Limit: " + limit, limit > 950 && limit < 1000);
+
+		// The message limit applies when it is lower.
+		governor.setLaneLimit(LANE_TELEMETRY, 64 * 1024, 1);
+		assertEquals(CloudConnectorManager.MAXIMUM_DATA_POINTS, governor.getDataPointLimit(LANE_TELEMETRY), 0.001);
+	}
+}
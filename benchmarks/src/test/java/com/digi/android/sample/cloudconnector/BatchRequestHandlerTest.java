@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the parsing and the scheduling of the {@link BatchRequestHandler}.
+ */
+public class BatchRequestHandlerTest {
+
+	// Constants.
+	private final static String BATCH_TARGET = "batch";
+	private final static String ECHO_TARGET = "echo";
+	private final static String FAIL_TARGET = "fail";
+	private final static String SLOW_TARGET = "slow";
+
+	private final static long TIMEOUT = 200;
+
+	// Variables.
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private DeviceRequestDispatcher dispatcher;
+	private BatchRequestHandler handler;
+
+	@Before
+	public void setUp() {
+		dispatcher = new DeviceRequestDispatcher(4, 8);
+		dispatcher.registerHandler(ECHO_TARGET, new EchoHandler(), 4, TIMEOUT * 10);
+		dispatcher.registerHandler(FAIL_TARGET, new FailHandler(), 4, TIMEOUT * 10);
+		dispatcher.registerHandler(SLOW_TARGET, new SlowHandler(), 1, TIMEOUT * 10);
+		handler = new BatchRequestHandler(dispatcher, 2, TIMEOUT);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		handler.close();
+		dispatcher.close();
+	}
+
+	@Test
+	public void keepsPayloadStartingWithDependencyPrefix() {
+		assertEquals("OK 2 2\na after=x\nb after=a y",
+				handler.handleDeviceRequest(BATCH_TARGET, "a echo - after=x\nb echo after=a after=a y"));
+	}
+
+	@Test
+	public void requiresDependencyField() {
+		assertEquals("Error: invalid command in line 1", handler.handleDeviceRequest(BATCH_TARGET, "a echo"));
+		assertEquals("Error: invalid dependencies in line 2",
+				handler.handleDeviceRequest(BATCH_TARGET, "a echo - x\nb echo data"));
+		assertEquals("Error: unknown dependency c in line 1",
+				handler.handleDeviceRequest(BATCH_TARGET, "a echo after=c x"));
+	}
+
+	@Test
+	public void skipsDependentsOfFailedCommand() {
+		assertEquals("OK 1 3\na Error: failed\nb " + BatchRequestHandler.ERROR_SKIPPED + "\nc x",
+				handler.handleDeviceRequest(BATCH_TARGET, "a fail - x\nb echo after=a x\nc echo - x"));
+	}
+
+	@Test
+	public void answersUnfinishedCommandsAfterTimeout() throws InterruptedException {
+		String response = handler.handleDeviceRequest(BATCH_TARGET,
+				"a slow - x\nb echo - y\nc echo after=a z");
+		assertEquals("OK 1 3\na " + BatchRequestHandler.ERROR_BATCH_TIMEOUT + "\nb y\nc "
+				+ BatchRequestHandler.ERROR_BATCH_TIMEOUT, response);
+
+		// The cancelled command finishing late does not change the answer of
+		// the next batch.
+		release.countDown();
+		assertEquals("OK 1 1\na x", handler.handleDeviceRequest(BATCH_TARGET, "a echo - x"));
+		assertEquals("OK 1 1\na x", handler.handleDeviceRequest(BATCH_TARGET, "a slow - x"));
+	}
+
+	/**
+	 * Handler that answers with the request payload.
+	 */
+	private static class EchoHandler implements IDeviceRequestListener {
+		@Override
+		public String handleDeviceRequest(String target, byte[] data) {
+			return handleDeviceRequest(target, new String(data));
+		}
+
+		@Override
+		public String handleDeviceRequest(String target, String data) {
+			return data;
+		}
+	}
+
+	/**
+	 * Handler that always fails.
+	 */
+	private static class FailHandler extends EchoHandler {
+		@Override
+		public String handleDeviceRequest(String target, String data) {
+			return "Error: failed";
+		}
+	}
+
+	/**
+	 * Handler that ignores interruptions and answers when released.
+	 */
+	private class SlowHandler extends EchoHandler {
+		@Override
+		public String handleDeviceRequest(String target, String data) {
+			while (release.getCount() > 0) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					// Keep running, as a handler blocked in native code would.
+				}
+			}
+			return data;
+		}
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.CloudConnectorManager;
+import com.digi.android.cloudconnector.DataPoint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the CSV and NDJSON parsers of the {@link BulkImporter}, the time of
+ * the imported values and the resume of interrupted imports.
+ */
+public class BulkImporterTest {
+
+	// Constants.
+	private final static String PREFIX = "import";
+
+	private final static long BASE_TIME = 1700000000000L;
+	// 2024-01-02T03:04:05Z.
+	private final static long ISO_TIME = 1704164645000L;
+
+	private final static long TIMEOUT = 5000;
+
+	// Variables.
+	private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+	private final StreamRegistry registry = new StreamRegistry();
+
+	private File directory;
+
+	private RecordingSender remote;
+
+	private AsyncDataPointSender sender;
+
+	private BulkImporter importer;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("import", "");
+		if (!directory.delete() || !directory.mkdirs())
+			throw new IOException("Cannot create import directory.");
+		remote = new RecordingSender();
+		sender = new AsyncDataPointSender(remote, new SendLane[] {
+				new SendLane("Bulk", 1, 64, AsyncDataPointSender.BackpressurePolicy.BLOCK)
+		}, new SendStatistics());
+		remote.attach(sender);
+		importer = new BulkImporter(sender, registry, new File(directory, "progress"), 1024, new IImportListener() {
+			@Override
+			public void importProgress(String file, long rows, long position, long size, double rowsPerSecond) {
+			}
+
+			@Override
+			public void importFinished(String file, long rows, long rejected, double rowsPerSecond) {
+				events.add("finished " + rows + " " + rejected);
+			}
+
+			@Override
+			public void importError(String file, String errorMessage) {
+				events.add("error " + errorMessage);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		importer.close();
+		sender.close();
+		delete(directory);
+	}
+
+	@Test
+	public void parsesCsvFields() throws Exception {
+		registry.register(PREFIX + "/name", DataPointJournal.TYPE_STRING);
+		File file = write("data.csv", "time,name,value\r\n"
+				+ "2024-01-02T03:04:05.678Z,\"say \"\"hi\"\", ok\",1.5\r\n"
+				+ BASE_TIME + ",plain,-2\n"
+				+ "yesterday,bad,3\n"
+				+ ",empty,4\n"
+				+ "\n"
+				// The last line has no line break.
+				+ "2024-01-02T05:04:05+02:00,\"\",5");
+
+		assertEquals("finished 3 2", runImport(file));
+		List<DataPoint> points = getDataPoints(0);
+		assertEquals(Arrays.<Object>asList("say \"hi\", ok", 1.5, "plain", -2.0, 5.0), getValues(points));
+		assertEquals(Arrays.asList(ISO_TIME + 678, ISO_TIME + 678, BASE_TIME, BASE_TIME, ISO_TIME),
+				getTimestamps(points));
+	}
+
+	@Test
+	public void parsesNdjsonObjects() throws Exception {
+		registry.register(PREFIX + "/s", DataPointJournal.TYPE_STRING);
+		File file = write("data.ndjson", "{\"a\": 1, \"time\": " + BASE_TIME + "}\n"
+				+ "{\"timestamp\": \"2024-01-02T03:04:05Z\", \"s\": \"x\\\"y\", \"nested\": {\"a\": [1, 2]}}\n"
+				+ "{\"a\": 2, \"time\": \"soon\"}\n"
+				+ "{\"a\": 3, \"time\": null}\n"
+				+ "{\"a\": \n"
+				+ "\n"
+				+ "{\"a\": 4, \"time\": \"2024-01-02 03:04:05\"}");
+
+		assertEquals("finished 3 3", runImport(file));
+		List<DataPoint> points = getDataPoints(0);
+		assertEquals(Arrays.<Object>asList(1.0, "x\"y", 4.0), getValues(points));
+		// The time applies to the values of the row before and after it.
+		assertEquals(Arrays.asList(BASE_TIME, ISO_TIME, ISO_TIME), getTimestamps(points));
+	}
+
+	@Test
+	public void keepsRowsWholeAcrossBatches() throws Exception {
+		File file = write("rows.csv", createRows(200));
+
+		assertEquals("finished 200 0", runImport(file));
+		checkRows(remote.getUploads(), 0, 200);
+	}
+
+	@Test
+	public void resumesUnmodifiedFile() throws Exception {
+		int rowsPerBatch = CloudConnectorManager.MAXIMUM_DATA_POINTS / 3;
+		File file = write("resume.csv", createRows(600));
+
+		// Acknowledge the first batch and lose the connection with the next
+		// ones in flight.
+		remote.setAutoReply(false);
+		importer.importFile(file, PREFIX);
+		assertTrue(remote.awaitUploads(4, TIMEOUT));
+		remote.reply();
+		assertTrue(remote.awaitUploads(5, TIMEOUT));
+		sender.onConnectionLost("Connection lost");
+		String event = events.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertTrue(event, event.startsWith("error "));
+
+		// The second import starts after the acknowledged batch.
+		remote.setAutoReply(true);
+		int uploads = remote.getUploads().size();
+		assertEquals("finished 600 0", runImport(file));
+		List<Object> resumed = remote.getUploads();
+		checkRows(resumed.subList(uploads, resumed.size()), rowsPerBatch, 600);
+
+		// Without progress, a third import starts from the beginning.
+		uploads = resumed.size();
+		assertEquals("finished 600 0", runImport(file));
+		resumed = remote.getUploads();
+		checkRows(resumed.subList(uploads, resumed.size()), 0, 600);
+	}
+
+	@Test
+	public void parsesTimestamps() {
+		assertEquals(BASE_TIME, BulkImporter.parseTimestamp(" " + BASE_TIME + " "));
+		assertEquals(-1, BulkImporter.parseTimestamp("1969-12-31T23:59:59.999Z"));
+		assertEquals(1704067200000L, BulkImporter.parseTimestamp("2024-01-01"));
+		assertEquals(1709164800000L, BulkImporter.parseTimestamp("2024-02-29"));
+		assertEquals(ISO_TIME + 500, BulkImporter.parseTimestamp("2024-01-02 03:04:05,5"));
+		assertEquals(ISO_TIME, BulkImporter.parseTimestamp("2024-01-02T08:34:05+0530"));
+		assertEquals(ISO_TIME, BulkImporter.parseTimestamp("2024-01-01T23:04:05-04:00"));
+		assertEquals(ISO_TIME - 5000, BulkImporter.parseTimestamp("2024-01-02T03:04Z"));
+
+		for (String invalid : new String[] {"", "-", "1e3", "2023-02-29", "2024-13-01", "2024-01-01T24:00",
+				"2024-01-01T00:00:00.Z", "2024-01-01T00:00:00+5", "2024-01-01X", "12:00:00"}) {
+			try {
+				BulkImporter.parseTimestamp(invalid);
+				fail("Accepted " + invalid);
+			} catch (IllegalArgumentException e) {
+				// Expected.
+			}
+		}
+	}
+
+	/**
+	 * Imports the given file and waits for it to finish.
+	 *
+	 * @param file The file to import.
+	 *
+	 * @return The event of the end of the import.
+	 */
+	private String runImport(File file) throws InterruptedException {
+		importer.importFile(file, PREFIX);
+		String event = events.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertTrue("Import did not finish", event != null);
+		return event;
+	}
+
+	/**
+	 * Checks that the given uploads hold whole rows created by
+	 * {@link #createRows(int)}, in order and with their time.
+	 *
+	 * @param uploads The uploads to check.
+	 * @param firstRow The number of the first row expected.
+	 * @param rows The number of rows of the file.
+	 */
+	private static void checkRows(List<Object> uploads, int firstRow, int rows) {
+		int row = firstRow;
+		for (Object upload : uploads) {
+			List<?> points = (List<?>) upload;
+			assertEquals(0, points.size() % 3);
+			for (int i = 0; i < points.size(); i += 3, row++) {
+				assertEquals(Arrays.<Object>asList((double) row, row + 0.5, (double) -row),
+						getValues(points.subList(i, i + 3)));
+				for (int j = i; j < i + 3; j++)
+					assertEquals(BASE_TIME + row * 1000L, ((DataPoint) points.get(j)).getTimestamp());
+			}
+		}
+		assertEquals(rows, row);
+	}
+
+	/**
+	 * Returns the content of a CSV file with the given number of rows of
+	 * three values.
+	 *
+	 * @param rows The number of rows.
+	 *
+	 * @return The content of the file.
+	 */
+	private static String createRows(int rows) {
+		StringBuilder builder = new StringBuilder("timestamp,a,b,c\n");
+		for (int i = 0; i < rows; i++)
+			builder.append(BASE_TIME + i * 1000L).append(',').append(i).append(',').append(i + 0.5).append(',')
+					.append(-i).append('\n');
+		return builder.toString();
+	}
+
+	private List<DataPoint> getDataPoints(int firstUpload) {
+		List<DataPoint> points = new ArrayList<>();
+		List<Object> uploads = remote.getUploads();
+		for (Object upload : uploads.subList(firstUpload, uploads.size())) {
+			for (Object point : (List<?>) upload)
+				points.add((DataPoint) point);
+		}
+		return points;
+	}
+
+	private static List<Object> getValues(List<?> points) {
+		List<Object> values = new ArrayList<>();
+		for (Object point : points)
+			values.add(((DataPoint) point).getValue());
+		return values;
+	}
+
+	private static List<Long> getTimestamps(List<DataPoint> points) {
+		List<Long> timestamps = new ArrayList<>();
+		for (DataPoint point : points)
+			timestamps.add(point.getTimestamp());
+		return timestamps;
+	}
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(directory, name);
+		OutputStream output = new FileOutputStream(file);
+		try {
+			output.write(content.getBytes("UTF-8"));
+		} finally {
+			output.close();
+		}
+		return file;
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files)
+				delete(child);
+		}
+		file.delete();
+	}
+}
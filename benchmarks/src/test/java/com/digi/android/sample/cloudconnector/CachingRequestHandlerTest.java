@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the response cache and the idempotency tokens of the
+ * {@link CachingRequestHandler}.
+ */
+public class CachingRequestHandlerTest {
+
+	// Constants.
+	private final static String TARGET = "target";
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Test
+	public void reusesResponsesOfSamePayload() {
+		CountingHandler handler = new CountingHandler();
+		CachingRequestHandler cache = new CachingRequestHandler(handler, 60000, 4);
+
+		assertEquals("1", cache.handleDeviceRequest(TARGET, "a"));
+		assertEquals("1", cache.handleDeviceRequest(TARGET, "a"));
+		assertEquals("2", cache.handleDeviceRequest(TARGET, "b"));
+		// Binary requests are cached apart from the string ones.
+		assertEquals("3", cache.handleDeviceRequest(TARGET, "a".getBytes(UTF_8)));
+		assertEquals("3", cache.handleDeviceRequest(TARGET, "a".getBytes(UTF_8)));
+		assertEquals("4", cache.handleDeviceRequest("other", "a"));
+
+		assertEquals(2, cache.getHitCount());
+		assertEquals(4, cache.getMissCount());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedResponse() {
+		CountingHandler handler = new CountingHandler();
+		CachingRequestHandler cache = new CachingRequestHandler(handler, 60000, 2);
+
+		cache.handleDeviceRequest(TARGET, "a");
+		cache.handleDeviceRequest(TARGET, "b");
+		cache.handleDeviceRequest(TARGET, "a");
+		cache.handleDeviceRequest(TARGET, "c");
+
+		assertEquals("1", cache.handleDeviceRequest(TARGET, "a"));
+		assertEquals("4", cache.handleDeviceRequest(TARGET, "b"));
+	}
+
+	@Test
+	public void replaysIdempotentRequests() {
+		CountingHandler handler = new CountingHandler();
+		CachingRequestHandler cache = new CachingRequestHandler(handler, 0, 4);
+		String request = CachingRequestHandler.IDEMPOTENCY_PREFIX + "token\npayload";
+
+		assertEquals("1", cache.handleDeviceRequest(TARGET, request));
+		assertEquals("1", cache.handleDeviceRequest(TARGET, request));
+		assertEquals("1", cache.handleDeviceRequest(TARGET, request.getBytes(UTF_8)));
+		assertEquals("payload", handler.lastPayload);
+		// Without a token nothing is cached.
+		assertEquals("2", cache.handleDeviceRequest(TARGET, "payload"));
+		assertEquals("3", cache.handleDeviceRequest(TARGET, "payload"));
+
+		assertEquals(2, cache.getReplayCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	/**
+	 * Handler that answers with the number of requests it handled.
+	 */
+	private static class CountingHandler implements IDeviceRequestListener {
+		int count;
+		String lastPayload;
+
+		@Override
+		public synchronized String handleDeviceRequest(String target, byte[] data) {
+			return handleDeviceRequest(target, new String(data, UTF_8));
+		}
+
+		@Override
+		public synchronized String handleDeviceRequest(String target, String data) {
+			lastPayload = data;
+			return String.valueOf(++count);
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests the chunk validation, the resume and the verification of the
+ * {@link ChunkedTransferHandler}.
+ */
+public class ChunkedTransferHandlerTest {
+
+	// Constants.
+	private final static String TARGET = "transfer";
+	private final static String ID = "fw";
+
+	private final static int CHUNK_SIZE = 1024;
+
+	// Variables.
+	private final List<String> events = new ArrayList<>();
+
+	private final byte[] payload = new byte[2 * CHUNK_SIZE + 452];
+
+	private File directory;
+
+	private ChunkedTransferHandler handler;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("transfers", "");
+		if (!directory.delete() || !directory.mkdirs())
+			throw new IOException("Cannot create transfers directory.");
+		for (int i = 0; i < payload.length; i++)
+			payload[i] = (byte) (i * 31);
+		handler = createHandler();
+	}
+
+	@After
+	public void tearDown() {
+		handler.close();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void rejectsIdsClashingWithFiles() throws Exception {
+		assertEquals("OK 0 3 0", send(begin(ID, sha256(payload))));
+		for (String id : new String[] {".", "..", ".hidden", ID + ".part", ID + ".state", "FW.PART", ""}) {
+			assertEquals(id, ChunkedTransferHandler.ERROR_INVALID_MESSAGE, send(begin(id, sha256(payload))));
+			assertEquals(id, ChunkedTransferHandler.ERROR_INVALID_MESSAGE, send(message(ChunkedTransferHandler.MESSAGE_COMMIT, id)));
+		}
+		assertEquals("OK 0 3 0", send(begin("fw.v2-final_1", sha256(payload))));
+
+		// The payload of the first transfer is intact.
+		assertEquals(payload.length, new File(directory, ID + ".part").length());
+	}
+
+	@Test
+	public void rejectsChunkWithBadChecksum() throws Exception {
+		send(begin(ID, sha256(payload)));
+		ByteBuffer chunk = ByteBuffer.wrap(chunk(ID, 0));
+		chunk.put(chunk.capacity() - 1, (byte) (chunk.get(chunk.capacity() - 1) + 1));
+
+		assertEquals(ChunkedTransferHandler.ERROR_CHUNK_CHECKSUM + " in chunk 0", send(chunk.array()));
+		assertEquals("OK 0 3 0", send(begin(ID, sha256(payload))));
+		assertEquals(ChunkedTransferHandler.ERROR_INVALID_MESSAGE, send(chunk(ID, 3)));
+		assertEquals(ChunkedTransferHandler.ERROR_UNKNOWN_TRANSFER, send(chunk("other", 0)));
+	}
+
+	@Test
+	public void acceptsChunksOutOfOrderAndTwice() throws Exception {
+		send(begin(ID, sha256(payload)));
+
+		assertEquals("OK 1 3 0", send(chunk(ID, 2)));
+		assertEquals("OK 2 3 1", send(chunk(ID, 0)));
+		assertEquals("OK 2 3 1", send(chunk(ID, 0)));
+		assertEquals("Error: 1 chunks missing, first 1", send(message(ChunkedTransferHandler.MESSAGE_COMMIT, ID)));
+		assertEquals("OK 3 3 3", send(chunk(ID, 1)));
+
+		assertEquals("OK", send(message(ChunkedTransferHandler.MESSAGE_COMMIT, ID)));
+		assertEquals(Arrays.asList("finished " + ID), events);
+		assertArrayEquals(payload, read(new File(directory, ID)));
+		assertFalse(new File(directory, ID + ".part").exists());
+		assertFalse(new File(directory, ID + ".state").exists());
+	}
+
+	@Test
+	public void resumesAfterReopen() throws Exception {
+		send(begin(ID, sha256(payload)));
+		send(chunk(ID, 1));
+		// The process restarts.
+		handler.close();
+		handler = createHandler();
+
+		assertEquals("OK 1 3 0", send(begin(ID, sha256(payload))));
+		send(chunk(ID, 0));
+		assertEquals("OK 3 3 3", send(chunk(ID, 2)));
+		assertEquals("OK", send(message(ChunkedTransferHandler.MESSAGE_COMMIT, ID)));
+		assertArrayEquals(payload, read(new File(directory, ID)));
+
+		// A different payload with the same identifier starts over.
+		send(begin(ID, sha256(payload)));
+		send(chunk(ID, 0));
+		handler.close();
+		handler = createHandler();
+		assertEquals("OK 0 3 0", send(begin(ID, new byte[32])));
+	}
+
+	@Test
+	public void rejectsPayloadWithBadDigest() throws Exception {
+		byte[] digest = sha256(payload);
+		digest[0]++;
+		send(begin(ID, digest));
+		for (int i = 0; i < 3; i++)
+			send(chunk(ID, i));
+
+		assertEquals(ChunkedTransferHandler.ERROR_FILE_CHECKSUM,
+				send(message(ChunkedTransferHandler.MESSAGE_COMMIT, ID)));
+		assertEquals(Arrays.asList("error " + ID), events);
+		assertFalse(new File(directory, ID).exists());
+		assertFalse(new File(directory, ID + ".part").exists());
+		assertEquals(ChunkedTransferHandler.ERROR_UNKNOWN_TRANSFER, send(chunk(ID, 0)));
+	}
+
+	private ChunkedTransferHandler createHandler() {
+		return new ChunkedTransferHandler(directory, 4, new ITransferListener() {
+			@Override
+			public void transferFinished(String id, File file) {
+				events.add("finished " + id);
+			}
+
+			@Override
+			public void transferError(String id, String errorMessage) {
+				events.add("error " + id);
+			}
+		});
+	}
+
+	private String send(byte[] message) {
+		return handler.handleDeviceRequest(TARGET, message);
+	}
+
+	private static byte[] message(byte type, String id) {
+		return header(type, id, 0).array();
+	}
+
+	private static byte[] begin(String id, byte[] digest) {
+		ByteBuffer message = header(ChunkedTransferHandler.MESSAGE_BEGIN, id, 8 + 4 + digest.length);
+		message.putLong(2 * CHUNK_SIZE + 452).putInt(CHUNK_SIZE).put(digest);
+		return message.array();
+	}
+
+	private byte[] chunk(String id, int index) {
+		int start = Math.min(index * CHUNK_SIZE, payload.length);
+		int length = Math.min(CHUNK_SIZE, payload.length - start);
+		CRC32 crc = new CRC32();
+		crc.update(payload, start, length);
+		ByteBuffer message = header(ChunkedTransferHandler.MESSAGE_DATA, id, 8 + length);
+		message.putInt(index).putInt((int) crc.getValue()).put(payload, start, length);
+		return message.array();
+	}
+
+	private static ByteBuffer header(byte type, String id, int bodySize) {
+		byte[] idBytes = id.getBytes();
+		ByteBuffer message = ByteBuffer.allocate(2 + idBytes.length + bodySize);
+		message.put(type).put((byte) idBytes.length).put(idBytes);
+		return message;
+	}
+
+	private static byte[] sha256(byte[] data) throws Exception {
+		return MessageDigest.getInstance("SHA-256").digest(data);
+	}
+
+	private static byte[] read(File file) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			byte[] data = new byte[(int) input.length()];
+			input.readFully(data);
+			return data;
+		} finally {
+			input.close();
+		}
+	}
+}
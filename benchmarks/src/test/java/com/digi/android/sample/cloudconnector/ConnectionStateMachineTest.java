@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link ConnectionStateMachine} against a simulated clock and
+ * connector.
+ */
+public class ConnectionStateMachineTest {
+
+	// Constants.
+	private final static long BASE_DELAY = 1000;
+	private final static long MAX_DELAY = 8000;
+	private final static int FAILURE_THRESHOLD = 3;
+	private final static long OPEN_TIME = 60000;
+	private final static long CONNECT_TIMEOUT = 5000;
+
+	// Variables.
+	private FakeClock clock;
+	private FakeConnector connector;
+
+	private ArrayList<ConnectionStateMachine.State> states;
+	private ArrayList<Long> delays;
+
+	private ConnectionStateMachine stateMachine;
+
+	@Before
+	public void setUp() {
+		clock = new FakeClock();
+		connector = new FakeConnector();
+		states = new ArrayList<>();
+		delays = new ArrayList<>();
+		// Always wait half of the backoff limit.
+		Random random = new Random() {
+			@Override
+			public double nextDouble() {
+				return 0.5;
+			}
+		};
+		stateMachine = new ConnectionStateMachine(connector, new IConnectionStateListener() {
+			@Override
+			public void connectionStateChanged(ConnectionStateMachine.State state, long delay) {
+				states.add(state);
+				delays.add(delay);
+			}
+		}, clock, random);
+		stateMachine.setBackoff(BASE_DELAY, MAX_DELAY);
+		stateMachine.setCircuitBreaker(FAILURE_THRESHOLD, OPEN_TIME);
+		stateMachine.setConnectTimeout(CONNECT_TIMEOUT);
+	}
+
+	@Test
+	public void keepsConnectionWhenConnected() {
+		stateMachine.connect();
+		clock.advance(100);
+		stateMachine.onConnected();
+		clock.advance(CONNECT_TIMEOUT * 2);
+
+		assertEquals(ConnectionStateMachine.State.CONNECTED, stateMachine.getState());
+		assertEquals(1, connector.connects);
+		assertEquals(0, connector.disconnects);
+		assertEquals(100, stateMachine.getLastTimeToConnect());
+	}
+
+	@Test
+	public void timesOutAttemptWithoutConnectionEvent() {
+		stateMachine.connect();
+		clock.advance(CONNECT_TIMEOUT);
+
+		assertEquals(1, connector.disconnects);
+		assertEquals(ConnectionStateMachine.State.BACKING_OFF, stateMachine.getState());
+		assertEquals(1, stateMachine.getFailureCount());
+
+		// The late event of the closed attempt is ignored.
+		stateMachine.onDisconnected();
+		clock.advance(BASE_DELAY);
+		assertEquals(2, connector.connects);
+		assertEquals(ConnectionStateMachine.State.CONNECTING, stateMachine.getState());
+	}
+
+	@Test
+	public void backsOffExponentiallyAndOpensCircuit() {
+		stateMachine.connect();
+		// Full jitter over 2 and 4 seconds.
+		for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+			stateMachine.onConnectionError("Error");
+			assertEquals(ConnectionStateMachine.State.BACKING_OFF, stateMachine.getState());
+			assertEquals((BASE_DELAY << (i + 1)) / 2, lastDelay());
+			clock.advance(lastDelay());
+		}
+		stateMachine.onConnectionError("Error");
+		assertEquals(ConnectionStateMachine.State.CIRCUIT_OPEN, stateMachine.getState());
+		assertEquals(OPEN_TIME, lastDelay());
+		assertEquals(FAILURE_THRESHOLD, connector.connects);
+
+		clock.advance(OPEN_TIME - 1);
+		assertEquals(FAILURE_THRESHOLD, connector.connects);
+		clock.advance(1);
+		assertEquals(FAILURE_THRESHOLD + 1, connector.connects);
+		stateMachine.onConnected();
+		assertEquals(0, stateMachine.getFailureCount());
+		assertEquals(ConnectionStateMachine.State.CONNECTED, stateMachine.getState());
+	}
+
+	@Test
+	public void reconnectsAfterConnectionLoss() {
+		stateMachine.connect();
+		stateMachine.onConnected();
+		clock.advance(10000);
+
+		stateMachine.onDisconnected();
+		assertEquals(ConnectionStateMachine.State.BACKING_OFF, stateMachine.getState());
+		clock.advance(lastDelay());
+		assertEquals(2, connector.connects);
+		clock.advance(200);
+		stateMachine.onConnected();
+
+		assertEquals(BASE_DELAY / 2 + 200, stateMachine.getLastTimeDisconnected());
+		assertEquals(0, connector.disconnects);
+	}
+
+	@Test
+	public void disconnectCancelsPendingAttempt() {
+		stateMachine.connect();
+		stateMachine.onConnectionError("Error");
+		stateMachine.disconnect();
+		clock.advance(MAX_DELAY + CONNECT_TIMEOUT);
+
+		assertEquals(ConnectionStateMachine.State.DISCONNECTED, stateMachine.getState());
+		assertEquals(1, connector.connects);
+		assertEquals(0, connector.disconnects);
+	}
+
+	@Test
+	public void closeCancelsPendingAttempt() {
+		stateMachine.connect();
+		stateMachine.onConnectionError("Error");
+		stateMachine.close();
+		clock.advance(MAX_DELAY + CONNECT_TIMEOUT);
+
+		assertEquals(1, connector.connects);
+		assertEquals(0, connector.disconnects);
+	}
+
+	private long lastDelay() {
+		return delays.get(delays.size() - 1);
+	}
+
+	/**
+	 * Clock that only advances when told to, running the tasks that become
+	 * due in order.
+	 */
+	private static class FakeClock implements IClock {
+		private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+
+		private long now;
+		private long sequence;
+
+		@Override
+		public long currentTimeMillis() {
+			return now;
+		}
+
+		@Override
+		public void schedule(Runnable task, long delay) {
+			tasks.add(new Task(task, now + delay, sequence++));
+		}
+
+		void advance(long time) {
+			long end = now + time;
+			while (!tasks.isEmpty() && tasks.peek().time <= end) {
+				Task task = tasks.poll();
+				now = task.time;
+				task.runnable.run();
+			}
+			now = end;
+		}
+	}
+
+	private static class Task implements Comparable<Task> {
+		final Runnable runnable;
+		final long time;
+		final long sequence;
+
+		Task(Runnable runnable, long time, long sequence) {
+			this.runnable = runnable;
+			this.time = time;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Task other) {
+			if (time != other.time)
+				return time < other.time ? -1 : 1;
+			return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+		}
+	}
+
+	private static class FakeConnector implements IConnector {
+		int connects;
+		int disconnects;
+
+		@Override
+		public void connect() {
+			connects++;
+		}
+
+		@Override
+		public void disconnect() {
+			disconnects++;
+		}
+	}
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.DataPoint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the recovery, the drain and the compaction of the
+ * {@link DataPointJournal}.
+ */
+public class DataPointJournalTest {
+
+	// Constants.
+	private final static int SEGMENT_SIZE = 256;
+	private final static int MAX_SEGMENTS = 4;
+
+	private final static String STREAM = "test/value";
+
+	// Variables.
+	private File directory;
+
+	private DataPointJournal journal;
+
+	private RecordingSender remote;
+
+	private AsyncDataPointSender sender;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("journal", "");
+		if (!directory.delete() || !directory.mkdirs())
+			throw new IOException("Cannot create journal directory.");
+		remote = new RecordingSender();
+		sender = new AsyncDataPointSender(remote, 16, AsyncDataPointSender.BackpressurePolicy.BLOCK,
+				new SendStatistics());
+		remote.attach(sender);
+	}
+
+	@After
+	public void tearDown() {
+		if (journal != null)
+			journal.close();
+		sender.close();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files)
+				file.delete();
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void recoversRecordsAfterCrash() throws Exception {
+		long start = System.currentTimeMillis();
+		journal = open();
+		for (int i = 0; i < 10; i++)
+			journal.appendInteger(STREAM, i);
+		journal.sync();
+		long appended = System.currentTimeMillis();
+		// The process dies without closing the journal.
+		journal = open();
+		Thread.sleep(50);
+
+		assertEquals(10, journal.getPendingCount());
+		assertEquals(10, journal.drain(sender, new SendStatistics()));
+		assertEquals(Arrays.<Object>asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), remote.getValues());
+		// The data points keep the time they were appended, not the drain.
+		for (Object upload : remote.getUploads()) {
+			for (Object dataPoint : (List<?>) upload) {
+				long timestamp = ((DataPoint) dataPoint).getTimestamp();
+				assertTrue(timestamp >= start && timestamp <= appended);
+			}
+		}
+	}
+
+	@Test
+	public void drainsSegmentsWithoutTime() throws IOException {
+		// Segment of the previous version with an integer record.
+		byte[] path = STREAM.getBytes("UTF-8");
+		ByteBuffer record = ByteBuffer.allocate(3 + path.length + 4);
+		record.put((byte) DataPointJournal.TYPE_INTEGER).putShort((short) path.length).put(path).putInt(7);
+		CRC32 crc = new CRC32();
+		crc.update(record.array());
+		RandomAccessFile file = new RandomAccessFile(new File(directory, "segment-0.jnl"), "rw");
+		try {
+			file.setLength(SEGMENT_SIZE);
+			file.writeInt(0x44504A31);
+			file.writeInt(8);
+			file.writeInt(record.capacity());
+			file.writeInt((int) crc.getValue());
+			file.write(record.array());
+		} finally {
+			file.close();
+		}
+
+		journal = open();
+		assertEquals(1, journal.getPendingCount());
+		// New records go to a segment of the current version.
+		journal.appendInteger(STREAM, 8);
+		assertEquals(2, getSegments().length);
+		assertEquals(2, journal.drain(sender, new SendStatistics()));
+		assertEquals(Arrays.<Object>asList(7, 8), remote.getValues());
+		assertEquals(1, getSegments().length);
+	}
+
+	@Test
+	public void discardsTruncatedRecord() throws IOException {
+		journal = open();
+		journal.appendLong(STREAM, 1);
+		journal.appendLong(STREAM, 2);
+		journal.appendLong(STREAM, 3);
+		journal.close();
+		journal = null;
+
+		// Corrupt the value of the last record, as if the write was cut.
+		RandomAccessFile file = new RandomAccessFile(getSegments()[0], "rw");
+		try {
+			int recordSize = 8 + 8 + 3 + STREAM.length() + 8;
+			file.seek(8 + 3 * recordSize - 1);
+			file.write(0x5A);
+		} finally {
+			file.close();
+		}
+
+		journal = open();
+		assertEquals(2, journal.getPendingCount());
+		journal.drain(sender, new SendStatistics());
+		assertEquals(Arrays.<Object>asList(1L, 2L), remote.getValues());
+
+		// New records are appended after the last valid one.
+		journal.appendLong(STREAM, 4);
+		journal.drain(sender, new SendStatistics());
+		assertEquals(Arrays.<Object>asList(1L, 2L, 4L), remote.getValues());
+	}
+
+	@Test
+	public void keepsRecordsUntilUploadSucceeds() throws IOException {
+		journal = open();
+		for (int i = 0; i < 5; i++)
+			journal.appendInteger(STREAM, i);
+
+		remote.setError("Upload failed");
+		assertEquals(0, journal.drain(sender, new SendStatistics()));
+		assertEquals(5, journal.getPendingCount());
+
+		// Still there after a restart.
+		journal.close();
+		journal = open();
+		assertEquals(5, journal.getPendingCount());
+
+		remote.setError(null);
+		assertEquals(5, journal.drain(sender, new SendStatistics()));
+		assertEquals(0, journal.getPendingCount());
+		journal.close();
+		journal = open();
+		assertEquals(0, journal.getPendingCount());
+	}
+
+	@Test
+	public void keepsRecordsWhenResultIsLost() throws Exception {
+		journal = open();
+		journal.appendDouble(STREAM, 1.5);
+		journal.appendBinary(STREAM, new byte[] {1, 2, 3});
+
+		// The process dies while the uploads are in flight.
+		remote.setAutoReply(false);
+		final DataPointJournal drained = journal;
+		Thread drain = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drained.drain(sender, new SendStatistics());
+			}
+		});
+		drain.start();
+		assertTrue(remote.awaitUploads(2, 5000));
+		journal.stopDrain();
+		drain.join(5000);
+		journal.close();
+
+		journal = open();
+		assertEquals(2, journal.getPendingCount());
+	}
+
+	@Test
+	public void sendsBinaryRecordsAlone() throws IOException {
+		journal = open();
+		journal.appendInteger(STREAM, 1);
+		journal.appendBinary(STREAM, new byte[] {1, 2, 3});
+		journal.appendInteger(STREAM, 2);
+
+		assertEquals(3, journal.drain(sender, new SendStatistics()));
+		List<Object> uploads = remote.getUploads();
+		assertEquals(3, uploads.size());
+		assertArrayEquals(new byte[] {1, 2, 3}, ((BinaryDataPoint) uploads.get(1)).getData());
+		assertTrue(((BinaryDataPoint) uploads.get(1)).getTimestamp() > 0);
+	}
+
+	@Test
+	public void deletesDrainedSegments() throws IOException {
+		journal = open();
+		// Each record takes 33 bytes, so they span three segments.
+		for (int i = 0; i < 20; i++)
+			journal.appendInteger(STREAM, i);
+		assertEquals(3, getSegments().length);
+
+		assertEquals(20, journal.drain(sender, new SendStatistics()));
+		assertEquals(1, getSegments().length);
+
+		journal.close();
+		journal = open();
+		assertEquals(0, journal.getPendingCount());
+		journal.appendInteger(STREAM, 20);
+		assertEquals(1, journal.drain(sender, new SendStatistics()));
+	}
+
+	@Test
+	public void rejectsRecordsWhenFull() throws IOException {
+		journal = open();
+		try {
+			for (int i = 0; i < 100; i++)
+				journal.appendInteger(STREAM, i);
+			fail("The journal accepted more records than fit.");
+		} catch (IOException e) {
+			// Expected.
+		}
+		assertEquals(MAX_SEGMENTS, getSegments().length);
+
+		// Draining makes room again.
+		journal.drain(sender, new SendStatistics());
+		journal.appendInteger(STREAM, 100);
+		assertEquals(1, journal.getPendingCount());
+	}
+
+	private DataPointJournal open() throws IOException {
+		return new DataPointJournal(directory, SEGMENT_SIZE, MAX_SEGMENTS);
+	}
+
+	private File[] getSegments() {
+		File[] files = directory.listFiles();
+		return files == null ? new File[0] : files;
+	}
+}
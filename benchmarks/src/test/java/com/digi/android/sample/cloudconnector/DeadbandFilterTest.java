@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link DeadbandFilter}.
+ */
+public class DeadbandFilterTest {
+
+	// Constants.
+	private final static String STREAM = "system/test";
+
+	@Test
+	public void appliesAbsoluteDeadband() {
+		DeadbandFilter filter = new DeadbandFilter();
+		filter.setDeadband(STREAM, 1, false, 0);
+
+		assertTrue(filter.accept(STREAM, 10, 0));
+		assertFalse(filter.accept(STREAM, 10.5, 1));
+		assertFalse(filter.accept(STREAM, 9.5, 2));
+		assertTrue(filter.accept(STREAM, 11.5, 3));
+		// The deadband is around the last value let through.
+		assertFalse(filter.accept(STREAM, 11, 4));
+		assertEquals(3, filter.getSuppressedCount(STREAM));
+	}
+
+	@Test
+	public void appliesPercentageDeadband() {
+		DeadbandFilter filter = new DeadbandFilter();
+		filter.setDeadband(STREAM, 10, true, 0);
+
+		assertTrue(filter.accept(STREAM, 1000, 0));
+		assertFalse(filter.accept(STREAM, 1090, 1));
+		assertTrue(filter.accept(STREAM, 1110, 2));
+		assertFalse(filter.accept(STREAM, 1000, 3));
+	}
+
+	@Test
+	public void forcesValueOnHeartbeat() {
+		DeadbandFilter filter = new DeadbandFilter();
+		filter.setDeadband(STREAM, 1, false, 1000);
+
+		assertTrue(filter.accept(STREAM, 10, 0));
+		assertFalse(filter.accept(STREAM, 10, 999));
+		assertTrue(filter.accept(STREAM, 10, 1000));
+		assertFalse(filter.accept(STREAM, 10, 1500));
+	}
+
+	@Test
+	public void passesStreamsWithoutDeadband() {
+		DeadbandFilter filter = new DeadbandFilter();
+		filter.setDeadband(STREAM, 1, false, 0);
+		filter.remove(STREAM);
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(filter.accept(STREAM, 10, i));
+			assertTrue(filter.accept("system/other", 10, i));
+		}
+		assertEquals(0, filter.getSuppressedCount());
+	}
+
+	@Test
+	public void suppressesUnchangedStrings() {
+		DeadbandFilter filter = new DeadbandFilter();
+		filter.setChangeOnly(STREAM, 1000);
+
+		assertTrue(filter.accept(STREAM, "on", 0));
+		assertFalse(filter.accept(STREAM, new String("on"), 1));
+		assertTrue(filter.accept(STREAM, "off", 2));
+		assertFalse(filter.accept(STREAM, "off", 500));
+		// The heartbeat counts from the last value let through.
+		assertTrue(filter.accept(STREAM, "off", 1002));
+		assertEquals(2, filter.getSuppressedCount(STREAM));
+		assertEquals(2, filter.getSuppressedCount());
+	}
+
+	@Test
+	public void suppressesUnchangedBinaryValues() {
+		DeadbandFilter filter = new DeadbandFilter();
+		filter.setChangeOnly(STREAM, 0);
+		byte[] value = {1, 2, 3};
+
+		assertTrue(filter.accept(STREAM, value, 0));
+		// The filter keeps a copy, so changing the array is a new value.
+		value[2] = 4;
+		assertTrue(filter.accept(STREAM, value, 1));
+		assertFalse(filter.accept(STREAM, new byte[] {1, 2, 4}, 2));
+		// Shorter and longer values are different, even with the same prefix.
+		assertTrue(filter.accept(STREAM, new byte[] {1, 2}, 3));
+		assertTrue(filter.accept(STREAM, new byte[] {1, 2, 4, 5}, 4));
+		assertFalse(filter.accept(STREAM, new byte[] {1, 2, 4, 5}, 5));
+		assertTrue(filter.accept(STREAM, new byte[0], 6));
+		assertFalse(filter.accept(STREAM, new byte[0], Long.MAX_VALUE));
+		assertEquals(3, filter.getSuppressedCount(STREAM));
+	}
+}
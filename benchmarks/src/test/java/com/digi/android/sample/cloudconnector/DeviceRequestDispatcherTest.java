@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.IDeviceRequestListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the concurrency limits of the {@link DeviceRequestDispatcher}.
+ */
+public class DeviceRequestDispatcherTest {
+
+	// Constants.
+	private final static String TARGET = "target";
+	private final static String SLOW_TARGET = "slow";
+
+	private final static String RESPONSE = "OK";
+
+	private final static long TIMEOUT = 100;
+
+	// Variables.
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final CountDownLatch finished = new CountDownLatch(1);
+
+	private DeviceRequestDispatcher dispatcher;
+
+	@Before
+	public void setUp() {
+		dispatcher = new DeviceRequestDispatcher(1, 4);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		dispatcher.close();
+	}
+
+	@Test
+	public void releasesSlotBeforeAnswering() {
+		dispatcher.registerHandler(TARGET, new FixedHandler(), 1, TIMEOUT * 10);
+		// Back to back requests never find the slot taken.
+		for (int i = 0; i < 100; i++)
+			assertEquals(RESPONSE, dispatcher.handleDeviceRequest(TARGET, "data"));
+		assertEquals(0, dispatcher.getShedCount());
+	}
+
+	@Test
+	public void keepsSlotUntilHandlerReturns() throws InterruptedException {
+		dispatcher.registerHandler(TARGET, new StubbornHandler(), 1, TIMEOUT);
+
+		assertEquals(DeviceRequestDispatcher.ERROR_TIMEOUT, dispatcher.handleDeviceRequest(TARGET, "data"));
+		// The handler ignored the interruption and is still running.
+		assertEquals(DeviceRequestDispatcher.ERROR_BUSY, dispatcher.handleDeviceRequest(TARGET, "data"));
+
+		release.countDown();
+		assertTrue(finished.await(1, TimeUnit.SECONDS));
+		// Waits for the slot, which is released right after the handler.
+		assertEquals(RESPONSE, dispatcher.call(TARGET, "data"));
+	}
+
+	@Test
+	public void releasesSlotOfRequestCancelledBeforeRunning() throws InterruptedException {
+		dispatcher.registerHandler(SLOW_TARGET, new StubbornHandler(), 1, TIMEOUT * 50);
+		dispatcher.registerHandler(TARGET, new FixedHandler(), 1, TIMEOUT);
+		Thread slowRequest = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				dispatcher.handleDeviceRequest(SLOW_TARGET, "data");
+			}
+		});
+		slowRequest.start();
+		Thread.sleep(TIMEOUT);
+
+		// The only worker is busy, so the requests time out in the queue.
+		assertEquals(DeviceRequestDispatcher.ERROR_TIMEOUT, dispatcher.handleDeviceRequest(TARGET, "data"));
+		assertEquals(DeviceRequestDispatcher.ERROR_TIMEOUT, dispatcher.handleDeviceRequest(TARGET, "data"));
+
+		release.countDown();
+		slowRequest.join(TIMEOUT * 50);
+		assertEquals(RESPONSE, dispatcher.handleDeviceRequest(TARGET, "data"));
+	}
+
+	/**
+	 * Handler that answers right away.
+	 */
+	private static class FixedHandler implements IDeviceRequestListener {
+		@Override
+		public String handleDeviceRequest(String target, byte[] data) {
+			return RESPONSE;
+		}
+
+		@Override
+		public String handleDeviceRequest(String target, String data) {
+			return RESPONSE;
+		}
+	}
+
+	/**
+	 * Handler that ignores interruptions and answers when released.
+	 */
+	private class StubbornHandler extends FixedHandler {
+		@Override
+		public String handleDeviceRequest(String target, String data) {
+			while (release.getCount() > 0) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					// Keep running, as a handler blocked in native code would.
+				}
+			}
+			finished.countDown();
+			return RESPONSE;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.BinaryDataPoint;
+import com.digi.android.cloudconnector.DataPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sender used by the tests that records the uploads and reports their
+ * result to an {@link AsyncDataPointSender}, either right away or when the
+ * test says so.
+ */
+class RecordingSender implements IDataPointSender {
+
+	// Variables.
+	private final ArrayList<Object> uploads = new ArrayList<>();
+
+	private AsyncDataPointSender target;
+
+	private volatile boolean connected = true;
+
+	private volatile boolean autoReply = true;
+
+	private volatile String error;
+
+	private boolean paused;
+
+	/**
+	 * Sets the sender the results are reported to.
+	 *
+	 * @param target The sender that performs the uploads.
+	 */
+	void attach(AsyncDataPointSender target) {
+		this.target = target;
+	}
+
+	/**
+	 * Sets whether the result of each upload is reported as soon as it is
+	 * sent.
+	 *
+	 * @param autoReply {@code true} to report the results right away,
+	 *                  {@code false} to wait for {@link #reply()}.
+	 */
+	void setAutoReply(boolean autoReply) {
+		this.autoReply = autoReply;
+	}
+
+	/**
+	 * Sets the error of the next results.
+	 *
+	 * @param error The error message, {@code null} for successful uploads.
+	 */
+	void setError(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * Sets whether the uploads are held in the sender thread once recorded,
+	 * so the next ones pile up in the queues.
+	 *
+	 * @param paused {@code true} to hold the uploads, {@code false} to let
+	 *               them go.
+	 */
+	synchronized void setPaused(boolean paused) {
+		this.paused = paused;
+		notifyAll();
+	}
+
+	void setConnected(boolean connected) {
+		this.connected = connected;
+	}
+
+	/**
+	 * Reports the result of the oldest upload in flight.
+	 */
+	void reply() {
+		String currentError = error;
+		if (currentError == null)
+			target.onSendSuccess();
+		else
+			target.onSendError(currentError);
+	}
+
+	/**
+	 * Returns the uploads sent so far: lists of data points and binary data
+	 * points.
+	 *
+	 * @return The uploads, in the order they were sent.
+	 */
+	synchronized List<Object> getUploads() {
+		return new ArrayList<>(uploads);
+	}
+
+	/**
+	 * Returns the data points of the successful list uploads.
+	 *
+	 * @return The values of the data points, in the order they were sent.
+	 */
+	synchronized List<Object> getValues() {
+		ArrayList<Object> values = new ArrayList<>();
+		for (Object upload : uploads) {
+			if (upload instanceof List) {
+				for (Object dataPoint : (List<?>) upload)
+					values.add(((DataPoint) dataPoint).getValue());
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Waits until the given number of uploads have been sent.
+	 *
+	 * @param count The number of uploads.
+	 * @param timeout The maximum time to wait, in milliseconds.
+	 *
+	 * @return {@code true} if they were sent in time.
+	 *
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	synchronized boolean awaitUploads(int count, long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (uploads.size() < count) {
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0)
+				return false;
+			wait(remaining);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isConnected() {
+		return connected;
+	}
+
+	@Override
+	public void sendDataPoints(List<DataPoint> dataPoints) {
+		record(new ArrayList<>(dataPoints));
+	}
+
+	@Override
+	public void sendBinaryDataPoint(BinaryDataPoint dataPoint) {
+		record(dataPoint);
+	}
+
+	private void record(Object upload) {
+		synchronized (this) {
+			uploads.add(upload);
+			notifyAll();
+			try {
+				while (paused)
+					wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (autoReply)
+			reply();
+	}
+}
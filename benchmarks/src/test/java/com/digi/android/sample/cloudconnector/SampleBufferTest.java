@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.DataPoint;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link SampleBuffer}.
+ */
+public class SampleBufferTest {
+
+	@Test
+	public void drainsValuesWithTheirTimestamps() {
+		SampleBuffer buffer = new SampleBuffer("system/test", DataPointJournal.TYPE_DOUBLE, 4);
+		for (int i = 0; i < 3; i++)
+			buffer.addDouble(i * 1.5, 1000 + i);
+
+		ArrayList<DataPoint> dataPoints = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(dataPoints, 2));
+		assertEquals(1, buffer.drainTo(dataPoints, 2));
+		for (int i = 0; i < 3; i++) {
+			assertEquals(i * 1.5, dataPoints.get(i).getValue());
+			assertEquals(1000 + i, dataPoints.get(i).getTimestamp());
+		}
+	}
+
+	@Test
+	public void overwritesOldestSamples() {
+		SampleBuffer buffer = new SampleBuffer("system/test", DataPointJournal.TYPE_INTEGER, 2);
+		for (int i = 0; i < 5; i++)
+			buffer.addInt(i, 1000 + i);
+		assertEquals(1003, buffer.getOldestTimestamp());
+
+		ArrayList<DataPoint> dataPoints = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(dataPoints, 10));
+		assertEquals(3, dataPoints.get(0).getValue());
+		assertEquals(1003, dataPoints.get(0).getTimestamp());
+		assertEquals(4, dataPoints.get(1).getValue());
+		assertEquals(1004, dataPoints.get(1).getTimestamp());
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, Digi International Inc. <support@digi.com>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.digi.android.sample.cloudconnector;
+
+import com.digi.android.cloudconnector.DataPoint;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the summaries of the {@link WindowAggregator}.
+ */
+public class WindowAggregatorTest {
+
+	// Constants.
+	private final static String STREAM = "system/test";
+
+	@Test
+	public void summarizesTumblingWindows() {
+		WindowAggregator aggregator = new WindowAggregator(STREAM, 1000, 1000);
+		aggregator.add(4, 10000);
+		aggregator.add(1, 10300);
+		aggregator.add(7, 10900);
+		aggregator.add(2, 11000);
+
+		ArrayList<DataPoint> summaries = new ArrayList<>();
+		aggregator.drainSummaries(summaries);
+		assertSummary(summaries, 0, 1, 7, 4, 3, 7, 11000);
+
+		aggregator.advance(12000);
+		summaries.clear();
+		aggregator.drainSummaries(summaries);
+		assertSummary(summaries, 0, 2, 2, 2, 1, 2, 12000);
+	}
+
+	@Test
+	public void summarizesSlidingWindows() {
+		WindowAggregator aggregator = new WindowAggregator(STREAM, 3000, 1000);
+		for (int i = 0; i < 4; i++)
+			aggregator.add(i, 10000 + i * 1000);
+		aggregator.advance(14000);
+
+		ArrayList<DataPoint> summaries = new ArrayList<>();
+		aggregator.drainSummaries(summaries);
+		assertEquals(4 * 5, summaries.size());
+		assertSummary(summaries, 0, 0, 0, 0, 1, 0, 11000);
+		assertSummary(summaries, 5, 0, 1, 0.5, 2, 1, 12000);
+		assertSummary(summaries, 10, 0, 2, 1, 3, 2, 13000);
+		// The first sample left the window.
+		assertSummary(summaries, 15, 1, 3, 2, 3, 3, 14000);
+	}
+
+	@Test
+	public void skipsEmptyWindows() {
+		WindowAggregator aggregator = new WindowAggregator(STREAM, 2000, 1000);
+		aggregator.add(5, 10000);
+		// A long gap does not produce empty summaries.
+		aggregator.add(6, 10000 + 24 * 3600 * 1000L);
+
+		ArrayList<DataPoint> summaries = new ArrayList<>();
+		aggregator.drainSummaries(summaries);
+		assertEquals(2 * 5, summaries.size());
+		assertSummary(summaries, 0, 5, 5, 5, 1, 5, 11000);
+		assertSummary(summaries, 5, 5, 5, 5, 1, 5, 12000);
+	}
+
+	@Test
+	public void pipelineUploadsSummariesOfAggregatedStreams() throws InterruptedException {
+		RecordingSender remote = new RecordingSender();
+		AsyncDataPointSender sender = new AsyncDataPointSender(remote, 16,
+				AsyncDataPointSender.BackpressurePolicy.BLOCK, new SendStatistics());
+		remote.attach(sender);
+		DataPointBatcher batcher = new DataPointBatcher(sender, 0, 0);
+		SamplePipeline pipeline = new SamplePipeline(batcher, 60000);
+		try {
+			pipeline.setAggregation(STREAM, 100, 100);
+			for (int i = 0; i < 10; i++)
+				pipeline.addDouble(STREAM, i);
+			pipeline.addDouble("system/raw", 1);
+			Thread.sleep(250);
+			pipeline.flush();
+
+			assertTrue(remote.awaitUploads(2, 5000));
+			ArrayList<String> streams = new ArrayList<>();
+			for (Object upload : remote.getUploads()) {
+				for (Object dataPoint : (List<?>) upload)
+					streams.add(((DataPoint) dataPoint).getDataStream().getName());
+			}
+			assertTrue(streams.contains("system/raw"));
+			assertTrue(streams.contains(STREAM + "/MEAN"));
+			assertFalse(streams.contains(STREAM));
+		} finally {
+			pipeline.close();
+			batcher.close();
+			sender.close();
+		}
+	}
+
+	private static void assertSummary(ArrayList<DataPoint> summaries, int index, double min, double max,
+			double mean, int count, double last, long end) {
+		String[] streams = {"/MIN", "/MAX", "/MEAN", "/COUNT", "/LAST"};
+		Object[] values = {min, max, mean, count, last};
+		for (int i = 0; i < streams.length; i++) {
+			DataPoint summary = summaries.get(index + i);
+			assertEquals(STREAM + streams[i], summary.getDataStream().getName());
+			assertEquals(values[i], summary.getValue());
+			assertEquals(end, summary.getTimestamp());
+		}
+	}
+}